@@ -0,0 +1,130 @@
+package com.eduextra.activity.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.eduextra.activity.dto.ActivityRequestDTO;
+import com.eduextra.activity.dto.ActivityResponseDTO;
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.service.ActivityService;
+import com.eduextra.common.dto.PagedResponseDTO;
+import com.eduextra.common.web.ETags;
+import com.eduextra.exception.ErrorResponse;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for managing extracurricular activities.
+ *
+ * Security: All endpoints require JWT Bearer authentication.
+ */
+@RestController
+@RequestMapping("/activities")
+@Tag(name = "Activity Management", description = "Operations related to activities")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class ActivityController {
+
+    private final ActivityService activityService;
+
+    @Operation(
+        summary = "Create an activity",
+        description = "Creates an activity with its weekly time slot, term dates and capacity. New activities are DRAFT unless a status is given.",
+        tags = {"Activity Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Activity created successfully"),
+            @ApiResponse(responseCode = "400", description = "Validation error", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @PostMapping
+    public ResponseEntity<ActivityResponseDTO> createActivity(@Valid @RequestBody ActivityRequestDTO request) {
+        return ETags.ok(activityService.createActivity(request), ActivityResponseDTO::getVersion);
+    }
+
+    @Operation(
+        summary = "Get activity by ID",
+        description = "Retrieves an activity, including the seats still available.",
+        tags = {"Activity Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Activity found"),
+            @ApiResponse(responseCode = "404", description = "Activity not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @GetMapping("/{id}")
+    public ResponseEntity<ActivityResponseDTO> getActivityById(@PathVariable Long id) {
+        return ETags.ok(activityService.getActivityById(id), ActivityResponseDTO::getVersion);
+    }
+
+    @Operation(
+        summary = "Get activities with pagination",
+        description = "Retrieves a paginated list of activities, optionally filtered by status and category.",
+        tags = {"Activity Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Activities retrieved successfully")
+        }
+    )
+    @GetMapping
+    public ResponseEntity<PagedResponseDTO<ActivityResponseDTO>> getActivities(
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort field") @RequestParam(defaultValue = "id") String sortBy,
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Filter by status") @RequestParam(required = false) ActivityStatus status,
+            @Parameter(description = "Filter by category") @RequestParam(required = false) String category) {
+        return ResponseEntity.ok(activityService.getActivities(page, size, sortBy, sortDir, status, category));
+    }
+
+    @Operation(
+        summary = "Update an activity",
+        description = "Updates an activity. Capacity cannot be lowered below the seats already taken. Send the ETag from a previous read in If-Match to avoid overwriting concurrent changes.",
+        tags = {"Activity Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Activity updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Validation error", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Activity not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "412", description = "Activity was modified since the given ETag", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @PutMapping("/{id}")
+    public ResponseEntity<ActivityResponseDTO> updateActivity(@PathVariable Long id,
+            @Parameter(description = "ETag of the activity as last read by the client")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody ActivityRequestDTO request) {
+        ActivityResponseDTO activity = activityService.updateActivity(id, request, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(activity, ActivityResponseDTO::getVersion);
+    }
+
+    @Operation(
+        summary = "Cancel an activity",
+        description = "Marks an activity as cancelled. No further enrollments are accepted.",
+        tags = {"Activity Management"},
+        responses = {
+            @ApiResponse(responseCode = "204", description = "Activity cancelled"),
+            @ApiResponse(responseCode = "404", description = "Activity not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @PatchMapping("/{id}/cancel")
+    public ResponseEntity<Void> cancelActivity(@PathVariable Long id) {
+        activityService.cancelActivity(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.eduextra.activity.controller;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.eduextra.activity.dto.ActivitySearchCriteria;
+import com.eduextra.activity.dto.ActivitySearchResponseDTO;
+import com.eduextra.activity.model.AgeGroup;
+import com.eduextra.activity.model.TimeOfDay;
+import com.eduextra.activity.service.ActivitySearchIndex;
+import com.eduextra.exception.ErrorResponse;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for faceted catalog search. Answers come from an in-memory index, not
+ * from the database.
+ *
+ * Security: All endpoints require JWT Bearer authentication.
+ */
+@RestController
+@RequestMapping("/activities/search")
+@Tag(name = "Activity Search", description = "Faceted catalog search")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class ActivitySearchController {
+
+    private final ActivitySearchIndex activitySearchIndex;
+
+    @Operation(
+        summary = "Search the catalog",
+        description = "Open and closed activities that have not ended, filtered by any combination of facets, by name. Repeat a parameter to select several values of a facet. Each facet comes with the number of activities per value given the other filters.",
+        tags = {"Activity Search"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Search results and facet counts"),
+            @ApiResponse(responseCode = "400", description = "Invalid page, page size or time range",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @GetMapping
+    public ResponseEntity<ActivitySearchResponseDTO> search(
+            @Parameter(description = "Categories") @RequestParam(required = false) List<String> category,
+            @Parameter(description = "Weekdays") @RequestParam(required = false) List<DayOfWeek> dayOfWeek,
+            @Parameter(description = "Age groups") @RequestParam(required = false) List<AgeGroup> ageGroup,
+            @Parameter(description = "Part of the day the activity starts in") @RequestParam(required = false) List<TimeOfDay> timeOfDay,
+            @Parameter(description = "Monitors") @RequestParam(required = false) List<Long> monitorId,
+            @Parameter(description = "Only activities with (true) or without (false) free seats") @RequestParam(required = false) Boolean freeSeats,
+            @Parameter(description = "Earliest start time", example = "16:00") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime from,
+            @Parameter(description = "Latest end time", example = "19:00") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime to,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (1-100)") @RequestParam(defaultValue = "20") int size) {
+        ActivitySearchCriteria criteria = ActivitySearchCriteria.builder()
+                .categories(category)
+                .days(dayOfWeek)
+                .ageGroups(ageGroup)
+                .timesOfDay(timeOfDay)
+                .monitorIds(monitorId)
+                .freeSeats(freeSeats)
+                .from(from)
+                .to(to)
+                .page(page)
+                .size(size)
+                .build();
+        return ResponseEntity.ok(activitySearchIndex.search(criteria));
+    }
+}
@@ -0,0 +1,60 @@
+package com.eduextra.activity.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.model.AgeGroup;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ActivityRequestDTO {
+
+    @NotBlank(message = "Name is required")
+    @Size(min = 3, max = 120, message = "Name must be between 3 and 120 characters")
+    private String name;
+
+    @Size(max = 2000, message = "Description must be at most 2000 characters")
+    private String description;
+
+    @NotBlank(message = "Category is required")
+    @Size(max = 60, message = "Category must be at most 60 characters")
+    private String category;
+
+    @NotNull(message = "Age group is required")
+    private AgeGroup ageGroup;
+
+    private String room;
+
+    private Long monitorId;
+
+    @NotNull(message = "Day of week is required")
+    private DayOfWeek dayOfWeek;
+
+    @NotNull(message = "Start time is required")
+    private LocalTime startTime;
+
+    @NotNull(message = "End time is required")
+    private LocalTime endTime;
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+
+    @NotNull(message = "Capacity is required")
+    @Min(value = 1, message = "Capacity must be at least 1")
+    @Max(value = 10000, message = "Capacity must be at most 10000")
+    private Integer capacity;
+
+    // DRAFT when omitted
+    private ActivityStatus status;
+}
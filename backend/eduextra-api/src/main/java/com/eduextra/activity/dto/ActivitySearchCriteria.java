@@ -0,0 +1,38 @@
+package com.eduextra.activity.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+import com.eduextra.activity.model.AgeGroup;
+import com.eduextra.activity.model.TimeOfDay;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filters of a catalog search. Values within a facet are alternatives (OR); facets are
+ * combined with AND. Null or empty lists mean no filter.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivitySearchCriteria {
+
+    private List<String> categories;
+    private List<DayOfWeek> days;
+    private List<AgeGroup> ageGroups;
+    private List<TimeOfDay> timesOfDay;
+    private List<Long> monitorIds;
+    private Boolean freeSeats;
+
+    // Only activities held entirely between these times
+    private LocalTime from;
+    private LocalTime to;
+
+    private int page;
+    private int size;
+}
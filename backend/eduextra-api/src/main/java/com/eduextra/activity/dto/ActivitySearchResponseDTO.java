@@ -0,0 +1,29 @@
+package com.eduextra.activity.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.eduextra.common.dto.PagedResponseDTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for catalog search results with facet counts
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Catalog search results and facet counts")
+public class ActivitySearchResponseDTO {
+
+    @Schema(description = "Matching activities, by name")
+    private PagedResponseDTO<ActivityResponseDTO> results;
+
+    @Schema(description = "Counts per facet (category, dayOfWeek, ageGroup, timeOfDay, monitorId, freeSeats). Each facet's counts apply every filter except its own, so they show what selecting another value would give.")
+    private Map<String, List<FacetCountDTO>> facets;
+}
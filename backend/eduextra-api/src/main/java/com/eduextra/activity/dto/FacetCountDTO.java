@@ -0,0 +1,27 @@
+package com.eduextra.activity.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one value of a search facet
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Search facet value with its number of matching activities")
+public class FacetCountDTO {
+
+    @Schema(description = "Facet value", example = "MONDAY")
+    private String value;
+
+    @Schema(description = "Activities matching the other filters and this value", example = "12")
+    private long count;
+
+    @Schema(description = "Whether this value is currently selected", example = "false")
+    private boolean selected;
+}
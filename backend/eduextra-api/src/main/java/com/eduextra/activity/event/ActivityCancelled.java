@@ -0,0 +1,8 @@
+package com.eduextra.activity.event;
+
+/**
+ * Outbox event published, alongside ActivityChanged, when an activity moves to CANCELLED
+ * from any other status. Saving an already cancelled activity again does not publish it.
+ */
+public record ActivityCancelled(Long activityId) {
+}
@@ -0,0 +1,9 @@
+package com.eduextra.activity.event;
+
+import com.eduextra.activity.model.ActivityStatus;
+
+/**
+ * Outbox event published when an activity is created or its details, capacity or status change.
+ */
+public record ActivityChanged(Long activityId, ActivityStatus status) {
+}
@@ -0,0 +1,8 @@
+package com.eduextra.activity.event;
+
+/**
+ * Outbox event published, alongside ActivityChanged, when an activity that is not a draft
+ * moves to another day, time, room or date range.
+ */
+public record ActivityRescheduled(Long activityId) {
+}
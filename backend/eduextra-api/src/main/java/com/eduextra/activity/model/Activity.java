@@ -0,0 +1,113 @@
+package com.eduextra.activity.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.hibernate.annotations.DynamicUpdate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Extracurricular activity held once a week in a fixed time slot between startDate and endDate.
+ *
+ * capacity and seatsTaken are only changed through the conditional updates in ActivityRepository,
+ * never by saving the entity, so admin edits cannot overwrite or undercut concurrent enrollments.
+ */
+@Entity
+@Data
+@DynamicUpdate
+@Table(name = "activities", indexes = {
+    @Index(name = "idx_activities_status", columnList = "status"),
+    @Index(name = "idx_activities_monitor_id", columnList = "monitor_id")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Activity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(length = 2000)
+    private String description;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AgeGroup ageGroup;
+
+    private String room;
+
+    // User with Role.MONITOR in charge of the activity
+    private Long monitorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DayOfWeek dayOfWeek;
+
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @Column(nullable = false)
+    private LocalTime endTime;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    @Column(nullable = false)
+    private LocalDate endDate;
+
+    @Column(nullable = false, updatable = false)
+    private Integer capacity;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private Integer seatsTaken = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private ActivityStatus status = ActivityStatus.DRAFT;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,8 @@
+package com.eduextra.activity.model;
+
+public enum ActivityStatus {
+    DRAFT,
+    OPEN,
+    CLOSED,
+    CANCELLED
+}
@@ -0,0 +1,8 @@
+package com.eduextra.activity.model;
+
+public enum AgeGroup {
+    CHILDREN,
+    TEENS,
+    ADULTS,
+    ALL_AGES
+}
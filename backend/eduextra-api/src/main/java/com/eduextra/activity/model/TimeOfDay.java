@@ -0,0 +1,19 @@
+package com.eduextra.activity.model;
+
+import java.time.LocalTime;
+
+/**
+ * Part of the day an activity starts in, used as a search facet.
+ */
+public enum TimeOfDay {
+    MORNING,
+    AFTERNOON,
+    EVENING;
+
+    public static TimeOfDay of(LocalTime startTime) {
+        if (startTime.isBefore(LocalTime.NOON)) {
+            return MORNING;
+        }
+        return startTime.isBefore(LocalTime.of(17, 0)) ? AFTERNOON : EVENING;
+    }
+}
@@ -0,0 +1,15 @@
+package com.eduextra.activity.repository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.model.AgeGroup;
+
+/**
+ * What students see of an activity in listings, read without loading the whole entity.
+ */
+public record ActivityCatalogEntry(Long id, String name, String category, AgeGroup ageGroup, DayOfWeek dayOfWeek,
+        LocalTime startTime, LocalTime endTime, LocalDate endDate, ActivityStatus status) {
+}
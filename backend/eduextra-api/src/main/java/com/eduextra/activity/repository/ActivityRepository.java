@@ -0,0 +1,106 @@
+package com.eduextra.activity.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.activity.model.Activity;
+import com.eduextra.activity.model.ActivityStatus;
+
+@Repository
+public interface ActivityRepository extends JpaRepository<Activity, Long> {
+
+    // Buscar actividades por estado
+    Page<Activity> findByStatus(ActivityStatus status, Pageable pageable);
+
+    // Buscar actividades por categoría
+    Page<Activity> findByCategoryIgnoreCase(String category, Pageable pageable);
+
+    // Buscar actividades por estado y categoría
+    Page<Activity> findByStatusAndCategoryIgnoreCase(ActivityStatus status, String category, Pageable pageable);
+
+    // Contadores de plazas sin cargar la entidad
+    @Query("SELECT new com.eduextra.activity.repository.ActivitySeats(a.id, a.capacity, a.seatsTaken, a.status) "
+            + "FROM Activity a WHERE a.id = :id")
+    Optional<ActivitySeats> findSeatsById(@Param("id") Long id);
+
+    // Contadores de plazas de varias actividades
+    @Query("SELECT new com.eduextra.activity.repository.ActivitySeats(a.id, a.capacity, a.seatsTaken, a.status) "
+            + "FROM Activity a WHERE a.id IN :ids")
+    List<ActivitySeats> findSeatsByIds(@Param("ids") Collection<Long> ids);
+
+    // Franja horaria de una actividad
+    @Query("SELECT new com.eduextra.activity.repository.ActivitySlot(a.id, a.dayOfWeek, a.startTime, a.endTime, "
+            + "a.startDate, a.endDate, a.room, a.monitorId, a.status) FROM Activity a WHERE a.id = :id")
+    Optional<ActivitySlot> findSlotById(@Param("id") Long id);
+
+    // Franjas horarias de todas las actividades no canceladas
+    @Query("SELECT new com.eduextra.activity.repository.ActivitySlot(a.id, a.dayOfWeek, a.startTime, a.endTime, "
+            + "a.startDate, a.endDate, a.room, a.monitorId, a.status) FROM Activity a "
+            + "WHERE a.status <> com.eduextra.activity.model.ActivityStatus.CANCELLED")
+    List<ActivitySlot> findActiveSlots();
+
+    // Franjas horarias de varias actividades
+    @Query("SELECT new com.eduextra.activity.repository.ActivitySlot(a.id, a.dayOfWeek, a.startTime, a.endTime, "
+            + "a.startDate, a.endDate, a.room, a.monitorId, a.status) FROM Activity a WHERE a.id IN :ids")
+    List<ActivitySlot> findSlotsByIds(@Param("ids") Collection<Long> ids);
+
+    // Datos de catálogo de todas las actividades no canceladas
+    @Query("SELECT new com.eduextra.activity.repository.ActivityCatalogEntry(a.id, a.name, a.category, a.ageGroup, "
+            + "a.dayOfWeek, a.startTime, a.endTime, a.endDate, a.status) FROM Activity a "
+            + "WHERE a.status <> com.eduextra.activity.model.ActivityStatus.CANCELLED")
+    List<ActivityCatalogEntry> findCatalogEntries();
+
+    // Actividades visibles en el catálogo público: abiertas o cerradas y sin terminar
+    @Query("SELECT a FROM Activity a WHERE a.status IN (com.eduextra.activity.model.ActivityStatus.OPEN, "
+            + "com.eduextra.activity.model.ActivityStatus.CLOSED) AND a.endDate >= :today ORDER BY a.name, a.id")
+    List<Activity> findPublicCatalog(@Param("today") LocalDate today);
+
+    // Ocupa una plaza solo si queda alguna libre y la actividad está abierta; devuelve 0 si no
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Activity a SET a.seatsTaken = a.seatsTaken + 1 "
+            + "WHERE a.id = :id AND a.seatsTaken < a.capacity "
+            + "AND a.status = com.eduextra.activity.model.ActivityStatus.OPEN")
+    int reserveSeat(@Param("id") Long id);
+
+    // Ocupa varias plazas de una vez (promociones desde la lista de espera); devuelve 0 si no caben
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Activity a SET a.seatsTaken = a.seatsTaken + :seats "
+            + "WHERE a.id = :id AND a.seatsTaken + :seats <= a.capacity "
+            + "AND a.status = com.eduextra.activity.model.ActivityStatus.OPEN")
+    int reserveSeats(@Param("id") Long id, @Param("seats") int seats);
+
+    // Libera plazas sin dejar el contador por debajo de cero
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Activity a SET a.seatsTaken = a.seatsTaken - :seats "
+            + "WHERE a.id = :id AND a.seatsTaken >= :seats")
+    int releaseSeats(@Param("id") Long id, @Param("seats") int seats);
+
+    // Cambia la capacidad solo si no queda por debajo de las plazas ocupadas
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Activity a SET a.capacity = :capacity WHERE a.id = :id AND a.seatsTaken <= :capacity")
+    int updateCapacity(@Param("id") Long id, @Param("capacity") int capacity);
+
+    // Cierra las actividades de una ronda de asignación a la inscripción por orden de llegada
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Activity a SET a.status = com.eduextra.activity.model.ActivityStatus.CLOSED, a.version = a.version + 1 "
+            + "WHERE a.id IN :ids AND a.status <> com.eduextra.activity.model.ActivityStatus.CANCELLED")
+    int closeForAllocation(@Param("ids") Collection<Long> ids);
+
+    // Ocupa las plazas asignadas por sorteo y abre la actividad; devuelve 0 si no caben o fue cancelada
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Activity a SET a.seatsTaken = a.seatsTaken + :seats, "
+            + "a.status = com.eduextra.activity.model.ActivityStatus.OPEN, a.version = a.version + 1 "
+            + "WHERE a.id = :id AND a.seatsTaken + :seats <= a.capacity "
+            + "AND a.status <> com.eduextra.activity.model.ActivityStatus.CANCELLED")
+    int allocateSeats(@Param("id") Long id, @Param("seats") int seats);
+}
@@ -0,0 +1,13 @@
+package com.eduextra.activity.repository;
+
+import com.eduextra.activity.model.ActivityStatus;
+
+/**
+ * Seat counters of an activity, read without loading the whole entity.
+ */
+public record ActivitySeats(Long id, int capacity, int seatsTaken, ActivityStatus status) {
+
+    public int remaining() {
+        return Math.max(0, capacity - seatsTaken);
+    }
+}
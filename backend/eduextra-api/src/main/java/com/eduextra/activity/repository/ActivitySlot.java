@@ -0,0 +1,54 @@
+package com.eduextra.activity.repository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Objects;
+
+import com.eduextra.activity.model.Activity;
+import com.eduextra.activity.model.ActivityStatus;
+
+/**
+ * Weekly time slot of an activity, read without loading the whole entity.
+ *
+ * The slot is placed on a minute-of-week axis (Monday 00:00 = 0) so two activities overlap
+ * when their minute ranges intersect and their term dates intersect too.
+ */
+public record ActivitySlot(Long id, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime,
+        LocalDate startDate, LocalDate endDate, String room, Long monitorId, ActivityStatus status) {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    public static ActivitySlot of(Activity activity) {
+        return new ActivitySlot(activity.getId(), activity.getDayOfWeek(), activity.getStartTime(), activity.getEndTime(),
+                activity.getStartDate(), activity.getEndDate(), activity.getRoom(), activity.getMonitorId(), activity.getStatus());
+    }
+
+    public int weekStart() {
+        return (dayOfWeek.getValue() - 1) * MINUTES_PER_DAY + startTime.getHour() * 60 + startTime.getMinute();
+    }
+
+    public int weekEnd() {
+        return (dayOfWeek.getValue() - 1) * MINUTES_PER_DAY + endTime.getHour() * 60 + endTime.getMinute();
+    }
+
+    public boolean sameTerm(ActivitySlot other) {
+        return !startDate.isAfter(other.endDate) && !other.startDate.isAfter(endDate);
+    }
+
+    public boolean overlaps(ActivitySlot other) {
+        return weekStart() < other.weekEnd() && other.weekStart() < weekEnd() && sameTerm(other);
+    }
+
+    /**
+     * Whether students would find the activity at the same day, time, room and dates.
+     */
+    public boolean sameSchedule(ActivitySlot other) {
+        return dayOfWeek == other.dayOfWeek && startTime.equals(other.startTime) && endTime.equals(other.endTime)
+                && startDate.equals(other.startDate) && endDate.equals(other.endDate) && Objects.equals(room, other.room);
+    }
+
+    public boolean cancelled() {
+        return status == ActivityStatus.CANCELLED;
+    }
+}
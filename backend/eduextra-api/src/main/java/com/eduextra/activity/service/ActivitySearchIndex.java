@@ -0,0 +1,365 @@
+package com.eduextra.activity.service;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eduextra.activity.dto.ActivityResponseDTO;
+import com.eduextra.activity.dto.ActivitySearchCriteria;
+import com.eduextra.activity.dto.ActivitySearchResponseDTO;
+import com.eduextra.activity.dto.FacetCountDTO;
+import com.eduextra.activity.model.Activity;
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.model.TimeOfDay;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.common.dto.PagedResponseDTO;
+import com.eduextra.exception.ValidationException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * In-memory faceted search over the activity catalog (open and closed activities that have
+ * not ended).
+ *
+ * Every activity gets a slot, and every facet value (a category, a weekday, a monitor...)
+ * a bitset of the slots that have it. A search ORs the selected values of each facet, ANDs
+ * the facets together, and counts each facet's values against the other facets' filters
+ * with popcounts over the same words, so nothing depends on how filters are combined.
+ * Pages are read off a name-ordered list of slots.
+ *
+ * The index is loaded on startup and nightly (to drop activities that ended), and each
+ * activity is re-read when an activity, enrollment, waitlist or allocation event touches it,
+ * so free seats follow enrollments made on any node within one outbox tail poll.
+ *
+ * Metrics: activity.search, activity.search.indexed.
+ */
+@Service
+public class ActivitySearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivitySearchIndex.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ActivityRepository activityRepository;
+    private final Timer searchTimer;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Same order as selections(criteria)
+    private final List<Facet<?>> facets = List.of(
+            new Facet<>("category", ActivityResponseDTO::getCategory),
+            new Facet<>("dayOfWeek", ActivityResponseDTO::getDayOfWeek),
+            new Facet<>("ageGroup", ActivityResponseDTO::getAgeGroup),
+            new Facet<>("timeOfDay", activity -> TimeOfDay.of(activity.getStartTime())),
+            new Facet<>("monitorId", ActivityResponseDTO::getMonitorId),
+            new Facet<>("freeSeats", activity -> activity.getSeatsAvailable() > 0));
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private ActivityResponseDTO[] slots = new ActivityResponseDTO[0];
+    private long[] live = new long[0];
+    // Occupied slots by activity name
+    private int[] order = new int[0];
+
+    public ActivitySearchIndex(ActivityRepository activityRepository, MeterRegistry meterRegistry) {
+        this.activityRepository = activityRepository;
+        this.searchTimer = Timer.builder("activity.search").description("Time to answer a faceted catalog search").register(meterRegistry);
+        Gauge.builder("activity.search.indexed", this, s -> s.order.length)
+                .description("Activities in the catalog search index").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${application.activity-search.rebuild-cron:0 5 0 * * *}")
+    public void rebuild() {
+        List<Activity> activities = activityRepository.findPublicCatalog(LocalDate.now());
+        lock.writeLock().lock();
+        try {
+            slotById.clear();
+            freeSlots.clear();
+            slots = new ActivityResponseDTO[0];
+            live = new long[0];
+            facets.forEach(facet -> facet.bits.clear());
+            for (Activity activity : activities) {
+                put(ActivityService.mapToResponseDTO(activity));
+            }
+            order = sortedSlots();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Activity search index loaded with {} activities", activities.size());
+    }
+
+    /**
+     * Re-reads one activity and adds, updates or drops it.
+     */
+    public void activityChanged(Long activityId) {
+        ActivityResponseDTO activity = activityRepository.findById(activityId)
+                .filter(this::listed)
+                .map(ActivityService::mapToResponseDTO)
+                .orElse(null);
+        lock.writeLock().lock();
+        try {
+            ActivityResponseDTO previous = remove(activityId);
+            if (activity != null) {
+                put(activity);
+            }
+            if (activity == null || previous == null || !previous.getName().equals(activity.getName())) {
+                order = sortedSlots();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ActivitySearchResponseDTO search(ActivitySearchCriteria criteria) {
+        if (criteria.getPage() < 0) {
+            throw new ValidationException("Page cannot be negative");
+        }
+        if (criteria.getSize() < 1 || criteria.getSize() > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (criteria.getFrom() != null && criteria.getTo() != null && !criteria.getTo().isAfter(criteria.getFrom())) {
+            throw new ValidationException("End of the time range must be after its start");
+        }
+        return searchTimer.record(() -> {
+            lock.readLock().lock();
+            try {
+                return searchLocked(criteria);
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    private ActivitySearchResponseDTO searchLocked(ActivitySearchCriteria criteria) {
+        List<Collection<?>> selections = selections(criteria);
+
+        long[] base = live.clone();
+        if (criteria.getFrom() != null || criteria.getTo() != null) {
+            for (int slot : order) {
+                ActivityResponseDTO activity = slots[slot];
+                if ((criteria.getFrom() != null && activity.getStartTime().isBefore(criteria.getFrom()))
+                        || (criteria.getTo() != null && activity.getEndTime().isAfter(criteria.getTo()))) {
+                    base[slot >>> 6] &= ~(1L << slot);
+                }
+            }
+        }
+        long[][] selected = new long[facets.size()][];
+        for (int f = 0; f < facets.size(); f++) {
+            selected[f] = facets.get(f).union(selections.get(f), base.length);
+        }
+
+        long[] matches = base.clone();
+        Map<String, List<FacetCountDTO>> counts = new LinkedHashMap<>();
+        for (int f = 0; f < facets.size(); f++) {
+            // Every filter but this facet's own
+            long[] others = base.clone();
+            for (int g = 0; g < facets.size(); g++) {
+                if (g != f && selected[g] != null) {
+                    and(others, selected[g]);
+                }
+            }
+            counts.put(facets.get(f).name, facets.get(f).counts(others, selections.get(f)));
+            if (selected[f] != null) {
+                and(matches, selected[f]);
+            }
+        }
+
+        int total = 0;
+        for (long word : matches) {
+            total += Long.bitCount(word);
+        }
+        int page = criteria.getPage();
+        int size = criteria.getSize();
+        long skip = (long) page * size;
+        List<ActivityResponseDTO> content = new ArrayList<>(size);
+        for (int k = 0; k < order.length && content.size() < size; k++) {
+            int slot = order[k];
+            if ((matches[slot >>> 6] & (1L << slot)) != 0 && skip-- <= 0) {
+                content.add(slots[slot]);
+            }
+        }
+        int totalPages = (total + size - 1) / size;
+        PagedResponseDTO<ActivityResponseDTO> results = PagedResponseDTO.<ActivityResponseDTO>builder()
+                .content(content)
+                .page(page)
+                .size(size)
+                .totalElements(total)
+                .totalPages(totalPages)
+                .first(page == 0)
+                .last(page >= totalPages - 1)
+                .hasNext(page < totalPages - 1)
+                .hasPrevious(page > 0)
+                .build();
+        return ActivitySearchResponseDTO.builder().results(results).facets(counts).build();
+    }
+
+    private List<Collection<?>> selections(ActivitySearchCriteria criteria) {
+        return Arrays.asList(
+                criteria.getCategories(),
+                criteria.getDays(),
+                criteria.getAgeGroups(),
+                criteria.getTimesOfDay(),
+                criteria.getMonitorIds(),
+                criteria.getFreeSeats() == null ? null : List.of(criteria.getFreeSeats()));
+    }
+
+    private boolean listed(Activity activity) {
+        return (activity.getStatus() == ActivityStatus.OPEN || activity.getStatus() == ActivityStatus.CLOSED)
+                && !activity.getEndDate().isBefore(LocalDate.now());
+    }
+
+    // Callers hold the write lock
+    private void put(ActivityResponseDTO activity) {
+        Integer free = freeSlots.poll();
+        int slot;
+        if (free != null) {
+            slot = free;
+        } else {
+            slot = slotById.size();
+            if (slot == slots.length) {
+                int capacity = Math.max(64, slots.length * 2);
+                slots = Arrays.copyOf(slots, capacity);
+                live = Arrays.copyOf(live, capacity / 64);
+                facets.forEach(facet -> facet.grow(capacity / 64));
+            }
+        }
+        slotById.put(activity.getId(), slot);
+        slots[slot] = activity;
+        live[slot >>> 6] |= 1L << slot;
+        for (Facet<?> facet : facets) {
+            facet.add(activity, slot, live.length);
+        }
+    }
+
+    // Callers hold the write lock
+    private ActivityResponseDTO remove(Long activityId) {
+        Integer slot = slotById.remove(activityId);
+        if (slot == null) {
+            return null;
+        }
+        ActivityResponseDTO activity = slots[slot];
+        for (Facet<?> facet : facets) {
+            facet.remove(activity, slot);
+        }
+        slots[slot] = null;
+        live[slot >>> 6] &= ~(1L << slot);
+        freeSlots.add(slot);
+        return activity;
+    }
+
+    private int[] sortedSlots() {
+        return slotById.values().stream()
+                .sorted(Comparator.comparing((Integer slot) -> slots[slot].getName(), String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(slot -> slots[slot].getId()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static void and(long[] target, long[] other) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] &= other[w];
+        }
+    }
+
+    /**
+     * One facet: a bitset of slots per value, in the values' natural order.
+     */
+    private static final class Facet<K extends Comparable<K>> {
+
+        private final String name;
+        private final Function<ActivityResponseDTO, K> key;
+        private final Map<K, long[]> bits = new TreeMap<>();
+
+        Facet(String name, Function<ActivityResponseDTO, K> key) {
+            this.name = name;
+            this.key = key;
+        }
+
+        void add(ActivityResponseDTO activity, int slot, int words) {
+            K value = key.apply(activity);
+            if (value != null) {
+                bits.computeIfAbsent(value, v -> new long[words])[slot >>> 6] |= 1L << slot;
+            }
+        }
+
+        void remove(ActivityResponseDTO activity, int slot) {
+            K value = key.apply(activity);
+            long[] set = value == null ? null : bits.get(value);
+            if (set == null) {
+                return;
+            }
+            set[slot >>> 6] &= ~(1L << slot);
+            if (Arrays.stream(set).allMatch(word -> word == 0)) {
+                bits.remove(value);
+            }
+        }
+
+        void grow(int words) {
+            bits.replaceAll((value, set) -> Arrays.copyOf(set, words));
+        }
+
+        /**
+         * Slots having any of the selected values, or null when nothing is selected.
+         */
+        long[] union(Collection<?> selection, int words) {
+            if (selection == null || selection.isEmpty()) {
+                return null;
+            }
+            long[] union = new long[words];
+            for (Object value : selection) {
+                long[] set = bits.get(value);
+                if (set != null) {
+                    for (int w = 0; w < words; w++) {
+                        union[w] |= set[w];
+                    }
+                }
+            }
+            return union;
+        }
+
+        /**
+         * Matches per value within the mask. Values without matches are left out unless selected.
+         */
+        List<FacetCountDTO> counts(long[] mask, Collection<?> selection) {
+            List<FacetCountDTO> counts = new ArrayList<>();
+            for (Map.Entry<K, long[]> entry : bits.entrySet()) {
+                long[] set = entry.getValue();
+                long count = 0;
+                for (int w = 0; w < mask.length; w++) {
+                    count += Long.bitCount(mask[w] & set[w]);
+                }
+                boolean selected = selection != null && selection.contains(entry.getKey());
+                if (count > 0 || selected) {
+                    counts.add(new FacetCountDTO(String.valueOf(entry.getKey()), count, selected));
+                }
+            }
+            if (selection != null) {
+                for (Object value : selection) {
+                    if (!bits.containsKey(value)) {
+                        counts.add(new FacetCountDTO(String.valueOf(value), 0, true));
+                    }
+                }
+            }
+            return counts;
+        }
+    }
+}
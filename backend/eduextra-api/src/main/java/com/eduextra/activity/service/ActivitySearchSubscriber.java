@@ -0,0 +1,62 @@
+package com.eduextra.activity.service;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import com.eduextra.activity.event.ActivityChanged;
+import com.eduextra.allocation.event.SeatsAllocated;
+import com.eduextra.enrollment.event.EnrollmentCreated;
+import com.eduextra.enrollment.event.EnrollmentWithdrawn;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.outbox.service.OutboxBroadcastSubscriber;
+import com.eduextra.waitlist.event.WaitlistPromoted;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Re-reads an activity in this node's search index whenever its details or its free seats
+ * change on any node.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActivitySearchSubscriber implements OutboxBroadcastSubscriber {
+
+    private static final Map<String, Class<?>> EVENT_TYPES = Stream.of(ActivityChanged.class, EnrollmentCreated.class,
+            EnrollmentWithdrawn.class, WaitlistPromoted.class, SeatsAllocated.class)
+            .collect(Collectors.toMap(Class::getSimpleName, type -> type));
+
+    private final OutboxService outboxService;
+    private final ActivitySearchIndex activitySearchIndex;
+
+    @Override
+    public boolean supports(String eventType) {
+        return EVENT_TYPES.containsKey(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Object payload = outboxService.readPayload(event, EVENT_TYPES.get(event.getEventType()));
+        Long activityId;
+        if (payload instanceof ActivityChanged changed) {
+            activityId = changed.activityId();
+        } else if (payload instanceof EnrollmentCreated created) {
+            activityId = created.activityId();
+        } else if (payload instanceof EnrollmentWithdrawn withdrawn) {
+            activityId = withdrawn.activityId();
+        } else if (payload instanceof WaitlistPromoted promoted) {
+            activityId = promoted.activityId();
+        } else {
+            activityId = ((SeatsAllocated) payload).activityId();
+        }
+        activitySearchIndex.activityChanged(activityId);
+    }
+
+    @Override
+    public void reload() {
+        activitySearchIndex.rebuild();
+    }
+}
@@ -0,0 +1,210 @@
+package com.eduextra.activity.service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.eduextra.activity.dto.ActivityRequestDTO;
+import com.eduextra.activity.dto.ActivityResponseDTO;
+import com.eduextra.activity.event.ActivityCancelled;
+import com.eduextra.activity.event.ActivityChanged;
+import com.eduextra.activity.event.ActivityRescheduled;
+import com.eduextra.activity.model.Activity;
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.activity.repository.ActivitySlot;
+import com.eduextra.common.dto.PagedResponseDTO;
+import com.eduextra.enrollment.service.SeatReservationService;
+import com.eduextra.exception.ActivityNotFoundException;
+import com.eduextra.exception.PreconditionFailedException;
+import com.eduextra.exception.ValidationException;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.schedule.service.ScheduleIndex;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class ActivityService {
+
+    public static final String AGGREGATE_TYPE = "Activity";
+
+    private final ActivityRepository activityRepository;
+    private final SeatReservationService seatReservationService;
+    private final OutboxService outboxService;
+    private final ScheduleIndex scheduleIndex;
+
+    @Transactional
+    public ActivityResponseDTO createActivity(ActivityRequestDTO request) {
+        validateSchedule(request);
+        Activity activity = Activity.builder()
+                .capacity(request.getCapacity())
+                .status(request.getStatus() != null ? request.getStatus() : ActivityStatus.DRAFT)
+                .build();
+        applyDetails(activity, request);
+        // The monitor and the room cannot be in two activities at once; checked from memory only
+        scheduleIndex.checkActivity(ActivitySlot.of(activity));
+        activityRepository.saveAndFlush(activity);
+        scheduleIndex.activityChanged(ActivitySlot.of(activity));
+        outboxService.append(AGGREGATE_TYPE, activity.getId(), new ActivityChanged(activity.getId(), activity.getStatus()));
+        return mapToResponseDTO(activity);
+    }
+
+    public ActivityResponseDTO getActivityById(Long id) {
+        return mapToResponseDTO(findActivity(id));
+    }
+
+    public PagedResponseDTO<ActivityResponseDTO> getActivities(int page, int size, String sortBy, String sortDir,
+            ActivityStatus status, String category) {
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+            Sort.by(sortBy).descending() :
+            Sort.by(sortBy).ascending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+        boolean hasCategory = category != null && !category.trim().isEmpty();
+
+        Page<Activity> activityPage;
+        if (status != null && hasCategory) {
+            activityPage = activityRepository.findByStatusAndCategoryIgnoreCase(status, category.trim(), pageable);
+        } else if (status != null) {
+            activityPage = activityRepository.findByStatus(status, pageable);
+        } else if (hasCategory) {
+            activityPage = activityRepository.findByCategoryIgnoreCase(category.trim(), pageable);
+        } else {
+            activityPage = activityRepository.findAll(pageable);
+        }
+
+        List<ActivityResponseDTO> content = activityPage.getContent().stream()
+                .map(ActivityService::mapToResponseDTO)
+                .collect(Collectors.toList());
+
+        return PagedResponseDTO.<ActivityResponseDTO>builder()
+                .content(content)
+                .page(activityPage.getNumber())
+                .size(activityPage.getSize())
+                .totalElements(activityPage.getTotalElements())
+                .totalPages(activityPage.getTotalPages())
+                .first(activityPage.isFirst())
+                .last(activityPage.isLast())
+                .hasNext(activityPage.hasNext())
+                .hasPrevious(activityPage.hasPrevious())
+                .build();
+    }
+
+    /**
+     * Full update. Capacity goes through a conditional update so it can never drop below
+     * the seats already taken, even while students are enrolling.
+     */
+    @Transactional
+    public ActivityResponseDTO updateActivity(Long id, ActivityRequestDTO request, Long expectedVersion) {
+        validateSchedule(request);
+        Activity activity = findActivity(id);
+        if (expectedVersion != null && !expectedVersion.equals(activity.getVersion())) {
+            throw new PreconditionFailedException("Activity has been modified by another request");
+        }
+        boolean seatsChanged = request.getStatus() != null && request.getStatus() != activity.getStatus();
+        boolean wasCancelled = activity.getStatus() == ActivityStatus.CANCELLED;
+        ActivitySlot before = ActivitySlot.of(activity);
+        applyDetails(activity, request);
+        if (request.getStatus() != null) {
+            activity.setStatus(request.getStatus());
+        }
+        ActivitySlot slot = ActivitySlot.of(activity);
+        scheduleIndex.checkActivity(slot);
+        activityRepository.saveAndFlush(activity);
+        scheduleIndex.activityChanged(slot);
+
+        if (!Objects.equals(request.getCapacity(), activity.getCapacity())) {
+            if (activityRepository.updateCapacity(id, request.getCapacity()) == 0) {
+                throw new ValidationException("Capacity cannot be lower than the seats already taken");
+            }
+            seatsChanged = true;
+        }
+        if (seatsChanged) {
+            seatReservationService.invalidate(id);
+        }
+        outboxService.append(AGGREGATE_TYPE, id, new ActivityChanged(id, activity.getStatus()));
+        if (!wasCancelled && activity.getStatus() == ActivityStatus.CANCELLED) {
+            outboxService.append(AGGREGATE_TYPE, id, new ActivityCancelled(id));
+        }
+        if (!slot.sameSchedule(before) && activity.getStatus() != ActivityStatus.DRAFT) {
+            outboxService.append(AGGREGATE_TYPE, id, new ActivityRescheduled(id));
+        }
+        return mapToResponseDTO(findActivity(id));
+    }
+
+    /**
+     * Cancels an activity. Enrollments are kept so students can be notified. Cancelling it
+     * again changes nothing and notifies no one.
+     */
+    @Transactional
+    public void cancelActivity(Long id) {
+        Activity activity = findActivity(id);
+        if (activity.getStatus() == ActivityStatus.CANCELLED) {
+            return;
+        }
+        activity.setStatus(ActivityStatus.CANCELLED);
+        activityRepository.saveAndFlush(activity);
+        seatReservationService.invalidate(id);
+        scheduleIndex.activityChanged(ActivitySlot.of(activity));
+        outboxService.append(AGGREGATE_TYPE, id, new ActivityChanged(id, ActivityStatus.CANCELLED));
+        outboxService.append(AGGREGATE_TYPE, id, new ActivityCancelled(id));
+    }
+
+    private Activity findActivity(Long id) {
+        return activityRepository.findById(id).orElseThrow(() -> new ActivityNotFoundException("Activity not found"));
+    }
+
+    private void applyDetails(Activity activity, ActivityRequestDTO request) {
+        activity.setName(request.getName().trim());
+        activity.setDescription(request.getDescription());
+        activity.setCategory(request.getCategory().trim());
+        activity.setAgeGroup(request.getAgeGroup());
+        activity.setRoom(request.getRoom());
+        activity.setMonitorId(request.getMonitorId());
+        activity.setDayOfWeek(request.getDayOfWeek());
+        activity.setStartTime(request.getStartTime());
+        activity.setEndTime(request.getEndTime());
+        activity.setStartDate(request.getStartDate());
+        activity.setEndDate(request.getEndDate());
+    }
+
+    private void validateSchedule(ActivityRequestDTO request) {
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            throw new ValidationException("End time must be after start time");
+        }
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new ValidationException("End date cannot be before start date");
+        }
+    }
+
+    public static ActivityResponseDTO mapToResponseDTO(Activity activity) {
+        return ActivityResponseDTO.builder()
+                .id(activity.getId())
+                .name(activity.getName())
+                .description(activity.getDescription())
+                .category(activity.getCategory())
+                .ageGroup(activity.getAgeGroup())
+                .room(activity.getRoom())
+                .monitorId(activity.getMonitorId())
+                .dayOfWeek(activity.getDayOfWeek())
+                .startTime(activity.getStartTime())
+                .endTime(activity.getEndTime())
+                .startDate(activity.getStartDate())
+                .endDate(activity.getEndDate())
+                .capacity(activity.getCapacity())
+                .seatsTaken(activity.getSeatsTaken())
+                .seatsAvailable(Math.max(0, activity.getCapacity() - activity.getSeatsTaken()))
+                .status(activity.getStatus())
+                .createdAt(activity.getCreatedAt())
+                .updatedAt(activity.getUpdatedAt())
+                .version(activity.getVersion())
+                .build();
+    }
+}
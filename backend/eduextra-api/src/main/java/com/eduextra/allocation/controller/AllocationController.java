@@ -0,0 +1,129 @@
+package com.eduextra.allocation.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import com.eduextra.allocation.dto.AllocationResultDTO;
+import com.eduextra.allocation.dto.AllocationRoundRequestDTO;
+import com.eduextra.allocation.dto.AllocationRoundResponseDTO;
+import com.eduextra.allocation.dto.PreferencesRequestDTO;
+import com.eduextra.allocation.dto.PreferencesResponseDTO;
+import com.eduextra.allocation.service.AllocationService;
+import com.eduextra.exception.ErrorResponse;
+import com.eduextra.user.model.User;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for preference-based allocation rounds.
+ *
+ * Security: All endpoints require JWT Bearer authentication. Rounds are managed by ADMIN
+ * and COORDINATOR users; students submit their own preferences.
+ */
+@RestController
+@RequestMapping("/allocation-rounds")
+@Tag(name = "Allocation Rounds", description = "Lottery-based registration for oversubscribed activities")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class AllocationController {
+
+    private final AllocationService allocationService;
+
+    @Operation(
+        summary = "Create an allocation round",
+        description = "Opens a preference window for a set of activities. The activities are closed to first-come enrollment until the round is allocated.",
+        tags = {"Allocation Rounds"},
+        responses = {
+            @ApiResponse(responseCode = "201", description = "Round created"),
+            @ApiResponse(responseCode = "400", description = "Invalid window or activities", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Activity not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @PostMapping
+    public ResponseEntity<AllocationRoundResponseDTO> createRound(@Valid @RequestBody AllocationRoundRequestDTO request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(allocationService.createRound(request));
+    }
+
+    @Operation(
+        summary = "Get an allocation round",
+        description = "Returns the round and, once allocated, its satisfaction histogram.",
+        tags = {"Allocation Rounds"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Round retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Round not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @GetMapping("/{id}")
+    public ResponseEntity<AllocationRoundResponseDTO> getRound(@PathVariable Long id) {
+        return ResponseEntity.ok(allocationService.getRound(id));
+    }
+
+    @Operation(
+        summary = "Submit my preferences",
+        description = "Replaces the authenticated student's ranking of the round's activities, favourite first. Can be changed until the window closes.",
+        tags = {"Allocation Rounds"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Preferences saved"),
+            @ApiResponse(responseCode = "400", description = "Invalid ranking", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Round not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "Window closed or user is not a student", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PutMapping("/{id}/preferences/me")
+    public ResponseEntity<PreferencesResponseDTO> submitPreferences(@PathVariable Long id,
+            @Valid @RequestBody PreferencesRequestDTO request, @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(allocationService.submitPreferences(id, user.getId(), user.getRole(), request));
+    }
+
+    @Operation(
+        summary = "Get my preferences",
+        description = "Returns the authenticated student's ranking in the round.",
+        tags = {"Allocation Rounds"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Preferences retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Round not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @GetMapping("/{id}/preferences/me")
+    public ResponseEntity<PreferencesResponseDTO> getPreferences(@PathVariable Long id, @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(allocationService.getPreferences(id, user.getId()));
+    }
+
+    @Operation(
+        summary = "Allocate a round",
+        description = "Runs the lottery now instead of waiting for the scheduled run. With dryRun the outcome is only reported; the same seed always gives the same outcome.",
+        tags = {"Allocation Rounds"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Round allocated"),
+            @ApiResponse(responseCode = "404", description = "Round not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "Window still open or round already allocated", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @PostMapping("/{id}/allocate")
+    public ResponseEntity<AllocationResultDTO> allocate(@PathVariable Long id,
+            @Parameter(description = "Only report the outcome") @RequestParam(defaultValue = "false") boolean dryRun) {
+        return ResponseEntity.ok(allocationService.allocate(id, dryRun));
+    }
+}
@@ -0,0 +1,35 @@
+package com.eduextra.allocation.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of an allocation round")
+public class AllocationResultDTO {
+
+    @Schema(description = "Students who submitted preferences", example = "10000")
+    private int participants;
+
+    @Schema(description = "Seats given out", example = "9350")
+    private int seatsAllocated;
+
+    @Schema(description = "Satisfaction histogram: seats given per preference rank, first choice first", example = "[7120, 1630, 600]")
+    private List<Integer> seatsByChoice;
+
+    @Schema(description = "Students who got no seat at all", example = "650")
+    private int studentsWithoutSeat;
+
+    @Schema(description = "Time spent matching, in milliseconds", example = "420")
+    private long durationMs;
+
+    @Schema(description = "Whether this was a dry run that wrote nothing", example = "false")
+    private boolean dryRun;
+}
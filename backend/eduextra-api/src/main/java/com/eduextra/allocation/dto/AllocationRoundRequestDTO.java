@@ -0,0 +1,41 @@
+package com.eduextra.allocation.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class AllocationRoundRequestDTO {
+
+    @NotBlank(message = "Name is required")
+    @Size(min = 3, max = 120, message = "Name must be between 3 and 120 characters")
+    private String name;
+
+    @NotNull(message = "Opening time is required")
+    private LocalDateTime opensAt;
+
+    @NotNull(message = "Closing time is required")
+    private LocalDateTime closesAt;
+
+    @NotEmpty(message = "At least one activity is required")
+    @Size(max = 1000, message = "A round can have at most 1000 activities")
+    private List<Long> activityIds;
+
+    @Min(value = 1, message = "Students must be able to rank between 1 and 20 activities")
+    @Max(value = 20, message = "Students must be able to rank between 1 and 20 activities")
+    private Integer maxChoices;
+
+    @Min(value = 1, message = "Students can get between 1 and 10 activities per round")
+    @Max(value = 10, message = "Students can get between 1 and 10 activities per round")
+    private Integer maxActivitiesPerStudent;
+
+    // Random when not given; the same seed always gives the same allocation
+    private Long seed;
+}
@@ -0,0 +1,56 @@
+package com.eduextra.allocation.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.eduextra.allocation.model.AllocationRoundStatus;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Preference-based registration round")
+public class AllocationRoundResponseDTO {
+
+    @Schema(description = "Round's unique identifier", example = "1")
+    private Long id;
+
+    @Schema(description = "Round name", example = "Actividades de otoño")
+    private String name;
+
+    @Schema(description = "When students can start submitting preferences")
+    private LocalDateTime opensAt;
+
+    @Schema(description = "When the window closes and the lottery runs")
+    private LocalDateTime closesAt;
+
+    @Schema(description = "Activities allocated by this round")
+    private List<Long> activityIds;
+
+    @Schema(description = "Activities a student can rank", example = "5")
+    private Integer maxChoices;
+
+    @Schema(description = "Activities a student can get", example = "1")
+    private Integer maxActivitiesPerStudent;
+
+    @Schema(description = "Lottery seed", example = "20260901")
+    private Long seed;
+
+    @Schema(description = "Round status")
+    private AllocationRoundStatus status;
+
+    @Schema(description = "When the round was created")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "When the seats were allocated")
+    private LocalDateTime allocatedAt;
+
+    @Schema(description = "Allocation outcome, once the round has been allocated")
+    private AllocationResultDTO result;
+}
@@ -0,0 +1,14 @@
+package com.eduextra.allocation.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+@Data
+public class PreferencesRequestDTO {
+
+    // Favourite first
+    @NotEmpty(message = "At least one activity is required")
+    private List<Long> activityIds;
+}
@@ -0,0 +1,26 @@
+package com.eduextra.allocation.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A student's ranked activity preferences in an allocation round")
+public class PreferencesResponseDTO {
+
+    @Schema(description = "Allocation round id", example = "1")
+    private Long roundId;
+
+    @Schema(description = "Student id", example = "42")
+    private Long studentId;
+
+    @Schema(description = "Activity ids, favourite first")
+    private List<Long> activityIds;
+}
@@ -0,0 +1,9 @@
+package com.eduextra.allocation.event;
+
+import java.util.List;
+
+/**
+ * Outbox event published per activity when an allocation round gives out its seats.
+ */
+public record SeatsAllocated(Long roundId, Long activityId, List<Long> studentIds) {
+}
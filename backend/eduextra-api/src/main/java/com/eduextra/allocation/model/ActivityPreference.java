@@ -0,0 +1,44 @@
+package com.eduextra.allocation.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One ranked choice of a student in an allocation round (rank 1 is the favourite).
+ */
+@Entity
+@Data
+@Table(name = "activity_preferences", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_activity_preferences_round_student_activity", columnNames = {"round_id", "student_id", "activity_id"})
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityPreference {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long roundId;
+
+    @Column(nullable = false)
+    private Long studentId;
+
+    @Column(nullable = false)
+    private Long activityId;
+
+    // "rank" is a reserved word in several databases
+    @Column(name = "choice_rank", nullable = false)
+    private Integer rank;
+}
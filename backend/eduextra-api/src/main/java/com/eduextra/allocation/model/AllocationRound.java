@@ -0,0 +1,95 @@
+package com.eduextra.allocation.model;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Preference-based registration round. While the window is open students rank the round's
+ * activities; once it closes a seeded lottery allocates the seats in one batch. The round's
+ * activities stay closed to first-come enrollment until then.
+ */
+@Entity
+@Data
+@Table(name = "allocation_rounds", indexes = {
+    @Index(name = "idx_allocation_rounds_status_closes_at", columnList = "status, closes_at")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationRound {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime opensAt;
+
+    @Column(nullable = false)
+    private LocalDateTime closesAt;
+
+    @Builder.Default
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "allocation_round_activities", joinColumns = @JoinColumn(name = "round_id"))
+    @Column(name = "activity_id", nullable = false)
+    private Set<Long> activityIds = new LinkedHashSet<>();
+
+    @Column(nullable = false)
+    private Integer maxChoices;
+
+    @Column(nullable = false)
+    private Integer maxActivitiesPerStudent;
+
+    @Column(nullable = false)
+    private Long seed;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private AllocationRoundStatus status = AllocationRoundStatus.OPEN;
+
+    private LocalDateTime createdAt;
+
+    // Result of the allocation, filled in once it has run
+
+    private LocalDateTime allocatedAt;
+
+    private Integer participants;
+
+    private Integer seatsAllocated;
+
+    private Integer studentsWithoutSeat;
+
+    // Seats given per preference rank, comma separated: first choice, second choice...
+    private String seatsByChoice;
+
+    private Long durationMs;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,7 @@
+package com.eduextra.allocation.model;
+
+public enum AllocationRoundStatus {
+    OPEN,
+    ALLOCATING,
+    ALLOCATED
+}
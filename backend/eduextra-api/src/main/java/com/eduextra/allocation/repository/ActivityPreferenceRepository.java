@@ -0,0 +1,28 @@
+package com.eduextra.allocation.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.allocation.model.ActivityPreference;
+
+@Repository
+public interface ActivityPreferenceRepository extends JpaRepository<ActivityPreference, Long> {
+
+    // Preferencias de un estudiante en una ronda, de la favorita a la última
+    List<ActivityPreference> findByRoundIdAndStudentIdOrderByRankAsc(Long roundId, Long studentId);
+
+    // Todas las preferencias de una ronda, agrupadas por estudiante y en orden
+    @Query("SELECT new com.eduextra.allocation.repository.PreferenceChoice(p.studentId, p.activityId, p.rank) "
+            + "FROM ActivityPreference p WHERE p.roundId = :roundId ORDER BY p.studentId, p.rank")
+    List<PreferenceChoice> findChoicesByRoundId(@Param("roundId") Long roundId);
+
+    // Borra las preferencias de un estudiante antes de guardar las nuevas
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ActivityPreference p WHERE p.roundId = :roundId AND p.studentId = :studentId")
+    int deleteByRoundIdAndStudentId(@Param("roundId") Long roundId, @Param("studentId") Long studentId);
+}
@@ -0,0 +1,27 @@
+package com.eduextra.allocation.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.allocation.model.AllocationRound;
+import com.eduextra.allocation.model.AllocationRoundStatus;
+
+@Repository
+public interface AllocationRoundRepository extends JpaRepository<AllocationRound, Long> {
+
+    // Ids de rondas abiertas cuyo plazo ya terminó
+    @Query("SELECT r.id FROM AllocationRound r WHERE r.status = com.eduextra.allocation.model.AllocationRoundStatus.OPEN "
+            + "AND r.closesAt <= :now ORDER BY r.closesAt")
+    List<Long> findIdsDueForAllocation(@Param("now") LocalDateTime now);
+
+    // Cambia el estado solo si sigue en el esperado; devuelve 0 si otro nodo se adelantó
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AllocationRound r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") AllocationRoundStatus from, @Param("to") AllocationRoundStatus to);
+}
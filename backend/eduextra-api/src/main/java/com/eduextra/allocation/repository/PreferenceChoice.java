@@ -0,0 +1,7 @@
+package com.eduextra.allocation.repository;
+
+/**
+ * A student's ranked choice, read without loading the whole entity.
+ */
+public record PreferenceChoice(Long studentId, Long activityId, int rank) {
+}
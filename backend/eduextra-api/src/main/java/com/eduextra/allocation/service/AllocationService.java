@@ -0,0 +1,521 @@
+package com.eduextra.allocation.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.activity.event.ActivityChanged;
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.activity.repository.ActivitySeats;
+import com.eduextra.activity.repository.ActivitySlot;
+import com.eduextra.activity.service.ActivityService;
+import com.eduextra.allocation.dto.AllocationResultDTO;
+import com.eduextra.allocation.dto.AllocationRoundRequestDTO;
+import com.eduextra.allocation.dto.AllocationRoundResponseDTO;
+import com.eduextra.allocation.dto.PreferencesRequestDTO;
+import com.eduextra.allocation.dto.PreferencesResponseDTO;
+import com.eduextra.allocation.event.SeatsAllocated;
+import com.eduextra.allocation.model.ActivityPreference;
+import com.eduextra.allocation.model.AllocationRound;
+import com.eduextra.allocation.model.AllocationRoundStatus;
+import com.eduextra.allocation.repository.ActivityPreferenceRepository;
+import com.eduextra.allocation.repository.AllocationRoundRepository;
+import com.eduextra.allocation.repository.PreferenceChoice;
+import com.eduextra.enrollment.model.Enrollment;
+import com.eduextra.enrollment.model.EnrollmentStatus;
+import com.eduextra.enrollment.repository.EnrollmentRepository;
+import com.eduextra.enrollment.service.SeatReservationService;
+import com.eduextra.exception.ActivityNotFoundException;
+import com.eduextra.exception.AllocationRoundNotFoundException;
+import com.eduextra.exception.EnrollmentNotAllowedException;
+import com.eduextra.exception.ValidationException;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.schedule.service.ScheduleIndex;
+import com.eduextra.user.model.Role;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Preference-based registration rounds, an alternative to first-come enrollment for
+ * oversubscribed activities.
+ *
+ * Creating a round closes its activities to first-come enrollment. Students rank them while
+ * the window is open; when it closes the round is allocated in one batch: preferences are
+ * loaded in a single query, the lottery runs in memory (see LotteryAllocator), and the
+ * result is written in one transaction with JDBC batch inserts and one seat update per
+ * activity, which also reopens the activities for their leftover seats.
+ *
+ * Metrics: allocation.matching, allocation.seats.
+ */
+@Service
+public class AllocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(AllocationService.class);
+
+    private static final String INSERT_SQL = "insert into enrollments (activity_id, student_id, status, enrolled_at) "
+            + "values (?, ?, 'ACTIVE', ?)";
+
+    private final AllocationRoundRepository roundRepository;
+    private final ActivityPreferenceRepository preferenceRepository;
+    private final ActivityRepository activityRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final SeatReservationService seatReservationService;
+    private final ScheduleIndex scheduleIndex;
+    private final OutboxService outboxService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ForkJoinPool pool;
+    private final LotteryAllocator allocator;
+    private final Timer matchingTimer;
+    private final Counter seatsAllocated;
+
+    @Value("${application.allocation.insert-batch-size:1000}")
+    private int insertBatchSize;
+
+    public AllocationService(AllocationRoundRepository roundRepository, ActivityPreferenceRepository preferenceRepository,
+            ActivityRepository activityRepository, EnrollmentRepository enrollmentRepository,
+            SeatReservationService seatReservationService, ScheduleIndex scheduleIndex, OutboxService outboxService,
+            JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+            @Value("${application.allocation.parallelism:0}") int parallelism) {
+        this.roundRepository = roundRepository;
+        this.preferenceRepository = preferenceRepository;
+        this.activityRepository = activityRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.seatReservationService = seatReservationService;
+        this.scheduleIndex = scheduleIndex;
+        this.outboxService = outboxService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        // 0 uses every core; the pool is only busy while a round is being matched
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.allocator = new LotteryAllocator(pool);
+        this.matchingTimer = Timer.builder("allocation.matching").description("Time to match one allocation round").register(meterRegistry);
+        this.seatsAllocated = Counter.builder("allocation.seats").description("Seats given out by allocation rounds").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Transactional
+    public AllocationRoundResponseDTO createRound(AllocationRoundRequestDTO request) {
+        if (!request.getClosesAt().isAfter(request.getOpensAt())) {
+            throw new ValidationException("Closing time must be after opening time");
+        }
+        Set<Long> activityIds = new LinkedHashSet<>(request.getActivityIds());
+        List<ActivitySeats> seats = activityRepository.findSeatsByIds(activityIds);
+        if (seats.size() != activityIds.size()) {
+            throw new ActivityNotFoundException("Activity not found");
+        }
+        if (seats.stream().anyMatch(s -> s.status() == ActivityStatus.CANCELLED)) {
+            throw new ValidationException("Cancelled activities cannot be allocated");
+        }
+
+        AllocationRound round = roundRepository.save(AllocationRound.builder()
+                .name(request.getName().trim())
+                .opensAt(request.getOpensAt())
+                .closesAt(request.getClosesAt())
+                .activityIds(activityIds)
+                .maxChoices(request.getMaxChoices() != null ? request.getMaxChoices() : 5)
+                .maxActivitiesPerStudent(request.getMaxActivitiesPerStudent() != null ? request.getMaxActivitiesPerStudent() : 1)
+                .seed(request.getSeed() != null ? request.getSeed() : ThreadLocalRandom.current().nextLong())
+                .build());
+
+        // Seats of these activities are handed out by the lottery, not by the fastest request
+        activityRepository.closeForAllocation(activityIds);
+        for (Long activityId : activityIds) {
+            seatReservationService.invalidate(activityId);
+            outboxService.append(ActivityService.AGGREGATE_TYPE, activityId, new ActivityChanged(activityId, ActivityStatus.CLOSED));
+        }
+        return mapToResponseDTO(round);
+    }
+
+    public AllocationRoundResponseDTO getRound(Long id) {
+        return mapToResponseDTO(findRound(id));
+    }
+
+    /**
+     * Replaces the student's ranking in the round. Can be changed as often as needed until the window closes.
+     */
+    @Transactional
+    public PreferencesResponseDTO submitPreferences(Long roundId, Long studentId, Role role, PreferencesRequestDTO request) {
+        if (role != Role.STUDENT) {
+            throw new EnrollmentNotAllowedException("Only students can submit preferences");
+        }
+        AllocationRound round = findRound(roundId);
+        LocalDateTime now = LocalDateTime.now();
+        if (round.getStatus() != AllocationRoundStatus.OPEN || now.isBefore(round.getOpensAt()) || !now.isBefore(round.getClosesAt())) {
+            throw new EnrollmentNotAllowedException("The registration window of this round is closed");
+        }
+        List<Long> activityIds = request.getActivityIds();
+        if (new HashSet<>(activityIds).size() != activityIds.size()) {
+            throw new ValidationException("Each activity can only be ranked once");
+        }
+        if (activityIds.size() > round.getMaxChoices()) {
+            throw new ValidationException("At most " + round.getMaxChoices() + " activities can be ranked");
+        }
+        if (!round.getActivityIds().containsAll(activityIds)) {
+            throw new ValidationException("Only activities of this round can be ranked");
+        }
+
+        preferenceRepository.deleteByRoundIdAndStudentId(roundId, studentId);
+        List<ActivityPreference> preferences = new ArrayList<>();
+        for (int i = 0; i < activityIds.size(); i++) {
+            preferences.add(ActivityPreference.builder()
+                    .roundId(roundId)
+                    .studentId(studentId)
+                    .activityId(activityIds.get(i))
+                    .rank(i + 1)
+                    .build());
+        }
+        preferenceRepository.saveAll(preferences);
+        return PreferencesResponseDTO.builder()
+                .roundId(roundId)
+                .studentId(studentId)
+                .activityIds(activityIds)
+                .build();
+    }
+
+    public PreferencesResponseDTO getPreferences(Long roundId, Long studentId) {
+        findRound(roundId);
+        List<Long> activityIds = preferenceRepository.findByRoundIdAndStudentIdOrderByRankAsc(roundId, studentId).stream()
+                .map(ActivityPreference::getActivityId)
+                .collect(Collectors.toList());
+        return PreferencesResponseDTO.builder()
+                .roundId(roundId)
+                .studentId(studentId)
+                .activityIds(activityIds)
+                .build();
+    }
+
+    /**
+     * Allocates rounds whose window has closed. Several nodes may run this at once; the
+     * OPEN -> ALLOCATING transition lets only one of them allocate each round.
+     */
+    @Scheduled(fixedDelayString = "${application.allocation.poll-interval-ms:60000}")
+    public void allocateDueRounds() {
+        for (Long roundId : roundRepository.findIdsDueForAllocation(LocalDateTime.now())) {
+            try {
+                allocate(roundId, false);
+            } catch (EnrollmentNotAllowedException e) {
+                // Taken by another node
+            } catch (RuntimeException e) {
+                log.warn("Allocation of round {} failed: {}", roundId, e.toString());
+            }
+        }
+    }
+
+    /**
+     * Runs the lottery. A dry run only reports the outcome; since the draw depends only on the
+     * seed, it matches what the real run will do if preferences and seats do not change.
+     */
+    public AllocationResultDTO allocate(Long roundId, boolean dryRun) {
+        AllocationRound round = findRound(roundId);
+        if (!dryRun) {
+            if (round.getStatus() != AllocationRoundStatus.OPEN) {
+                throw new EnrollmentNotAllowedException("Round has already been allocated");
+            }
+            if (LocalDateTime.now().isBefore(round.getClosesAt())) {
+                throw new EnrollmentNotAllowedException("The registration window of this round is still open");
+            }
+            Integer claimed = transactionTemplate.execute(status ->
+                    roundRepository.transition(roundId, AllocationRoundStatus.OPEN, AllocationRoundStatus.ALLOCATING));
+            if (claimed == null || claimed == 0) {
+                throw new EnrollmentNotAllowedException("Round is already being allocated");
+            }
+        }
+        try {
+            Plan plan = plan(round);
+            if (!dryRun) {
+                transactionTemplate.executeWithoutResult(status -> write(round, plan));
+                log.info("Allocated round {}: {} seats for {} students in {} ms", roundId,
+                        plan.result().getSeatsAllocated(), plan.result().getParticipants(), plan.result().getDurationMs());
+            }
+            plan.result().setDryRun(dryRun);
+            return plan.result();
+        } catch (RuntimeException e) {
+            if (!dryRun) {
+                // Back to OPEN so the next pass retries with fresh seats
+                transactionTemplate.execute(status ->
+                        roundRepository.transition(roundId, AllocationRoundStatus.ALLOCATING, AllocationRoundStatus.OPEN));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Loads the round in a handful of queries and runs the lottery in memory.
+     */
+    private Plan plan(AllocationRound round) {
+        List<Long> activityIds = new ArrayList<>(round.getActivityIds());
+        Map<Long, Integer> activityIndex = new HashMap<>();
+        for (int i = 0; i < activityIds.size(); i++) {
+            activityIndex.put(activityIds.get(i), i);
+        }
+        Map<Long, ActivitySeats> seats = activityRepository.findSeatsByIds(activityIds).stream()
+                .collect(Collectors.toMap(ActivitySeats::id, s -> s));
+        Map<Long, ActivitySlot> slots = activityRepository.findSlotsByIds(activityIds).stream()
+                .collect(Collectors.toMap(ActivitySlot::id, s -> s));
+
+        int activities = activityIds.size();
+        int[] capacity = new int[activities];
+        Set<Long> skipped = new HashSet<>();
+        for (int a = 0; a < activities; a++) {
+            ActivitySeats seat = seats.get(activityIds.get(a));
+            if (seat == null || seat.status() == ActivityStatus.CANCELLED) {
+                skipped.add(activityIds.get(a));
+            } else {
+                capacity[a] = seat.remaining();
+            }
+        }
+        BitSet[] overlaps = new BitSet[activities];
+        for (int a = 0; a < activities; a++) {
+            overlaps[a] = new BitSet(activities);
+        }
+        for (int a = 0; a < activities; a++) {
+            for (int b = a + 1; b < activities; b++) {
+                ActivitySlot first = slots.get(activityIds.get(a));
+                ActivitySlot second = slots.get(activityIds.get(b));
+                if (first != null && second != null && first.overlaps(second)) {
+                    overlaps[a].set(b);
+                    overlaps[b].set(a);
+                }
+            }
+        }
+
+        // Students already enrolled keep their seat; withdrawn ones are reactivated if they win
+        Set<Long> active = new HashSet<>();
+        Set<Long> withdrawn = new HashSet<>();
+        for (Enrollment enrollment : enrollmentRepository.findByActivityIdIn(activityIds)) {
+            long key = pairKey(activityIndex.get(enrollment.getActivityId()), enrollment.getStudentId());
+            (enrollment.getStatus() == EnrollmentStatus.ACTIVE ? active : withdrawn).add(key);
+        }
+
+        Map<Long, List<PreferenceChoice>> byStudent = preferenceRepository.findChoicesByRoundId(round.getId()).stream()
+                .collect(Collectors.groupingBy(PreferenceChoice::studentId, LinkedHashMap::new, Collectors.toList()));
+        List<Long> studentIds = new ArrayList<>(byStudent.keySet());
+        int students = studentIds.size();
+        int[][] choices = new int[students][];
+        int[][] ranks = new int[students][];
+        for (int s = 0; s < students; s++) {
+            Long studentId = studentIds.get(s);
+            List<PreferenceChoice> ranked = byStudent.get(studentId);
+            int[] chosen = new int[ranked.size()];
+            int[] chosenRanks = new int[ranked.size()];
+            int count = 0;
+            for (PreferenceChoice choice : ranked) {
+                Integer a = activityIndex.get(choice.activityId());
+                if (a == null || skipped.contains(choice.activityId()) || active.contains(pairKey(a, studentId))
+                        // Activities clashing with what the student is already enrolled in elsewhere
+                        || scheduleIndex.overlapsStudentSchedule(studentId, choice.activityId())) {
+                    continue;
+                }
+                chosen[count] = a;
+                chosenRanks[count++] = choice.rank();
+            }
+            choices[s] = Arrays.copyOf(chosen, count);
+            ranks[s] = Arrays.copyOf(chosenRanks, count);
+        }
+
+        int[] draw = draw(studentIds, round.getSeed());
+        LotteryAllocator.Problem problem = new LotteryAllocator.Problem(choices, ranks, capacity, draw, overlaps,
+                round.getMaxActivitiesPerStudent());
+        long started = System.nanoTime();
+        LotteryAllocator.Outcome outcome = matchingTimer.record(() -> allocator.allocate(problem));
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+
+        Integer[] seatsByChoice = new Integer[round.getMaxChoices()];
+        Arrays.fill(seatsByChoice, 0);
+        int allocated = 0;
+        int withoutSeat = 0;
+        for (int s = 0; s < students; s++) {
+            if (outcome.activities()[s].length == 0) {
+                withoutSeat++;
+            }
+            for (int rank : outcome.ranks()[s]) {
+                seatsByChoice[rank - 1]++;
+                allocated++;
+            }
+        }
+        AllocationResultDTO result = AllocationResultDTO.builder()
+                .participants(students)
+                .seatsAllocated(allocated)
+                .seatsByChoice(Arrays.asList(seatsByChoice))
+                .studentsWithoutSeat(withoutSeat)
+                .durationMs(durationMs)
+                .build();
+        return new Plan(activityIds, studentIds, outcome, withdrawn, skipped, result);
+    }
+
+    /**
+     * Writes the outcome in the current transaction: batched inserts for new enrollments, one
+     * bulk reactivation and one seat update per activity.
+     */
+    private void write(AllocationRound round, Plan plan) {
+        LocalDateTime now = LocalDateTime.now();
+        List<List<Long>> winners = new ArrayList<>();
+        plan.activityIds().forEach(id -> winners.add(new ArrayList<>()));
+        List<long[]> inserts = new ArrayList<>();
+        Map<Integer, List<Long>> reactivations = new HashMap<>();
+        for (int s = 0; s < plan.studentIds().size(); s++) {
+            Long studentId = plan.studentIds().get(s);
+            for (int a : plan.outcome().activities()[s]) {
+                winners.get(a).add(studentId);
+                if (plan.withdrawn().contains(pairKey(a, studentId))) {
+                    reactivations.computeIfAbsent(a, k -> new ArrayList<>()).add(studentId);
+                } else {
+                    inserts.add(new long[] {plan.activityIds().get(a), studentId});
+                }
+            }
+        }
+
+        Timestamp enrolledAt = Timestamp.valueOf(now);
+        for (int from = 0; from < inserts.size(); from += insertBatchSize) {
+            List<long[]> batch = inserts.subList(from, Math.min(from + insertBatchSize, inserts.size()));
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, batch.get(i)[0]);
+                    ps.setLong(2, batch.get(i)[1]);
+                    ps.setTimestamp(3, enrolledAt);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+        }
+        reactivations.forEach((a, studentIds) -> enrollmentRepository.reactivateAll(plan.activityIds().get(a), studentIds, now));
+
+        for (int a = 0; a < plan.activityIds().size(); a++) {
+            Long activityId = plan.activityIds().get(a);
+            if (plan.skipped().contains(activityId)) {
+                continue;
+            }
+            List<Long> studentIds = winners.get(a);
+            // Also reopens the activity so leftover seats and its waitlist work as usual
+            if (activityRepository.allocateSeats(activityId, studentIds.size()) == 0) {
+                throw new IllegalStateException("Seats of activity " + activityId + " changed during the allocation");
+            }
+            seatReservationService.invalidate(activityId);
+            studentIds.forEach(studentId -> scheduleIndex.addStudent(studentId, activityId));
+            if (!studentIds.isEmpty()) {
+                outboxService.append(ActivityService.AGGREGATE_TYPE, activityId, new SeatsAllocated(round.getId(), activityId, studentIds));
+            }
+            outboxService.append(ActivityService.AGGREGATE_TYPE, activityId, new ActivityChanged(activityId, ActivityStatus.OPEN));
+        }
+
+        AllocationResultDTO result = plan.result();
+        round.setStatus(AllocationRoundStatus.ALLOCATED);
+        round.setAllocatedAt(now);
+        round.setParticipants(result.getParticipants());
+        round.setSeatsAllocated(result.getSeatsAllocated());
+        round.setStudentsWithoutSeat(result.getStudentsWithoutSeat());
+        round.setSeatsByChoice(result.getSeatsByChoice().stream().map(String::valueOf).collect(Collectors.joining(",")));
+        round.setDurationMs(result.getDurationMs());
+        roundRepository.save(round);
+        seatsAllocated.increment(result.getSeatsAllocated());
+    }
+
+    /**
+     * Lottery positions: each student's number depends only on the seed and their id, so
+     * the draw does not depend on submission order.
+     */
+    private int[] draw(List<Long> studentIds, long seed) {
+        int students = studentIds.size();
+        long[] numbers = new long[students];
+        for (int s = 0; s < students; s++) {
+            numbers[s] = mix(seed ^ mix(studentIds.get(s)));
+        }
+        int[] order = IntStream.range(0, students).boxed()
+                .sorted(Comparator.<Integer>comparingLong(s -> numbers[s]).thenComparing(studentIds::get))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] draw = new int[students];
+        for (int position = 0; position < students; position++) {
+            draw[order[position]] = position;
+        }
+        return draw;
+    }
+
+    private static long mix(long value) {
+        // SplitMix64 finalizer
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    private static long pairKey(int activityIndex, long studentId) {
+        return ((long) activityIndex << 40) | studentId;
+    }
+
+    private AllocationRound findRound(Long id) {
+        return roundRepository.findById(id).orElseThrow(() -> new AllocationRoundNotFoundException("Allocation round not found"));
+    }
+
+    private AllocationRoundResponseDTO mapToResponseDTO(AllocationRound round) {
+        AllocationResultDTO result = null;
+        if (round.getStatus() == AllocationRoundStatus.ALLOCATED) {
+            result = AllocationResultDTO.builder()
+                    .participants(round.getParticipants())
+                    .seatsAllocated(round.getSeatsAllocated())
+                    .seatsByChoice(Arrays.stream(round.getSeatsByChoice().split(","))
+                            .map(Integer::valueOf)
+                            .collect(Collectors.toList()))
+                    .studentsWithoutSeat(round.getStudentsWithoutSeat())
+                    .durationMs(round.getDurationMs())
+                    .build();
+        }
+        return AllocationRoundResponseDTO.builder()
+                .id(round.getId())
+                .name(round.getName())
+                .opensAt(round.getOpensAt())
+                .closesAt(round.getClosesAt())
+                .activityIds(new ArrayList<>(round.getActivityIds()))
+                .maxChoices(round.getMaxChoices())
+                .maxActivitiesPerStudent(round.getMaxActivitiesPerStudent())
+                .seed(round.getSeed())
+                .status(round.getStatus())
+                .createdAt(round.getCreatedAt())
+                .allocatedAt(round.getAllocatedAt())
+                .result(result)
+                .build();
+    }
+
+    private record Plan(List<Long> activityIds, List<Long> studentIds, LotteryAllocator.Outcome outcome,
+            Set<Long> withdrawn, Set<Long> skipped, AllocationResultDTO result) {
+    }
+}
@@ -0,0 +1,272 @@
+package com.eduextra.allocation.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Seat lottery for preference rounds.
+ *
+ * Student-proposing deferred acceptance with a single lottery tie-break: every student draws
+ * one lottery position, students propose to their choices in order, and each activity keeps
+ * the best-placed proposals that fit and rejects the rest, who then propose to their next
+ * choice. The result is stable (no student prefers an activity that holds someone with a
+ * worse draw) and nobody gains by misreporting their ranking. The draw depends only on the
+ * seed, so the same round and seed always give the same allocation.
+ *
+ * Students wanting several activities get them in passes: each pass gives at most one more
+ * seat per student, among the choices that do not overlap what they already got. Within a
+ * round of proposals, activities are resolved in parallel on a fork/join pool.
+ *
+ * Students and activities are dense indexes; callers map them to ids.
+ */
+final class LotteryAllocator {
+
+    // Activities resolved per fork/join leaf task
+    private static final int ACTIVITIES_PER_TASK = 8;
+
+    /**
+     * @param choices   per student, activity indexes in preference order
+     * @param ranks     per student, the 1-based preference rank of each choice (choices dropped
+     *                  by the caller leave gaps)
+     * @param capacity  free seats per activity
+     * @param draw      per student, their lottery position (a permutation of 0..n-1, lower wins)
+     * @param overlaps  per activity, the activities it clashes with
+     * @param maxPerStudent seats a student can get in this round
+     */
+    record Problem(int[][] choices, int[][] ranks, int[] capacity, int[] draw, BitSet[] overlaps, int maxPerStudent) {
+    }
+
+    /**
+     * Per student, the activities they got and the rank each one had in their preferences.
+     */
+    record Outcome(int[][] activities, int[][] ranks) {
+    }
+
+    private final ForkJoinPool pool;
+
+    LotteryAllocator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    Outcome allocate(Problem problem) {
+        int students = problem.choices().length;
+        int activities = problem.capacity().length;
+        int[] capacity = problem.capacity().clone();
+        int[] byDraw = new int[students];
+        for (int s = 0; s < students; s++) {
+            byDraw[problem.draw()[s]] = s;
+        }
+
+        int[][] won = new int[students][0];
+        int[][] wonRanks = new int[students][0];
+        for (int pass = 0; pass < problem.maxPerStudent(); pass++) {
+            int[][] held = runPass(problem, capacity, won, byDraw);
+            boolean any = false;
+            for (int a = 0; a < activities; a++) {
+                for (int s : held[a]) {
+                    won[s] = append(won[s], a);
+                    wonRanks[s] = append(wonRanks[s], rankOf(problem, s, a));
+                    any = true;
+                }
+                capacity[a] -= held[a].length;
+            }
+            if (!any) {
+                break;
+            }
+        }
+        return new Outcome(won, wonRanks);
+    }
+
+    /**
+     * One deferred acceptance run giving each student at most one more seat.
+     * Returns, per activity, the students it accepted.
+     */
+    private int[][] runPass(Problem problem, int[] capacity, int[][] won, int[] byDraw) {
+        int students = problem.choices().length;
+        int activities = capacity.length;
+
+        // Choices still open to each student in this pass
+        int[][] eligible = new int[students][];
+        for (int s = 0; s < students; s++) {
+            eligible[s] = eligibleChoices(problem, capacity, won[s], problem.choices()[s]);
+        }
+        int[] next = new int[students];
+        int[][] held = new int[activities][0];
+
+        int[] free = new int[students];
+        int freeCount = 0;
+        for (int s = 0; s < students; s++) {
+            if (eligible[s].length > 0) {
+                free[freeCount++] = s;
+            }
+        }
+
+        int[] proposalCount = new int[activities];
+        while (freeCount > 0) {
+            // Every free student proposes to their next choice
+            Arrays.fill(proposalCount, 0);
+            int[] target = new int[freeCount];
+            int proposals = 0;
+            for (int i = 0; i < freeCount; i++) {
+                int s = free[i];
+                if (next[s] < eligible[s].length) {
+                    int a = eligible[s][next[s]++];
+                    target[i] = a;
+                    proposalCount[a]++;
+                    proposals++;
+                } else {
+                    target[i] = -1;
+                }
+            }
+            if (proposals == 0) {
+                break;
+            }
+            int[][] proposed = new int[activities][];
+            for (int a = 0; a < activities; a++) {
+                proposed[a] = proposalCount[a] == 0 ? null : new int[proposalCount[a]];
+            }
+            int[] fill = new int[activities];
+            for (int i = 0; i < freeCount; i++) {
+                if (target[i] >= 0) {
+                    proposed[target[i]][fill[target[i]]++] = free[i];
+                }
+            }
+
+            // Activities decide independently, so they are resolved in parallel
+            int[][] rejected = new int[activities][];
+            pool.invoke(new Resolve(problem.draw(), byDraw, capacity, held, proposed, rejected, 0, activities));
+
+            freeCount = 0;
+            for (int a = 0; a < activities; a++) {
+                if (rejected[a] != null) {
+                    for (int s : rejected[a]) {
+                        free[freeCount++] = s;
+                    }
+                }
+            }
+        }
+        return held;
+    }
+
+    private int[] eligibleChoices(Problem problem, int[] capacity, int[] won, int[] choices) {
+        int[] eligible = new int[choices.length];
+        int count = 0;
+        for (int a : choices) {
+            if (capacity[a] <= 0 || contains(won, a) || clashes(problem.overlaps(), won, a)) {
+                continue;
+            }
+            eligible[count++] = a;
+        }
+        return count == eligible.length ? eligible : Arrays.copyOf(eligible, count);
+    }
+
+    private boolean clashes(BitSet[] overlaps, int[] won, int activity) {
+        for (int a : won) {
+            if (overlaps[activity].get(a)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int rankOf(Problem problem, int student, int activity) {
+        int[] choices = problem.choices()[student];
+        for (int i = 0; i < choices.length; i++) {
+            if (choices[i] == activity) {
+                return problem.ranks()[student][i];
+            }
+        }
+        throw new IllegalStateException("Student " + student + " did not choose activity " + activity);
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] grown = Arrays.copyOf(values, values.length + 1);
+        grown[values.length] = value;
+        return grown;
+    }
+
+    /**
+     * Merges each activity's held students with its new proposals and keeps the best draws.
+     */
+    private static final class Resolve extends RecursiveAction {
+
+        private final int[] draw;
+        private final int[] byDraw;
+        private final int[] capacity;
+        private final int[][] held;
+        private final int[][] proposed;
+        private final int[][] rejected;
+        private final int from;
+        private final int to;
+
+        Resolve(int[] draw, int[] byDraw, int[] capacity, int[][] held, int[][] proposed, int[][] rejected, int from, int to) {
+            this.draw = draw;
+            this.byDraw = byDraw;
+            this.capacity = capacity;
+            this.held = held;
+            this.proposed = proposed;
+            this.rejected = rejected;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ACTIVITIES_PER_TASK) {
+                for (int a = from; a < to; a++) {
+                    resolve(a);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Resolve(draw, byDraw, capacity, held, proposed, rejected, from, mid),
+                    new Resolve(draw, byDraw, capacity, held, proposed, rejected, mid, to));
+        }
+
+        private void resolve(int a) {
+            if (proposed[a] == null) {
+                return;
+            }
+            int total = held[a].length + proposed[a].length;
+            if (total <= capacity[a]) {
+                int[] merged = Arrays.copyOf(held[a], total);
+                System.arraycopy(proposed[a], 0, merged, held[a].length, proposed[a].length);
+                held[a] = merged;
+                return;
+            }
+            // Sort by draw position, then keep the first capacity students
+            int[] positions = new int[total];
+            int i = 0;
+            for (int s : held[a]) {
+                positions[i++] = draw[s];
+            }
+            for (int s : proposed[a]) {
+                positions[i++] = draw[s];
+            }
+            Arrays.sort(positions);
+            int keep = Math.max(0, capacity[a]);
+            int[] kept = new int[keep];
+            int[] out = new int[total - keep];
+            for (int j = 0; j < total; j++) {
+                if (j < keep) {
+                    kept[j] = byDraw[positions[j]];
+                } else {
+                    out[j - keep] = byDraw[positions[j]];
+                }
+            }
+            held[a] = kept;
+            rejected[a] = out;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.eduextra.attendance.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.eduextra.attendance.dto.AbsenceStreakDTO;
+import com.eduextra.attendance.dto.ActivityAttendanceTrendDTO;
+import com.eduextra.attendance.dto.StudentAttendanceRateDTO;
+import com.eduextra.attendance.service.AttendanceAnalytics;
+import com.eduextra.exception.ErrorResponse;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for attendance analytics. Answers come from in-memory bitmaps, not from
+ * the attendance log.
+ *
+ * Security: All endpoints require JWT Bearer authentication and ADMIN or COORDINATOR role.
+ */
+@RestController
+@RequestMapping("/attendance/analytics")
+@Tag(name = "Attendance Analytics", description = "Attendance rates, trends and absence streaks")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class AttendanceAnalyticsController {
+
+    private final AttendanceAnalytics attendanceAnalytics;
+
+    @Operation(
+        summary = "Students with low attendance",
+        description = "Students who attended fewer than the threshold share of the sessions they were expected at, lowest rate first. Late counts as attended; excused absences are left out.",
+        tags = {"Attendance Analytics"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Students retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid threshold or date range",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @GetMapping("/low-attendance")
+    public ResponseEntity<List<StudentAttendanceRateDTO>> lowAttendance(
+            @Parameter(description = "Rate below which a student is listed", example = "0.7") @RequestParam(defaultValue = "0.7") double threshold,
+            @Parameter(description = "Only this activity") @RequestParam(required = false) Long activityId,
+            @Parameter(description = "First session date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last session date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Ignore students expected at fewer sessions") @RequestParam(defaultValue = "1") int minSessions,
+            @Parameter(description = "Maximum number of students") @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(attendanceAnalytics.lowAttendance(threshold, activityId, from, to, minSessions, limit));
+    }
+
+    @Operation(
+        summary = "Attendance trend of an activity",
+        description = "Attendance counts and rate of every recorded session of the activity, oldest first.",
+        tags = {"Attendance Analytics"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Trend retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Activity not found",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @GetMapping("/activities/{activityId}/trend")
+    public ResponseEntity<ActivityAttendanceTrendDTO> trend(@PathVariable Long activityId,
+            @Parameter(description = "First session date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last session date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(attendanceAnalytics.trend(activityId, from, to));
+    }
+
+    @Operation(
+        summary = "Absence streaks",
+        description = "Students absent from several sessions of an activity in a row (activities meet weekly, so 3 sessions are 3 weeks), each with the end of their most recent streak. Excused absences break a streak.",
+        tags = {"Attendance Analytics"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Streaks retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid streak length or date range",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @GetMapping("/absence-streaks")
+    public ResponseEntity<List<AbsenceStreakDTO>> absenceStreaks(
+            @Parameter(description = "Sessions in a row", example = "3") @RequestParam(defaultValue = "3") int consecutive,
+            @Parameter(description = "Only this activity") @RequestParam(required = false) Long activityId,
+            @Parameter(description = "First session date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last session date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(attendanceAnalytics.absenceStreaks(consecutive, activityId, from, to));
+    }
+}
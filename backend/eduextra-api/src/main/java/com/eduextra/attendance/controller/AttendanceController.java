@@ -0,0 +1,106 @@
+package com.eduextra.attendance.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import com.eduextra.attendance.dto.AttendanceRosterRequestDTO;
+import com.eduextra.attendance.dto.AttendanceSessionResponseDTO;
+import com.eduextra.attendance.dto.AttendanceSubmissionResultDTO;
+import com.eduextra.attendance.dto.AttendanceSyncRequestDTO;
+import com.eduextra.attendance.dto.AttendanceSyncResponseDTO;
+import com.eduextra.attendance.service.AttendanceService;
+import com.eduextra.exception.ErrorResponse;
+import com.eduextra.user.model.User;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for session attendance. Sessions are identified by their activity and date.
+ *
+ * Security: All endpoints require JWT Bearer authentication and ADMIN, COORDINATOR or
+ * MONITOR role; monitors only see and record the activities they run.
+ */
+@RestController
+@Tag(name = "Attendance", description = "Session attendance capture")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class AttendanceController {
+
+    private final AttendanceService attendanceService;
+
+    @Operation(
+        summary = "Record a session's attendance",
+        description = "Records the status of every student in the roster in one go. Uploading the same submissionId again is reported as a duplicate and not recorded twice; a new submission for the same session corrects the earlier one.",
+        tags = {"Attendance"},
+        responses = {
+            @ApiResponse(responseCode = "201", description = "Attendance recorded"),
+            @ApiResponse(responseCode = "200", description = "Submission already recorded; nothing changed"),
+            @ApiResponse(responseCode = "400", description = "No session on that date, or a student is not enrolled",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Not the activity's monitor",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Activity not found",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR', 'MONITOR')")
+    @PostMapping("/activities/{activityId}/sessions/{sessionDate}/attendance")
+    public ResponseEntity<AttendanceSubmissionResultDTO> recordSession(@PathVariable Long activityId,
+            @Parameter(description = "Session date", example = "2026-10-05") @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate sessionDate,
+            @Valid @RequestBody AttendanceRosterRequestDTO request, @AuthenticationPrincipal User user) {
+        AttendanceSubmissionResultDTO result = attendanceService.recordSession(activityId, sessionDate, request, user);
+        if (result.getOutcome() == AttendanceSubmissionResultDTO.Outcome.DUPLICATE) {
+            return ResponseEntity.ok(result);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    @Operation(
+        summary = "Get a session's attendance",
+        description = "Returns the latest recorded status of each student in the session.",
+        tags = {"Attendance"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Attendance retrieved successfully"),
+            @ApiResponse(responseCode = "403", description = "Not the activity's monitor",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Activity not found",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR', 'MONITOR')")
+    @GetMapping("/activities/{activityId}/sessions/{sessionDate}/attendance")
+    public ResponseEntity<AttendanceSessionResponseDTO> getSession(@PathVariable Long activityId,
+            @Parameter(description = "Session date", example = "2026-10-05") @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate sessionDate, @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(attendanceService.getSession(activityId, sessionDate, user));
+    }
+
+    @Operation(
+        summary = "Sync offline attendance",
+        description = "Uploads rosters captured while offline. Each roster is recorded, reported as a duplicate of an earlier upload, or rejected with the reason, independently of the others, so the client can retry the whole queue safely.",
+        tags = {"Attendance"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Outcome of every roster, in request order"),
+            @ApiResponse(responseCode = "400", description = "Malformed queue",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR', 'MONITOR')")
+    @PostMapping("/attendance/sync")
+    public ResponseEntity<AttendanceSyncResponseDTO> sync(@Valid @RequestBody AttendanceSyncRequestDTO request, @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(attendanceService.sync(request, user));
+    }
+}
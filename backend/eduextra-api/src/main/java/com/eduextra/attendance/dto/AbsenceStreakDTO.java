@@ -0,0 +1,26 @@
+package com.eduextra.attendance.dto;
+
+import java.time.LocalDate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A student absent from several sessions of an activity in a row")
+public class AbsenceStreakDTO {
+
+    @Schema(description = "Activity id", example = "3")
+    private Long activityId;
+
+    @Schema(description = "Student id", example = "42")
+    private Long studentId;
+
+    @Schema(description = "Last session of the most recent streak", example = "2026-10-12")
+    private LocalDate streakEnd;
+}
@@ -0,0 +1,26 @@
+package com.eduextra.attendance.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Attendance of an activity session by session")
+public class ActivityAttendanceTrendDTO {
+
+    @Schema(description = "Activity id", example = "3")
+    private Long activityId;
+
+    @Schema(description = "Attendance rate over all the sessions listed", example = "0.82")
+    private double rate;
+
+    @Schema(description = "Recorded sessions, oldest first")
+    private List<SessionAttendanceStatsDTO> sessions;
+}
@@ -0,0 +1,24 @@
+package com.eduextra.attendance.dto;
+
+import com.eduextra.attendance.model.AttendanceStatus;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Attendance of one student in a session")
+public class AttendanceEntryDTO {
+
+    @NotNull(message = "Student id is required")
+    @Schema(description = "Student id", example = "42")
+    private Long studentId;
+
+    @NotNull(message = "Status is required")
+    @Schema(description = "Attendance status", example = "PRESENT")
+    private AttendanceStatus status;
+}
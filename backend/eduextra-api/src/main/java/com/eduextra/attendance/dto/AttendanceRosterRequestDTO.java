@@ -0,0 +1,23 @@
+package com.eduextra.attendance.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+@Schema(description = "Attendance of a whole session")
+public class AttendanceRosterRequestDTO {
+
+    // Generated by the client so a retried upload is recorded once; random when not given
+    @Size(max = 64, message = "Submission id must be at most 64 characters")
+    @Schema(description = "Client-generated id of this roster upload", example = "8e7c1f2a-55b3-4d0e-9a8f-3a1d2c4b5e6f")
+    private String submissionId;
+
+    @NotEmpty(message = "At least one student is required")
+    @Size(max = 1000, message = "A roster can have at most 1000 students")
+    private List<@Valid AttendanceEntryDTO> records;
+}
@@ -0,0 +1,31 @@
+package com.eduextra.attendance.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Latest recorded attendance of a session")
+public class AttendanceSessionResponseDTO {
+
+    @Schema(description = "Activity id", example = "3")
+    private Long activityId;
+
+    @Schema(description = "Date of the session", example = "2026-10-05")
+    private LocalDate sessionDate;
+
+    @Schema(description = "When the latest roster was recorded")
+    private LocalDateTime recordedAt;
+
+    @Schema(description = "Latest status of each student")
+    private List<AttendanceEntryDTO> records;
+}
@@ -0,0 +1,41 @@
+package com.eduextra.attendance.dto;
+
+import java.time.LocalDate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of one roster upload")
+public class AttendanceSubmissionResultDTO {
+
+    public enum Outcome {
+        RECORDED,
+        // Already uploaded before; nothing was written
+        DUPLICATE,
+        REJECTED
+    }
+
+    @Schema(description = "Submission id", example = "8e7c1f2a-55b3-4d0e-9a8f-3a1d2c4b5e6f")
+    private String submissionId;
+
+    @Schema(description = "Activity id", example = "3")
+    private Long activityId;
+
+    @Schema(description = "Date of the session", example = "2026-10-05")
+    private LocalDate sessionDate;
+
+    private Outcome outcome;
+
+    @Schema(description = "Students recorded", example = "24")
+    private int recorded;
+
+    @Schema(description = "Why the roster was rejected")
+    private String error;
+}
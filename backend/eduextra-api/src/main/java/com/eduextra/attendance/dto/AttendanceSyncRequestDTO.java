@@ -0,0 +1,18 @@
+package com.eduextra.attendance.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+@Schema(description = "Rosters queued while offline, uploaded together")
+public class AttendanceSyncRequestDTO {
+
+    @NotEmpty(message = "At least one session is required")
+    @Size(max = 200, message = "At most 200 sessions can be synced at once")
+    private List<@Valid QueuedSessionDTO> sessions;
+}
@@ -0,0 +1,19 @@
+package com.eduextra.attendance.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of each uploaded roster, in request order")
+public class AttendanceSyncResponseDTO {
+
+    private List<AttendanceSubmissionResultDTO> results;
+}
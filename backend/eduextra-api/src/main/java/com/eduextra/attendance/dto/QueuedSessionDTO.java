@@ -0,0 +1,34 @@
+package com.eduextra.attendance.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+@Schema(description = "Roster captured offline and queued for upload")
+public class QueuedSessionDTO {
+
+    @NotBlank(message = "Submission id is required")
+    @Size(max = 64, message = "Submission id must be at most 64 characters")
+    @Schema(description = "Client-generated id of this roster upload", example = "8e7c1f2a-55b3-4d0e-9a8f-3a1d2c4b5e6f")
+    private String submissionId;
+
+    @NotNull(message = "Activity id is required")
+    @Schema(description = "Activity id", example = "3")
+    private Long activityId;
+
+    @NotNull(message = "Session date is required")
+    @Schema(description = "Date of the session", example = "2026-10-05")
+    private LocalDate sessionDate;
+
+    @NotEmpty(message = "At least one student is required")
+    @Size(max = 1000, message = "A roster can have at most 1000 students")
+    private List<@Valid AttendanceEntryDTO> records;
+}
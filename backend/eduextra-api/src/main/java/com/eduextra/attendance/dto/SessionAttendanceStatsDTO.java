@@ -0,0 +1,31 @@
+package com.eduextra.attendance.dto;
+
+import java.time.LocalDate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Attendance counts of one session")
+public class SessionAttendanceStatsDTO {
+
+    @Schema(description = "Date of the session", example = "2026-10-05")
+    private LocalDate sessionDate;
+
+    private int present;
+
+    private int late;
+
+    private int absent;
+
+    private int excused;
+
+    @Schema(description = "(present + late) / (present + late + absent)", example = "0.85")
+    private double rate;
+}
@@ -0,0 +1,27 @@
+package com.eduextra.attendance.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Attendance rate of a student over the sessions recorded for them")
+public class StudentAttendanceRateDTO {
+
+    @Schema(description = "Student id", example = "42")
+    private Long studentId;
+
+    @Schema(description = "Sessions attended, on time or late", example = "9")
+    private int attended;
+
+    @Schema(description = "Sessions the student was expected at (excused absences are left out)", example = "14")
+    private int sessions;
+
+    @Schema(description = "attended / sessions", example = "0.64")
+    private double rate;
+}
@@ -0,0 +1,11 @@
+package com.eduextra.attendance.event;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Outbox event published per recorded roster, with the students grouped by status.
+ */
+public record AttendanceRecorded(String submissionId, Long activityId, LocalDate sessionDate, List<Long> present,
+        List<Long> late, List<Long> absent, List<Long> excused) {
+}
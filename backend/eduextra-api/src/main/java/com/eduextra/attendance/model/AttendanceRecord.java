@@ -0,0 +1,68 @@
+package com.eduextra.attendance.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Attendance log. Rows are only ever inserted, in multi-row statements by AttendanceService;
+ * a correction is a new submission for the same session and the latest row per student wins.
+ *
+ * session_month (yyyymm) is the partitioning key: on PostgreSQL the table can be range
+ * partitioned by it, and every query filters by activity and session date so it only
+ * touches the partitions of the months it asks about.
+ */
+@Entity
+@Immutable
+@Data
+@Table(name = "attendance_records", indexes = {
+    @Index(name = "idx_attendance_records_month_activity", columnList = "session_month, activity_id, session_date"),
+    @Index(name = "idx_attendance_records_activity_session", columnList = "activity_id, session_date"),
+    @Index(name = "idx_attendance_records_student", columnList = "student_id, session_date")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String submissionId;
+
+    @Column(nullable = false)
+    private Long activityId;
+
+    @Column(nullable = false)
+    private LocalDate sessionDate;
+
+    @Column(nullable = false)
+    private Integer sessionMonth;
+
+    @Column(nullable = false)
+    private Long studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AttendanceStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,8 @@
+package com.eduextra.attendance.model;
+
+public enum AttendanceStatus {
+    PRESENT,
+    LATE,
+    ABSENT,
+    EXCUSED
+}
@@ -0,0 +1,49 @@
+package com.eduextra.attendance.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One roster upload for one session. The id is chosen by the client when it queues the
+ * roster offline, so uploading the same roster twice records it once.
+ */
+@Entity
+@Data
+@Table(name = "attendance_submissions", indexes = {
+    @Index(name = "idx_attendance_submissions_activity_session", columnList = "activity_id, session_date"),
+    @Index(name = "idx_attendance_submissions_recorded_at", columnList = "recorded_at")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceSubmission {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(nullable = false)
+    private Long activityId;
+
+    @Column(nullable = false)
+    private LocalDate sessionDate;
+
+    @Column(nullable = false)
+    private Long recordedBy;
+
+    @Column(nullable = false)
+    private Integer recordCount;
+
+    @Column(nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,22 @@
+package com.eduextra.attendance.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.attendance.model.AttendanceRecord;
+
+@Repository
+public interface AttendanceRecordRepository extends JpaRepository<AttendanceRecord, Long> {
+
+    // Registros de una sesión, los más recientes primero
+    List<AttendanceRecord> findByActivityIdAndSessionMonthAndSessionDateOrderByIdDesc(Long activityId, Integer sessionMonth,
+            LocalDate sessionDate);
+
+    // Último id registrado; 0 si no hay registros
+    @Query("SELECT COALESCE(MAX(r.id), 0) FROM AttendanceRecord r")
+    long findMaxId();
+}
@@ -0,0 +1,9 @@
+package com.eduextra.attendance.repository;
+
+import java.time.LocalDate;
+
+/**
+ * A session, identified by its activity and date.
+ */
+public record AttendanceSessionKey(Long activityId, LocalDate sessionDate) {
+}
@@ -0,0 +1,25 @@
+package com.eduextra.attendance.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.attendance.model.AttendanceSubmission;
+
+@Repository
+public interface AttendanceSubmissionRepository extends JpaRepository<AttendanceSubmission, String> {
+
+    // Envíos que ya se registraron (reintentos de la sincronización sin conexión)
+    @Query("SELECT s.id FROM AttendanceSubmission s WHERE s.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    // Sesiones con algún envío desde una fecha (puesta al día de la analítica tras reiniciar)
+    @Query("SELECT DISTINCT new com.eduextra.attendance.repository.AttendanceSessionKey(s.activityId, s.sessionDate) "
+            + "FROM AttendanceSubmission s WHERE s.recordedAt >= :since")
+    List<AttendanceSessionKey> findSessionsRecordedSince(@Param("since") LocalDateTime since);
+}
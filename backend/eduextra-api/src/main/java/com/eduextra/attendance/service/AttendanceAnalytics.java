@@ -0,0 +1,510 @@
+package com.eduextra.attendance.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.attendance.dto.AbsenceStreakDTO;
+import com.eduextra.attendance.dto.ActivityAttendanceTrendDTO;
+import com.eduextra.attendance.dto.SessionAttendanceStatsDTO;
+import com.eduextra.attendance.dto.StudentAttendanceRateDTO;
+import com.eduextra.attendance.model.AttendanceRecord;
+import com.eduextra.attendance.model.AttendanceStatus;
+import com.eduextra.attendance.repository.AttendanceRecordRepository;
+import com.eduextra.attendance.repository.AttendanceSessionKey;
+import com.eduextra.attendance.repository.AttendanceSubmissionRepository;
+import com.eduextra.exception.ActivityNotFoundException;
+import com.eduextra.exception.ValidationException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory attendance analytics, so rate, trend and streak questions never scan the
+ * attendance log.
+ *
+ * Every student gets a dense index (0, 1, 2, ... in order of first appearance) and every
+ * recorded session keeps the latest status of its roster as compressed bitmaps over those
+ * indices: present, late, absent and excused, plus attended (present or late) and expected
+ * (attended or absent). Rates are cardinalities of those bitmaps, per-student counts are
+ * one pass over their set bits, and streaks are ANDs of consecutive absent bitmaps.
+ *
+ * The layer is loaded on startup from the latest snapshot file plus the sessions recorded
+ * since (or from the whole log when there is no usable snapshot), then kept current one
+ * session at a time: AttendanceService refreshes the sessions it records right after
+ * commit, and AttendanceRecorded events, which every node tails from the outbox, refresh
+ * sessions recorded on other nodes. A refresh re-reads that session's latest rows, so
+ * repeated or late events are harmless.
+ *
+ * Metrics: attendance.analytics.query (tag query), attendance.analytics.sessions,
+ * attendance.analytics.snapshot.
+ */
+@Service
+public class AttendanceAnalytics {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceAnalytics.class);
+
+    private static final String FULL_SCAN_SQL = "select activity_id, session_date, student_id, status from attendance_records "
+            + "order by activity_id, session_date, id";
+    private static final int SNAPSHOT_MAGIC = 0x45584154;
+    private static final int SNAPSHOT_VERSION = 1;
+    // Rosters committed around the time a snapshot is written are read again on startup
+    private static final long CATCH_UP_MARGIN_MINUTES = 5;
+
+    /**
+     * Latest roster of one session. Never modified once published.
+     */
+    record SessionBitmaps(LocalDate date, CompressedBitmap present, CompressedBitmap late, CompressedBitmap absent,
+            CompressedBitmap excused, CompressedBitmap attended, CompressedBitmap expected) {
+
+        static SessionBitmaps of(LocalDate date, CompressedBitmap present, CompressedBitmap late, CompressedBitmap absent,
+                CompressedBitmap excused) {
+            CompressedBitmap attended = present.or(late);
+            return new SessionBitmaps(date, present, late, absent, excused, attended, attended.or(absent));
+        }
+
+        double rate() {
+            int expectedCount = expected.cardinality();
+            return expectedCount == 0 ? 0 : (double) attended.cardinality() / expectedCount;
+        }
+    }
+
+    private final AttendanceRecordRepository recordRepository;
+    private final AttendanceSubmissionRepository submissionRepository;
+    private final ActivityRepository activityRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private volatile ConcurrentHashMap<Long, ConcurrentSkipListMap<LocalDate, SessionBitmaps>> activities = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Integer> studentIndex = new ConcurrentHashMap<>();
+    private volatile long[] studentIds = new long[1024];
+    private int studentCount;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final Timer snapshotTimer;
+
+    @Value("${application.attendance.analytics.snapshot-path:data/attendance-analytics.bin}")
+    private String snapshotPath;
+
+    public AttendanceAnalytics(AttendanceRecordRepository recordRepository, AttendanceSubmissionRepository submissionRepository,
+            ActivityRepository activityRepository, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+        this.recordRepository = recordRepository;
+        this.submissionRepository = submissionRepository;
+        this.activityRepository = activityRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.snapshotTimer = Timer.builder("attendance.analytics.snapshot").description("Time to write the attendance analytics snapshot").register(meterRegistry);
+        Gauge.builder("attendance.analytics.sessions", this, AttendanceAnalytics::sessionCount)
+                .description("Sessions held in the attendance analytics layer").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        if (!loadSnapshot()) {
+            loadFromLog();
+        }
+        log.info("Attendance analytics ready: {} sessions, {} students in {} ms", sessionCount(), studentCount,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Re-reads the latest roster of the given sessions.
+     */
+    public synchronized void sessionsRecorded(Collection<AttendanceSessionKey> sessions) {
+        for (AttendanceSessionKey session : sessions) {
+            Map<Long, AttendanceStatus> latest = new LinkedHashMap<>();
+            for (AttendanceRecord record : recordRepository.findByActivityIdAndSessionMonthAndSessionDateOrderByIdDesc(
+                    session.activityId(), AttendanceService.sessionMonth(session.sessionDate()), session.sessionDate())) {
+                latest.putIfAbsent(record.getStudentId(), record.getStatus());
+            }
+            publish(activities, session.activityId(), session.sessionDate(), latest);
+        }
+        dirty.set(true);
+    }
+
+    /**
+     * Students whose attendance rate is below the threshold, lowest first. Only sessions
+     * where the student was on the roster count, and excused absences are left out.
+     */
+    public List<StudentAttendanceRateDTO> lowAttendance(double threshold, Long activityId, LocalDate from, LocalDate to,
+            int minSessions, int limit) {
+        if (threshold <= 0 || threshold > 1) {
+            throw new ValidationException("Threshold must be greater than 0 and at most 1");
+        }
+        if (minSessions < 1 || limit < 1 || limit > 1000) {
+            throw new ValidationException("minSessions must be at least 1 and limit between 1 and 1000");
+        }
+        checkRange(from, to);
+        return timer("low-attendance").record(() -> {
+            List<SessionBitmaps> sessions = new ArrayList<>();
+            if (activityId != null) {
+                sessions.addAll(sessionsOf(activityId, from, to).values());
+            } else {
+                activities.keySet().forEach(id -> sessions.addAll(sessionsOf(id, from, to).values()));
+            }
+            // Read after the sessions so every index in them is below the count
+            int students = studentCount();
+            long[] ids = studentIds;
+            int[] attended = new int[students];
+            int[] expected = new int[students];
+            for (SessionBitmaps session : sessions) {
+                session.attended().forEach(i -> attended[i]++);
+                session.expected().forEach(i -> expected[i]++);
+            }
+            List<StudentAttendanceRateDTO> result = new ArrayList<>();
+            for (int i = 0; i < students; i++) {
+                if (expected[i] >= minSessions && attended[i] < threshold * expected[i]) {
+                    result.add(new StudentAttendanceRateDTO(ids[i], attended[i], expected[i], (double) attended[i] / expected[i]));
+                }
+            }
+            result.sort(Comparator.comparingDouble(StudentAttendanceRateDTO::getRate).thenComparing(StudentAttendanceRateDTO::getStudentId));
+            return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+        });
+    }
+
+    public ActivityAttendanceTrendDTO trend(Long activityId, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        if (!activities.containsKey(activityId) && !activityRepository.existsById(activityId)) {
+            throw new ActivityNotFoundException("Activity not found with id: " + activityId);
+        }
+        return timer("trend").record(() -> {
+            List<SessionAttendanceStatsDTO> stats = new ArrayList<>();
+            long attended = 0;
+            long expected = 0;
+            for (SessionBitmaps session : sessionsOf(activityId, from, to).values()) {
+                stats.add(SessionAttendanceStatsDTO.builder()
+                        .sessionDate(session.date())
+                        .present(session.present().cardinality())
+                        .late(session.late().cardinality())
+                        .absent(session.absent().cardinality())
+                        .excused(session.excused().cardinality())
+                        .rate(session.rate())
+                        .build());
+                attended += session.attended().cardinality();
+                expected += session.expected().cardinality();
+            }
+            return ActivityAttendanceTrendDTO.builder()
+                    .activityId(activityId)
+                    .rate(expected == 0 ? 0 : (double) attended / expected)
+                    .sessions(stats)
+                    .build();
+        });
+    }
+
+    /**
+     * Students absent from at least the given number of consecutive recorded sessions of an
+     * activity. Activities meet weekly, so three sessions in a row are three weeks in a row;
+     * a session without a roster does not break a streak, an excused absence does.
+     */
+    public List<AbsenceStreakDTO> absenceStreaks(int consecutive, Long activityId, LocalDate from, LocalDate to) {
+        if (consecutive < 2 || consecutive > 52) {
+            throw new ValidationException("Consecutive sessions must be between 2 and 52");
+        }
+        checkRange(from, to);
+        return timer("absence-streaks").record(() -> {
+            List<Long> activityIds = activityId != null ? List.of(activityId) : activities.keySet().stream().sorted().toList();
+            List<AbsenceStreakDTO> result = new ArrayList<>();
+            for (Long id : activityIds) {
+                SessionBitmaps[] sessions = sessionsOf(id, from, to).values().toArray(SessionBitmaps[]::new);
+                CompressedBitmap reported = CompressedBitmap.EMPTY;
+                // Latest windows first, so each student is reported with their most recent streak
+                for (int end = sessions.length - 1; end >= consecutive - 1; end--) {
+                    CompressedBitmap window = sessions[end].absent();
+                    for (int k = 1; k < consecutive && !window.isEmpty(); k++) {
+                        window = window.and(sessions[end - k].absent());
+                    }
+                    CompressedBitmap fresh = window.andNot(reported);
+                    if (fresh.isEmpty()) {
+                        continue;
+                    }
+                    LocalDate streakEnd = sessions[end].date();
+                    long[] ids = studentIds;
+                    fresh.forEach(i -> result.add(new AbsenceStreakDTO(id, ids[i], streakEnd)));
+                    reported = reported.or(fresh);
+                }
+            }
+            return result;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${application.attendance.analytics.snapshot-interval-ms:300000}",
+            initialDelayString = "${application.attendance.analytics.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (snapshotPath.isBlank() || !dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            snapshotTimer.recordCallable(() -> {
+                writeSnapshot();
+                return null;
+            });
+        } catch (Exception e) {
+            dirty.set(true);
+            log.warn("Could not write the attendance analytics snapshot: {}", e.toString());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    private NavigableMap<LocalDate, SessionBitmaps> sessionsOf(Long activityId, LocalDate from, LocalDate to) {
+        ConcurrentSkipListMap<LocalDate, SessionBitmaps> sessions = activities.get(activityId);
+        if (sessions == null) {
+            return new ConcurrentSkipListMap<>();
+        }
+        return sessions.subMap(from != null ? from : LocalDate.MIN, true, to != null ? to : LocalDate.MAX, true);
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ValidationException("'from' must not be after 'to'");
+        }
+    }
+
+    private Timer timer(String query) {
+        return Timer.builder("attendance.analytics.query").tag("query", query)
+                .description("Time to answer an attendance analytics query").register(meterRegistry);
+    }
+
+    private void publish(ConcurrentHashMap<Long, ConcurrentSkipListMap<LocalDate, SessionBitmaps>> target, Long activityId,
+            LocalDate date, Map<Long, AttendanceStatus> latest) {
+        if (latest.isEmpty()) {
+            ConcurrentSkipListMap<LocalDate, SessionBitmaps> sessions = target.get(activityId);
+            if (sessions != null) {
+                sessions.remove(date);
+            }
+            return;
+        }
+        CompressedBitmap[] byStatus = new CompressedBitmap[AttendanceStatus.values().length];
+        for (int s = 0; s < byStatus.length; s++) {
+            byStatus[s] = new CompressedBitmap();
+        }
+        latest.forEach((studentId, status) -> byStatus[status.ordinal()].add(indexOf(studentId)));
+        target.computeIfAbsent(activityId, id -> new ConcurrentSkipListMap<>()).put(date, SessionBitmaps.of(date,
+                byStatus[AttendanceStatus.PRESENT.ordinal()], byStatus[AttendanceStatus.LATE.ordinal()],
+                byStatus[AttendanceStatus.ABSENT.ordinal()], byStatus[AttendanceStatus.EXCUSED.ordinal()]));
+    }
+
+    private synchronized int indexOf(long studentId) {
+        Integer index = studentIndex.get(studentId);
+        if (index != null) {
+            return index;
+        }
+        if (studentCount == studentIds.length) {
+            studentIds = Arrays.copyOf(studentIds, studentCount * 2);
+        }
+        studentIds[studentCount] = studentId;
+        studentIndex.put(studentId, studentCount);
+        return studentCount++;
+    }
+
+    private synchronized int studentCount() {
+        return studentCount;
+    }
+
+    private int sessionCount() {
+        return activities.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Rebuilds every session from the attendance log in one ordered pass.
+     */
+    private void loadFromLog() {
+        ConcurrentHashMap<Long, ConcurrentSkipListMap<LocalDate, SessionBitmaps>> loaded = new ConcurrentHashMap<>();
+        LogScan scan = new LogScan(loaded);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(FULL_SCAN_SQL);
+            statement.setFetchSize(10_000);
+            return statement;
+        }, scan));
+        scan.flush();
+        activities = loaded;
+        dirty.set(true);
+    }
+
+    /**
+     * Groups the ordered log rows by session; rows come oldest first, so within a session
+     * later rows overwrite earlier ones.
+     */
+    private final class LogScan implements RowCallbackHandler {
+
+        private final ConcurrentHashMap<Long, ConcurrentSkipListMap<LocalDate, SessionBitmaps>> target;
+        private final Map<Long, AttendanceStatus> latest = new LinkedHashMap<>();
+        private long activityId = -1;
+        private LocalDate date;
+
+        LogScan(ConcurrentHashMap<Long, ConcurrentSkipListMap<LocalDate, SessionBitmaps>> target) {
+            this.target = target;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowActivity = rs.getLong(1);
+            LocalDate rowDate = rs.getDate(2).toLocalDate();
+            if (rowActivity != activityId || !rowDate.equals(date)) {
+                flush();
+                activityId = rowActivity;
+                date = rowDate;
+            }
+            latest.put(rs.getLong(3), AttendanceStatus.valueOf(rs.getString(4)));
+        }
+
+        void flush() {
+            if (!latest.isEmpty()) {
+                publish(target, activityId, date, latest);
+                latest.clear();
+            }
+        }
+    }
+
+    /**
+     * Loads the snapshot file and the sessions recorded after it was written. Returns false
+     * when there is no snapshot or it does not belong to this database.
+     */
+    private boolean loadSnapshot() {
+        if (snapshotPath.isBlank() || !Files.isRegularFile(Path.of(snapshotPath))) {
+            return false;
+        }
+        ConcurrentHashMap<Long, ConcurrentSkipListMap<LocalDate, SessionBitmaps>> loaded = new ConcurrentHashMap<>();
+        LocalDateTime takenAt;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Path.of(snapshotPath))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring attendance analytics snapshot {}: unknown format", snapshotPath);
+                return false;
+            }
+            takenAt = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+            long lastRecordId = in.readLong();
+            String lastSubmissionId = in.readUTF();
+            // The newest record in the snapshot must still be there, unchanged
+            boolean matches = lastRecordId > 0 && recordRepository.findById(lastRecordId)
+                    .map(record -> record.getSubmissionId().equals(lastSubmissionId)).orElse(false);
+            if (!matches) {
+                log.info("Ignoring attendance analytics snapshot {}: it does not match the attendance log", snapshotPath);
+                return false;
+            }
+            int students = in.readInt();
+            long[] ids = new long[students];
+            for (int i = 0; i < students; i++) {
+                ids[i] = in.readLong();
+            }
+            int activityCount = in.readInt();
+            for (int a = 0; a < activityCount; a++) {
+                long activityId = in.readLong();
+                int sessionCount = in.readInt();
+                ConcurrentSkipListMap<LocalDate, SessionBitmaps> sessions = new ConcurrentSkipListMap<>();
+                for (int s = 0; s < sessionCount; s++) {
+                    LocalDate date = LocalDate.ofEpochDay(in.readInt());
+                    sessions.put(date, SessionBitmaps.of(date, CompressedBitmap.read(in), CompressedBitmap.read(in),
+                            CompressedBitmap.read(in), CompressedBitmap.read(in)));
+                }
+                loaded.put(activityId, sessions);
+            }
+            synchronized (this) {
+                studentIndex.clear();
+                studentIds = Arrays.copyOf(ids, Math.max(1024, students));
+                studentCount = students;
+                for (int i = 0; i < students; i++) {
+                    studentIndex.put(ids[i], i);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring attendance analytics snapshot {}: {}", snapshotPath, e.toString());
+            return false;
+        }
+        activities = loaded;
+        List<AttendanceSessionKey> recent = submissionRepository.findSessionsRecordedSince(takenAt.minusMinutes(CATCH_UP_MARGIN_MINUTES));
+        sessionsRecorded(recent);
+        log.info("Loaded attendance analytics snapshot from {} and refreshed {} sessions recorded since", snapshotPath, recent.size());
+        return true;
+    }
+
+    private void writeSnapshot() throws IOException {
+        Path target = Path.of(snapshotPath);
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        LocalDateTime takenAt = LocalDateTime.now();
+        long lastRecordId = recordRepository.findMaxId();
+        String lastSubmissionId = lastRecordId > 0
+                ? recordRepository.findById(lastRecordId).map(AttendanceRecord::getSubmissionId).orElse("")
+                : "";
+        List<Map.Entry<Long, List<SessionBitmaps>>> entries = new ArrayList<>();
+        activities.forEach((activityId, sessions) -> entries.add(Map.entry(activityId, List.copyOf(sessions.values()))));
+        // Read after the sessions so every index in them is below the count
+        long[] ids;
+        int students;
+        synchronized (this) {
+            students = studentCount;
+            ids = studentIds;
+        }
+
+        Path temp = Files.createTempFile(parent, "attendance-analytics", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(takenAt.toEpochSecond(ZoneOffset.UTC));
+            out.writeLong(lastRecordId);
+            out.writeUTF(lastSubmissionId);
+            out.writeInt(students);
+            for (int i = 0; i < students; i++) {
+                out.writeLong(ids[i]);
+            }
+            out.writeInt(entries.size());
+            for (Map.Entry<Long, List<SessionBitmaps>> entry : entries) {
+                out.writeLong(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (SessionBitmaps session : entry.getValue()) {
+                    out.writeInt((int) session.date().toEpochDay());
+                    session.present().write(out);
+                    session.late().write(out);
+                    session.absent().write(out);
+                    session.excused().write(out);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,41 @@
+package com.eduextra.attendance.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.eduextra.attendance.event.AttendanceRecorded;
+import com.eduextra.attendance.repository.AttendanceSessionKey;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.outbox.service.OutboxBroadcastSubscriber;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps this node's attendance analytics in line with rosters recorded on any node. The
+ * session is re-read from the log, so events already applied on this node are harmless.
+ */
+@Component
+@RequiredArgsConstructor
+public class AttendanceAnalyticsSubscriber implements OutboxBroadcastSubscriber {
+
+    private final OutboxService outboxService;
+    private final AttendanceAnalytics attendanceAnalytics;
+
+    @Override
+    public boolean supports(String eventType) {
+        return AttendanceRecorded.class.getSimpleName().equals(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        AttendanceRecorded recorded = outboxService.readPayload(event, AttendanceRecorded.class);
+        attendanceAnalytics.sessionsRecorded(List.of(new AttendanceSessionKey(recorded.activityId(), recorded.sessionDate())));
+    }
+
+    @Override
+    public void reload() {
+        attendanceAnalytics.rebuild();
+    }
+}
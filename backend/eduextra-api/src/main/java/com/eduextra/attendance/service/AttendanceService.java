@@ -0,0 +1,344 @@
+package com.eduextra.attendance.service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.activity.repository.ActivitySlot;
+import com.eduextra.activity.service.ActivityService;
+import com.eduextra.attendance.dto.AttendanceEntryDTO;
+import com.eduextra.attendance.dto.AttendanceRosterRequestDTO;
+import com.eduextra.attendance.dto.AttendanceSessionResponseDTO;
+import com.eduextra.attendance.dto.AttendanceSubmissionResultDTO;
+import com.eduextra.attendance.dto.AttendanceSubmissionResultDTO.Outcome;
+import com.eduextra.attendance.dto.AttendanceSyncRequestDTO;
+import com.eduextra.attendance.dto.AttendanceSyncResponseDTO;
+import com.eduextra.attendance.dto.QueuedSessionDTO;
+import com.eduextra.attendance.event.AttendanceRecorded;
+import com.eduextra.attendance.model.AttendanceRecord;
+import com.eduextra.attendance.model.AttendanceStatus;
+import com.eduextra.attendance.repository.AttendanceRecordRepository;
+import com.eduextra.attendance.repository.AttendanceSessionKey;
+import com.eduextra.attendance.repository.AttendanceSubmissionRepository;
+import com.eduextra.enrollment.repository.ActiveEnrollment;
+import com.eduextra.enrollment.repository.EnrollmentRepository;
+import com.eduextra.exception.ActivityNotFoundException;
+import com.eduextra.exception.ValidationException;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.user.model.Role;
+import com.eduextra.user.model.User;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Attendance capture. Monitors send the whole roster of a session at once, live or queued
+ * while offline, and every upload costs a fixed handful of statements whatever its size:
+ * one read of the activities, one of their enrollments, one of the already known
+ * submissions, and multi-row INSERTs into the append-only tables (one statement per
+ * submission batch and per insert-chunk-size records).
+ *
+ * Uploads are idempotent: the client names each roster with a submission id, and a roster
+ * whose id is already stored is reported as DUPLICATE and not written again. A correction
+ * is a new submission for the same session; reads keep the latest status per student.
+ *
+ * Metrics: attendance.records, attendance.submissions (tagged by outcome).
+ */
+@Service
+public class AttendanceService {
+
+    private static final String SUBMISSION_COLUMNS = "insert into attendance_submissions "
+            + "(id, activity_id, session_date, recorded_by, record_count, recorded_at) values ";
+    private static final String SUBMISSION_ROW = "(?, ?, ?, ?, ?, ?)";
+    private static final String RECORD_COLUMNS = "insert into attendance_records "
+            + "(submission_id, activity_id, session_date, session_month, student_id, status, recorded_at) values ";
+    private static final String RECORD_ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * A roster waiting to be recorded, from either endpoint.
+     */
+    private record Pending(String submissionId, Long activityId, LocalDate sessionDate, List<AttendanceEntryDTO> records) {
+    }
+
+    private final ActivityRepository activityRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final AttendanceSubmissionRepository submissionRepository;
+    private final AttendanceRecordRepository recordRepository;
+    private final OutboxService outboxService;
+    private final AttendanceAnalytics attendanceAnalytics;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter recordsCounter;
+    private final Map<Outcome, Counter> submissionCounters = new HashMap<>();
+
+    @Value("${application.attendance.insert-chunk-size:500}")
+    private int insertChunkSize;
+
+    public AttendanceService(ActivityRepository activityRepository, EnrollmentRepository enrollmentRepository,
+            AttendanceSubmissionRepository submissionRepository, AttendanceRecordRepository recordRepository,
+            OutboxService outboxService, AttendanceAnalytics attendanceAnalytics, JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.activityRepository = activityRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.submissionRepository = submissionRepository;
+        this.recordRepository = recordRepository;
+        this.outboxService = outboxService;
+        this.attendanceAnalytics = attendanceAnalytics;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.recordsCounter = Counter.builder("attendance.records").description("Attendance records written").register(meterRegistry);
+        for (Outcome outcome : Outcome.values()) {
+            submissionCounters.put(outcome, Counter.builder("attendance.submissions").tag("outcome", outcome.name())
+                    .description("Attendance roster uploads").register(meterRegistry));
+        }
+    }
+
+    /**
+     * Records the roster of one session. Invalid rosters fail with the usual exceptions.
+     */
+    public AttendanceSubmissionResultDTO recordSession(Long activityId, LocalDate sessionDate,
+            AttendanceRosterRequestDTO request, User recorder) {
+        String submissionId = request.getSubmissionId() != null && !request.getSubmissionId().isBlank()
+                ? request.getSubmissionId().trim()
+                : UUID.randomUUID().toString();
+        return record(List.of(new Pending(submissionId, activityId, sessionDate, request.getRecords())), recorder, true).get(0);
+    }
+
+    /**
+     * Records rosters queued offline. Each one is recorded, reported as a duplicate or
+     * rejected on its own, so one bad roster does not hold back the rest.
+     */
+    public AttendanceSyncResponseDTO sync(AttendanceSyncRequestDTO request, User recorder) {
+        List<Pending> pending = new ArrayList<>(request.getSessions().size());
+        for (QueuedSessionDTO session : request.getSessions()) {
+            pending.add(new Pending(session.getSubmissionId().trim(), session.getActivityId(), session.getSessionDate(),
+                    session.getRecords()));
+        }
+        return AttendanceSyncResponseDTO.builder().results(record(pending, recorder, false)).build();
+    }
+
+    @Transactional(readOnly = true)
+    public AttendanceSessionResponseDTO getSession(Long activityId, LocalDate sessionDate, User reader) {
+        ActivitySlot slot = activityRepository.findSlotById(activityId)
+                .orElseThrow(() -> new ActivityNotFoundException("Activity not found with id: " + activityId));
+        checkMonitor(slot, reader);
+
+        Map<Long, AttendanceRecord> latest = new LinkedHashMap<>();
+        for (AttendanceRecord record : recordRepository.findByActivityIdAndSessionMonthAndSessionDateOrderByIdDesc(
+                activityId, sessionMonth(sessionDate), sessionDate)) {
+            latest.putIfAbsent(record.getStudentId(), record);
+        }
+        List<AttendanceEntryDTO> records = latest.values().stream()
+                .sorted((a, b) -> Long.compare(a.getStudentId(), b.getStudentId()))
+                .map(r -> new AttendanceEntryDTO(r.getStudentId(), r.getStatus()))
+                .toList();
+        return AttendanceSessionResponseDTO.builder()
+                .activityId(activityId)
+                .sessionDate(sessionDate)
+                .recordedAt(latest.values().stream().map(AttendanceRecord::getRecordedAt).max(LocalDateTime::compareTo).orElse(null))
+                .records(records)
+                .build();
+    }
+
+    private List<AttendanceSubmissionResultDTO> record(List<Pending> pending, User recorder, boolean strict) {
+        List<AttendanceSubmissionResultDTO> results;
+        try {
+            results = transactionTemplate.execute(status -> write(pending, recorder, strict));
+        } catch (DuplicateKeyException e) {
+            // A retry of the same submission committed in between; the second pass reports it as DUPLICATE
+            results = transactionTemplate.execute(status -> write(pending, recorder, strict));
+        }
+        List<AttendanceSessionKey> recorded = new ArrayList<>();
+        for (AttendanceSubmissionResultDTO result : results) {
+            submissionCounters.get(result.getOutcome()).increment();
+            recordsCounter.increment(result.getRecorded());
+            if (result.getOutcome() == Outcome.RECORDED) {
+                recorded.add(new AttendanceSessionKey(result.getActivityId(), result.getSessionDate()));
+            }
+        }
+        // Committed by now; other nodes catch up through the AttendanceRecorded events
+        attendanceAnalytics.sessionsRecorded(recorded);
+        return results;
+    }
+
+    private List<AttendanceSubmissionResultDTO> write(List<Pending> pending, User recorder, boolean strict) {
+        Set<Long> activityIds = pending.stream().map(Pending::activityId).collect(Collectors.toSet());
+        Map<Long, ActivitySlot> slots = activityRepository.findSlotsByIds(activityIds).stream()
+                .collect(Collectors.toMap(ActivitySlot::id, Function.identity()));
+        LocalDate earliest = pending.stream().map(Pending::sessionDate).min(LocalDate::compareTo).orElseThrow();
+        // Students withdrawn after the earliest session may still be on that session's roster
+        Set<Long> enrolled = new HashSet<>();
+        for (ActiveEnrollment enrollment : enrollmentRepository.findEnrolledSince(activityIds, earliest.atStartOfDay())) {
+            enrolled.add(pairKey(enrollment.activityId(), enrollment.studentId()));
+        }
+        Set<String> known = new HashSet<>(submissionRepository.findExistingIds(
+                pending.stream().map(Pending::submissionId).collect(Collectors.toSet())));
+
+        LocalDate today = LocalDate.now();
+        List<AttendanceSubmissionResultDTO> results = new ArrayList<>(pending.size());
+        List<Pending> accepted = new ArrayList<>();
+        for (Pending session : pending) {
+            AttendanceSubmissionResultDTO.AttendanceSubmissionResultDTOBuilder result = AttendanceSubmissionResultDTO.builder()
+                    .submissionId(session.submissionId())
+                    .activityId(session.activityId())
+                    .sessionDate(session.sessionDate());
+            ActivitySlot slot = slots.get(session.activityId());
+            try {
+                checkAccess(session, slot, recorder);
+                if (!known.add(session.submissionId())) {
+                    results.add(result.outcome(Outcome.DUPLICATE).build());
+                    continue;
+                }
+                validate(session, slot, enrolled, today);
+            } catch (RuntimeException e) {
+                if (strict) {
+                    throw e;
+                }
+                results.add(result.outcome(Outcome.REJECTED).error(e.getMessage()).build());
+                continue;
+            }
+            accepted.add(session);
+            results.add(result.outcome(Outcome.RECORDED).recorded(session.records().size()).build());
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        insertSubmissions(accepted, recorder.getId(), now);
+        insertRecords(accepted, now);
+        for (Pending session : accepted) {
+            outboxService.append(ActivityService.AGGREGATE_TYPE, session.activityId(), recordedEvent(session));
+        }
+        return results;
+    }
+
+    private void checkAccess(Pending session, ActivitySlot slot, User recorder) {
+        if (slot == null) {
+            throw new ActivityNotFoundException("Activity not found with id: " + session.activityId());
+        }
+        checkMonitor(slot, recorder);
+    }
+
+    private void validate(Pending session, ActivitySlot slot, Set<Long> enrolled, LocalDate today) {
+        if (slot.cancelled()) {
+            throw new ValidationException("Attendance cannot be recorded for a cancelled activity");
+        }
+        LocalDate date = session.sessionDate();
+        if (date.isAfter(today)) {
+            throw new ValidationException("Attendance cannot be recorded for a future session");
+        }
+        if (date.isBefore(slot.startDate()) || date.isAfter(slot.endDate())) {
+            throw new ValidationException("Session date is outside the activity's term");
+        }
+        if (date.getDayOfWeek() != slot.dayOfWeek()) {
+            throw new ValidationException("The activity has no session on " + date);
+        }
+        Set<Long> seen = new HashSet<>();
+        for (AttendanceEntryDTO entry : session.records()) {
+            if (!seen.add(entry.getStudentId())) {
+                throw new ValidationException("Student " + entry.getStudentId() + " appears more than once in the roster");
+            }
+            if (!enrolled.contains(pairKey(session.activityId(), entry.getStudentId()))) {
+                throw new ValidationException("Student " + entry.getStudentId() + " is not enrolled in the activity");
+            }
+        }
+    }
+
+    private void checkMonitor(ActivitySlot slot, User user) {
+        if (user.getRole() == Role.MONITOR && !user.getId().equals(slot.monitorId())) {
+            throw new AccessDeniedException("Only the activity's monitor can take its attendance");
+        }
+    }
+
+    private void insertSubmissions(List<Pending> sessions, Long recordedBy, LocalDateTime now) {
+        Timestamp recordedAt = Timestamp.valueOf(now);
+        for (int from = 0; from < sessions.size(); from += insertChunkSize) {
+            List<Pending> chunk = sessions.subList(from, Math.min(from + insertChunkSize, sessions.size()));
+            List<Object> args = new ArrayList<>(chunk.size() * 6);
+            for (Pending session : chunk) {
+                Collections.addAll(args, session.submissionId(), session.activityId(), Date.valueOf(session.sessionDate()),
+                        recordedBy, session.records().size(), recordedAt);
+            }
+            jdbcTemplate.update(multiRowInsert(SUBMISSION_COLUMNS, SUBMISSION_ROW, chunk.size()), args.toArray());
+        }
+    }
+
+    /**
+     * Writes the records of every accepted roster, insert-chunk-size rows per statement.
+     */
+    private void insertRecords(List<Pending> sessions, LocalDateTime now) {
+        Timestamp recordedAt = Timestamp.valueOf(now);
+        List<Object> args = new ArrayList<>(Math.min(insertChunkSize, 1024) * 7);
+        int rows = 0;
+        for (Pending session : sessions) {
+            Date sessionDate = Date.valueOf(session.sessionDate());
+            int month = sessionMonth(session.sessionDate());
+            for (AttendanceEntryDTO entry : session.records()) {
+                Collections.addAll(args, session.submissionId(), session.activityId(), sessionDate, month,
+                        entry.getStudentId(), entry.getStatus().name(), recordedAt);
+                if (++rows == insertChunkSize) {
+                    jdbcTemplate.update(multiRowInsert(RECORD_COLUMNS, RECORD_ROW, rows), args.toArray());
+                    args.clear();
+                    rows = 0;
+                }
+            }
+        }
+        if (rows > 0) {
+            jdbcTemplate.update(multiRowInsert(RECORD_COLUMNS, RECORD_ROW, rows), args.toArray());
+        }
+    }
+
+    private static String multiRowInsert(String columns, String row, int rows) {
+        StringBuilder sql = new StringBuilder(columns.length() + rows * (row.length() + 2)).append(columns);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+        return sql.toString();
+    }
+
+    private static AttendanceRecorded recordedEvent(Pending session) {
+        Map<AttendanceStatus, List<Long>> byStatus = new HashMap<>();
+        for (AttendanceEntryDTO entry : session.records()) {
+            byStatus.computeIfAbsent(entry.getStatus(), s -> new ArrayList<>()).add(entry.getStudentId());
+        }
+        return new AttendanceRecorded(session.submissionId(), session.activityId(), session.sessionDate(),
+                byStatus.getOrDefault(AttendanceStatus.PRESENT, List.of()),
+                byStatus.getOrDefault(AttendanceStatus.LATE, List.of()),
+                byStatus.getOrDefault(AttendanceStatus.ABSENT, List.of()),
+                byStatus.getOrDefault(AttendanceStatus.EXCUSED, List.of()));
+    }
+
+    static int sessionMonth(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    private static long pairKey(Long activityId, Long studentId) {
+        return (activityId << 32) | studentId;
+    }
+}
@@ -0,0 +1,432 @@
+package com.eduextra.attendance.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints, laid out like a Roaring bitmap.
+ *
+ * Values are split by their high 16 bits into chunks of 65536. A chunk holding up to 4096
+ * values stores them as a sorted char array (2 bytes each); a fuller chunk switches to a
+ * plain 8 KB bitmap. Rosters of a few dozen students in a dense index space therefore cost
+ * a few dozen bytes, and AND / OR / ANDNOT work chunk by chunk, word by word when both
+ * sides are bitmaps.
+ *
+ * Instances are built with add/remove and then only read: the analytics layer publishes
+ * them and never mutates them again, so reads need no locking.
+ */
+final class CompressedBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    static final CompressedBitmap EMPTY = new CompressedBitmap();
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    CompressedBitmap() {
+        this(4);
+    }
+
+    private CompressedBitmap(int capacity) {
+        keys = new char[capacity];
+        containers = new Container[capacity];
+    }
+
+    static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    void add(int value) {
+        char key = (char) (value >>> 16);
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, key, new Container());
+        }
+        containers[i].add((char) value);
+    }
+
+    void remove(int value) {
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (i < 0) {
+            return;
+        }
+        containers[i].remove((char) value);
+        if (containers[i].cardinality == 0) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+            containers[--size] = null;
+        }
+    }
+
+    boolean contains(int value) {
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Calls the consumer with every value, in increasing order.
+     */
+    void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(1, Math.min(size, other.size)));
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container c = containers[i].and(other.containers[j]);
+                if (c.cardinality > 0) {
+                    result.appendContainer(keys[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(1, size + other.size));
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendContainer(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.appendContainer(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendContainer(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(1, size));
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container c = j < other.size && other.keys[j] == keys[i]
+                    ? containers[i].andNot(other.containers[j])
+                    : containers[i].copy();
+            if (c.cardinality > 0) {
+                result.appendContainer(keys[i], c);
+            }
+        }
+        return result;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeShort(size);
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i];
+            out.writeChar(keys[i]);
+            out.writeShort(c.cardinality - 1);
+            if (c.words != null) {
+                for (long word : c.words) {
+                    out.writeLong(word);
+                }
+            } else {
+                for (int k = 0; k < c.cardinality; k++) {
+                    out.writeChar(c.values[k]);
+                }
+            }
+        }
+    }
+
+    static CompressedBitmap read(DataInput in) throws IOException {
+        int size = in.readUnsignedShort();
+        CompressedBitmap bitmap = new CompressedBitmap(Math.max(1, size));
+        for (int i = 0; i < size; i++) {
+            char key = in.readChar();
+            Container c = new Container();
+            c.cardinality = in.readUnsignedShort() + 1;
+            if (c.cardinality > ARRAY_MAX) {
+                c.values = null;
+                c.words = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) {
+                    c.words[w] = in.readLong();
+                }
+            } else {
+                c.values = new char[c.cardinality];
+                for (int k = 0; k < c.cardinality; k++) {
+                    c.values[k] = in.readChar();
+                }
+            }
+            bitmap.appendContainer(key, c);
+        }
+        return bitmap;
+    }
+
+    private void insertContainer(int i, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = container;
+        size++;
+    }
+
+    private void appendContainer(char key, Container container) {
+        insertContainer(size, key, container);
+    }
+
+    /**
+     * The values of one 65536 chunk: a sorted array while sparse, a bitmap once dense.
+     */
+    private static final class Container {
+
+        char[] values = new char[4];
+        long[] words;
+        int cardinality;
+
+        void add(char value) {
+            if (words != null) {
+                long before = words[value >>> 6];
+                words[value >>> 6] = before | (1L << value);
+                if (before != words[value >>> 6]) {
+                    cardinality++;
+                }
+                return;
+            }
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                return;
+            }
+            if (cardinality == ARRAY_MAX) {
+                toBitmap();
+                add(value);
+                return;
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+        }
+
+        void remove(char value) {
+            if (words != null) {
+                long before = words[value >>> 6];
+                words[value >>> 6] = before & ~(1L << value);
+                if (before != words[value >>> 6] && --cardinality <= ARRAY_MAX) {
+                    toArray();
+                }
+                return;
+            }
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+        }
+
+        boolean contains(char value) {
+            if (words != null) {
+                return (words[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        void forEach(int high, IntConsumer consumer) {
+            if (words == null) {
+                for (int k = 0; k < cardinality; k++) {
+                    consumer.accept(high | values[k]);
+                }
+                return;
+            }
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    consumer.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        Container and(Container other) {
+            if (words != null && other.words != null) {
+                Container result = new Container();
+                result.values = null;
+                result.words = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) {
+                    result.words[w] = words[w] & other.words[w];
+                    result.cardinality += Long.bitCount(result.words[w]);
+                }
+                if (result.cardinality <= ARRAY_MAX) {
+                    result.toArray();
+                }
+                return result;
+            }
+            if (words != null) {
+                return other.and(this);
+            }
+            Container result = new Container();
+            result.values = new char[cardinality];
+            if (other.words != null) {
+                for (int k = 0; k < cardinality; k++) {
+                    if (other.contains(values[k])) {
+                        result.values[result.cardinality++] = values[k];
+                    }
+                }
+                return result;
+            }
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < other.cardinality) {
+                if (values[i] < other.values[j]) {
+                    i++;
+                } else if (values[i] > other.values[j]) {
+                    j++;
+                } else {
+                    result.values[result.cardinality++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+
+        Container or(Container other) {
+            if (words == null && other.words == null && cardinality + other.cardinality <= ARRAY_MAX) {
+                Container result = new Container();
+                result.values = new char[cardinality + other.cardinality];
+                int i = 0;
+                int j = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    char next;
+                    if (j == other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                        next = values[i++];
+                    } else if (i == cardinality || values[i] > other.values[j]) {
+                        next = other.values[j++];
+                    } else {
+                        next = values[i++];
+                        j++;
+                    }
+                    result.values[result.cardinality++] = next;
+                }
+                return result;
+            }
+            Container result = copy();
+            if (result.words == null) {
+                result.toBitmap();
+            }
+            if (other.words != null) {
+                result.cardinality = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    result.words[w] |= other.words[w];
+                    result.cardinality += Long.bitCount(result.words[w]);
+                }
+            } else {
+                for (int k = 0; k < other.cardinality; k++) {
+                    result.add(other.values[k]);
+                }
+            }
+            if (result.cardinality <= ARRAY_MAX) {
+                result.toArray();
+            }
+            return result;
+        }
+
+        Container andNot(Container other) {
+            Container result = copy();
+            if (result.words != null && other.words != null) {
+                result.cardinality = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    result.words[w] &= ~other.words[w];
+                    result.cardinality += Long.bitCount(result.words[w]);
+                }
+                if (result.cardinality <= ARRAY_MAX) {
+                    result.toArray();
+                }
+                return result;
+            }
+            if (result.words != null) {
+                for (int k = 0; k < other.cardinality; k++) {
+                    result.remove(other.values[k]);
+                }
+                return result;
+            }
+            int kept = 0;
+            for (int k = 0; k < result.cardinality; k++) {
+                if (!other.contains(result.values[k])) {
+                    result.values[kept++] = result.values[k];
+                }
+            }
+            result.cardinality = kept;
+            return result;
+        }
+
+        Container copy() {
+            Container copy = new Container();
+            copy.cardinality = cardinality;
+            copy.values = values != null ? Arrays.copyOf(values, Math.max(cardinality, 1)) : null;
+            copy.words = words != null ? words.clone() : null;
+            return copy;
+        }
+
+        private void toBitmap() {
+            words = new long[WORDS];
+            for (int k = 0; k < cardinality; k++) {
+                words[values[k] >>> 6] |= 1L << values[k];
+            }
+            values = null;
+        }
+
+        private void toArray() {
+            char[] array = new char[Math.max(cardinality, 1)];
+            int k = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    array[k++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            values = array;
+            words = null;
+        }
+    }
+}
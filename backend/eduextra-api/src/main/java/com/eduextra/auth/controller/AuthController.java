@@ -39,7 +39,7 @@ public class AuthController {
     
     @Operation(
         summary = "Register a new user",
-        description = "Creates a new user account in the system with the provided details. Requires a valid email, password, name, and role. Returns JWT tokens upon successful registration.",
+        description = "Creates a new user account in the system with the provided details. Requires a valid email, password, name, and role. Returns JWT tokens upon successful registration. Send an Idempotency-Key header to safely retry: a repeated key returns the original response.",
         tags = {"Authentication"},
         responses = {
             @ApiResponse(responseCode = "200", description = "User registered successfully", 
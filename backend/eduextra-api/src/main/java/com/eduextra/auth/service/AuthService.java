@@ -4,17 +4,20 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.eduextra.auth.dto.AuthResponseDTO;
 import com.eduextra.auth.dto.LoginRequestDTO;
 import com.eduextra.auth.dto.RefreshTokenRequestDTO;
 import com.eduextra.auth.dto.RegisterRequestDTO;
-import com.eduextra.exception.EmailAlreadyExistsException;
 import com.eduextra.exception.UserNotFoundException;
+import com.eduextra.outbox.service.OutboxService;
 import com.eduextra.security.JwtService;
+import com.eduextra.user.event.UserCreated;
 import com.eduextra.user.model.Role;
 import com.eduextra.user.model.User;
 import com.eduextra.user.repository.UserRepository;
+import com.eduextra.user.service.UserService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -26,12 +29,12 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final OutboxService outboxService;
 
+    @Transactional
     public AuthResponseDTO register(RegisterRequestDTO registerRequestDTO) {
-        // Verificar si el email ya existe
-        if(userRepository.existsByEmail(registerRequestDTO.getEmail())) {
-            throw new EmailAlreadyExistsException("Email already exists");
-        }
+        // La unicidad del email la garantiza la restricción única de la tabla;
+        // GlobalExceptionHandler traduce la violación a un 409
 
         // Crear nuevo usuario
         User user = User.builder()
@@ -42,7 +45,9 @@ public class AuthService {
                 .isActive(true)
                 .build();
         
-        User savedUser = userRepository.save(user);
+        User savedUser = userRepository.saveAndFlush(user);
+        outboxService.append(UserService.AGGREGATE_TYPE, savedUser.getId(),
+                new UserCreated(savedUser.getId(), savedUser.getEmail(), savedUser.getFullName(), savedUser.getRole()));
         
         // Generar JWT token y refresh token
         String jwtToken = jwtService.generateToken(savedUser);
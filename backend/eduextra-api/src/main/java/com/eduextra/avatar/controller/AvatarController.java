@@ -0,0 +1,211 @@
+package com.eduextra.avatar.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.eduextra.avatar.service.AvatarStorageService;
+import com.eduextra.avatar.service.AvatarThumbnailService;
+import com.eduextra.avatar.service.StoredAvatar;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serves stored avatars. Files are content-addressed and never change, so responses are
+ * cacheable forever and the hash doubles as the ETag.
+ *
+ * When the connector supports it the file is handed to Tomcat's sendfile, so the bytes go
+ * from the page cache to the socket without entering the heap. Otherwise it is written with
+ * FileChannel.transferTo to the response stream, which copies through a small heap buffer.
+ */
+@RestController
+@RequestMapping("/avatars")
+@Tag(name = "Avatars", description = "Public avatar images")
+@RequiredArgsConstructor
+public class AvatarController {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    // The original stands in for a variant that is still being generated; it must not be cached as the variant
+    private static final String PENDING_VARIANT = "public, max-age=60";
+
+    private final AvatarStorageService avatarStorageService;
+    private final AvatarThumbnailService avatarThumbnailService;
+
+    @Operation(
+        summary = "Get an avatar image",
+        description = "Returns a stored avatar by its content hash. With size, returns the smallest pre-generated square JPEG variant at least that many pixels wide, or the original with a short max-age and no ETag while the variant is being generated. Supports HEAD, If-None-Match and single byte ranges.",
+        tags = {"Avatars"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Image returned"),
+            @ApiResponse(responseCode = "206", description = "Requested byte range returned"),
+            @ApiResponse(responseCode = "304", description = "Client copy is current"),
+            @ApiResponse(responseCode = "404", description = "Avatar not found"),
+            @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
+        }
+    )
+    @RequestMapping(value = "/{fileName:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getAvatar(@PathVariable String fileName,
+            @Parameter(description = "Rendered size in pixels") @RequestParam(required = false) Integer size,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        StoredAvatar avatar = avatarStorageService.resolve(fileName).orElse(null);
+        if (avatar == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        boolean pendingVariant = false;
+        if (size != null && size > 0) {
+            Optional<StoredAvatar> variant = avatarThumbnailService.variant(avatar, size);
+            pendingVariant = variant.isEmpty();
+            avatar = variant.orElse(avatar);
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (pendingVariant) {
+            // No ETag either, so the client asks again once the variant exists
+            response.setHeader(HttpHeaders.CACHE_CONTROL, PENDING_VARIANT);
+        } else {
+            String etag = "\"" + avatar.hash() + "\"";
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+
+            String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+                response.setStatus(HttpStatus.NOT_MODIFIED.value());
+                return;
+            }
+        }
+
+        long length = avatar.size();
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (isSingleByteRange(range)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            start = bounds[0];
+            end = bounds[1];
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        } else {
+            response.setStatus(HttpStatus.OK.value());
+        }
+
+        long count = end - start + 1;
+        response.setContentType(avatar.contentType());
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file straight from the page cache once the servlet returns
+            request.setAttribute(SENDFILE_FILENAME, avatar.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel file = FileChannel.open(avatar.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    @Operation(
+        summary = "Backfill avatar thumbnails",
+        description = "Queues thumbnail generation for every stored avatar that is missing a size variant. Returns the number of avatars queued.",
+        tags = {"Avatars"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Backfill queued")
+        }
+    )
+    @SecurityRequirement(name = "Bearer Authentication")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/thumbnails/backfill")
+    public ResponseEntity<Map<String, Integer>> backfillThumbnails() {
+        return ResponseEntity.ok(Map.of("queued", avatarThumbnailService.backfill()));
+    }
+
+    /**
+     * Only single "bytes=" ranges are honoured; other forms (e.g. multiple ranges) get the full file.
+     */
+    private boolean isSingleByteRange(String header) {
+        if (header == null) {
+            return false;
+        }
+        String value = header.trim();
+        return value.startsWith("bytes=") && !value.contains(",") && value.indexOf('-') > 0;
+    }
+
+    /**
+     * Parses a single "bytes=" range. Returns null when the range cannot be satisfied.
+     */
+    private long[] parseRange(String header, long length) {
+        String spec = header.trim().substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
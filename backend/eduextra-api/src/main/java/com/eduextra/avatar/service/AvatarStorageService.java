@@ -0,0 +1,223 @@
+package com.eduextra.avatar.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.eduextra.exception.PayloadTooLargeException;
+import com.eduextra.exception.ValidationException;
+
+/**
+ * Content-addressed avatar storage on local disk.
+ *
+ * Files are named after the SHA-256 of their bytes and sharded by the first two hex
+ * characters (ab/abcdef....png), so identical uploads are stored once and a stored file
+ * never changes, which lets it be served with immutable cache headers.
+ */
+@Service
+public class AvatarStorageService {
+
+    private static final Pattern FILE_NAME = Pattern.compile("([0-9a-f]{64})\\.(png|jpg|gif|webp)");
+
+    private final Path root;
+    private final long maxBytes;
+    private final String publicBaseUrl;
+
+    public AvatarStorageService(
+            @Value("${application.avatars.storage-dir:data/avatars}") String storageDir,
+            @Value("${application.avatars.max-bytes:5242880}") long maxBytes,
+            @Value("${application.avatars.public-base-url:}") String publicBaseUrl) {
+        this.root = Path.of(storageDir).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.publicBaseUrl = publicBaseUrl.endsWith("/")
+                ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1)
+                : publicBaseUrl;
+    }
+
+    /**
+     * Stores an image and returns its content address. The bytes are hashed while they are
+     * streamed to a temporary file, so the upload is never held in memory as a whole.
+     */
+    public StoredAvatar store(InputStream content) {
+        Path temp = null;
+        try {
+            Files.createDirectories(root);
+            temp = Files.createTempFile(root, "upload-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                size = copyLimited(in, out);
+            }
+
+            ImageType type = ImageType.detect(temp);
+            if (type == null) {
+                throw new ValidationException("Avatar must be a PNG, JPEG, GIF or WebP image");
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(hash, type.extension);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                moveIntoPlace(temp, target);
+            }
+            return new StoredAvatar(hash, type.extension, type.contentType, size, target);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to store avatar", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Resolves a public file name (hash.ext) to the stored file, if it exists.
+     * Anything that is not a well-formed content address is rejected, which also rules out path traversal.
+     */
+    public Optional<StoredAvatar> resolve(String fileName) {
+        Matcher matcher = FILE_NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        String hash = matcher.group(1);
+        ImageType type = ImageType.fromExtension(matcher.group(2));
+        Path path = pathFor(hash, type.extension);
+        try {
+            return Optional.of(new StoredAvatar(hash, type.extension, type.contentType, Files.size(path), path));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Visits every stored avatar. Used by background jobs such as the thumbnail backfill.
+     */
+    public void forEachStored(Consumer<StoredAvatar> action) {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            files.filter(Files::isRegularFile)
+                    .map(path -> resolve(path.getFileName().toString()))
+                    .flatMap(Optional::stream)
+                    .forEach(action);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list stored avatars", e);
+        }
+    }
+
+    public String publicUrl(StoredAvatar avatar) {
+        return publicBaseUrl + "/avatars/" + avatar.fileName();
+    }
+
+    private Path pathFor(String hash, String extension) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + "." + extension);
+    }
+
+    private long copyLimited(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new PayloadTooLargeException("Avatar must not exceed " + maxBytes + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        return total;
+    }
+
+    private void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Same image uploaded concurrently, the existing copy is identical
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(temp, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // Same image uploaded concurrently, the existing copy is identical
+            }
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Leftover temp files are harmless
+        }
+    }
+
+    /**
+     * Supported image formats, detected from the file signature rather than the client supplied content type.
+     */
+    enum ImageType {
+        PNG("png", "image/png"),
+        JPEG("jpg", "image/jpeg"),
+        GIF("gif", "image/gif"),
+        WEBP("webp", "image/webp");
+
+        final String extension;
+        final String contentType;
+
+        ImageType(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        static ImageType fromExtension(String extension) {
+            for (ImageType type : values()) {
+                if (type.extension.equals(extension)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown image extension " + extension);
+        }
+
+        static ImageType detect(Path file) throws IOException {
+            byte[] header = new byte[12];
+            int read;
+            try (InputStream in = Files.newInputStream(file)) {
+                read = in.readNBytes(header, 0, header.length);
+            }
+            if (read >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+                return PNG;
+            }
+            if (read >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+                return JPEG;
+            }
+            if (read >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8') {
+                return GIF;
+            }
+            if (read >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                    && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+                return WEBP;
+            }
+            return null;
+        }
+    }
+}
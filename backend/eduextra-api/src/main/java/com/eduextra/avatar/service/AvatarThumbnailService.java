@@ -0,0 +1,371 @@
+package com.eduextra.avatar.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Generates fixed-size JPEG thumbnails of stored avatars on a bounded worker pool.
+ *
+ * Variants live in their own directory (size/ab/hash.jpg) and are treated as a cache:
+ * the total size is capped and the least recently served variants are deleted first.
+ * A missing variant is never generated on the request thread; the caller serves the
+ * original and the variant is queued for later.
+ *
+ * Metrics: avatars.thumbnails.queue, avatars.thumbnails.generation,
+ * avatars.thumbnails.failures, avatars.thumbnails.rejected, avatars.thumbnails.cache.bytes
+ * and avatars.thumbnails.evictions.
+ */
+@Service
+public class AvatarThumbnailService {
+
+    private static final Logger log = LoggerFactory.getLogger(AvatarThumbnailService.class);
+
+    private static final String EXTENSION = "jpg";
+    private static final String CONTENT_TYPE = "image/jpeg";
+
+    private final AvatarStorageService avatarStorageService;
+    private final Path root;
+    private final List<Integer> sizes;
+    private final long cacheMaxBytes;
+    private final long maxSourcePixels;
+    private final float quality;
+    private final boolean backfillOnStartup;
+
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    // Access-ordered map of variant path to file size, guarded by itself
+    private final LinkedHashMap<Path, Long> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cacheBytes;
+
+    private final Timer generationTimer;
+    private final Counter failures;
+    private final Counter rejected;
+    private final Counter evictions;
+
+    public AvatarThumbnailService(AvatarStorageService avatarStorageService, MeterRegistry meterRegistry,
+            @Value("${application.avatars.thumbnails.dir:data/avatar-thumbnails}") String thumbnailDir,
+            @Value("${application.avatars.thumbnails.sizes:32,64,128}") List<Integer> sizes,
+            @Value("${application.avatars.thumbnails.workers:2}") int workers,
+            @Value("${application.avatars.thumbnails.queue-capacity:1000}") int queueCapacity,
+            @Value("${application.avatars.thumbnails.cache-max-bytes:268435456}") long cacheMaxBytes,
+            @Value("${application.avatars.thumbnails.max-source-pixels:40000000}") long maxSourcePixels,
+            @Value("${application.avatars.thumbnails.quality:0.85}") float quality,
+            @Value("${application.avatars.thumbnails.backfill-on-startup:false}") boolean backfillOnStartup) {
+        this.avatarStorageService = avatarStorageService;
+        this.root = Path.of(thumbnailDir).toAbsolutePath().normalize();
+        this.sizes = sizes.stream().sorted().distinct().collect(Collectors.toList());
+        this.cacheMaxBytes = cacheMaxBytes;
+        this.maxSourcePixels = maxSourcePixels;
+        this.quality = quality;
+        this.backfillOnStartup = backfillOnStartup;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "avatar-thumbnail-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.generationTimer = Timer.builder("avatars.thumbnails.generation").description("Time to generate the thumbnails of one avatar").register(meterRegistry);
+        this.failures = Counter.builder("avatars.thumbnails.failures").description("Avatars whose thumbnails could not be generated").register(meterRegistry);
+        this.rejected = Counter.builder("avatars.thumbnails.rejected").description("Thumbnail jobs dropped because the queue was full").register(meterRegistry);
+        this.evictions = Counter.builder("avatars.thumbnails.evictions").description("Thumbnails deleted to keep the cache under its size cap").register(meterRegistry);
+        Gauge.builder("avatars.thumbnails.queue", executor, e -> e.getQueue().size()).description("Thumbnail jobs waiting for a worker").register(meterRegistry);
+        Gauge.builder("avatars.thumbnails.cache.bytes", this, AvatarThumbnailService::cacheBytes).description("Disk space used by thumbnails").register(meterRegistry);
+    }
+
+    /**
+     * Rebuilds the LRU index from disk, oldest files first, so the cap survives restarts.
+     */
+    @PostConstruct
+    void loadCache() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            files.filter(path -> Files.isRegularFile(path) && path.toString().endsWith("." + EXTENSION))
+                    .sorted(Comparator.comparing(AvatarThumbnailService::lastModified))
+                    .forEach(path -> record(path, fileSize(path)));
+        }
+        evictIfNeeded();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            log.info("Queued thumbnails for {} stored avatars", backfill());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues generation of every missing variant of an avatar. Returns false if nothing was queued.
+     */
+    public boolean enqueue(StoredAvatar avatar) {
+        if (missingSizes(avatar).isEmpty() || !pending.add(avatar.hash())) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(avatar);
+                } finally {
+                    pending.remove(avatar.hash());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // The variant will be queued again the next time it is requested or by a backfill
+            pending.remove(avatar.hash());
+            rejected.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Queues every stored avatar that is missing one or more variants. Returns how many were queued.
+     */
+    public int backfill() {
+        AtomicInteger queued = new AtomicInteger();
+        avatarStorageService.forEachStored(avatar -> {
+            if (enqueue(avatar)) {
+                queued.incrementAndGet();
+            }
+        });
+        return queued.get();
+    }
+
+    /**
+     * Returns the smallest variant that is at least the requested size, or the original itself
+     * when the request is larger than every variant or the format cannot be thumbnailed.
+     * Empty only while the variant is not generated yet (in which case it is queued).
+     */
+    public Optional<StoredAvatar> variant(StoredAvatar avatar, int requestedSize) {
+        if (!canThumbnail(avatar)) {
+            return Optional.of(avatar);
+        }
+        Optional<Integer> size = sizes.stream().filter(s -> s >= requestedSize).findFirst();
+        if (size.isEmpty()) {
+            return Optional.of(avatar);
+        }
+        Path path = variantPath(avatar.hash(), size.get());
+        Long length;
+        synchronized (cache) {
+            length = cache.get(path);
+        }
+        if (length == null || !Files.exists(path)) {
+            enqueue(avatar);
+            return Optional.empty();
+        }
+        return Optional.of(new StoredAvatar(avatar.hash() + "-" + size.get(), EXTENSION, CONTENT_TYPE, length, path));
+    }
+
+    public long cacheBytes() {
+        synchronized (cache) {
+            return cacheBytes;
+        }
+    }
+
+    private void generate(StoredAvatar avatar) {
+        List<Integer> missing = missingSizes(avatar);
+        if (missing.isEmpty()) {
+            return;
+        }
+        try {
+            generationTimer.recordCallable(() -> {
+                BufferedImage source = read(avatar.path());
+                for (int size : missing) {
+                    write(scale(source, size), variantPath(avatar.hash(), size));
+                }
+                return null;
+            });
+            evictIfNeeded();
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Could not generate thumbnails for avatar {}: {}", avatar.hash(), e.toString());
+        }
+    }
+
+    private List<Integer> missingSizes(StoredAvatar avatar) {
+        if (!canThumbnail(avatar)) {
+            return List.of();
+        }
+        return sizes.stream()
+                .filter(size -> !Files.exists(variantPath(avatar.hash(), size)))
+                .collect(Collectors.toList());
+    }
+
+    private boolean canThumbnail(StoredAvatar avatar) {
+        // The JDK has no WebP codec; those avatars are always served as uploaded
+        return !"webp".equals(avatar.extension());
+    }
+
+    /**
+     * Decodes the first frame of an image, refusing sources whose declared dimensions are too large.
+     */
+    private BufferedImage read(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("No image reader for " + source.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxSourcePixels) {
+                    throw new IOException("Image has " + pixels + " pixels, limit is " + maxSourcePixels);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Center-crops to a square and downscales in halving steps, which keeps bilinear
+     * filtering sharp without the cost of area averaging.
+     */
+    private BufferedImage scale(BufferedImage source, int size) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        BufferedImage current = source.getSubimage((source.getWidth() - side) / 2, (source.getHeight() - side) / 2, side, side);
+        int currentSide = side;
+        while (currentSide / 2 >= size) {
+            currentSide /= 2;
+            current = draw(current, currentSide);
+        }
+        return draw(current, size);
+    }
+
+    private BufferedImage draw(BufferedImage source, int side) {
+        // JPEG has no alpha channel, transparent pixels become white
+        BufferedImage target = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, side, side, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void write(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "thumb-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        record(target, Files.size(target));
+    }
+
+    private void record(Path path, long length) {
+        synchronized (cache) {
+            Long previous = cache.put(path, length);
+            cacheBytes += length - (previous == null ? 0 : previous);
+        }
+    }
+
+    private void evictIfNeeded() {
+        synchronized (cache) {
+            Iterator<Map.Entry<Path, Long>> eldest = cache.entrySet().iterator();
+            while (cacheBytes > cacheMaxBytes && eldest.hasNext()) {
+                Map.Entry<Path, Long> entry = eldest.next();
+                try {
+                    Files.deleteIfExists(entry.getKey());
+                } catch (IOException e) {
+                    log.warn("Could not delete thumbnail {}: {}", entry.getKey(), e.toString());
+                    continue;
+                }
+                cacheBytes -= entry.getValue();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private Path variantPath(String hash, int size) {
+        return root.resolve(String.valueOf(size)).resolve(hash.substring(0, 2)).resolve(hash + "." + EXTENSION);
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long fileSize(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
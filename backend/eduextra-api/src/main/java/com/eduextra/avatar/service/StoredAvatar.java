@@ -0,0 +1,13 @@
+package com.eduextra.avatar.service;
+
+import java.nio.file.Path;
+
+/**
+ * Avatar image stored on local disk under the SHA-256 of its content.
+ */
+public record StoredAvatar(String hash, String extension, String contentType, long size, Path path) {
+
+    public String fileName() {
+        return hash + "." + extension;
+    }
+}
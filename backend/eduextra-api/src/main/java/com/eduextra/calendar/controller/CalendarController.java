@@ -0,0 +1,129 @@
+package com.eduextra.calendar.controller;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.eduextra.calendar.dto.CalendarTokenResponseDTO;
+import com.eduextra.calendar.service.CalendarFeedService;
+import com.eduextra.calendar.service.CalendarFeedService.FeedState;
+import com.eduextra.user.model.User;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for calendar subscriptions. Feeds are read with the opaque token in their
+ * URL, since calendar apps cannot send a JWT.
+ */
+@RestController
+@RequestMapping("/calendar")
+@Tag(name = "Calendar", description = "iCalendar subscription feeds")
+@RequiredArgsConstructor
+public class CalendarController {
+
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private final CalendarFeedService calendarFeedService;
+
+    @Operation(
+        summary = "Create a calendar subscription URL",
+        description = "Issues a new feed URL for the authenticated user with the activities they are enrolled in or run. Any previous URL stops working.",
+        tags = {"Calendar"},
+        responses = {
+            @ApiResponse(responseCode = "201", description = "Subscription URL created")
+        }
+    )
+    @SecurityRequirement(name = "Bearer Authentication")
+    @PostMapping("/token")
+    public ResponseEntity<CalendarTokenResponseDTO> createToken(@AuthenticationPrincipal User user) {
+        String token = calendarFeedService.issueToken(user.getId());
+        String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/calendar/{token}.ics").buildAndExpand(token).toUriString();
+        return ResponseEntity.status(HttpStatus.CREATED).body(CalendarTokenResponseDTO.builder().url(url).token(token).build());
+    }
+
+    @Operation(
+        summary = "Get a calendar feed",
+        description = "iCalendar feed with a weekly recurring event per activity. Send If-None-Match or If-Modified-Since to get a 304 while nothing has changed.",
+        tags = {"Calendar"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Feed returned"),
+            @ApiResponse(responseCode = "304", description = "Client copy is current"),
+            @ApiResponse(responseCode = "404", description = "Unknown or revoked token")
+        }
+    )
+    @RequestMapping(value = "/{token}.ics", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getFeed(@PathVariable String token, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Long userId = calendarFeedService.resolve(token).orElse(null);
+        if (userId == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        FeedState current = calendarFeedService.current(userId).orElse(null);
+        if (current != null && notModified(request, current)) {
+            calendarFeedService.notModified();
+            setValidators(response, current);
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        FeedState state = calendarFeedService.open(userId);
+        setValidators(response, state);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType("text/calendar;charset=UTF-8");
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        calendarFeedService.write(userId, state, response.getWriter());
+    }
+
+    private void setValidators(HttpServletResponse response, FeedState state) {
+        response.setHeader(HttpHeaders.ETAG, state.etag());
+        response.setHeader(HttpHeaders.LAST_MODIFIED,
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(state.lastModified().atOffset(ZoneOffset.UTC)));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+    }
+
+    /**
+     * If-None-Match takes precedence; If-Modified-Since is only used without it.
+     */
+    private boolean notModified(HttpServletRequest request, FeedState state) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String value = tag.trim();
+                if (value.startsWith("W/")) {
+                    value = value.substring(2);
+                }
+                if (value.equals(state.etag()) || value.equals("*")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return since >= 0 && state.lastModified().toEpochMilli() <= since;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.eduextra.calendar.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a newly issued calendar subscription URL
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Calendar subscription URL; shown only once")
+public class CalendarTokenResponseDTO {
+
+    @Schema(description = "URL to add to a calendar app", example = "https://api.example.org/calendar/Yx3k...Q.ics")
+    private String url;
+
+    @Schema(description = "Opaque token in the URL; anyone holding it can read the feed")
+    private String token;
+}
@@ -0,0 +1,37 @@
+package com.eduextra.calendar.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Secret that lets calendar apps read a user's feed without a JWT. Only the SHA-256 of the
+ * token is stored; a user has at most one, and creating a new one revokes the old.
+ */
+@Entity
+@Data
+@Table(name = "calendar_tokens", indexes = {
+    @Index(name = "idx_calendar_tokens_token_hash", columnList = "token_hash", unique = true)
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarToken {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,19 @@
+package com.eduextra.calendar.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.calendar.model.CalendarToken;
+
+@Repository
+public interface CalendarTokenRepository extends JpaRepository<CalendarToken, Long> {
+
+    // Usuario activo dueño de un token de calendario
+    @Query("SELECT t.userId FROM CalendarToken t, User u WHERE u.id = t.userId AND t.tokenHash = :tokenHash "
+            + "AND u.isActive = true")
+    Optional<Long> findActiveUserIdByTokenHash(@Param("tokenHash") String tokenHash);
+}
@@ -0,0 +1,272 @@
+package com.eduextra.calendar.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.activity.repository.ActivitySlot;
+import com.eduextra.calendar.model.CalendarToken;
+import com.eduextra.calendar.repository.CalendarTokenRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-user iCalendar feeds of the activities a user is enrolled in or runs as monitor.
+ *
+ * Calendar apps poll every few minutes, so a poll is answered from memory whenever
+ * possible: tokens are resolved through a cache, and each user whose feed was generated has
+ * an entry with the ETag and Last-Modified it was sent with. A conditional poll that matches
+ * gets a 304 without touching the database. Entries are dropped on every node when the
+ * user's enrollments change or one of their activities changes, and the next poll
+ * regenerates the feed, streaming rows from the database straight into the response.
+ *
+ * Those changes reach other nodes through the outbox tail, which can miss a change
+ * committed late; entries also expire after feed-cache-seconds, so a missed change is
+ * served for that long at most.
+ *
+ * Metrics: calendar.feeds (tag result=not_modified|generated).
+ */
+@Service
+public class CalendarFeedService {
+
+    private static final String FEED_SQL = "select a.id, a.name, a.description, a.room, a.day_of_week, a.start_time, "
+            + "a.end_time, a.start_date, a.end_date, a.status, coalesce(a.updated_at, a.created_at) as changed_at "
+            + "from activities a where a.status <> 'DRAFT' and (a.monitor_id = ? or a.id in "
+            + "(select e.activity_id from enrollments e where e.student_id = ? and e.status = 'ACTIVE')) order by a.id";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * What a user's feed was last sent with, and which activities it listed.
+     */
+    public record FeedState(String etag, Instant lastModified, Set<Long> activityIds, long expiresAt) {
+    }
+
+    private record CachedOwner(Long userId, long expiresAt) {
+    }
+
+    private final CalendarTokenRepository calendarTokenRepository;
+    private final ActivityRepository activityRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ZoneId zone;
+    private final long tokenCacheMs;
+    private final long feedCacheMs;
+
+    private final ConcurrentHashMap<String, CachedOwner> ownerByTokenHash = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, FeedState> feeds = new ConcurrentHashMap<>();
+    // Seeded with the clock so ETags are not reused after a restart
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+    private final Counter notModified;
+    private final Counter generated;
+
+    public CalendarFeedService(CalendarTokenRepository calendarTokenRepository, ActivityRepository activityRepository,
+            JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+            @Value("${application.calendar.timezone:Europe/Madrid}") String timeZone,
+            @Value("${application.calendar.token-cache-seconds:3600}") long tokenCacheSeconds,
+            @Value("${application.calendar.feed-cache-seconds:900}") long feedCacheSeconds) {
+        this.calendarTokenRepository = calendarTokenRepository;
+        this.activityRepository = activityRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.zone = ZoneId.of(timeZone);
+        this.tokenCacheMs = tokenCacheSeconds * 1000;
+        this.feedCacheMs = feedCacheSeconds * 1000;
+        this.notModified = Counter.builder("calendar.feeds").tag("result", "not_modified")
+                .description("Calendar feed polls").register(meterRegistry);
+        this.generated = Counter.builder("calendar.feeds").tag("result", "generated")
+                .description("Calendar feed polls").register(meterRegistry);
+    }
+
+    /**
+     * Issues a new feed token for the user, revoking the previous one. The token is not
+     * stored and cannot be shown again.
+     */
+    @Transactional
+    public String issueToken(Long userId) {
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        calendarTokenRepository.save(CalendarToken.builder()
+                .userId(userId)
+                .tokenHash(hash(token))
+                .createdAt(LocalDateTime.now())
+                .build());
+        ownerByTokenHash.values().removeIf(owner -> owner.userId().equals(userId));
+        return token;
+    }
+
+    /**
+     * Owner of a feed token, if the token is current and the user is active. Owners are
+     * cached for token-cache-seconds, so a token revoked on another node keeps working here
+     * until its entry expires.
+     */
+    public Optional<Long> resolve(String token) {
+        String tokenHash = hash(token);
+        CachedOwner cached = ownerByTokenHash.get(tokenHash);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return Optional.of(cached.userId());
+        }
+        Optional<Long> owner = calendarTokenRepository.findActiveUserIdByTokenHash(tokenHash);
+        if (owner.isPresent()) {
+            ownerByTokenHash.put(tokenHash, new CachedOwner(owner.get(), System.currentTimeMillis() + tokenCacheMs));
+        } else {
+            ownerByTokenHash.remove(tokenHash);
+        }
+        return owner;
+    }
+
+    /**
+     * Validators of the user's current feed, if it was generated since it last changed and
+     * has not expired.
+     */
+    public Optional<FeedState> current(Long userId) {
+        FeedState state = feeds.get(userId);
+        if (state != null && state.expiresAt() <= System.currentTimeMillis()) {
+            feeds.remove(userId, state);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(state);
+    }
+
+    public void notModified() {
+        notModified.increment();
+    }
+
+    /**
+     * Starts a new version of the user's feed. Registered before the rows are read, so a
+     * change committed while the feed is written still invalidates it.
+     */
+    public FeedState open(Long userId) {
+        FeedState state = new FeedState("\"u" + userId + "-" + Long.toString(generation.incrementAndGet(), 36) + "\"",
+                Instant.now().truncatedTo(ChronoUnit.SECONDS), ConcurrentHashMap.newKeySet(),
+                System.currentTimeMillis() + feedCacheMs);
+        feeds.put(userId, state);
+        return state;
+    }
+
+    /**
+     * Streams the user's feed to the writer, one activity row at a time. A feed that could
+     * not be written completely is dropped, so its ETag is never matched.
+     */
+    public void write(Long userId, FeedState state, Writer out) throws IOException {
+        try {
+            writeFeed(userId, state, out);
+        } catch (IOException | RuntimeException e) {
+            feeds.remove(userId, state);
+            throw e;
+        }
+        generated.increment();
+    }
+
+    private void writeFeed(Long userId, FeedState state, Writer out) throws IOException {
+        ICalendarWriter calendar = new ICalendarWriter(out, zone.getId());
+        calendar.begin("EduExtra");
+        try {
+            jdbcTemplate.query(FEED_SQL, (RowCallbackHandler) rs -> {
+                long activityId = rs.getLong("id");
+                state.activityIds().add(activityId);
+                DayOfWeek day = DayOfWeek.valueOf(rs.getString("day_of_week"));
+                LocalTime startTime = rs.getObject("start_time", LocalTime.class);
+                LocalTime endTime = rs.getObject("end_time", LocalTime.class);
+                LocalDate first = rs.getObject("start_date", LocalDate.class).with(TemporalAdjusters.nextOrSame(day));
+                LocalDate last = rs.getObject("end_date", LocalDate.class);
+                if (first.isAfter(last)) {
+                    return;
+                }
+                Timestamp changedAt = rs.getTimestamp("changed_at");
+                try {
+                    calendar.event(new ICalendarWriter.WeeklyEvent(
+                            "activity-" + activityId + "@eduextra",
+                            changedAt != null ? changedAt.toInstant() : state.lastModified(),
+                            rs.getString("name"),
+                            rs.getString("description"),
+                            rs.getString("room"),
+                            first.atTime(startTime),
+                            first.atTime(endTime),
+                            day,
+                            last.atTime(startTime).atZone(zone).toInstant(),
+                            "CANCELLED".equals(rs.getString("status"))));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, userId, userId);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        calendar.end();
+    }
+
+    /**
+     * Drops expired feeds and token owners of users who stopped polling.
+     */
+    @Scheduled(fixedDelayString = "${application.calendar.cleanup-interval-ms:600000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        feeds.values().removeIf(state -> state.expiresAt() <= now);
+        ownerByTokenHash.values().removeIf(owner -> owner.expiresAt() <= now);
+    }
+
+    public void invalidateUsers(Collection<Long> userIds) {
+        userIds.forEach(feeds::remove);
+    }
+
+    /**
+     * Drops the feeds listing the activity and its monitor's, who may have just been assigned.
+     */
+    public void invalidateActivity(Long activityId) {
+        feeds.values().removeIf(state -> state.activityIds().contains(activityId));
+        activityRepository.findSlotById(activityId).map(ActivitySlot::monitorId).ifPresent(feeds::remove);
+    }
+
+    /**
+     * Drops every cached feed and token owner; they are read again on next use.
+     */
+    public void invalidateAll() {
+        feeds.clear();
+        ownerByTokenHash.clear();
+    }
+
+    /**
+     * Forgets cached token owners, e.g. after users are deactivated or deleted.
+     */
+    public void forgetTokens(Collection<Long> userIds) {
+        ownerByTokenHash.clear();
+        invalidateUsers(userIds);
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.eduextra.calendar.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.eduextra.activity.event.ActivityChanged;
+import com.eduextra.allocation.event.SeatsAllocated;
+import com.eduextra.enrollment.event.EnrollmentCreated;
+import com.eduextra.enrollment.event.EnrollmentWithdrawn;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.outbox.service.OutboxBroadcastSubscriber;
+import com.eduextra.user.event.UserDeleted;
+import com.eduextra.user.event.UserStatusChanged;
+import com.eduextra.waitlist.event.WaitlistPromoted;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Drops this node's cached calendar feeds when the enrollments or activities they list
+ * change on any node, and cached token owners when users are deactivated or deleted.
+ */
+@Component
+@RequiredArgsConstructor
+public class CalendarFeedSubscriber implements OutboxBroadcastSubscriber {
+
+    private static final Set<String> EVENT_TYPES = Set.of(
+            EnrollmentCreated.class.getSimpleName(),
+            EnrollmentWithdrawn.class.getSimpleName(),
+            WaitlistPromoted.class.getSimpleName(),
+            SeatsAllocated.class.getSimpleName(),
+            ActivityChanged.class.getSimpleName(),
+            UserStatusChanged.class.getSimpleName(),
+            UserDeleted.class.getSimpleName());
+
+    private final OutboxService outboxService;
+    private final CalendarFeedService calendarFeedService;
+
+    @Override
+    public boolean supports(String eventType) {
+        return EVENT_TYPES.contains(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        String type = event.getEventType();
+        if (EnrollmentCreated.class.getSimpleName().equals(type)) {
+            calendarFeedService.invalidateUsers(List.of(outboxService.readPayload(event, EnrollmentCreated.class).studentId()));
+        } else if (EnrollmentWithdrawn.class.getSimpleName().equals(type)) {
+            calendarFeedService.invalidateUsers(List.of(outboxService.readPayload(event, EnrollmentWithdrawn.class).studentId()));
+        } else if (WaitlistPromoted.class.getSimpleName().equals(type)) {
+            calendarFeedService.invalidateUsers(outboxService.readPayload(event, WaitlistPromoted.class).studentIds());
+        } else if (SeatsAllocated.class.getSimpleName().equals(type)) {
+            calendarFeedService.invalidateUsers(outboxService.readPayload(event, SeatsAllocated.class).studentIds());
+        } else if (ActivityChanged.class.getSimpleName().equals(type)) {
+            calendarFeedService.invalidateActivity(outboxService.readPayload(event, ActivityChanged.class).activityId());
+        } else if (UserStatusChanged.class.getSimpleName().equals(type)) {
+            UserStatusChanged changed = outboxService.readPayload(event, UserStatusChanged.class);
+            if (!changed.active()) {
+                calendarFeedService.forgetTokens(changed.userIds());
+            }
+        } else {
+            calendarFeedService.forgetTokens(outboxService.readPayload(event, UserDeleted.class).userIds());
+        }
+    }
+
+    @Override
+    public void reload() {
+        calendarFeedService.invalidateAll();
+    }
+}
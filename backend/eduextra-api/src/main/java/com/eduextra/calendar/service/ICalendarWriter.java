@@ -0,0 +1,99 @@
+package com.eduextra.calendar.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Minimal RFC 5545 writer: CRLF line endings, text escaping and folding of lines longer
+ * than 75 octets. Writes straight to the given writer; nothing is buffered here.
+ */
+final class ICalendarWriter {
+
+    private static final DateTimeFormatter LOCAL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final int MAX_OCTETS = 75;
+
+    /**
+     * A weekly recurring event. Times are local to the calendar's time zone; until is the
+     * last moment a session can start, in UTC as RFC 5545 requires with TZID start times.
+     */
+    record WeeklyEvent(String uid, Instant stamp, String summary, String description, String location,
+            LocalDateTime start, LocalDateTime end, DayOfWeek day, Instant until, boolean cancelled) {
+    }
+
+    private final Writer out;
+    private final String timeZone;
+
+    ICalendarWriter(Writer out, String timeZone) {
+        this.out = out;
+        this.timeZone = timeZone;
+    }
+
+    void begin(String name) throws IOException {
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//EduExtra//Activities//ES");
+        line("CALSCALE:GREGORIAN");
+        line("METHOD:PUBLISH");
+        line("X-WR-CALNAME:" + escape(name));
+        line("X-WR-TIMEZONE:" + timeZone);
+    }
+
+    void event(WeeklyEvent event) throws IOException {
+        line("BEGIN:VEVENT");
+        line("UID:" + event.uid());
+        line("DTSTAMP:" + UTC.format(event.stamp()));
+        line("DTSTART;TZID=" + timeZone + ":" + LOCAL.format(event.start()));
+        line("DTEND;TZID=" + timeZone + ":" + LOCAL.format(event.end()));
+        line("RRULE:FREQ=WEEKLY;BYDAY=" + event.day().name().substring(0, 2) + ";UNTIL=" + UTC.format(event.until()));
+        line("SUMMARY:" + escape(event.summary()));
+        if (event.description() != null && !event.description().isBlank()) {
+            line("DESCRIPTION:" + escape(event.description()));
+        }
+        if (event.location() != null && !event.location().isBlank()) {
+            line("LOCATION:" + escape(event.location()));
+        }
+        line("STATUS:" + (event.cancelled() ? "CANCELLED" : "CONFIRMED"));
+        line("END:VEVENT");
+    }
+
+    void end() throws IOException {
+        line("END:VCALENDAR");
+        out.flush();
+    }
+
+    static String escape(String text) {
+        return text.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n")
+                .replace("\r", "\\n");
+    }
+
+    /**
+     * Writes one content line, folded so no physical line exceeds 75 octets in UTF-8.
+     * Continuation lines start with a space, which counts towards their length.
+     */
+    private void line(String content) throws IOException {
+        int octets = 0;
+        int offset = 0;
+        while (offset < content.length()) {
+            int codePoint = content.codePointAt(offset);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + size > MAX_OCTETS) {
+                out.write("\r\n ");
+                octets = 1;
+            }
+            out.write(Character.toChars(codePoint));
+            octets += size;
+            offset += Character.charCount(codePoint);
+        }
+        out.write("\r\n");
+    }
+}
@@ -0,0 +1,125 @@
+package com.eduextra.catalog.controller;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.eduextra.activity.model.AgeGroup;
+import com.eduextra.catalog.dto.PublicCatalogDTO;
+import com.eduextra.catalog.service.CatalogSnapshot;
+import com.eduextra.catalog.service.PublicCatalogService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Serves the public activity catalog to anonymous visitors and community members.
+ *
+ * Bodies are pre-rendered snapshots written as-is, gzip-compressed when the client accepts
+ * it. Nothing here touches the database or the JWT filter, and the ETag and Cache-Control
+ * headers let a reverse proxy answer most requests on its own.
+ */
+@RestController
+@RequestMapping("/public/catalog")
+@Tag(name = "Public Catalog", description = "Anonymous activity catalog")
+@RequiredArgsConstructor
+public class PublicCatalogController {
+
+    private final PublicCatalogService publicCatalogService;
+
+    @Value("${application.catalog.max-age-seconds:30}")
+    private long maxAgeSeconds;
+
+    @Operation(
+        summary = "Get the public catalog",
+        description = "Open and closed activities that have not ended, with their schedule and free seats. Seat counts may lag a few seconds behind enrollments. Supports HEAD, If-None-Match and gzip.",
+        tags = {"Public Catalog"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Catalog returned",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = PublicCatalogDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Client copy is current"),
+            @ApiResponse(responseCode = "503", description = "Catalog not built yet; retry shortly")
+        }
+    )
+    @RequestMapping(method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getCatalog(
+            @Parameter(description = "Only activities for this age group") @RequestParam(required = false) AgeGroup ageGroup,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CatalogSnapshot snapshot = publicCatalogService.snapshot(ageGroup).orElse(null);
+        if (snapshot == null) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+            return;
+        }
+
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        response.setHeader(HttpHeaders.ETAG, gzip ? snapshot.gzipEtag() : snapshot.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + maxAgeSeconds);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), snapshot)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        byte[] body = gzip ? snapshot.gzip() : snapshot.json();
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        if (!"HEAD".equals(request.getMethod())) {
+            response.getOutputStream().write(body);
+        }
+    }
+
+    /**
+     * Whether Accept-Encoding lists gzip without refusing it (q=0).
+     */
+    private boolean acceptsGzip(String header) {
+        if (header == null) {
+            return false;
+        }
+        for (String coding : header.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * If-None-Match uses weak comparison, and either encoding's tag names the same content.
+     */
+    private boolean matches(String header, CatalogSnapshot snapshot) {
+        if (header == null) {
+            return false;
+        }
+        for (String tag : header.split(",")) {
+            String value = tag.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(snapshot.etag()) || value.equals(snapshot.gzipEtag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
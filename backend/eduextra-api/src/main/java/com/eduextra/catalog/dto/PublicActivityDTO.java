@@ -0,0 +1,68 @@
+package com.eduextra.catalog.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.model.AgeGroup;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for an activity as shown in the public catalog. Staff-only details (monitor, audit
+ * fields) are left out.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Activity as listed in the public catalog")
+public class PublicActivityDTO {
+
+    @Schema(description = "Activity's unique identifier", example = "1")
+    private Long id;
+
+    @Schema(description = "Activity name", example = "Robótica")
+    private String name;
+
+    @Schema(description = "Activity description")
+    private String description;
+
+    @Schema(description = "Activity category", example = "Technology")
+    private String category;
+
+    @Schema(description = "Age group the activity is aimed at")
+    private AgeGroup ageGroup;
+
+    @Schema(description = "Room where the activity takes place", example = "Lab 2")
+    private String room;
+
+    @Schema(description = "Weekday of the weekly session", example = "MONDAY")
+    private DayOfWeek dayOfWeek;
+
+    @Schema(description = "Session start time", example = "17:00")
+    private LocalTime startTime;
+
+    @Schema(description = "Session end time", example = "18:30")
+    private LocalTime endTime;
+
+    @Schema(description = "First day of the term", example = "2026-09-14")
+    private LocalDate startDate;
+
+    @Schema(description = "Last day of the term", example = "2027-06-18")
+    private LocalDate endDate;
+
+    @Schema(description = "Maximum number of enrolled students", example = "20")
+    private Integer capacity;
+
+    @Schema(description = "Seats still available", example = "8")
+    private Integer seatsAvailable;
+
+    @Schema(description = "Activity status; only OPEN activities take enrollments")
+    private ActivityStatus status;
+}
@@ -0,0 +1,26 @@
+package com.eduextra.catalog.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a public catalog snapshot
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Public catalog snapshot")
+public class PublicCatalogDTO {
+
+    @Schema(description = "Content hash of the listed activities; changes whenever any of them changes", example = "3f1c9a0b7d2e4c6f")
+    private String version;
+
+    @Schema(description = "Open and closed activities that have not ended, by name")
+    private List<PublicActivityDTO> activities;
+}
@@ -0,0 +1,18 @@
+package com.eduextra.catalog.service;
+
+/**
+ * One pre-serialized catalog variant, kept both as plain and as gzip-compressed JSON.
+ */
+public record CatalogSnapshot(String version, byte[] json, byte[] gzip) {
+
+    /**
+     * Strong ETag of the plain body. The two encodings are different bytes, so each has its own.
+     */
+    public String etag() {
+        return "\"" + version + "\"";
+    }
+
+    public String gzipEtag() {
+        return "\"" + version + "-gzip\"";
+    }
+}
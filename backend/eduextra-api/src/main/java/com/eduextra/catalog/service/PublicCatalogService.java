@@ -0,0 +1,210 @@
+package com.eduextra.catalog.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eduextra.activity.model.Activity;
+import com.eduextra.activity.model.AgeGroup;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.catalog.dto.PublicActivityDTO;
+import com.eduextra.catalog.dto.PublicCatalogDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the public catalog rendered as ready-to-send JSON, so anonymous traffic never
+ * reaches the database.
+ *
+ * There is one snapshot for the whole catalog and one per age group, each serialized once
+ * and gzip-compressed once. A snapshot's version is a hash of its content: it only changes
+ * when a listed activity does, and it is the same on every node, so ETags stay valid across
+ * nodes and rebuilds.
+ *
+ * Activity, enrollment and allocation events, tailed from the outbox by every node, mark the
+ * catalog as changed; changes arriving within the debounce window are folded into one
+ * rebuild. A periodic refresh also picks up activities that end and events the tail missed.
+ *
+ * Metrics: catalog.snapshot.build, catalog.snapshot.bytes.
+ */
+@Service
+public class PublicCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(PublicCatalogService.class);
+
+    private record Snapshots(CatalogSnapshot all, Map<AgeGroup, CatalogSnapshot> byAgeGroup) {
+    }
+
+    private final ActivityRepository activityRepository;
+    private final ObjectMapper objectMapper;
+    private final long debounceMs;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final Timer buildTimer;
+
+    private volatile Snapshots snapshots;
+
+    public PublicCatalogService(ActivityRepository activityRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${application.catalog.debounce-ms:2000}") long debounceMs) {
+        this.activityRepository = activityRepository;
+        this.objectMapper = objectMapper;
+        this.debounceMs = debounceMs;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.buildTimer = Timer.builder("catalog.snapshot.build").description("Time to render the public catalog snapshots").register(meterRegistry);
+        Gauge.builder("catalog.snapshot.bytes", this, s -> s.snapshots == null ? 0 : s.snapshots.all().gzip().length)
+                .description("Compressed size of the full public catalog").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuildQuietly();
+    }
+
+    @Scheduled(fixedDelayString = "${application.catalog.refresh-interval-ms:60000}",
+            initialDelayString = "${application.catalog.refresh-interval-ms:60000}")
+    public void periodicRefresh() {
+        markChanged();
+    }
+
+    /**
+     * Schedules a rebuild after the debounce window, unless one is already scheduled.
+     */
+    public void markChanged() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            scheduler.schedule(this::rebuildQuietly, debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Whole catalog when ageGroup is null. Empty until the first build has finished.
+     */
+    public Optional<CatalogSnapshot> snapshot(AgeGroup ageGroup) {
+        Snapshots current = snapshots;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(ageGroup == null ? current.all() : current.byAgeGroup().get(ageGroup));
+    }
+
+    /**
+     * Renders every snapshot now, on the calling thread.
+     */
+    public synchronized void rebuild() {
+        buildTimer.record(() -> {
+            List<PublicActivityDTO> activities = activityRepository.findPublicCatalog(LocalDate.now()).stream()
+                    .map(this::toDTO)
+                    .toList();
+            Snapshots previous = snapshots;
+            CatalogSnapshot all = render(activities, previous == null ? null : previous.all());
+            Map<AgeGroup, CatalogSnapshot> byAgeGroup = new EnumMap<>(AgeGroup.class);
+            for (AgeGroup ageGroup : AgeGroup.values()) {
+                // Activities for all ages are listed under every age group
+                List<PublicActivityDTO> selected = activities.stream()
+                        .filter(a -> a.getAgeGroup() == ageGroup || a.getAgeGroup() == AgeGroup.ALL_AGES)
+                        .toList();
+                byAgeGroup.put(ageGroup, render(selected, previous == null ? null : previous.byAgeGroup().get(ageGroup)));
+            }
+            snapshots = new Snapshots(all, Collections.unmodifiableMap(byAgeGroup));
+            if (previous == null || !previous.all().version().equals(all.version())) {
+                log.info("Public catalog snapshot {}: {} activities, {} bytes gzipped", all.version(), activities.size(), all.gzip().length);
+            }
+        });
+    }
+
+    private void rebuildQuietly() {
+        // Cleared first, so a change arriving during the rebuild schedules another one
+        rebuildPending.set(false);
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Public catalog rebuild failed; serving the previous snapshot", e);
+        }
+    }
+
+    /**
+     * Keeps the previous snapshot, byte arrays included, when the content has not changed.
+     */
+    private CatalogSnapshot render(List<PublicActivityDTO> activities, CatalogSnapshot previous) {
+        try {
+            String version = hash(objectMapper.writeValueAsBytes(activities));
+            if (previous != null && previous.version().equals(version)) {
+                return previous;
+            }
+            byte[] json = objectMapper.writeValueAsBytes(PublicCatalogDTO.builder().version(version).activities(activities).build());
+            return new CatalogSnapshot(version, json, gzip(json));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        }
+        return bytes.toByteArray();
+    }
+
+    private PublicActivityDTO toDTO(Activity activity) {
+        return PublicActivityDTO.builder()
+                .id(activity.getId())
+                .name(activity.getName())
+                .description(activity.getDescription())
+                .category(activity.getCategory())
+                .ageGroup(activity.getAgeGroup())
+                .room(activity.getRoom())
+                .dayOfWeek(activity.getDayOfWeek())
+                .startTime(activity.getStartTime())
+                .endTime(activity.getEndTime())
+                .startDate(activity.getStartDate())
+                .endDate(activity.getEndDate())
+                .capacity(activity.getCapacity())
+                .seatsAvailable(Math.max(0, activity.getCapacity() - activity.getSeatsTaken()))
+                .status(activity.getStatus())
+                .build();
+    }
+}
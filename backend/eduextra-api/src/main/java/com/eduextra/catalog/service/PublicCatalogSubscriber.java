@@ -0,0 +1,47 @@
+package com.eduextra.catalog.service;
+
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.eduextra.activity.event.ActivityChanged;
+import com.eduextra.allocation.event.SeatsAllocated;
+import com.eduextra.enrollment.event.EnrollmentCreated;
+import com.eduextra.enrollment.event.EnrollmentWithdrawn;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.service.OutboxBroadcastSubscriber;
+import com.eduextra.waitlist.event.WaitlistPromoted;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Re-renders this node's public catalog when activities or their free seats change on any node.
+ */
+@Component
+@RequiredArgsConstructor
+public class PublicCatalogSubscriber implements OutboxBroadcastSubscriber {
+
+    private static final Set<String> EVENT_TYPES = Set.of(
+            ActivityChanged.class.getSimpleName(),
+            EnrollmentCreated.class.getSimpleName(),
+            EnrollmentWithdrawn.class.getSimpleName(),
+            WaitlistPromoted.class.getSimpleName(),
+            SeatsAllocated.class.getSimpleName());
+
+    private final PublicCatalogService publicCatalogService;
+
+    @Override
+    public boolean supports(String eventType) {
+        return EVENT_TYPES.contains(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        publicCatalogService.markChanged();
+    }
+
+    @Override
+    public void reload() {
+        publicCatalogService.markChanged();
+    }
+}
@@ -0,0 +1,59 @@
+package com.eduextra.common.queue;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Retry, lag and cleanup rules shared by the database-backed work queues: background jobs,
+ * the email queue and the outbox relay. Each queue claims its own rows, since their states
+ * differ, but they back off, record errors and report lag the same way.
+ */
+public final class WorkQueues {
+
+    // Length of the last_error columns
+    public static final int MAX_ERROR_LENGTH = 500;
+
+    // Identifies this node's leases; the random part tells apart restarts of the same process name
+    public static final String NODE = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    private WorkQueues() {
+    }
+
+    /**
+     * Delay before the next attempt: 2^attempts seconds, capped at maxBackoffSeconds.
+     */
+    public static Duration backoff(int attempts, long maxBackoffSeconds) {
+        long seconds = 1L << Math.min(attempts, 20);
+        return Duration.ofSeconds(Math.min(seconds, maxBackoffSeconds));
+    }
+
+    /**
+     * The error of a failed attempt, cut to fit the last_error column.
+     */
+    public static String errorMessage(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    /**
+     * Seconds the oldest waiting item has been due, 0 if there is none.
+     */
+    public static long lagSeconds(LocalDateTime oldest, LocalDateTime now) {
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, now).getSeconds());
+    }
+
+    /**
+     * Runs a bulk delete of finished items in its own transaction and logs how many went.
+     */
+    public static void purge(TransactionTemplate transactionTemplate, IntSupplier delete, Logger log, String what) {
+        Integer purged = transactionTemplate.execute(status -> delete.getAsInt());
+        if (purged != null && purged > 0) {
+            log.info("Purged {} {}", purged, what);
+        }
+    }
+}
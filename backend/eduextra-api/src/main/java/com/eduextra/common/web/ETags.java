@@ -0,0 +1,47 @@
+package com.eduextra.common.web;
+
+import java.util.function.Function;
+
+import org.springframework.http.ResponseEntity;
+
+import com.eduextra.exception.PreconditionFailedException;
+
+/**
+ * Version-based ETags for resources updated with optimistic locking. The ETag is the
+ * entity's version, and clients send it back in If-Match to update what they last read.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * A 200 response carrying the body's version as a strong ETag, or no ETag if it has none.
+     */
+    public static <T> ResponseEntity<T> ok(T body, Function<T, Long> version) {
+        Long current = version.apply(body);
+        if (current == null) {
+            return ResponseEntity.ok(body);
+        }
+        return ResponseEntity.ok().eTag("\"" + current + "\"").body(body);
+    }
+
+    /**
+     * Extracts the version from an If-Match header. "*" or a missing header means no check.
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Invalid If-Match header");
+        }
+    }
+}
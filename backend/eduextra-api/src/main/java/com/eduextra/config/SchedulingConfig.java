@@ -0,0 +1,13 @@
+package com.eduextra.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (outbox relay and tail, job lanes, mail, rollups, purges).
+ * They share the scheduler pool sized by spring.task.scheduling.pool.size.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
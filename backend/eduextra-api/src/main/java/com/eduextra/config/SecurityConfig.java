@@ -9,6 +9,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -23,12 +24,15 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.eduextra.security.JwtAuthenticationFilter;
 
+import jakarta.servlet.DispatcherType;
+
 import lombok.RequiredArgsConstructor;
 
 import lombok.RequiredArgsConstructor;
 
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
     
@@ -47,7 +51,15 @@ public class SecurityConfig {
                     "/swagger-ui/**",
                     "/swagger-ui.html"
                 ).permitAll()
+                .requestMatchers(HttpMethod.GET, "/avatars/**").permitAll()
+                .requestMatchers(HttpMethod.HEAD, "/avatars/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/public/**").permitAll()
+                .requestMatchers(HttpMethod.HEAD, "/public/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/calendar/*.ics").permitAll() // Authenticated by the token in the URL
+                .requestMatchers(HttpMethod.HEAD, "/calendar/*.ics").permitAll()
+                .requestMatchers(HttpMethod.GET, "/waiting-room/tickets/*").permitAll() // Authenticated by the ticket signature
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll() // Allow preflight requests
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Ends of notification streams, authorized when they opened
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -63,6 +75,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList("http://localhost:*", "http://127.0.0.1:*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("ETag", "Idempotent-Replayed")); // Read by clients sending If-Match / Idempotency-Key
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         
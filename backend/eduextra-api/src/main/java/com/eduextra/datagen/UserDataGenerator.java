@@ -0,0 +1,261 @@
+package com.eduextra.datagen;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.user.model.Role;
+
+/**
+ * Generates large volumes of realistic users for performance testing.
+ *
+ * Only active with the "datagen" profile. Output is fully determined by the seed and
+ * the other application.datagen.* properties, so two runs with the same configuration
+ * produce the same rows and benchmark results stay comparable. Every user shares the
+ * same password, hashed once with BCrypt, and rows are written with batched JDBC inserts.
+ */
+@Component
+@Profile("datagen")
+public class UserDataGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDataGenerator.class);
+
+    private static final String INSERT_SQL = "insert into users "
+            + "(full_name, email, password, role, is_active, avatar_url, created_at, updated_at, version) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    // Ordered roughly by popularity: the skewed sampler picks early entries more often
+    private static final String[] FIRST_NAMES = {
+        "María", "Lucía", "Hugo", "Martín", "Sofía", "Daniel", "Paula", "Pablo", "Julia", "Alejandro",
+        "Valeria", "Mateo", "Emma", "Leo", "Martina", "Lucas", "Alba", "Manuel", "Noa", "Álvaro",
+        "Carla", "Adrián", "Sara", "David", "Daniela", "Mario", "Irene", "Diego", "Carmen", "Javier",
+        "Elena", "Marcos", "Laura", "Izan", "Claudia", "Enzo", "Vega", "Bruno", "Ana", "Thiago",
+        "Olivia", "Nicolás", "Aitana", "Gonzalo", "Jimena", "Iker", "Lola", "Rodrigo", "Candela", "Oliver"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "García", "Rodríguez", "González", "Fernández", "López", "Martínez", "Sánchez", "Pérez", "Gómez", "Martín",
+        "Jiménez", "Ruiz", "Hernández", "Díaz", "Moreno", "Muñoz", "Álvarez", "Romero", "Alonso", "Gutiérrez",
+        "Navarro", "Torres", "Domínguez", "Vázquez", "Ramos", "Gil", "Ramírez", "Serrano", "Blanco", "Molina",
+        "Morales", "Suárez", "Ortega", "Delgado", "Castro", "Ortiz", "Rubio", "Marín", "Sanz", "Núñez",
+        "Iglesias", "Medina", "Garrido", "Cortés", "Castillo", "Santos", "Lozano", "Guerrero", "Cano", "Prieto"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationContext applicationContext;
+
+    @Value("${application.datagen.count:1000000}")
+    private int count;
+
+    @Value("${application.datagen.start-index:0}")
+    private int startIndex;
+
+    @Value("${application.datagen.seed:42}")
+    private long seed;
+
+    @Value("${application.datagen.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${application.datagen.role-mix:STUDENT:85,MONITOR:6,NEIGHBOR:5,COORDINATOR:3,ADMIN:1}")
+    private String roleMix;
+
+    @Value("${application.datagen.active-ratio:0.9}")
+    private double activeRatio;
+
+    @Value("${application.datagen.name-skew:2.0}")
+    private double nameSkew;
+
+    @Value("${application.datagen.avatar-ratio:0.3}")
+    private double avatarRatio;
+
+    @Value("${application.datagen.password:password123}")
+    private String password;
+
+    @Value("${application.datagen.base-date:2025-09-01}")
+    private String baseDate;
+
+    @Value("${application.datagen.history-days:1460}")
+    private int historyDays;
+
+    @Value("${application.datagen.exit-on-completion:true}")
+    private boolean exitOnCompletion;
+
+    public UserDataGenerator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            PasswordEncoder passwordEncoder, ApplicationContext applicationContext) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        generate();
+        if (exitOnCompletion) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    /**
+     * Inserts the configured number of users and returns how many rows were written.
+     */
+    public int generate() {
+        // One BCrypt hash for every row: hashing millions of passwords would dominate the run
+        String encodedPassword = passwordEncoder.encode(password);
+        RoleSampler roleSampler = new RoleSampler(roleMix);
+        LocalDateTime base = LocalDate.parse(baseDate).atStartOfDay();
+
+        long started = System.nanoTime();
+        int written = 0;
+        for (int from = startIndex; from < startIndex + count; from += batchSize) {
+            int size = Math.min(batchSize, startIndex + count - from);
+            GeneratedUser[] rows = new GeneratedUser[size];
+            for (int i = 0; i < size; i++) {
+                int index = from + i;
+                // Row i always uses the same random stream regardless of batch size or start index
+                rows[i] = generateUser(index, new SplittableRandom(mix(seed + mix(index))), roleSampler, base);
+            }
+            transactionTemplate.executeWithoutResult(status -> insertBatch(rows, encodedPassword));
+            written += size;
+            if (written % (batchSize * 20) == 0 || written == count) {
+                double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+                log.info("Generated {}/{} users ({} rows/s)", written, count, Math.round(written / seconds));
+            }
+        }
+        return written;
+    }
+
+    private GeneratedUser generateUser(int index, SplittableRandom random, RoleSampler roleSampler,
+            LocalDateTime base) {
+        String firstName = FIRST_NAMES[skewedIndex(random, FIRST_NAMES.length)];
+        String lastName1 = LAST_NAMES[skewedIndex(random, LAST_NAMES.length)];
+        String lastName2 = LAST_NAMES[skewedIndex(random, LAST_NAMES.length)];
+        // full_name and email are unique, so the index keeps them distinct while the
+        // names themselves follow a realistic, skewed distribution for search tests
+        String fullName = firstName + " " + lastName1 + " " + lastName2 + " " + index;
+        String email = slug(firstName) + "." + slug(lastName1) + "." + index + "@datagen.eduextra.local";
+
+        LocalDateTime createdAt = base.minusMinutes(random.nextLong(historyDays * 24L * 60L));
+        boolean active = random.nextDouble() < activeRatio;
+        // Inactive users were last touched somewhere between creation and the base date
+        LocalDateTime updatedAt = active
+                ? createdAt
+                : createdAt.plusMinutes(random.nextLong(Math.max(1, Duration.between(createdAt, base).toMinutes())));
+        String avatarUrl = random.nextDouble() < avatarRatio ? "https://unavatar.io/" + slug(firstName) + index : null;
+
+        return new GeneratedUser(fullName, email, roleSampler.next(random), active, avatarUrl, createdAt, updatedAt);
+    }
+
+    private void insertBatch(GeneratedUser[] rows, String encodedPassword) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                GeneratedUser user = rows[i];
+                ps.setString(1, user.fullName());
+                ps.setString(2, user.email());
+                ps.setString(3, encodedPassword);
+                ps.setString(4, user.role().name());
+                ps.setBoolean(5, user.active());
+                ps.setString(6, user.avatarUrl());
+                ps.setTimestamp(7, Timestamp.valueOf(user.createdAt()));
+                ps.setTimestamp(8, Timestamp.valueOf(user.updatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.length;
+            }
+        });
+    }
+
+    /**
+     * Picks an index in [0, size) biased towards the start of the array.
+     * A skew of 1 is uniform, higher values concentrate on the most common names.
+     */
+    private int skewedIndex(SplittableRandom random, int size) {
+        return (int) (Math.pow(random.nextDouble(), nameSkew) * size);
+    }
+
+    private static long mix(long value) {
+        // SplitMix64 finalizer, spreads consecutive indexes over the seed space
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    private static String slug(String value) {
+        return Normalizer.normalize(value, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private record GeneratedUser(String fullName, String email, Role role, boolean active, String avatarUrl,
+            LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    /**
+     * Weighted role sampler parsed from "ROLE:weight,ROLE:weight".
+     */
+    private static final class RoleSampler {
+
+        private final Role[] roles;
+        private final double[] cumulative;
+
+        RoleSampler(String mix) {
+            Map<Role, Double> weights = new EnumMap<>(Role.class);
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split(":");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid role mix entry: " + entry);
+                }
+                weights.merge(Role.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)),
+                        Double.parseDouble(parts[1].trim()), Double::sum);
+            }
+            double total = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+            if (total <= 0) {
+                throw new IllegalArgumentException("Role mix weights must add up to more than zero");
+            }
+            roles = weights.keySet().toArray(new Role[0]);
+            cumulative = new double[roles.length];
+            double acc = 0;
+            for (int i = 0; i < roles.length; i++) {
+                acc += weights.get(roles[i]) / total;
+                cumulative[i] = acc;
+            }
+        }
+
+        Role next(SplittableRandom random) {
+            double value = random.nextDouble();
+            for (int i = 0; i < cumulative.length - 1; i++) {
+                if (value < cumulative[i]) {
+                    return roles[i];
+                }
+            }
+            return roles[roles.length - 1];
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.eduextra.enrollment.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import com.eduextra.common.dto.PagedResponseDTO;
+import com.eduextra.enrollment.dto.EnrollmentResponseDTO;
+import com.eduextra.enrollment.service.EnrollmentService;
+import com.eduextra.exception.ErrorResponse;
+import com.eduextra.user.model.User;
+import com.eduextra.waitlist.service.WaitlistService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for enrolling students in activities.
+ *
+ * Security: All endpoints require JWT Bearer authentication. The student is always the
+ * authenticated user, taken from the security context without another database read.
+ */
+@RestController
+@Tag(name = "Enrollment Management", description = "Operations related to activity enrollments")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class EnrollmentController {
+
+    private final EnrollmentService enrollmentService;
+    private final WaitlistService waitlistService;
+
+    @Operation(
+        summary = "Enroll in an activity",
+        description = "Takes a seat in an activity for the authenticated student. Seats are never oversold, even when many students enroll at the same moment. When the activity is full, or other students are already waiting, the student joins the waitlist instead and is enrolled automatically when a seat frees up.",
+        tags = {"Enrollment Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Enrolled successfully"),
+            @ApiResponse(responseCode = "202", description = "Activity is full; the student was added to the waitlist"),
+            @ApiResponse(responseCode = "404", description = "Activity not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "Activity is not open, or the student is already enrolled or waiting", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PostMapping("/activities/{activityId}/enrollments")
+    public ResponseEntity<EnrollmentResponseDTO> enroll(@PathVariable Long activityId, @AuthenticationPrincipal User user) {
+        EnrollmentResponseDTO enrollment = waitlistService.enrollOrJoin(activityId, user.getId(), user.getRole());
+        if (Boolean.TRUE.equals(enrollment.getWaitlisted())) {
+            return ResponseEntity.accepted().body(enrollment);
+        }
+        return ResponseEntity.ok(enrollment);
+    }
+
+    @Operation(
+        summary = "Withdraw from an activity",
+        description = "Gives the authenticated student's seat back.",
+        tags = {"Enrollment Management"},
+        responses = {
+            @ApiResponse(responseCode = "204", description = "Withdrawn successfully"),
+            @ApiResponse(responseCode = "404", description = "Enrollment not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @DeleteMapping("/activities/{activityId}/enrollments/me")
+    public ResponseEntity<Void> withdraw(@PathVariable Long activityId, @AuthenticationPrincipal User user) {
+        enrollmentService.withdraw(activityId, user.getId(), false);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(
+        summary = "Remove a student from an activity",
+        description = "Removes a student's enrollment and frees the seat.",
+        tags = {"Enrollment Management"},
+        responses = {
+            @ApiResponse(responseCode = "204", description = "Student removed"),
+            @ApiResponse(responseCode = "404", description = "Enrollment not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @DeleteMapping("/activities/{activityId}/enrollments/{studentId}")
+    public ResponseEntity<Void> removeStudent(@PathVariable Long activityId, @PathVariable Long studentId) {
+        enrollmentService.withdraw(activityId, studentId, true);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(
+        summary = "Get the enrollments of an activity",
+        description = "Retrieves the active enrollments of an activity in enrollment order.",
+        tags = {"Enrollment Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Enrollments retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Activity not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR', 'MONITOR')")
+    @GetMapping("/activities/{activityId}/enrollments")
+    public ResponseEntity<PagedResponseDTO<EnrollmentResponseDTO>> getEnrollments(@PathVariable Long activityId,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(enrollmentService.getEnrollments(activityId, page, size));
+    }
+
+    @Operation(
+        summary = "Get my enrollments",
+        description = "Retrieves the active enrollments of the authenticated student.",
+        tags = {"Enrollment Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Enrollments retrieved successfully")
+        }
+    )
+    @GetMapping("/enrollments/me")
+    public ResponseEntity<List<EnrollmentResponseDTO>> getMyEnrollments(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(enrollmentService.getStudentEnrollments(user.getId()));
+    }
+}
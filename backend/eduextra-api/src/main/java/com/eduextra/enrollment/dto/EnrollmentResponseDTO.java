@@ -0,0 +1,43 @@
+package com.eduextra.enrollment.dto;
+
+import java.time.LocalDateTime;
+
+import com.eduextra.enrollment.model.EnrollmentStatus;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Enrollment of a student in an activity")
+public class EnrollmentResponseDTO {
+
+    @Schema(description = "Enrollment's unique identifier", example = "1")
+    private Long id;
+
+    @Schema(description = "Activity id", example = "3")
+    private Long activityId;
+
+    @Schema(description = "Student id", example = "42")
+    private Long studentId;
+
+    @Schema(description = "Enrollment status")
+    private EnrollmentStatus status;
+
+    @Schema(description = "When the seat was taken")
+    private LocalDateTime enrolledAt;
+
+    @Schema(description = "When the seat was given back")
+    private LocalDateTime withdrawnAt;
+
+    @Schema(description = "Whether the activity was full and the student joined its waitlist instead", example = "false")
+    private Boolean waitlisted;
+
+    @Schema(description = "1-based waitlist position when waitlisted", example = "4")
+    private Integer waitlistPosition;
+}
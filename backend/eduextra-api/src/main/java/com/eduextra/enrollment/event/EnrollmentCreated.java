@@ -0,0 +1,7 @@
+package com.eduextra.enrollment.event;
+
+/**
+ * Outbox event published when a student takes a seat in an activity.
+ */
+public record EnrollmentCreated(Long enrollmentId, Long activityId, Long studentId) {
+}
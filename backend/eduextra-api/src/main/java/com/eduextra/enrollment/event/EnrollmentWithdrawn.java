@@ -0,0 +1,7 @@
+package com.eduextra.enrollment.event;
+
+/**
+ * Outbox event published when a seat is given back, either by the student or by a coordinator.
+ */
+public record EnrollmentWithdrawn(Long activityId, Long studentId, boolean removedByStaff) {
+}
@@ -0,0 +1,57 @@
+package com.eduextra.enrollment.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A student's seat in an activity. A student has at most one row per activity;
+ * enrolling again after withdrawing reactivates it.
+ */
+@Entity
+@Data
+@Table(name = "enrollments", uniqueConstraints = {
+    @UniqueConstraint(name = Enrollment.ACTIVITY_STUDENT_CONSTRAINT, columnNames = {"activity_id", "student_id"})
+}, indexes = {
+    @Index(name = "idx_enrollments_student_id_status", columnList = "student_id, status")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Enrollment {
+
+    public static final String ACTIVITY_STUDENT_CONSTRAINT = "uk_enrollments_activity_student";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long activityId;
+
+    @Column(nullable = false)
+    private Long studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private EnrollmentStatus status = EnrollmentStatus.ACTIVE;
+
+    @Column(nullable = false)
+    private LocalDateTime enrolledAt;
+
+    private LocalDateTime withdrawnAt;
+}
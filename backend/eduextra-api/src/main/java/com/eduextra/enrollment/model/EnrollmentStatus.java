@@ -0,0 +1,6 @@
+package com.eduextra.enrollment.model;
+
+public enum EnrollmentStatus {
+    ACTIVE,
+    WITHDRAWN
+}
@@ -0,0 +1,7 @@
+package com.eduextra.enrollment.repository;
+
+/**
+ * Activity and student of an active enrollment, read without loading the whole entity.
+ */
+public record ActiveEnrollment(Long activityId, Long studentId) {
+}
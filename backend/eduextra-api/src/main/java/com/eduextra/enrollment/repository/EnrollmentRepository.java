@@ -0,0 +1,95 @@
+package com.eduextra.enrollment.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.enrollment.model.Enrollment;
+import com.eduextra.enrollment.model.EnrollmentStatus;
+
+@Repository
+public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+
+    // Buscar la inscripción de un estudiante en una actividad
+    Optional<Enrollment> findByActivityIdAndStudentId(Long activityId, Long studentId);
+
+    // Inscripciones de una actividad por estado
+    Page<Enrollment> findByActivityIdAndStatus(Long activityId, EnrollmentStatus status, Pageable pageable);
+
+    // Inscripciones de un estudiante por estado
+    List<Enrollment> findByStudentIdAndStatus(Long studentId, EnrollmentStatus status);
+
+    // Pares actividad-estudiante de todas las inscripciones activas
+    @Query("SELECT new com.eduextra.enrollment.repository.ActiveEnrollment(e.activityId, e.studentId) FROM Enrollment e "
+            + "WHERE e.status = com.eduextra.enrollment.model.EnrollmentStatus.ACTIVE")
+    List<ActiveEnrollment> findAllActive();
+
+    // Inscripciones activas de los estudiantes inscritos en alguna de estas actividades
+    @Query("SELECT new com.eduextra.enrollment.repository.ActiveEnrollment(e.activityId, e.studentId) FROM Enrollment e "
+            + "WHERE e.status = com.eduextra.enrollment.model.EnrollmentStatus.ACTIVE AND e.studentId IN ("
+            + "SELECT o.studentId FROM Enrollment o WHERE o.activityId IN :activityIds "
+            + "AND o.status = com.eduextra.enrollment.model.EnrollmentStatus.ACTIVE)")
+    List<ActiveEnrollment> findActiveOfStudentsEnrolledIn(@Param("activityIds") Collection<Long> activityIds);
+
+    // Pares actividad-estudiante de inscripciones activas o retiradas desde una fecha
+    @Query("SELECT new com.eduextra.enrollment.repository.ActiveEnrollment(e.activityId, e.studentId) FROM Enrollment e "
+            + "WHERE e.activityId IN :activityIds AND (e.status = com.eduextra.enrollment.model.EnrollmentStatus.ACTIVE "
+            + "OR e.withdrawnAt >= :since)")
+    List<ActiveEnrollment> findEnrolledSince(@Param("activityIds") Collection<Long> activityIds,
+            @Param("since") LocalDateTime since);
+
+    // Inscripciones, en cualquier estado, de varias actividades
+    List<Enrollment> findByActivityIdIn(Collection<Long> activityIds);
+
+    // Inscripciones de varios estudiantes en una actividad
+    List<Enrollment> findByActivityIdAndStudentIdIn(Long activityId, Collection<Long> studentIds);
+
+    // Inscripciones en un estado de varios estudiantes
+    List<Enrollment> findByStudentIdInAndStatus(Collection<Long> studentIds, EnrollmentStatus status);
+
+    // Inscripciones activas de estudiantes desactivados
+    @Query("SELECT e FROM Enrollment e WHERE e.status = com.eduextra.enrollment.model.EnrollmentStatus.ACTIVE "
+            + "AND e.studentId IN (SELECT u.id FROM User u WHERE u.isActive = false)")
+    List<Enrollment> findActiveOfInactiveStudents();
+
+    // Reactiva varias inscripciones retiradas de una actividad
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Enrollment e SET e.status = com.eduextra.enrollment.model.EnrollmentStatus.ACTIVE, "
+            + "e.enrolledAt = :now, e.withdrawnAt = null "
+            + "WHERE e.activityId = :activityId AND e.studentId IN :studentIds "
+            + "AND e.status = com.eduextra.enrollment.model.EnrollmentStatus.WITHDRAWN")
+    int reactivateAll(@Param("activityId") Long activityId, @Param("studentIds") Collection<Long> studentIds,
+            @Param("now") LocalDateTime now);
+
+    // Retira varias inscripciones activas por id
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Enrollment e SET e.status = com.eduextra.enrollment.model.EnrollmentStatus.WITHDRAWN, "
+            + "e.withdrawnAt = :now "
+            + "WHERE e.id IN :ids AND e.status = com.eduextra.enrollment.model.EnrollmentStatus.ACTIVE")
+    int withdrawByIds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Reactiva una inscripción retirada; devuelve 0 si no había ninguna
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Enrollment e SET e.status = com.eduextra.enrollment.model.EnrollmentStatus.ACTIVE, "
+            + "e.enrolledAt = :now, e.withdrawnAt = null "
+            + "WHERE e.activityId = :activityId AND e.studentId = :studentId "
+            + "AND e.status = com.eduextra.enrollment.model.EnrollmentStatus.WITHDRAWN")
+    int reactivate(@Param("activityId") Long activityId, @Param("studentId") Long studentId, @Param("now") LocalDateTime now);
+
+    // Retira una inscripción activa; devuelve 0 si no estaba activa
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Enrollment e SET e.status = com.eduextra.enrollment.model.EnrollmentStatus.WITHDRAWN, "
+            + "e.withdrawnAt = :now "
+            + "WHERE e.activityId = :activityId AND e.studentId = :studentId "
+            + "AND e.status = com.eduextra.enrollment.model.EnrollmentStatus.ACTIVE")
+    int withdraw(@Param("activityId") Long activityId, @Param("studentId") Long studentId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,242 @@
+package com.eduextra.enrollment.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.activity.service.ActivityService;
+import com.eduextra.common.dto.PagedResponseDTO;
+import com.eduextra.enrollment.dto.EnrollmentResponseDTO;
+import com.eduextra.enrollment.event.EnrollmentCreated;
+import com.eduextra.enrollment.event.EnrollmentWithdrawn;
+import com.eduextra.enrollment.model.Enrollment;
+import com.eduextra.enrollment.model.EnrollmentStatus;
+import com.eduextra.enrollment.repository.EnrollmentRepository;
+import com.eduextra.exception.ActivityFullException;
+import com.eduextra.exception.ActivityNotFoundException;
+import com.eduextra.exception.EnrollmentNotAllowedException;
+import com.eduextra.exception.EnrollmentNotFoundException;
+import com.eduextra.exception.ScheduleConflictException;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.schedule.service.ScheduleIndex;
+import com.eduextra.user.model.Role;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class EnrollmentService {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final ActivityRepository activityRepository;
+    private final SeatReservationService seatReservationService;
+    private final OutboxService outboxService;
+    private final ScheduleIndex scheduleIndex;
+
+    /**
+     * Enrolls a student. The enrollment row is written first and the seat is taken last,
+     * so the hot activity row is locked only for the end of the transaction. Full or closed
+     * activities are usually rejected from memory first, then overlaps with the student's
+     * schedule, also from memory; either way nothing is written.
+     */
+    @Transactional
+    public EnrollmentResponseDTO enroll(Long activityId, Long studentId, Role role) {
+        if (role != Role.STUDENT) {
+            throw new EnrollmentNotAllowedException("Only students can enroll in activities");
+        }
+        // Rejected from memory before any write when the activity is full or closed
+        reject(seatReservationService.acquire(activityId));
+        // The seat goes back to the counter if this fails and the transaction rolls back
+        scheduleIndex.reserveStudent(studentId, activityId);
+
+        LocalDateTime now = LocalDateTime.now();
+        Enrollment enrollment;
+        if (enrollmentRepository.reactivate(activityId, studentId, now) == 0) {
+            // Duplicate enrollments fail on uk_enrollments_activity_student and become 409
+            enrollment = enrollmentRepository.saveAndFlush(Enrollment.builder()
+                    .activityId(activityId)
+                    .studentId(studentId)
+                    .status(EnrollmentStatus.ACTIVE)
+                    .enrolledAt(now)
+                    .build());
+        } else {
+            enrollment = enrollmentRepository.findByActivityIdAndStudentId(activityId, studentId)
+                    .orElseThrow(() -> new EnrollmentNotFoundException("Enrollment not found"));
+        }
+        outboxService.append(ActivityService.AGGREGATE_TYPE, activityId,
+                new EnrollmentCreated(enrollment.getId(), activityId, studentId));
+
+        // Last write: the activity row lock is held only until commit
+        reject(seatReservationService.confirm(activityId));
+        return mapToResponseDTO(enrollment);
+    }
+
+    /**
+     * Gives a student's seat back. removedByStaff distinguishes a coordinator removal
+     * from the student withdrawing.
+     */
+    @Transactional
+    public void withdraw(Long activityId, Long studentId, boolean removedByStaff) {
+        if (enrollmentRepository.withdraw(activityId, studentId, LocalDateTime.now()) == 0) {
+            throw new EnrollmentNotFoundException("Enrollment not found");
+        }
+        seatReservationService.release(activityId, 1);
+        scheduleIndex.removeStudent(studentId, activityId);
+        outboxService.append(ActivityService.AGGREGATE_TYPE, activityId,
+                new EnrollmentWithdrawn(activityId, studentId, removedByStaff));
+    }
+
+    /**
+     * Enrolls a batch of waiting students in the current transaction with a handful of
+     * statements: one read, one bulk reactivation, inserts for first-time students and a
+     * single seat update for the whole batch. Students already enrolled, or whose schedule
+     * now overlaps the activity, are skipped.
+     * Returns the students that got a seat; throws ActivityFullException if the seats
+     * were taken meanwhile, so the caller's transaction rolls back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> enrollFromWaitlist(Long activityId, List<Long> studentIds) {
+        Map<Long, Enrollment> existing = enrollmentRepository.findByActivityIdAndStudentIdIn(activityId, studentIds).stream()
+                .collect(Collectors.toMap(Enrollment::getStudentId, e -> e));
+        List<Long> toReactivate = new ArrayList<>();
+        List<Enrollment> toInsert = new ArrayList<>();
+        List<Long> enrolled = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> candidates = studentIds.stream()
+                .filter(studentId -> existing.get(studentId) == null || existing.get(studentId).getStatus() != EnrollmentStatus.ACTIVE)
+                .toList();
+        for (Long studentId : candidates) {
+            Enrollment enrollment = existing.get(studentId);
+            try {
+                scheduleIndex.reserveStudent(studentId, activityId);
+            } catch (ScheduleConflictException e) {
+                continue;
+            }
+            if (enrollment == null) {
+                toInsert.add(Enrollment.builder()
+                        .activityId(activityId)
+                        .studentId(studentId)
+                        .status(EnrollmentStatus.ACTIVE)
+                        .enrolledAt(now)
+                        .build());
+            } else {
+                toReactivate.add(studentId);
+            }
+            enrolled.add(studentId);
+        }
+        if (enrolled.isEmpty()) {
+            return enrolled;
+        }
+
+        if (!toReactivate.isEmpty()) {
+            enrollmentRepository.reactivateAll(activityId, toReactivate, now);
+        }
+        enrollmentRepository.saveAll(toInsert);
+        if (activityRepository.reserveSeats(activityId, enrolled.size()) == 0) {
+            throw new ActivityFullException("Activity is full");
+        }
+        seatReservationService.invalidate(activityId);
+        return enrolled;
+    }
+
+    /**
+     * Withdraws every active enrollment of disabled students in one pass and frees their
+     * seats per activity. Returns the activities that got seats back.
+     */
+    @Transactional
+    public Set<Long> withdrawInactiveStudents() {
+        return withdrawAll(enrollmentRepository.findActiveOfInactiveStudents());
+    }
+
+    /**
+     * Withdraws every active enrollment of the given students and frees their seats. Called
+     * before users are deleted or archived: enrollments have no foreign key to users, so
+     * without it their seats would stay taken. Returns the activities that got seats back.
+     */
+    @Transactional
+    public Set<Long> withdrawStudents(Collection<Long> studentIds) {
+        if (studentIds.isEmpty()) {
+            return Set.of();
+        }
+        return withdrawAll(enrollmentRepository.findByStudentIdInAndStatus(studentIds, EnrollmentStatus.ACTIVE));
+    }
+
+    private Set<Long> withdrawAll(List<Enrollment> active) {
+        Map<Long, List<Enrollment>> byActivity = active.stream()
+                .collect(Collectors.groupingBy(Enrollment::getActivityId, LinkedHashMap::new, Collectors.toList()));
+        LocalDateTime now = LocalDateTime.now();
+        byActivity.forEach((activityId, enrollments) -> {
+            int withdrawn = enrollmentRepository.withdrawByIds(
+                    enrollments.stream().map(Enrollment::getId).collect(Collectors.toList()), now);
+            seatReservationService.release(activityId, withdrawn);
+            enrollments.forEach(enrollment -> scheduleIndex.removeStudent(enrollment.getStudentId(), activityId));
+            for (Enrollment enrollment : enrollments) {
+                outboxService.append(ActivityService.AGGREGATE_TYPE, activityId,
+                        new EnrollmentWithdrawn(activityId, enrollment.getStudentId(), true));
+            }
+        });
+        return byActivity.keySet();
+    }
+
+    public PagedResponseDTO<EnrollmentResponseDTO> getEnrollments(Long activityId, int page, int size) {
+        if (!activityRepository.existsById(activityId)) {
+            throw new ActivityNotFoundException("Activity not found");
+        }
+        Page<Enrollment> enrollmentPage = enrollmentRepository.findByActivityIdAndStatus(activityId,
+                EnrollmentStatus.ACTIVE, PageRequest.of(page, size, Sort.by("enrolledAt").ascending()));
+        List<EnrollmentResponseDTO> content = enrollmentPage.getContent().stream()
+                .map(this::mapToResponseDTO)
+                .collect(Collectors.toList());
+
+        return PagedResponseDTO.<EnrollmentResponseDTO>builder()
+                .content(content)
+                .page(enrollmentPage.getNumber())
+                .size(enrollmentPage.getSize())
+                .totalElements(enrollmentPage.getTotalElements())
+                .totalPages(enrollmentPage.getTotalPages())
+                .first(enrollmentPage.isFirst())
+                .last(enrollmentPage.isLast())
+                .hasNext(enrollmentPage.hasNext())
+                .hasPrevious(enrollmentPage.hasPrevious())
+                .build();
+    }
+
+    public List<EnrollmentResponseDTO> getStudentEnrollments(Long studentId) {
+        return enrollmentRepository.findByStudentIdAndStatus(studentId, EnrollmentStatus.ACTIVE).stream()
+                .map(this::mapToResponseDTO)
+                .collect(Collectors.toList());
+    }
+
+    private void reject(SeatReservationService.Result result) {
+        switch (result) {
+            case FULL -> throw new ActivityFullException("Activity is full");
+            case CLOSED -> throw new EnrollmentNotAllowedException("Activity is not open for enrollment");
+            default -> {
+            }
+        }
+    }
+
+    private EnrollmentResponseDTO mapToResponseDTO(Enrollment enrollment) {
+        return EnrollmentResponseDTO.builder()
+                .id(enrollment.getId())
+                .activityId(enrollment.getActivityId())
+                .studentId(enrollment.getStudentId())
+                .status(enrollment.getStatus())
+                .enrolledAt(enrollment.getEnrolledAt())
+                .withdrawnAt(enrollment.getWithdrawnAt())
+                .build();
+    }
+}
@@ -0,0 +1,204 @@
+package com.eduextra.enrollment.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.activity.repository.ActivitySeats;
+import com.eduextra.exception.ActivityNotFoundException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Seat reservation engine for enrollment rushes.
+ *
+ * Every node keeps an in-memory counter of the seats it believes are left per activity and
+ * takes a seat from it with a CAS before touching the database. Once an activity is full,
+ * further attempts are rejected from memory without a query. Requests that pass the memory
+ * check still take the seat with a conditional UPDATE (seats_taken &lt; capacity), which is
+ * what actually prevents overselling when several nodes share the database.
+ *
+ * The counters are only a filter and heal themselves: a database rejection resyncs the
+ * counter, and a "full" counter is re-read at most once per resync interval in case seats
+ * were released on another node.
+ *
+ * Metrics: enrollment.seats.reserved, enrollment.seats.rejected (tag where=memory|database).
+ */
+@Service
+public class SeatReservationService {
+
+    public enum Result {
+        RESERVED,
+        FULL,
+        CLOSED
+    }
+
+    private final ActivityRepository activityRepository;
+    private final long resyncIntervalMs;
+    private final ConcurrentHashMap<Long, SeatCounter> counters = new ConcurrentHashMap<>();
+
+    private final Counter reserved;
+    private final Counter rejectedInMemory;
+    private final Counter rejectedByDatabase;
+
+    public SeatReservationService(ActivityRepository activityRepository, MeterRegistry meterRegistry,
+            @Value("${application.enrollment.seats.resync-interval-ms:2000}") long resyncIntervalMs) {
+        this.activityRepository = activityRepository;
+        this.resyncIntervalMs = resyncIntervalMs;
+        this.reserved = Counter.builder("enrollment.seats.reserved").description("Seats taken").register(meterRegistry);
+        this.rejectedInMemory = Counter.builder("enrollment.seats.rejected").tag("where", "memory")
+                .description("Seat requests rejected because the activity was full or closed").register(meterRegistry);
+        this.rejectedByDatabase = Counter.builder("enrollment.seats.rejected").tag("where", "database")
+                .description("Seat requests rejected because the activity was full or closed").register(meterRegistry);
+    }
+
+    /**
+     * Takes a seat from the in-memory counter. Must be followed by confirm() in the same
+     * transaction; if the transaction rolls back the seat goes back to the counter.
+     */
+    public Result acquire(Long activityId) {
+        SeatCounter counter = counter(activityId);
+        if (!counter.tryAcquire()) {
+            // Seats may have been released on another node; one caller per interval re-reads them
+            boolean stale = System.currentTimeMillis() - counter.syncedAt >= resyncIntervalMs;
+            if (!stale || !counter.resyncing.compareAndSet(false, true)) {
+                rejectedInMemory.increment();
+                return counter.open ? Result.FULL : Result.CLOSED;
+            }
+            SeatCounter previous = counter;
+            try {
+                counter = resync(activityId);
+            } finally {
+                // A failed read must not keep every later caller from retrying it
+                previous.resyncing.set(false);
+            }
+            if (!counter.tryAcquire()) {
+                rejectedInMemory.increment();
+                return counter.open ? Result.FULL : Result.CLOSED;
+            }
+        }
+        SeatCounter acquired = counter;
+        afterCompletion(committed -> {
+            if (!committed) {
+                acquired.release(1);
+            }
+        });
+        return Result.RESERVED;
+    }
+
+    /**
+     * Takes the acquired seat in the database with a conditional update. Call it as the last
+     * write of the transaction so the activity row stays locked briefly. Anything other than
+     * RESERVED means the caller must roll back.
+     */
+    public Result confirm(Long activityId) {
+        if (activityRepository.reserveSeat(activityId) == 0) {
+            // Another node took the last seats or the activity was closed meanwhile
+            rejectedByDatabase.increment();
+            return resync(activityId).open ? Result.FULL : Result.CLOSED;
+        }
+        reserved.increment();
+        return Result.RESERVED;
+    }
+
+    /**
+     * Gives seats back inside the current transaction. The in-memory counter is only
+     * credited once the transaction commits.
+     */
+    public void release(Long activityId, int seats) {
+        if (seats <= 0 || activityRepository.releaseSeats(activityId, seats) == 0) {
+            return;
+        }
+        afterCompletion(committed -> {
+            SeatCounter counter = counters.get(activityId);
+            if (committed && counter != null) {
+                counter.release(seats);
+            }
+        });
+    }
+
+    /**
+     * Drops the cached counter after capacity or status changes; it is re-read on next use.
+     */
+    public void invalidate(Long activityId) {
+        afterCompletion(committed -> counters.remove(activityId));
+    }
+
+    /**
+     * Seats this node believes are left, reading them from the database if not cached.
+     */
+    public int remaining(Long activityId) {
+        return counter(activityId).remaining.get();
+    }
+
+    private SeatCounter counter(Long activityId) {
+        // computeIfAbsent makes a burst on a cold activity wait for a single read
+        return counters.computeIfAbsent(activityId, this::load);
+    }
+
+    private SeatCounter resync(Long activityId) {
+        SeatCounter counter = load(activityId);
+        counters.put(activityId, counter);
+        return counter;
+    }
+
+    private SeatCounter load(Long activityId) {
+        ActivitySeats seats = activityRepository.findSeatsById(activityId)
+                .orElseThrow(() -> new ActivityNotFoundException("Activity not found"));
+        boolean open = seats.status() == ActivityStatus.OPEN;
+        return new SeatCounter(open ? seats.remaining() : 0, open);
+    }
+
+    private void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * Seats left on one activity as seen by this node.
+     */
+    static final class SeatCounter {
+
+        final AtomicInteger remaining;
+        final boolean open;
+        final long syncedAt = System.currentTimeMillis();
+        final AtomicBoolean resyncing = new AtomicBoolean();
+
+        SeatCounter(int remaining, boolean open) {
+            this.remaining = new AtomicInteger(remaining);
+            this.open = open;
+        }
+
+        boolean tryAcquire() {
+            int current;
+            do {
+                current = remaining.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        void release(int seats) {
+            remaining.addAndGet(seats);
+        }
+    }
+}
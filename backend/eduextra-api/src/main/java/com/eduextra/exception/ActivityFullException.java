@@ -0,0 +1,7 @@
+package com.eduextra.exception;
+
+public class ActivityFullException extends RuntimeException {
+    public ActivityFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.eduextra.exception;
+
+public class ActivityNotFoundException extends RuntimeException {
+    public ActivityNotFoundException(String message) {
+        super(message);
+    }
+}
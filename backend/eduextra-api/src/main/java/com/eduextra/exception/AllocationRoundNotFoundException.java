@@ -0,0 +1,7 @@
+package com.eduextra.exception;
+
+public class AllocationRoundNotFoundException extends RuntimeException {
+    public AllocationRoundNotFoundException(String message) {
+        super(message);
+    }
+}
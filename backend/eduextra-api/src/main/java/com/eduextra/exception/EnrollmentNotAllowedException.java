@@ -0,0 +1,7 @@
+package com.eduextra.exception;
+
+public class EnrollmentNotAllowedException extends RuntimeException {
+    public EnrollmentNotAllowedException(String message) {
+        super(message);
+    }
+}
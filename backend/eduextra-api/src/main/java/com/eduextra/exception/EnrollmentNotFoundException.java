@@ -0,0 +1,7 @@
+package com.eduextra.exception;
+
+public class EnrollmentNotFoundException extends RuntimeException {
+    public EnrollmentNotFoundException(String message) {
+        super(message);
+    }
+}
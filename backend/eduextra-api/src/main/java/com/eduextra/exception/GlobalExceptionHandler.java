@@ -10,8 +10,13 @@ import org.springframework.web.context.request.WebRequest;
 import io.swagger.v3.oas.annotations.Hidden;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
+import com.eduextra.enrollment.model.Enrollment;
+import com.eduextra.user.model.User;
+import com.eduextra.waitlist.model.WaitlistEntry;
+
 /**
  * Centralized exception handling for the entire API.
  * Uses a direct response pattern with standardized ErrorResponse objects.
@@ -35,6 +40,30 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler({ActivityNotFoundException.class, EnrollmentNotFoundException.class, WaitlistEntryNotFoundException.class,
+            AllocationRoundNotFoundException.class, TimetableJobNotFoundException.class, JobNotFoundException.class})
+    public ResponseEntity<ErrorResponse> handleResourceNotFound(RuntimeException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.NOT_FOUND.value(),
+            ex.getMessage(),
+            request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles enrollments rejected because the activity is full or not open
+     */
+    @ExceptionHandler({ActivityFullException.class, EnrollmentNotAllowedException.class, ScheduleConflictException.class})
+    public ResponseEntity<ErrorResponse> handleEnrollmentRejected(RuntimeException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.CONFLICT.value(),
+            ex.getMessage(),
+            request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(EmailAlreadyExistsException.class)
     public ResponseEntity<ErrorResponse> handleEmailAlreadyExistsException(EmailAlreadyExistsException ex, WebRequest request) {
         ErrorResponse errorResponse = new ErrorResponse(
@@ -45,6 +74,91 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Translates unique constraint violations raised on write into 409 responses.
+     * Writes rely on the database constraints instead of checking existence first.
+     * Only the named unique constraints get a specific message; anything else, such as a
+     * NOT NULL violation, falls through to a generic 409.
+     */
+    @ExceptionHandler(org.springframework.dao.DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(
+            org.springframework.dao.DataIntegrityViolationException ex,
+            WebRequest request) {
+        String constraint = violatedConstraint(ex);
+        if (constraint.contains(User.EMAIL_CONSTRAINT)) {
+            return handleEmailAlreadyExistsException(new EmailAlreadyExistsException("Email already exists"), request);
+        }
+        String message;
+        if (constraint.contains(User.FULL_NAME_CONSTRAINT)) {
+            message = "Full name already exists";
+        } else if (constraint.contains(Enrollment.ACTIVITY_STUDENT_CONSTRAINT)) {
+            message = "Student is already enrolled in this activity";
+        } else if (constraint.contains(WaitlistEntry.ACTIVITY_STUDENT_CONSTRAINT)) {
+            message = "Student is already on the waitlist";
+        } else {
+            message = "Data integrity violation";
+        }
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.CONFLICT.value(),
+            message,
+            request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    private String violatedConstraint(org.springframework.dao.DataIntegrityViolationException ex) {
+        // Constraint name when the driver reports it, plus the raw message for drivers that only name it there
+        StringBuilder description = new StringBuilder();
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof org.hibernate.exception.ConstraintViolationException violation
+                    && violation.getConstraintName() != null) {
+                description.append(violation.getConstraintName()).append(' ');
+                break;
+            }
+        }
+        description.append(ex.getMostSpecificCause().getMessage());
+        return description.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Handles stale If-Match versions and lost-update races detected by optimistic locking
+     */
+    @ExceptionHandler({PreconditionFailedException.class, org.springframework.orm.ObjectOptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorResponse> handlePreconditionFailed(RuntimeException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.PRECONDITION_FAILED.value(),
+            "Resource has been modified by another request",
+            request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Handles uploads larger than the configured multipart or avatar limits
+     */
+    @ExceptionHandler({PayloadTooLargeException.class, org.springframework.web.multipart.MaxUploadSizeExceededException.class})
+    public ResponseEntity<ErrorResponse> handlePayloadTooLarge(RuntimeException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.PAYLOAD_TOO_LARGE.value(),
+            "Uploaded file is too large",
+            request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    /**
+     * Handles requests refused because a bounded queue is full
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(TooManyRequestsException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            ex.getMessage(),
+            request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
     // Manejo de errores de autenticación
     @ExceptionHandler(org.springframework.security.authentication.BadCredentialsException.class)
     public ResponseEntity<ErrorResponse> handleBadCredentialsException(
@@ -0,0 +1,7 @@
+package com.eduextra.exception;
+
+public class TimetableJobNotFoundException extends RuntimeException {
+    public TimetableJobNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.eduextra.exception;
+
+public class WaitlistEntryNotFoundException extends RuntimeException {
+    public WaitlistEntryNotFoundException(String message) {
+        super(message);
+    }
+}
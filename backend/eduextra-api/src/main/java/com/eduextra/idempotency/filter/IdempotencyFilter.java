@@ -0,0 +1,139 @@
+package com.eduextra.idempotency.filter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.eduextra.exception.ErrorResponse;
+import com.eduextra.idempotency.service.IdempotencyService;
+import com.eduextra.idempotency.service.IdempotencyService.Acquired;
+import com.eduextra.idempotency.service.IdempotencyService.Mismatch;
+import com.eduextra.idempotency.service.IdempotencyService.Outcome;
+import com.eduextra.idempotency.service.IdempotencyService.Replay;
+import com.eduextra.idempotency.service.IdempotencyService.StoredResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Makes POST requests on the configured paths idempotent when the client sends an
+ * Idempotency-Key header. A retry with the same key and body gets the original status
+ * and body back (marked with Idempotent-Replayed: true) without running the request again.
+ *
+ * Runs after the Spring Security filter chain, so keys are scoped per authenticated user.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final Set<String> paths;
+
+    public IdempotencyFilter(IdempotencyService idempotencyService, ObjectMapper objectMapper,
+            @Value("${application.idempotency.paths:/users,/auth/register}") String paths) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.paths = Arrays.stream(paths.split(",")).map(String::trim).collect(Collectors.toSet());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !paths.contains(URL_PATH_HELPER.getPathWithinApplication(request));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be between 1 and 255 characters");
+            return;
+        }
+
+        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request);
+        String requestHash = IdempotencyService.sha256Hex(cachedRequest.getBody());
+        String scopedKey = request.getMethod() + " " + URL_PATH_HELPER.getPathWithinApplication(request) + " "
+                + principal() + " " + key;
+
+        Outcome outcome = idempotencyService.begin(scopedKey, requestHash);
+        if (outcome instanceof Replay replay) {
+            writeStored(response, replay.response());
+        } else if (outcome instanceof Mismatch) {
+            writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key was already used with a different request body");
+        } else if (outcome instanceof Acquired acquired) {
+            execute(cachedRequest, response, filterChain, acquired.keyHash(), requestHash);
+        } else {
+            writeError(request, response, HttpStatus.CONFLICT,
+                "A request with this Idempotency-Key is still being processed");
+        }
+    }
+
+    private void execute(CachedBodyHttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+            String keyHash, String requestHash) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            // Server errors are transient: forget the key so the client can retry for real
+            if (wrapper.getStatus() < 500) {
+                idempotencyService.complete(keyHash, requestHash, wrapper.getStatus(), wrapper.getContentType(),
+                        wrapper.getContentAsByteArray());
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyService.release(keyHash);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void writeStored(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        ErrorResponse error = new ErrorResponse(status.value(), message, "uri=" + request.getRequestURI());
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    private String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "anonymous";
+    }
+}
@@ -0,0 +1,61 @@
+package com.eduextra.idempotency.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stored outcome of a request sent with an Idempotency-Key header.
+ * While the first request runs the row is IN_PROGRESS and acts as a cross-node lock.
+ */
+@Entity
+@Data
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    // SHA-256 of method, path, principal and the client supplied key
+    @Id
+    @Column(length = 64)
+    private String keyHash;
+
+    // SHA-256 of the request body, a reused key with a different body is rejected
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    private Integer responseStatus;
+
+    @Column(length = 100)
+    private String contentType;
+
+    @Column(columnDefinition = "text")
+    private String responseBody;
+
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
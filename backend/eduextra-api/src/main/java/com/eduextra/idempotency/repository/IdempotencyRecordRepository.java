@@ -0,0 +1,47 @@
+package com.eduextra.idempotency.repository;
+import com.eduextra.idempotency.model.IdempotencyRecord;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // INSERT explícito: save() haría merge y pisaría la fila de otro nodo en lugar de fallar por PK duplicada
+    @Transactional
+    @Modifying
+    @Query(value = "insert into idempotency_keys (key_hash, request_hash, status, created_at, expires_at) "
+            + "values (:keyHash, :requestHash, 'IN_PROGRESS', :now, :expiresAt)", nativeQuery = true)
+    int insertInProgress(@Param("keyHash") String keyHash, @Param("requestHash") String requestHash,
+            @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Guardar la respuesta de la primera ejecución
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = com.eduextra.idempotency.model.IdempotencyRecord.Status.COMPLETED, "
+            + "r.responseStatus = :status, r.contentType = :contentType, r.responseBody = :body, r.expiresAt = :expiresAt "
+            + "where r.keyHash = :keyHash")
+    int complete(@Param("keyHash") String keyHash, @Param("status") int status, @Param("contentType") String contentType,
+            @Param("body") String body, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.keyHash = :keyHash")
+    int deleteByKeyHash(@Param("keyHash") String keyHash);
+
+    // Borrar solo la fila leída: si otro nodo ya la sustituyó o completó, expires_at ha cambiado
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.keyHash = :keyHash and r.expiresAt = :expiresAt")
+    int deleteIfUnchanged(@Param("keyHash") String keyHash, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Limpiar claves caducadas
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
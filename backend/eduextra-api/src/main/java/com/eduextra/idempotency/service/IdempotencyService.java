@@ -0,0 +1,303 @@
+package com.eduextra.idempotency.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eduextra.idempotency.model.IdempotencyRecord;
+import com.eduextra.idempotency.repository.IdempotencyRecordRepository;
+
+/**
+ * Coordinates requests that carry an Idempotency-Key.
+ *
+ * Completed responses are kept in a size-bounded in-memory LRU in front of the
+ * idempotency_keys table. Duplicates of a request that is still running wait for it:
+ * on the same node through a shared future, across nodes by polling the IN_PROGRESS row.
+ * Response bodies are encrypted before they are written to the table.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    /**
+     * Response captured from the first execution of a request.
+     */
+    public record StoredResponse(String requestHash, int status, String contentType, byte[] body,
+            LocalDateTime expiresAt) {
+
+        boolean isExpired() {
+            return expiresAt.isBefore(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Result of trying to start a request with a given key.
+     */
+    public sealed interface Outcome permits Acquired, Replay, Mismatch, StillRunning {
+    }
+
+    /** The caller owns the key and must execute the request, then call complete or release. */
+    public record Acquired(String keyHash) implements Outcome {
+    }
+
+    /** The key was already used for the same request, the stored response must be returned. */
+    public record Replay(StoredResponse response) implements Outcome {
+    }
+
+    /** The key was already used for a different request body. */
+    public record Mismatch() implements Outcome {
+    }
+
+    /** Another request with the same key did not finish within the wait timeout. */
+    public record StillRunning() implements Outcome {
+    }
+
+    private final IdempotencyRecordRepository repository;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final BoundedResponseCache cache;
+    private final ResponseBodyCipher cipher;
+
+    @Value("${application.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${application.idempotency.lock-timeout-seconds:60}")
+    private long lockTimeoutSeconds;
+
+    @Value("${application.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${application.idempotency.poll-interval-ms:100}")
+    private long pollIntervalMs;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+            @Value("${application.idempotency.cache.max-entries:10000}") int maxEntries,
+            @Value("${application.idempotency.cache.max-bytes:16777216}") long maxBytes,
+            @Value("${application.idempotency.encryption-key:${application.security.jwt.secret-key}}") String encryptionKey) {
+        this.repository = repository;
+        this.cache = new BoundedResponseCache(maxEntries, maxBytes);
+        this.cipher = new ResponseBodyCipher(encryptionKey);
+    }
+
+    public Outcome begin(String scopedKey, String requestHash) {
+        String keyHash = sha256Hex(scopedKey.getBytes(StandardCharsets.UTF_8));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+
+        while (true) {
+            StoredResponse cached = cache.get(keyHash);
+            if (cached != null) {
+                return replayOrMismatch(cached, requestHash);
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(keyHash, mine);
+            if (running != null) {
+                // Same key already running on this node: wait for it instead of executing again
+                StoredResponse response = await(running, deadline);
+                if (response != null) {
+                    return replayOrMismatch(response, requestHash);
+                }
+                if (System.nanoTime() >= deadline) {
+                    return new StillRunning();
+                }
+                continue; // First request failed and released the key, try to take it
+            }
+
+            Optional<Outcome> outcome = acquireInDatabase(keyHash, requestHash, mine);
+            if (outcome.isPresent()) {
+                return outcome.get();
+            }
+            // Another node holds the key, poll until it completes or the wait times out
+            if (System.nanoTime() >= deadline || !sleep(pollIntervalMs)) {
+                return new StillRunning();
+            }
+        }
+    }
+
+    public void complete(String keyHash, String requestHash, int status, String contentType, byte[] body) {
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(ttlHours);
+        StoredResponse response = new StoredResponse(requestHash, status, contentType, body, expiresAt);
+        try {
+            repository.complete(keyHash, status, contentType, cipher.encrypt(body), expiresAt);
+            cache.put(keyHash, response);
+        } finally {
+            finish(keyHash, response);
+        }
+    }
+
+    /**
+     * Gives the key back without storing a response (server errors), so a retry executes again.
+     */
+    public void release(String keyHash) {
+        try {
+            repository.deleteByKeyHash(keyHash);
+        } finally {
+            finish(keyHash, null);
+        }
+    }
+
+    @Scheduled(cron = "${application.idempotency.purge-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        int purged = repository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    public static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Optional<Outcome> acquireInDatabase(String keyHash, String requestHash,
+            CompletableFuture<StoredResponse> mine) {
+        try {
+            Optional<IdempotencyRecord> existing = repository.findById(keyHash);
+            if (existing.isPresent()) {
+                IdempotencyRecord record = existing.get();
+                StoredResponse response = record.getStatus() == IdempotencyRecord.Status.COMPLETED
+                        ? toStoredResponse(record)
+                        : null;
+                if (record.getExpiresAt().isBefore(LocalDateTime.now())
+                        || (record.getStatus() == IdempotencyRecord.Status.COMPLETED && response == null)) {
+                    // Expired result, abandoned lock (node died mid-request) or body stored under another key
+                    if (repository.deleteIfUnchanged(keyHash, record.getExpiresAt()) == 0) {
+                        // Another node cleared or replaced the row first and owns the key now
+                        finish(keyHash, null);
+                        return Optional.empty();
+                    }
+                } else if (response != null) {
+                    cache.put(keyHash, response);
+                    finish(keyHash, response);
+                    return Optional.of(replayOrMismatch(response, requestHash));
+                } else {
+                    finish(keyHash, null);
+                    return Optional.empty();
+                }
+            }
+            LocalDateTime now = LocalDateTime.now();
+            repository.insertInProgress(keyHash, requestHash, now, now.plusSeconds(lockTimeoutSeconds));
+            return Optional.of(new Acquired(keyHash));
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race for the key against another node
+            finish(keyHash, null);
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            finish(keyHash, null);
+            throw e;
+        }
+    }
+
+    private void finish(String keyHash, StoredResponse response) {
+        CompletableFuture<StoredResponse> future = inFlight.remove(keyHash);
+        if (future != null) {
+            future.complete(response);
+        }
+    }
+
+    private Outcome replayOrMismatch(StoredResponse response, String requestHash) {
+        return response.requestHash().equals(requestHash) ? new Replay(response) : new Mismatch();
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private StoredResponse toStoredResponse(IdempotencyRecord record) {
+        byte[] body;
+        try {
+            body = record.getResponseBody() != null ? cipher.decrypt(record.getResponseBody()) : new byte[0];
+        } catch (IllegalArgumentException e) {
+            log.warn("Discarding idempotency key whose stored response cannot be decrypted");
+            return null;
+        }
+        return new StoredResponse(record.getRequestHash(), record.getResponseStatus(), record.getContentType(), body,
+                record.getExpiresAt());
+    }
+
+    /**
+     * LRU of completed responses bounded by entry count and total body bytes.
+     */
+    static final class BoundedResponseCache {
+
+        private final int maxEntries;
+        private final long maxBytes;
+        private final LinkedHashMap<String, StoredResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        BoundedResponseCache(int maxEntries, long maxBytes) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized StoredResponse get(String key) {
+            StoredResponse response = entries.get(key);
+            if (response != null && response.isExpired()) {
+                remove(key);
+                return null;
+            }
+            return response;
+        }
+
+        synchronized void put(String key, StoredResponse response) {
+            if (response.body().length > maxBytes) {
+                return; // Too large to keep in memory, served from the table instead
+            }
+            remove(key);
+            entries.put(key, response);
+            bytes += response.body().length;
+            Iterator<Map.Entry<String, StoredResponse>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().body().length;
+                eldest.remove();
+            }
+        }
+
+        private void remove(String key) {
+            StoredResponse previous = entries.remove(key);
+            if (previous != null) {
+                bytes -= previous.body().length;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.eduextra.idempotency.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Encrypts stored responses with AES-GCM so bodies that carry credentials, such as the
+ * tokens returned by /auth/register, never sit in idempotency_keys in plain text.
+ * Stored values are Base64 of the random IV followed by the ciphertext and tag.
+ */
+final class ResponseBodyCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKeySpec key;
+
+    ResponseBodyCipher(String secret) {
+        // Derived rather than used as is, so sharing a secret with JWT signing never reuses the same key
+        this.key = new SecretKeySpec(sha256(("idempotency-response:" + secret).getBytes(StandardCharsets.UTF_8)), "AES");
+    }
+
+    String encrypt(byte[] plain) {
+        byte[] iv = new byte[IV_BYTES];
+        RANDOM.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] sealed = cipher.doFinal(plain);
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + sealed.length)
+                    .put(iv).put(sealed).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to encrypt stored response", e);
+        }
+    }
+
+    /**
+     * Throws IllegalArgumentException when the value was not produced by this key.
+     */
+    byte[] decrypt(String stored) {
+        try {
+            byte[] data = Base64.getDecoder().decode(stored);
+            if (data.length < IV_BYTES) {
+                throw new IllegalArgumentException("Stored response is too short");
+            }
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, data, 0, IV_BYTES));
+            return cipher.doFinal(data, IV_BYTES, data.length - IV_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Stored response cannot be decrypted", e);
+        }
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.eduextra.job.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.eduextra.exception.ErrorResponse;
+import com.eduextra.job.dto.JobQueueStatsDTO;
+import com.eduextra.job.service.JobService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for operating the background job queues.
+ *
+ * Security: All endpoints require JWT Bearer authentication and ADMIN role.
+ */
+@RestController
+@RequestMapping("/jobs")
+@Tag(name = "Background Jobs", description = "Background job queue operations")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class JobController {
+
+    private final JobService jobService;
+
+    @Operation(
+        summary = "Get queue statistics",
+        description = "Returns, for each configured queue, how many jobs are waiting, running or dead, and how many each node runs at once.",
+        tags = {"Background Jobs"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
+        }
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/queues")
+    public ResponseEntity<List<JobQueueStatsDTO>> getQueues() {
+        return ResponseEntity.ok(jobService.queueStats());
+    }
+
+    @Operation(
+        summary = "Retry a dead job",
+        description = "Puts a job that exhausted its attempts back in its queue with a fresh set of attempts.",
+        tags = {"Background Jobs"},
+        responses = {
+            @ApiResponse(responseCode = "204", description = "Job queued again"),
+            @ApiResponse(responseCode = "404", description = "No dead job with that id",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/retry")
+    public ResponseEntity<Void> retry(@PathVariable Long id) {
+        jobService.retry(id);
+        return ResponseEntity.noContent().build();
+    }
+}
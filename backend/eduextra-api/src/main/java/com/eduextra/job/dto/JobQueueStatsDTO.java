@@ -0,0 +1,30 @@
+package com.eduextra.job.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Jobs in a background queue")
+public class JobQueueStatsDTO {
+
+    @Schema(description = "Queue name", example = "default")
+    private String queue;
+
+    @Schema(description = "Jobs of the queue each node runs at once", example = "4")
+    private int concurrency;
+
+    @Schema(description = "Jobs waiting to run, including those scheduled for later or waiting for a retry", example = "12")
+    private long pending;
+
+    @Schema(description = "Jobs being run", example = "4")
+    private long running;
+
+    @Schema(description = "Jobs that exhausted their attempts", example = "0")
+    private long dead;
+}
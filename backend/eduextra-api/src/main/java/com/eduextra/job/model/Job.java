@@ -0,0 +1,97 @@
+package com.eduextra.job.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Background job. JobWorker claims runnable rows, runs them off the request threads and
+ * records the outcome; a RUNNING job whose lease (lockedUntil) expires is claimed again.
+ */
+@Entity
+@Data
+@Table(name = "jobs", indexes = {
+    @Index(name = "idx_jobs_claim", columnList = "queue, status, run_at"),
+    @Index(name = "idx_jobs_finished", columnList = "status, finished_at")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_jobs_dedupe_key", columnNames = "dedupe_key")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Job {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String queue;
+
+    @Column(nullable = false, length = 100)
+    private String type;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    // Higher runs first within a queue
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer priority = 0;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status = JobStatus.PENDING;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private Integer maxAttempts;
+
+    // Not run before this time, pushed forward on every failed attempt
+    private LocalDateTime runAt;
+
+    // Node running the job and until when it holds it
+    @Column(length = 100)
+    private String lockedBy;
+
+    private LocalDateTime lockedUntil;
+
+    // Enqueuing the same key twice keeps only the first job
+    @Column(length = 200)
+    private String dedupeKey;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (runAt == null) {
+            runAt = createdAt;
+        }
+    }
+}
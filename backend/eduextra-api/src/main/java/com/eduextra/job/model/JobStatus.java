@@ -0,0 +1,8 @@
+package com.eduextra.job.model;
+
+public enum JobStatus {
+    PENDING,
+    RUNNING,
+    SUCCEEDED,
+    DEAD
+}
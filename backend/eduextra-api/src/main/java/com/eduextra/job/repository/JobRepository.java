@@ -0,0 +1,80 @@
+package com.eduextra.job.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.job.model.Job;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface JobRepository extends JpaRepository<Job, Long> {
+
+    // Reclamar trabajos listos de una cola, o con el plazo vencido; SKIP LOCKED (-2) deja los ya bloqueados a otros nodos
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select j from Job j where j.queue = :queue and ((j.status = com.eduextra.job.model.JobStatus.PENDING "
+            + "and j.runAt <= :now) or (j.status = com.eduextra.job.model.JobStatus.RUNNING and j.lockedUntil < :now)) "
+            + "order by j.priority desc, j.runAt, j.id")
+    List<Job> lockRunnableBatch(@Param("queue") String queue, @Param("now") LocalDateTime now, Pageable pageable);
+
+    // Trabajos por cola y estado, sin contar los terminados con éxito
+    @Query("select new com.eduextra.job.repository.QueueDepth(j.queue, j.status, count(j)) from Job j "
+            + "where j.status in (com.eduextra.job.model.JobStatus.PENDING, com.eduextra.job.model.JobStatus.RUNNING, "
+            + "com.eduextra.job.model.JobStatus.DEAD) group by j.queue, j.status")
+    List<QueueDepth> countByQueueAndStatus();
+
+    // Fecha del trabajo listo más antiguo de una cola, para medir la espera
+    @Query("select min(j.runAt) from Job j where j.queue = :queue and j.status = com.eduextra.job.model.JobStatus.PENDING "
+            + "and j.runAt <= :now")
+    LocalDateTime findOldestRunnableAt(@Param("queue") String queue, @Param("now") LocalDateTime now);
+
+    // Renueva el plazo de los trabajos que este nodo sigue ejecutando
+    @Modifying
+    @Query("update Job j set j.lockedUntil = :lockedUntil where j.id in :ids and j.lockedBy = :node "
+            + "and j.status = com.eduextra.job.model.JobStatus.RUNNING")
+    int extendLeases(@Param("ids") Collection<Long> ids, @Param("node") String node, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    // Marca un trabajo como terminado si este nodo aún lo tiene; devuelve 0 si otro lo reclamó
+    @Modifying
+    @Query("update Job j set j.status = com.eduextra.job.model.JobStatus.SUCCEEDED, j.finishedAt = :now, "
+            + "j.lockedBy = null, j.lockedUntil = null, j.lastError = null "
+            + "where j.id = :id and j.lockedBy = :node and j.status = com.eduextra.job.model.JobStatus.RUNNING")
+    int markSucceeded(@Param("id") Long id, @Param("node") String node, @Param("now") LocalDateTime now);
+
+    // Devuelve un trabajo fallido a la cola para otro intento
+    @Modifying
+    @Query("update Job j set j.status = com.eduextra.job.model.JobStatus.PENDING, j.runAt = :runAt, "
+            + "j.lockedBy = null, j.lockedUntil = null, j.lastError = :error "
+            + "where j.id = :id and j.lockedBy = :node and j.status = com.eduextra.job.model.JobStatus.RUNNING")
+    int markRetry(@Param("id") Long id, @Param("node") String node, @Param("runAt") LocalDateTime runAt, @Param("error") String error);
+
+    // Marca un trabajo como agotado tras su último intento
+    @Modifying
+    @Query("update Job j set j.status = com.eduextra.job.model.JobStatus.DEAD, j.finishedAt = :now, "
+            + "j.lockedBy = null, j.lockedUntil = null, j.lastError = :error "
+            + "where j.id = :id and j.lockedBy = :node and j.status = com.eduextra.job.model.JobStatus.RUNNING")
+    int markDead(@Param("id") Long id, @Param("node") String node, @Param("now") LocalDateTime now, @Param("error") String error);
+
+    // Vuelve a poner en cola un trabajo agotado, con los intentos a cero
+    @Modifying
+    @Query("update Job j set j.status = com.eduextra.job.model.JobStatus.PENDING, j.attempts = 0, j.runAt = :now, "
+            + "j.finishedAt = null where j.id = :id and j.status = com.eduextra.job.model.JobStatus.DEAD")
+    int requeueDead(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Limpiar trabajos terminados con éxito
+    @Modifying
+    @Query("delete from Job j where j.status = com.eduextra.job.model.JobStatus.SUCCEEDED and j.finishedAt < :cutoff")
+    int deleteSucceededBefore(@Param("cutoff") LocalDateTime cutoff);
+}
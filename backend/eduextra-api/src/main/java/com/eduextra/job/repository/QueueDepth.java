@@ -0,0 +1,9 @@
+package com.eduextra.job.repository;
+
+import com.eduextra.job.model.JobStatus;
+
+/**
+ * Number of jobs of a queue in one status.
+ */
+public record QueueDepth(String queue, JobStatus status, long jobs) {
+}
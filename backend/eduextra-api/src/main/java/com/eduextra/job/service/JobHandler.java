@@ -0,0 +1,20 @@
+package com.eduextra.job.service;
+
+import com.eduextra.job.model.Job;
+
+/**
+ * Runs background jobs of some types. Any Spring bean implementing this interface is
+ * picked up by JobWorker.
+ *
+ * Execution is at-least-once: a job whose handler throws is retried, and one whose node
+ * dies is run again after its lease expires, so handlers must be idempotent.
+ */
+public interface JobHandler {
+
+    /**
+     * Whether this handler runs jobs of the given type (e.g. "ArchiveInactiveUsers").
+     */
+    boolean supports(String jobType);
+
+    void handle(Job job) throws Exception;
+}
@@ -0,0 +1,182 @@
+package com.eduextra.job.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.exception.JobNotFoundException;
+import com.eduextra.job.dto.JobQueueStatsDTO;
+import com.eduextra.job.model.Job;
+import com.eduextra.job.model.JobStatus;
+import com.eduextra.job.repository.JobRepository;
+import com.eduextra.job.repository.QueueDepth;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Enqueues background jobs for JobWorker.
+ *
+ * enqueue joins the caller's transaction, so a job is stored if and only if the change that
+ * asked for it commits. Jobs are stored in the jobs table and survive restarts.
+ */
+@Service
+public class JobService {
+
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate newTransaction;
+    private final Map<String, Integer> queues;
+
+    @Value("${application.jobs.max-attempts:5}")
+    private int maxAttempts;
+
+    public JobService(JobRepository jobRepository, ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+            @Value("${application.jobs.queues:default:4,maintenance:1}") String queues) {
+        this.jobRepository = jobRepository;
+        this.objectMapper = objectMapper;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queues = parseQueues(queues);
+    }
+
+    /**
+     * Enqueues a job whose type is the simple class name of the payload (e.g. ArchiveInactiveUsers).
+     */
+    @Transactional
+    public Job enqueue(String queue, Object payload) {
+        return enqueue(queue, payload, 0, null);
+    }
+
+    /**
+     * Enqueues a job that runs before lower priority ones of its queue, not before runAt
+     * (null for now).
+     */
+    @Transactional
+    public Job enqueue(String queue, Object payload, int priority, LocalDateTime runAt) {
+        return jobRepository.save(newJob(queue, payload, priority, runAt, null));
+    }
+
+    /**
+     * Enqueues a job unless one with the same key was ever enqueued, e.g. by another node
+     * running the same schedule. Runs in its own transaction; returns whether the job was added.
+     */
+    public boolean enqueueOnce(String dedupeKey, String queue, Object payload) {
+        Job job = newJob(queue, payload, 0, null, dedupeKey);
+        try {
+            newTransaction.executeWithoutResult(status -> jobRepository.saveAndFlush(job));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deserializes the payload of a job, for use by handlers.
+     */
+    public <T> T readPayload(Job job, Class<T> type) {
+        try {
+            return objectMapper.readValue(job.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid payload for job " + job.getId(), e);
+        }
+    }
+
+    /**
+     * Puts a job that exhausted its attempts back in its queue with a fresh set of attempts.
+     */
+    @Transactional
+    public void retry(Long id) {
+        if (jobRepository.requeueDead(id, LocalDateTime.now()) == 0) {
+            throw new JobNotFoundException("Dead job not found with id: " + id);
+        }
+    }
+
+    /**
+     * Jobs per configured queue that are waiting, running or dead.
+     */
+    @Transactional(readOnly = true)
+    public List<JobQueueStatsDTO> queueStats() {
+        Map<String, JobQueueStatsDTO> stats = new LinkedHashMap<>();
+        queues.forEach((queue, concurrency) -> stats.put(queue, JobQueueStatsDTO.builder()
+                .queue(queue)
+                .concurrency(concurrency)
+                .build()));
+        for (QueueDepth depth : jobRepository.countByQueueAndStatus()) {
+            JobQueueStatsDTO queue = stats.get(depth.queue());
+            if (queue == null) {
+                continue;
+            }
+            switch (depth.status()) {
+                case PENDING -> queue.setPending(depth.jobs());
+                case RUNNING -> queue.setRunning(depth.jobs());
+                case DEAD -> queue.setDead(depth.jobs());
+                default -> { }
+            }
+        }
+        return new ArrayList<>(stats.values());
+    }
+
+    /**
+     * Configured queues and how many of their jobs each node runs at once.
+     */
+    public Map<String, Integer> queues() {
+        return queues;
+    }
+
+    private Job newJob(String queue, Object payload, int priority, LocalDateTime runAt, String dedupeKey) {
+        if (!queues.containsKey(queue)) {
+            throw new IllegalArgumentException("Unknown job queue: " + queue);
+        }
+        return Job.builder()
+                .queue(queue)
+                .type(payload.getClass().getSimpleName())
+                .payload(toJson(payload))
+                .priority(priority)
+                .status(JobStatus.PENDING)
+                .maxAttempts(maxAttempts)
+                .runAt(runAt)
+                .dedupeKey(dedupeKey)
+                .build();
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize job " + payload.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Parses "queue:concurrency" pairs separated by commas; a queue without a concurrency runs one job at a time.
+     */
+    static Map<String, Integer> parseQueues(String spec) {
+        Map<String, Integer> queues = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            int concurrency = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (parts.length > 2 || parts[0].isBlank() || concurrency < 1) {
+                throw new IllegalArgumentException("Invalid job queue: " + entry.trim());
+            }
+            queues.put(parts[0].trim(), concurrency);
+        }
+        if (queues.isEmpty()) {
+            throw new IllegalArgumentException("No job queues configured");
+        }
+        return Collections.unmodifiableMap(queues);
+    }
+}
@@ -0,0 +1,273 @@
+package com.eduextra.job.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.common.queue.WorkQueues;
+import com.eduextra.job.model.Job;
+import com.eduextra.job.model.JobStatus;
+import com.eduextra.job.repository.JobRepository;
+import com.eduextra.job.repository.QueueDepth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs background jobs on a thread pool per queue.
+ *
+ * Each poll claims, per queue, as many runnable jobs as the queue has free threads on this
+ * node, with SELECT ... FOR UPDATE SKIP LOCKED, so every node can poll the same queues and
+ * throughput grows with the number of nodes. A claimed job is leased to this node for
+ * visibility-timeout-seconds and the lease is renewed while it runs; if the node dies, the
+ * job is claimed again once the lease expires. Failed jobs are retried with exponential
+ * backoff and marked DEAD after max-attempts.
+ *
+ * Outbound email and avatar thumbnails keep their own queues. Email is sent in batches
+ * merged into per-recipient digests over pooled SMTP connections, which one job per message
+ * cannot do (MailDispatcher), and thumbnails are a cache on each node's local disk, which
+ * must be generated by the node that serves them (AvatarThumbnailService).
+ *
+ * Metrics: jobs.depth (tags queue, status), jobs.lag.seconds (tag queue), jobs.wait and
+ * jobs.duration (tag queue), jobs.completed (tags queue, result=succeeded|retried|dead).
+ */
+@Service
+public class JobWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(JobWorker.class);
+
+    private static final List<JobStatus> DEPTH_STATUSES = List.of(JobStatus.PENDING, JobStatus.RUNNING, JobStatus.DEAD);
+
+    /**
+     * A queue's threads and the jobs they are running.
+     */
+    private static final class Lane {
+        final String queue;
+        final int concurrency;
+        final ThreadPoolExecutor executor;
+        final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+        final Map<JobStatus, AtomicLong> depth = new EnumMap<>(JobStatus.class);
+        final AtomicLong lagSeconds = new AtomicLong();
+        final Timer wait;
+        final Timer duration;
+        final Counter succeeded;
+        final Counter retried;
+        final Counter dead;
+
+        Lane(String queue, int concurrency, MeterRegistry meterRegistry) {
+            this.queue = queue;
+            this.concurrency = concurrency;
+            this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "jobs-" + queue);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            for (JobStatus status : DEPTH_STATUSES) {
+                AtomicLong jobs = new AtomicLong();
+                depth.put(status, jobs);
+                Gauge.builder("jobs.depth", jobs, AtomicLong::get).tag("queue", queue).tag("status", status.name())
+                        .description("Background jobs by status").register(meterRegistry);
+            }
+            Gauge.builder("jobs.lag.seconds", lagSeconds, AtomicLong::get).tag("queue", queue)
+                    .description("How long the oldest runnable job has been waiting").register(meterRegistry);
+            this.wait = Timer.builder("jobs.wait").tag("queue", queue)
+                    .description("Time from a job becoming runnable to it starting").register(meterRegistry);
+            this.duration = Timer.builder("jobs.duration").tag("queue", queue)
+                    .description("Time to run a job").register(meterRegistry);
+            this.succeeded = completed(meterRegistry, queue, "succeeded");
+            this.retried = completed(meterRegistry, queue, "retried");
+            this.dead = completed(meterRegistry, queue, "dead");
+        }
+
+        private static Counter completed(MeterRegistry meterRegistry, String queue, String result) {
+            return Counter.builder("jobs.completed").tag("queue", queue).tag("result", result)
+                    .description("Job attempts by outcome").register(meterRegistry);
+        }
+    }
+
+    private final JobRepository jobRepository;
+    private final ObjectProvider<JobHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Lane> lanes = new LinkedHashMap<>();
+    private final String node = WorkQueues.NODE;
+
+    @Value("${application.jobs.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.jobs.visibility-timeout-seconds:300}")
+    private long visibilityTimeoutSeconds;
+
+    @Value("${application.jobs.max-backoff-seconds:600}")
+    private long maxBackoffSeconds;
+
+    @Value("${application.jobs.retention-days:7}")
+    private int retentionDays;
+
+    public JobWorker(JobRepository jobRepository, ObjectProvider<JobHandler> handlers, TransactionTemplate transactionTemplate,
+            JobService jobService, MeterRegistry meterRegistry) {
+        this.jobRepository = jobRepository;
+        this.handlers = handlers;
+        this.transactionTemplate = transactionTemplate;
+        jobService.queues().forEach((queue, concurrency) -> lanes.put(queue, new Lane(queue, concurrency, meterRegistry)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted jobs keep their lease and are claimed again once it expires
+        lanes.values().forEach(lane -> lane.executor.shutdownNow());
+    }
+
+    @Scheduled(fixedDelayString = "${application.jobs.poll-interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        for (Lane lane : lanes.values()) {
+            int free = lane.concurrency - lane.inFlight.size();
+            if (free <= 0) {
+                continue;
+            }
+            List<Job> claimed = transactionTemplate.execute(status -> claim(lane.queue, free));
+            for (Job job : claimed) {
+                lane.inFlight.add(job.getId());
+                lane.executor.execute(() -> run(lane, job));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.jobs.lease-renew-interval-ms:60000}")
+    public void extendLeases() {
+        for (Lane lane : lanes.values()) {
+            List<Long> ids = new ArrayList<>(lane.inFlight);
+            if (!ids.isEmpty()) {
+                LocalDateTime lockedUntil = LocalDateTime.now().plusSeconds(visibilityTimeoutSeconds);
+                transactionTemplate.executeWithoutResult(status -> jobRepository.extendLeases(ids, node, lockedUntil));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.jobs.metrics-interval-ms:10000}")
+    public void refreshGauges() {
+        Map<String, Map<JobStatus, Long>> counts = new LinkedHashMap<>();
+        for (QueueDepth depth : jobRepository.countByQueueAndStatus()) {
+            counts.computeIfAbsent(depth.queue(), queue -> new EnumMap<>(JobStatus.class)).put(depth.status(), depth.jobs());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Lane lane : lanes.values()) {
+            Map<JobStatus, Long> queueCounts = counts.getOrDefault(lane.queue, Map.of());
+            lane.depth.forEach((status, jobs) -> jobs.set(queueCounts.getOrDefault(status, 0L)));
+            LocalDateTime oldest = jobRepository.findOldestRunnableAt(lane.queue, now);
+            lane.lagSeconds.set(WorkQueues.lagSeconds(oldest, now));
+        }
+    }
+
+    @Scheduled(cron = "${application.jobs.purge-cron:0 15 4 * * *}")
+    public void purgeSucceeded() {
+        WorkQueues.purge(transactionTemplate,
+                () -> jobRepository.deleteSucceededBefore(LocalDateTime.now().minusDays(retentionDays)),
+                log, "finished jobs");
+    }
+
+    /**
+     * Claims up to limit runnable jobs of a queue for this node. A job whose lease expired
+     * on its last attempt is marked DEAD instead: its node most likely died running it.
+     */
+    List<Job> claim(String queue, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Job> claimed = new ArrayList<>();
+        for (Job job : jobRepository.lockRunnableBatch(queue, now, PageRequest.of(0, limit))) {
+            if (job.getStatus() == JobStatus.RUNNING && job.getAttempts() >= job.getMaxAttempts()) {
+                job.setLastError("Lease expired on the last attempt (held by " + job.getLockedBy() + ")");
+                job.setStatus(JobStatus.DEAD);
+                job.setFinishedAt(now);
+                job.setLockedBy(null);
+                job.setLockedUntil(null);
+                lanes.get(queue).dead.increment();
+                log.warn("Job {} ({}) lost its lease on the last attempt", job.getId(), job.getType());
+                continue;
+            }
+            if (job.getStatus() == JobStatus.RUNNING) {
+                log.warn("Job {} ({}) lease held by {} expired, running it again", job.getId(), job.getType(), job.getLockedBy());
+            }
+            job.setAttempts(job.getAttempts() + 1);
+            job.setStatus(JobStatus.RUNNING);
+            job.setLockedBy(node);
+            job.setLockedUntil(now.plusSeconds(visibilityTimeoutSeconds));
+            job.setStartedAt(now);
+            claimed.add(job);
+        }
+        // Dirty jobs are flushed in one go when the claim transaction commits
+        return claimed;
+    }
+
+    private void run(Lane lane, Job job) {
+        try {
+            lane.wait.record(Duration.between(job.getRunAt(), job.getStartedAt()).abs());
+            long start = System.nanoTime();
+            try {
+                handlerFor(job).handle(job);
+            } catch (Exception e) {
+                lane.duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                fail(lane, job, e);
+                return;
+            }
+            lane.duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Integer updated = transactionTemplate.execute(status -> jobRepository.markSucceeded(job.getId(), node, LocalDateTime.now()));
+            if (updated != null && updated > 0) {
+                lane.succeeded.increment();
+            } else {
+                log.warn("Job {} ({}) finished after its lease was taken over", job.getId(), job.getType());
+            }
+        } catch (RuntimeException e) {
+            // Could not record the outcome; the lease expires and the job runs again
+            log.error("Could not record the outcome of job {} ({})", job.getId(), job.getType(), e);
+        } finally {
+            lane.inFlight.remove(job.getId());
+        }
+    }
+
+    private JobHandler handlerFor(Job job) {
+        return handlers.orderedStream()
+                .filter(handler -> handler.supports(job.getType()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No handler for job type " + job.getType()));
+    }
+
+    private void fail(Lane lane, Job job, Exception e) {
+        LocalDateTime now = LocalDateTime.now();
+        String error = WorkQueues.errorMessage(e.toString());
+        if (job.getAttempts() >= job.getMaxAttempts()) {
+            transactionTemplate.executeWithoutResult(status -> jobRepository.markDead(job.getId(), node, now, error));
+            lane.dead.increment();
+            log.error("Job {} ({}) failed on its last attempt {}: {}", job.getId(), job.getType(), job.getAttempts(), error);
+        } else {
+            LocalDateTime runAt = now.plus(WorkQueues.backoff(job.getAttempts(), maxBackoffSeconds));
+            transactionTemplate.executeWithoutResult(status -> jobRepository.markRetry(job.getId(), node, runAt, error));
+            lane.retried.increment();
+            log.warn("Job {} ({}) failed on attempt {}, retrying at {}: {}", job.getId(), job.getType(), job.getAttempts(), runAt, error);
+        }
+    }
+}
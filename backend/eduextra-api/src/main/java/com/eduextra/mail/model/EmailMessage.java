@@ -0,0 +1,86 @@
+package com.eduextra.mail.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outbound email waiting to be sent, or sent. The body is rendered by MailDispatcher when
+ * the email goes out, from the template and its parameters.
+ */
+@Entity
+@Data
+@Table(name = "email_messages", indexes = {
+    @Index(name = "idx_email_messages_due", columnList = "status, available_at"),
+    @Index(name = "idx_email_messages_recipient", columnList = "recipient, status"),
+    @Index(name = "idx_email_messages_source_event", columnList = "source_event_id")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long userId;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private EmailTemplate template;
+
+    // Template parameters as a JSON object
+    @Column(nullable = false, columnDefinition = "text")
+    private String params;
+
+    // Outbox event the email was queued for
+    private Long sourceEventId;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EmailStatus status = EmailStatus.PENDING;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    // Not sent before this time; while SENDING, when the send is given up for lost
+    private LocalDateTime availableAt;
+
+    // Node sending the email while SENDING
+    @Column(length = 100)
+    private String lockedBy;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (availableAt == null) {
+            availableAt = createdAt;
+        }
+    }
+}
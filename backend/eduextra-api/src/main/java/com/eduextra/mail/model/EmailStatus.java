@@ -0,0 +1,8 @@
+package com.eduextra.mail.model;
+
+public enum EmailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,29 @@
+package com.eduextra.mail.model;
+
+/**
+ * Outbound email templates, read from mail/<name>.txt on the classpath.
+ *
+ * Digestible emails wait for the recipient's digest window and are sent together with the
+ * other digestible emails queued for them in the meantime; the rest go out right away.
+ */
+public enum EmailTemplate {
+    WELCOME(false),
+    SEAT_ALLOCATED(true),
+    WAITLIST_PROMOTED(true),
+    ACTIVITY_RESCHEDULED(true),
+    ACTIVITY_CANCELLED(true);
+
+    private final boolean digestible;
+
+    EmailTemplate(boolean digestible) {
+        this.digestible = digestible;
+    }
+
+    public boolean isDigestible() {
+        return digestible;
+    }
+
+    public String resource() {
+        return "mail/" + name().toLowerCase() + ".txt";
+    }
+}
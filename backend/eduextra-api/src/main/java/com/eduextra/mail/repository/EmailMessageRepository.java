@@ -0,0 +1,77 @@
+package com.eduextra.mail.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.mail.model.EmailMessage;
+import com.eduextra.mail.model.EmailStatus;
+import com.eduextra.mail.model.EmailTemplate;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface EmailMessageRepository extends JpaRepository<EmailMessage, Long> {
+
+    // Reclamar correos listos para enviar, o cuyo envío se dio por perdido; agrupados por destinatario para los resúmenes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select m from EmailMessage m where m.status in (com.eduextra.mail.model.EmailStatus.PENDING, "
+            + "com.eduextra.mail.model.EmailStatus.SENDING) and m.availableAt <= :now order by m.availableAt, m.recipient, m.id")
+    List<EmailMessage> lockDueBatch(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Ventana de resumen abierta para un destinatario: la del correo pendiente más antiguo que admite resumen
+    @Query("select min(m.availableAt) from EmailMessage m where m.recipient = :recipient "
+            + "and m.status = com.eduextra.mail.model.EmailStatus.PENDING and m.template in :templates")
+    LocalDateTime findDigestWindow(@Param("recipient") String recipient, @Param("templates") Collection<EmailTemplate> templates);
+
+    // Saber si un evento del outbox ya generó correos
+    boolean existsBySourceEventId(Long sourceEventId);
+
+    // Contar correos por estado
+    long countByStatus(EmailStatus status);
+
+    // Fecha del correo listo más antiguo, para medir el retraso
+    @Query("select min(m.availableAt) from EmailMessage m where m.status = com.eduextra.mail.model.EmailStatus.PENDING "
+            + "and m.availableAt <= :now")
+    LocalDateTime findOldestDueAt(@Param("now") LocalDateTime now);
+
+    // Marca como enviados los correos de este envío, si siguen reclamados por él
+    @Modifying
+    @Query("update EmailMessage m set m.status = com.eduextra.mail.model.EmailStatus.SENT, m.sentAt = :now, "
+            + "m.lastError = null, m.lockedBy = null where m.id in :ids and m.lockedBy = :node "
+            + "and m.availableAt = :leasedUntil and m.status = com.eduextra.mail.model.EmailStatus.SENDING")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("node") String node, @Param("leasedUntil") LocalDateTime leasedUntil,
+            @Param("now") LocalDateTime now);
+
+    // Devuelve a la cola para otro intento los correos fallidos de este envío
+    @Modifying
+    @Query("update EmailMessage m set m.status = com.eduextra.mail.model.EmailStatus.PENDING, m.availableAt = :availableAt, "
+            + "m.lastError = :error, m.lockedBy = null where m.id in :ids and m.lockedBy = :node "
+            + "and m.availableAt = :leasedUntil and m.status = com.eduextra.mail.model.EmailStatus.SENDING")
+    int markRetry(@Param("ids") Collection<Long> ids, @Param("node") String node, @Param("leasedUntil") LocalDateTime leasedUntil,
+            @Param("availableAt") LocalDateTime availableAt, @Param("error") String error);
+
+    // Marca como fallidos los correos de este envío que no se pueden o ya no se van a enviar
+    @Modifying
+    @Query("update EmailMessage m set m.status = com.eduextra.mail.model.EmailStatus.FAILED, m.lastError = :error, "
+            + "m.lockedBy = null where m.id in :ids and m.lockedBy = :node "
+            + "and m.availableAt = :leasedUntil and m.status = com.eduextra.mail.model.EmailStatus.SENDING")
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("node") String node, @Param("leasedUntil") LocalDateTime leasedUntil,
+            @Param("error") String error);
+
+    // Limpiar correos enviados
+    @Modifying
+    @Query("delete from EmailMessage m where m.status = com.eduextra.mail.model.EmailStatus.SENT and m.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
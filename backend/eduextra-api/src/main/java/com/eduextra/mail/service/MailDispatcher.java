@@ -0,0 +1,388 @@
+package com.eduextra.mail.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.common.queue.WorkQueues;
+import com.eduextra.mail.model.EmailMessage;
+import com.eduextra.mail.model.EmailStatus;
+import com.eduextra.mail.model.EmailTemplate;
+import com.eduextra.mail.repository.EmailMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Sends queued email in batches over pooled SMTP connections.
+ *
+ * Each batch of due emails is claimed with SELECT ... FOR UPDATE SKIP LOCKED and leased to
+ * this node for send-timeout-seconds, so several nodes can send at once. Outcomes are only
+ * recorded for emails still held by that claim: a node that outlived its lease cannot
+ * overwrite the result of the node that reclaimed them. A recipient's digestible emails in
+ * the batch are merged into one digest. The batch is split across up to connections sender
+ * threads, each sending its share over one pooled connection, and every distinct template
+ * and parameter set is rendered once per batch.
+ *
+ * Failed emails are retried with exponential backoff up to max-attempts; rejected
+ * recipients, and emails that cannot be rendered, fail at once.
+ *
+ * Metrics: mail.sent (tag kind=single|digest), mail.failures, mail.batch, mail.pending and
+ * mail.lag.seconds.
+ */
+@Service
+public class MailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private static final TypeReference<Map<String, String>> PARAMS = new TypeReference<>() {
+    };
+
+    /**
+     * One email to send: a single message or the digest of several.
+     */
+    private static final class Outgoing {
+        final String recipient;
+        final MailTemplates.Rendered content;
+        final List<EmailMessage> messages;
+        boolean sent;
+        // Failed for good: refused by the server, or could not be rendered
+        boolean rejected;
+        String error;
+
+        Outgoing(String recipient, MailTemplates.Rendered content, List<EmailMessage> messages) {
+            this.recipient = recipient;
+            this.content = content;
+            this.messages = messages;
+        }
+
+        static Outgoing unrenderable(EmailMessage message, RuntimeException e) {
+            Outgoing email = new Outgoing(message.getRecipient(), null, List.of(message));
+            email.rejected = true;
+            email.error = "Could not render: " + e;
+            return email;
+        }
+
+        List<Long> ids() {
+            return messages.stream().map(EmailMessage::getId).toList();
+        }
+
+        int attempts() {
+            return messages.stream().mapToInt(EmailMessage::getAttempts).max().orElse(0);
+        }
+    }
+
+    private record RenderKey(EmailTemplate template, String params) {
+    }
+
+    private final EmailMessageRepository emailMessageRepository;
+    private final MailTemplates mailTemplates;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final SmtpConnectionPool pool;
+    private final ThreadPoolExecutor senders;
+    private final int connections;
+
+    private final Counter sentSingle;
+    private final Counter sentDigest;
+    private final Counter failures;
+    private final Timer batchTimer;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @Value("${application.mail.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.mail.from:no-reply@eduextra.local}")
+    private String from;
+
+    @Value("${application.mail.batch-size:200}")
+    private int batchSize;
+
+    @Value("${application.mail.send-timeout-seconds:300}")
+    private long sendTimeoutSeconds;
+
+    @Value("${application.mail.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${application.mail.max-backoff-seconds:1800}")
+    private long maxBackoffSeconds;
+
+    @Value("${application.mail.retention-days:30}")
+    private int retentionDays;
+
+    public MailDispatcher(EmailMessageRepository emailMessageRepository, MailTemplates mailTemplates, ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate, JavaMailSenderImpl mailSender, MeterRegistry meterRegistry,
+            @Value("${application.mail.connections:2}") int connections,
+            @Value("${application.mail.idle-timeout-seconds:60}") long idleTimeoutSeconds) {
+        this.emailMessageRepository = emailMessageRepository;
+        this.mailTemplates = mailTemplates;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.connections = connections;
+        this.pool = new SmtpConnectionPool(mailSender.getSession(), mailSender.getProtocol(), mailSender.getHost(),
+                mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword(), connections, idleTimeoutSeconds * 1000);
+        this.senders = new ThreadPoolExecutor(connections, connections, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "mail-sender");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.sentSingle = Counter.builder("mail.sent").tag("kind", "single").description("Emails sent").register(meterRegistry);
+        this.sentDigest = Counter.builder("mail.sent").tag("kind", "digest").description("Emails sent").register(meterRegistry);
+        this.failures = Counter.builder("mail.failures").description("Failed email send attempts").register(meterRegistry);
+        this.batchTimer = Timer.builder("mail.batch").description("Time to send one email batch").register(meterRegistry);
+        Gauge.builder("mail.pending", pending, AtomicLong::get).description("Emails waiting to be sent").register(meterRegistry);
+        Gauge.builder("mail.lag.seconds", lagSeconds, AtomicLong::get).description("How long the oldest due email has been waiting").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        pool.close();
+    }
+
+    @Scheduled(fixedDelayString = "${application.mail.poll-interval-ms:2000}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        // Send full batches back to back, stop as soon as a batch comes back short
+        int claimed;
+        do {
+            claimed = batchTimer.record(this::sendBatch);
+        } while (claimed >= batchSize);
+        pool.evictIdle();
+        refreshGauges();
+    }
+
+    @Scheduled(cron = "${application.mail.purge-cron:0 45 3 * * *}")
+    public void purgeSent() {
+        WorkQueues.purge(transactionTemplate,
+                () -> emailMessageRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays)),
+                log, "sent emails");
+    }
+
+    /**
+     * Claims, sends and records one batch. Returns the number of emails claimed.
+     */
+    int sendBatch() {
+        List<EmailMessage> batch = transactionTemplate.execute(status -> claim());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // The whole batch shares one lease; outcomes only apply while it still holds
+        LocalDateTime leasedUntil = batch.get(0).getAvailableAt();
+        List<Outgoing> outgoing = compose(batch);
+        send(outgoing.stream().filter(email -> email.content != null).toList());
+        transactionTemplate.executeWithoutResult(status -> record(outgoing, leasedUntil));
+        return batch.size();
+    }
+
+    private List<EmailMessage> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailMessage> batch = emailMessageRepository.lockDueBatch(now, PageRequest.of(0, batchSize));
+        // Millisecond precision so the lease compares equal once stored
+        LocalDateTime leasedUntil = now.plusSeconds(sendTimeoutSeconds).truncatedTo(ChronoUnit.MILLIS);
+        for (EmailMessage message : batch) {
+            message.setStatus(EmailStatus.SENDING);
+            message.setAttempts(message.getAttempts() + 1);
+            message.setAvailableAt(leasedUntil);
+            message.setLockedBy(WorkQueues.NODE);
+        }
+        // Dirty messages are flushed in one go when the claim transaction commits
+        return batch;
+    }
+
+    /**
+     * Renders the batch: one email per non-digestible message, and per recipient one for
+     * their digestible messages, as a digest if there are several. A message that cannot be
+     * rendered fails on its own, without content; the rest of the batch is still sent.
+     */
+    private List<Outgoing> compose(List<EmailMessage> batch) {
+        Map<RenderKey, MailTemplates.Rendered> rendered = new HashMap<>();
+        Map<String, List<EmailMessage>> digests = new LinkedHashMap<>();
+        List<Outgoing> outgoing = new ArrayList<>();
+        for (EmailMessage message : batch) {
+            if (message.getTemplate().isDigestible()) {
+                digests.computeIfAbsent(message.getRecipient(), recipient -> new ArrayList<>()).add(message);
+                continue;
+            }
+            MailTemplates.Rendered content = render(rendered, message, outgoing);
+            if (content != null) {
+                outgoing.add(new Outgoing(message.getRecipient(), content, List.of(message)));
+            }
+        }
+        digests.forEach((recipient, messages) -> {
+            List<EmailMessage> included = new ArrayList<>();
+            List<MailTemplates.Rendered> parts = new ArrayList<>();
+            for (EmailMessage message : messages) {
+                MailTemplates.Rendered content = render(rendered, message, outgoing);
+                if (content != null) {
+                    included.add(message);
+                    parts.add(content);
+                }
+            }
+            if (parts.size() == 1) {
+                outgoing.add(new Outgoing(recipient, parts.get(0), included));
+            } else if (parts.size() > 1) {
+                try {
+                    outgoing.add(new Outgoing(recipient, mailTemplates.renderDigest(parts), included));
+                } catch (RuntimeException e) {
+                    included.forEach(message -> outgoing.add(Outgoing.unrenderable(message, e)));
+                }
+            }
+        });
+        return outgoing;
+    }
+
+    /**
+     * Renders a message, or adds it to outgoing as failed and returns null if it cannot be.
+     */
+    private MailTemplates.Rendered render(Map<RenderKey, MailTemplates.Rendered> rendered, EmailMessage message,
+            List<Outgoing> outgoing) {
+        try {
+            return rendered.computeIfAbsent(new RenderKey(message.getTemplate(), message.getParams()), key -> {
+                try {
+                    return mailTemplates.render(key.template(), objectMapper.readValue(key.params(), PARAMS));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Invalid parameters for email " + message.getId(), e);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Email {} ({}) cannot be rendered", message.getId(), message.getTemplate(), e);
+            outgoing.add(Outgoing.unrenderable(message, e));
+            return null;
+        }
+    }
+
+    /**
+     * Sends the emails, split evenly across the sender threads.
+     */
+    private void send(List<Outgoing> outgoing) {
+        int shares = Math.min(connections, outgoing.size());
+        List<Future<?>> futures = new ArrayList<>(shares);
+        for (int share = 0; share < shares; share++) {
+            List<Outgoing> mine = new ArrayList<>();
+            for (int k = share; k < outgoing.size(); k += shares) {
+                mine.add(outgoing.get(k));
+            }
+            futures.add(senders.submit(() -> sendShare(mine)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Email sender failed", e.getCause());
+            }
+        }
+    }
+
+    private void sendShare(List<Outgoing> share) {
+        Transport transport = null;
+        try {
+            for (Outgoing email : share) {
+                if (transport == null) {
+                    transport = pool.borrow();
+                }
+                try {
+                    MimeMessage message = toMimeMessage(email);
+                    transport.sendMessage(message, message.getAllRecipients());
+                    email.sent = true;
+                } catch (SendFailedException e) {
+                    // The server refused the address; the connection is still usable
+                    email.rejected = e.getInvalidAddresses() != null && e.getInvalidAddresses().length > 0;
+                    email.error = e.toString();
+                } catch (MessagingException e) {
+                    email.error = e.toString();
+                    pool.release(transport, true);
+                    transport = null;
+                }
+            }
+        } catch (MessagingException e) {
+            // Could not connect: whatever is left of the share waits for a retry
+            share.stream().filter(email -> !email.sent && email.error == null).forEach(email -> email.error = e.toString());
+        } finally {
+            if (transport != null) {
+                pool.release(transport, false);
+            }
+        }
+    }
+
+    private MimeMessage toMimeMessage(Outgoing email) throws MessagingException {
+        MimeMessage message = new MimeMessage(pool.session());
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setFrom(from);
+        helper.setTo(email.recipient);
+        helper.setSubject(email.content.subject());
+        helper.setText(email.content.body(), false);
+        message.saveChanges();
+        return message;
+    }
+
+    private void record(List<Outgoing> outgoing, LocalDateTime leasedUntil) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sent = new ArrayList<>();
+        for (Outgoing email : outgoing) {
+            if (email.sent) {
+                sent.addAll(email.ids());
+                (email.messages.size() > 1 ? sentDigest : sentSingle).increment();
+                continue;
+            }
+            failures.increment();
+            String error = WorkQueues.errorMessage(email.error != null ? email.error : "Not sent");
+            if (email.rejected || email.attempts() >= maxAttempts) {
+                emailMessageRepository.markFailed(email.ids(), WorkQueues.NODE, leasedUntil, error);
+                log.error("Email to {} failed on attempt {}, giving up: {}", email.recipient, email.attempts(), error);
+            } else {
+                LocalDateTime retryAt = now.plus(WorkQueues.backoff(email.attempts(), maxBackoffSeconds));
+                emailMessageRepository.markRetry(email.ids(), WorkQueues.NODE, leasedUntil, retryAt, error);
+                log.warn("Email to {} failed on attempt {}, retrying at {}: {}", email.recipient, email.attempts(), retryAt, error);
+            }
+        }
+        if (!sent.isEmpty() && emailMessageRepository.markSent(sent, WorkQueues.NODE, leasedUntil, now) < sent.size()) {
+            // Another node reclaimed them meanwhile and will send them again
+            log.warn("Some of emails {} were sent after their lease was taken over", sent);
+        }
+    }
+
+    private void refreshGauges() {
+        LocalDateTime now = LocalDateTime.now();
+        pending.set(emailMessageRepository.countByStatus(EmailStatus.PENDING));
+        LocalDateTime oldest = emailMessageRepository.findOldestDueAt(now);
+        lagSeconds.set(WorkQueues.lagSeconds(oldest, now));
+    }
+}
@@ -0,0 +1,80 @@
+package com.eduextra.mail.service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.eduextra.mail.model.EmailMessage;
+import com.eduextra.mail.model.EmailTemplate;
+import com.eduextra.mail.repository.EmailMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Queues outbound email for MailDispatcher.
+ *
+ * Digestible emails are held for the recipient's digest window: the first one opens a
+ * window of digest-window-seconds and the ones queued before it closes join it, so they
+ * all become due at once and go out as a single digest.
+ */
+@Service
+public class MailService {
+
+    private static final List<EmailTemplate> DIGESTIBLE = Arrays.stream(EmailTemplate.values())
+            .filter(EmailTemplate::isDigestible)
+            .toList();
+
+    private final EmailMessageRepository emailMessageRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${application.mail.digest-window-seconds:300}")
+    private long digestWindowSeconds;
+
+    public MailService(EmailMessageRepository emailMessageRepository, ObjectMapper objectMapper) {
+        this.emailMessageRepository = emailMessageRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Queues an email in the caller's transaction. sourceEventId is the outbox event it was
+     * queued for, if any.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void queue(Long userId, String recipient, EmailTemplate template, Map<String, String> params, Long sourceEventId) {
+        LocalDateTime availableAt = null;
+        if (template.isDigestible()) {
+            LocalDateTime window = emailMessageRepository.findDigestWindow(recipient, DIGESTIBLE);
+            availableAt = window != null ? window : LocalDateTime.now().plusSeconds(digestWindowSeconds);
+        }
+        emailMessageRepository.save(EmailMessage.builder()
+                .userId(userId)
+                .recipient(recipient)
+                .template(template)
+                .params(toJson(params))
+                .sourceEventId(sourceEventId)
+                .availableAt(availableAt)
+                .build());
+    }
+
+    /**
+     * Whether emails were already queued for an outbox event, e.g. before a retry.
+     */
+    @Transactional(readOnly = true)
+    public boolean alreadyQueued(Long sourceEventId) {
+        return emailMessageRepository.existsBySourceEventId(sourceEventId);
+    }
+
+    private String toJson(Map<String, String> params) {
+        try {
+            return objectMapper.writeValueAsString(params);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize email parameters", e);
+        }
+    }
+}
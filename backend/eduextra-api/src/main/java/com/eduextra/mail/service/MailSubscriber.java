@@ -0,0 +1,133 @@
+package com.eduextra.mail.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.eduextra.activity.event.ActivityCancelled;
+import com.eduextra.activity.event.ActivityRescheduled;
+import com.eduextra.allocation.event.SeatsAllocated;
+import com.eduextra.mail.model.EmailTemplate;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.outbox.service.OutboxSubscriber;
+import com.eduextra.user.event.UserCreated;
+import com.eduextra.waitlist.event.WaitlistPromoted;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Queues the emails of account creations, seat assignments and activity schedule changes.
+ *
+ * Emails are queued in the relay's transaction. An event retried after another subscriber
+ * failed already has its emails, so it is skipped.
+ */
+@Component
+@RequiredArgsConstructor
+public class MailSubscriber implements OutboxSubscriber {
+
+    private static final Set<String> EVENT_TYPES = Set.of(
+            UserCreated.class.getSimpleName(),
+            SeatsAllocated.class.getSimpleName(),
+            WaitlistPromoted.class.getSimpleName(),
+            ActivityRescheduled.class.getSimpleName(),
+            ActivityCancelled.class.getSimpleName());
+
+    private static final String ACTIVITY_SQL = "select name, day_of_week, start_time, end_time, start_date, end_date, room "
+            + "from activities where id = ?";
+    private static final String ACTIVE_USERS_SQL = "select id, email from users where is_active = true and id in (%s)";
+    private static final String ACTIVITY_RECIPIENTS_SQL = "select u.id, u.email from users u where u.is_active = true "
+            + "and (u.id in (select e.student_id from enrollments e where e.activity_id = ? and e.status = 'ACTIVE') "
+            + "or u.id in (select a.monitor_id from activities a where a.id = ?))";
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+    private static final int USER_CHUNK = 1000;
+
+    private record Recipient(Long userId, String email) {
+    }
+
+    private final OutboxService outboxService;
+    private final MailService mailService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean supports(String eventType) {
+        return EVENT_TYPES.contains(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        if (mailService.alreadyQueued(event.getId())) {
+            return;
+        }
+        String type = event.getEventType();
+        if (UserCreated.class.getSimpleName().equals(type)) {
+            UserCreated created = outboxService.readPayload(event, UserCreated.class);
+            mailService.queue(created.userId(), created.email(), EmailTemplate.WELCOME,
+                    Map.of("name", created.fullName(), "email", created.email()), event.getId());
+        } else if (SeatsAllocated.class.getSimpleName().equals(type)) {
+            SeatsAllocated allocated = outboxService.readPayload(event, SeatsAllocated.class);
+            queue(event, activeUsers(allocated.studentIds()), EmailTemplate.SEAT_ALLOCATED, allocated.activityId());
+        } else if (WaitlistPromoted.class.getSimpleName().equals(type)) {
+            WaitlistPromoted promoted = outboxService.readPayload(event, WaitlistPromoted.class);
+            queue(event, activeUsers(promoted.studentIds()), EmailTemplate.WAITLIST_PROMOTED, promoted.activityId());
+        } else if (ActivityRescheduled.class.getSimpleName().equals(type)) {
+            ActivityRescheduled rescheduled = outboxService.readPayload(event, ActivityRescheduled.class);
+            queue(event, activityRecipients(rescheduled.activityId()), EmailTemplate.ACTIVITY_RESCHEDULED, rescheduled.activityId());
+        } else {
+            ActivityCancelled cancelled = outboxService.readPayload(event, ActivityCancelled.class);
+            queue(event, activityRecipients(cancelled.activityId()), EmailTemplate.ACTIVITY_CANCELLED, cancelled.activityId());
+        }
+    }
+
+    private void queue(OutboxEvent event, List<Recipient> recipients, EmailTemplate template, Long activityId) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        List<Map<String, String>> activity = jdbcTemplate.query(ACTIVITY_SQL, (rs, row) -> {
+            Map<String, String> params = new TreeMap<>();
+            params.put("activity", rs.getString("name"));
+            params.put("day", DayOfWeek.valueOf(rs.getString("day_of_week")).getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+            params.put("start", rs.getObject("start_time", LocalTime.class).format(TIME));
+            params.put("end", rs.getObject("end_time", LocalTime.class).format(TIME));
+            params.put("startDate", rs.getObject("start_date", LocalDate.class).toString());
+            params.put("endDate", rs.getObject("end_date", LocalDate.class).toString());
+            String room = rs.getString("room");
+            params.put("room", room != null ? room : "a room to be confirmed");
+            return params;
+        }, activityId);
+        if (activity.isEmpty()) {
+            return;
+        }
+        // Every recipient gets the same parameters, so the dispatcher renders them once
+        for (Recipient recipient : recipients) {
+            mailService.queue(recipient.userId(), recipient.email(), template, activity.get(0), event.getId());
+        }
+    }
+
+    private List<Recipient> activeUsers(List<Long> userIds) {
+        List<Recipient> recipients = new ArrayList<>();
+        for (int start = 0; start < userIds.size(); start += USER_CHUNK) {
+            List<Long> chunk = userIds.subList(start, Math.min(userIds.size(), start + USER_CHUNK));
+            String placeholders = String.join(",", chunk.stream().map(id -> "?").toList());
+            recipients.addAll(jdbcTemplate.query(String.format(ACTIVE_USERS_SQL, placeholders),
+                    (rs, row) -> new Recipient(rs.getLong("id"), rs.getString("email")), chunk.toArray()));
+        }
+        return recipients;
+    }
+
+    private List<Recipient> activityRecipients(Long activityId) {
+        return jdbcTemplate.query(ACTIVITY_RECIPIENTS_SQL,
+                (rs, row) -> new Recipient(rs.getLong("id"), rs.getString("email")), activityId, activityId);
+    }
+}
@@ -0,0 +1,136 @@
+package com.eduextra.mail.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import com.eduextra.mail.model.EmailTemplate;
+
+/**
+ * Email templates, parsed once when the application starts.
+ *
+ * A template file starts with "subject:" and "summary:" lines and a "---" line, followed by
+ * the body. {{name}} placeholders are replaced by parameters; missing ones render empty.
+ * The summary is the one-line version of the email used in digests; the digest template
+ * gets the number of emails as {{count}} and their summaries as {{items}}.
+ */
+@Component
+public class MailTemplates {
+
+    static final String DIGEST_RESOURCE = "mail/digest.txt";
+
+    /**
+     * A rendered email.
+     */
+    public record Rendered(String subject, String summary, String body) {
+    }
+
+    /**
+     * Literal text and placeholder names, alternating: literals has one more element than keys.
+     */
+    record Compiled(List<String> literals, List<String> keys) {
+
+        static Compiled of(String source) {
+            List<String> literals = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            int from = 0;
+            int open;
+            while ((open = source.indexOf("{{", from)) >= 0) {
+                int close = source.indexOf("}}", open + 2);
+                if (close < 0) {
+                    break;
+                }
+                literals.add(source.substring(from, open));
+                keys.add(source.substring(open + 2, close).trim());
+                from = close + 2;
+            }
+            literals.add(source.substring(from));
+            return new Compiled(List.copyOf(literals), List.copyOf(keys));
+        }
+
+        String render(Map<String, String> params) {
+            StringBuilder out = new StringBuilder(literals.get(0));
+            for (int k = 0; k < keys.size(); k++) {
+                String value = params.get(keys.get(k));
+                if (value != null) {
+                    out.append(value);
+                }
+                out.append(literals.get(k + 1));
+            }
+            return out.toString();
+        }
+    }
+
+    record Template(Compiled subject, Compiled summary, Compiled body) {
+
+        static Template parse(String resource, String source) {
+            String[] parts = source.replace("\r\n", "\n").split("\n---\n", 2);
+            if (parts.length < 2) {
+                throw new IllegalStateException("Email template " + resource + " has no '---' line");
+            }
+            String subject = null;
+            String summary = null;
+            for (String line : parts[0].split("\n")) {
+                if (line.startsWith("subject:")) {
+                    subject = line.substring("subject:".length()).trim();
+                } else if (line.startsWith("summary:")) {
+                    summary = line.substring("summary:".length()).trim();
+                }
+            }
+            if (subject == null) {
+                throw new IllegalStateException("Email template " + resource + " has no subject");
+            }
+            return new Template(Compiled.of(subject), Compiled.of(summary != null ? summary : subject), Compiled.of(parts[1]));
+        }
+
+        Rendered render(Map<String, String> params) {
+            // Line breaks in a parameter must not reach the Subject header
+            return new Rendered(subject.render(params).replaceAll("[\\r\\n]+", " "), summary.render(params), body.render(params));
+        }
+    }
+
+    private final Map<EmailTemplate, Template> templates = new EnumMap<>(EmailTemplate.class);
+    private final Template digest;
+
+    public MailTemplates() {
+        for (EmailTemplate template : EmailTemplate.values()) {
+            templates.put(template, load(template.resource()));
+        }
+        this.digest = load(DIGEST_RESOURCE);
+    }
+
+    public Rendered render(EmailTemplate template, Map<String, String> params) {
+        return templates.get(template).render(params);
+    }
+
+    /**
+     * Renders several emails to the same recipient as one digest.
+     */
+    public Rendered renderDigest(List<Rendered> emails) {
+        StringBuilder items = new StringBuilder();
+        for (Rendered email : emails) {
+            if (items.length() > 0) {
+                items.append('\n');
+            }
+            items.append("- ").append(email.summary());
+        }
+        return digest.render(Map.of("count", Integer.toString(emails.size()), "items", items.toString()));
+    }
+
+    private static Template load(String resource) {
+        try (InputStream in = new ClassPathResource(resource).getInputStream()) {
+            return Template.parse(resource, StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read email template " + resource, e);
+        }
+    }
+}
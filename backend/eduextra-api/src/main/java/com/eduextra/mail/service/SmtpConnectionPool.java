@@ -0,0 +1,120 @@
+package com.eduextra.mail.service;
+
+import java.util.Iterator;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+
+/**
+ * Open SMTP connections kept between batches, at most size of them in use at once.
+ *
+ * A connection is reused while the server keeps it open (checked with NOOP when it is
+ * borrowed) and closed after idleTimeoutMs without use. Connections that failed are
+ * released as broken and closed.
+ */
+final class SmtpConnectionPool implements AutoCloseable {
+
+    private record Idle(Transport transport, long since) {
+    }
+
+    private final Session session;
+    private final String protocol;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final long idleTimeoutMs;
+    private final Semaphore permits;
+    // Most recently used first, so spare connections age out
+    private final LinkedBlockingDeque<Idle> idle = new LinkedBlockingDeque<>();
+
+    SmtpConnectionPool(Session session, String protocol, String host, int port, String username, String password,
+            int size, long idleTimeoutMs) {
+        this.session = session;
+        this.protocol = protocol;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.permits = new Semaphore(size);
+    }
+
+    Session session() {
+        return session;
+    }
+
+    /**
+     * An open connection, reused if possible. Blocks while size connections are in use.
+     */
+    Transport borrow() throws MessagingException {
+        permits.acquireUninterruptibly();
+        try {
+            Idle candidate;
+            while ((candidate = idle.pollFirst()) != null) {
+                if (System.currentTimeMillis() - candidate.since() < idleTimeoutMs && candidate.transport().isConnected()) {
+                    return candidate.transport();
+                }
+                closeQuietly(candidate.transport());
+            }
+            Transport transport = session.getTransport(protocol);
+            transport.connect(host, port, username, password);
+            return transport;
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection; a broken one is closed instead of kept.
+     */
+    void release(Transport transport, boolean broken) {
+        if (broken) {
+            closeQuietly(transport);
+        } else {
+            idle.offerFirst(new Idle(transport, System.currentTimeMillis()));
+        }
+        permits.release();
+    }
+
+    /**
+     * Closes connections unused for longer than the idle timeout.
+     */
+    void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<Idle> oldest = idle.descendingIterator();
+        while (oldest.hasNext()) {
+            Idle candidate = oldest.next();
+            if (now - candidate.since() < idleTimeoutMs) {
+                break;
+            }
+            if (idle.remove(candidate)) {
+                closeQuietly(candidate.transport());
+            }
+        }
+    }
+
+    int idleConnections() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        Idle candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            closeQuietly(candidate.transport());
+        }
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException | RuntimeException e) {
+            // Already gone
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.eduextra.notification.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.eduextra.notification.dto.NotificationDTO;
+import com.eduextra.notification.service.NotificationHub;
+import com.eduextra.security.JwtAuthenticationFilter;
+import com.eduextra.security.JwtService;
+import com.eduextra.user.model.User;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for live notifications, pushed to the signed-in user as Server-Sent Events.
+ */
+@RestController
+@RequestMapping("/notifications")
+@Tag(name = "Notifications", description = "Live notifications for the signed-in user")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final NotificationHub notificationHub;
+    private final JwtService jwtService;
+
+    @Operation(
+        summary = "Open the notification stream",
+        description = "Server-Sent Events stream of the user's notifications: 'notification' events carry a notification, "
+                + "'resync' events mean some were missed and the client should reload its state, and id-only heartbeats "
+                + "keep the stream open. Browsers' EventSource cannot send headers, so the JWT may also be passed as the "
+                + "access_token query parameter. Streams end after a while or when the token expires; clients reconnect "
+                + "with Last-Event-ID to get what they missed.",
+        tags = {"Notifications"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Stream opened",
+                content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = NotificationDTO.class))),
+            @ApiResponse(responseCode = "403", description = "Not authenticated or account disabled")
+        }
+    )
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @Parameter(description = "Id of the last event received, sent by EventSource on reconnection") @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            HttpServletRequest request, HttpServletResponse response, @AuthenticationPrincipal User user) {
+        if (!Boolean.TRUE.equals(user.getIsActive())) {
+            throw new AccessDeniedException("Account disabled");
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        // Keeps reverse proxies such as nginx from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        String token = JwtAuthenticationFilter.resolveToken(request);
+        return notificationHub.subscribe(user.getId(), parseEventId(lastEventId),
+                jwtService.extractExpiration(token).toInstant());
+    }
+
+    private Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
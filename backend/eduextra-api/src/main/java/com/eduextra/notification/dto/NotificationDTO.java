@@ -0,0 +1,40 @@
+package com.eduextra.notification.dto;
+
+import java.time.LocalDateTime;
+
+import com.eduextra.notification.model.NotificationType;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a notification pushed on the notification stream
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Notification sent as the data of a 'notification' event; the event id is the same as id")
+public class NotificationDTO {
+
+    @Schema(description = "Position in the stream, sent back as Last-Event-ID on reconnection", example = "18342")
+    private Long id;
+
+    @Schema(description = "What happened", example = "ENROLLMENT_CONFIRMED")
+    private NotificationType type;
+
+    @Schema(description = "Activity concerned, if any", example = "7")
+    private Long activityId;
+
+    @Schema(description = "Name of the activity concerned", example = "Robótica")
+    private String activityName;
+
+    @Schema(description = "Text to show", example = "Your enrollment in Robótica is confirmed")
+    private String message;
+
+    @Schema(description = "When it happened")
+    private LocalDateTime createdAt;
+}
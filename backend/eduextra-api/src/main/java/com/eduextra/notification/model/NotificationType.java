@@ -0,0 +1,8 @@
+package com.eduextra.notification.model;
+
+public enum NotificationType {
+    ENROLLMENT_CONFIRMED,
+    WAITLIST_PROMOTED,
+    ACTIVITY_CANCELLED,
+    ACCOUNT_DISABLED
+}
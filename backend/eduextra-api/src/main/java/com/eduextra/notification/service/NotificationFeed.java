@@ -0,0 +1,163 @@
+package com.eduextra.notification.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.eduextra.activity.event.ActivityCancelled;
+import com.eduextra.allocation.event.SeatsAllocated;
+import com.eduextra.enrollment.event.EnrollmentCreated;
+import com.eduextra.notification.dto.NotificationDTO;
+import com.eduextra.notification.model.NotificationType;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.service.OutboxBroadcastSubscriber;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.user.event.UserDeleted;
+import com.eduextra.user.event.UserStatusChanged;
+import com.eduextra.user.model.User;
+import com.eduextra.user.repository.UserRepository;
+import com.eduextra.waitlist.event.WaitlistPromoted;
+
+/**
+ * Turns outbox events into notifications for NotificationHub.
+ *
+ * Streams can be open on any node while the relay dispatches each event on only one of
+ * them, so this is a broadcast subscriber: OutboxTail hands it every event on every node.
+ * The outbox id is the notification id, so ids agree across nodes and a client can
+ * reconnect anywhere.
+ */
+@Service
+public class NotificationFeed implements OutboxBroadcastSubscriber {
+
+    private static final Set<String> EVENT_TYPES = Set.of(
+            EnrollmentCreated.class.getSimpleName(),
+            SeatsAllocated.class.getSimpleName(),
+            WaitlistPromoted.class.getSimpleName(),
+            ActivityCancelled.class.getSimpleName(),
+            UserStatusChanged.class.getSimpleName(),
+            UserDeleted.class.getSimpleName());
+
+    private static final String ACTIVITY_NAME_SQL = "select name from activities where id = ?";
+    private static final String CANCELLED_RECIPIENTS_SQL = "select student_id from enrollments where activity_id = ? "
+            + "and status = 'ACTIVE' union select monitor_id from activities where id = ? and monitor_id is not null";
+    private static final int USER_CHUNK = 1000;
+
+    private final OutboxService outboxService;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationHub notificationHub;
+
+    public NotificationFeed(OutboxService outboxService, UserRepository userRepository, JdbcTemplate jdbcTemplate,
+            NotificationHub notificationHub) {
+        this.outboxService = outboxService;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationHub = notificationHub;
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return EVENT_TYPES.contains(eventType);
+    }
+
+    /**
+     * Events up to the tail's starting point are not notified.
+     */
+    @Override
+    public void started(long eventId) {
+        notificationHub.start(eventId);
+    }
+
+    @Override
+    public void caughtUp(long eventId) {
+        notificationHub.advance(eventId);
+    }
+
+    /**
+     * Notifications may have been missed, so every client is told to resync.
+     */
+    @Override
+    public void reload() {
+        notificationHub.resyncAll();
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        String type = event.getEventType();
+        if (EnrollmentCreated.class.getSimpleName().equals(type)) {
+            EnrollmentCreated created = outboxService.readPayload(event, EnrollmentCreated.class);
+            notify(event, List.of(created.studentId()), NotificationType.ENROLLMENT_CONFIRMED, created.activityId(),
+                    "Your enrollment in %s is confirmed");
+        } else if (SeatsAllocated.class.getSimpleName().equals(type)) {
+            SeatsAllocated allocated = outboxService.readPayload(event, SeatsAllocated.class);
+            notify(event, allocated.studentIds(), NotificationType.ENROLLMENT_CONFIRMED, allocated.activityId(),
+                    "You were given a seat in %s");
+        } else if (WaitlistPromoted.class.getSimpleName().equals(type)) {
+            WaitlistPromoted promoted = outboxService.readPayload(event, WaitlistPromoted.class);
+            notify(event, promoted.studentIds(), NotificationType.WAITLIST_PROMOTED, promoted.activityId(),
+                    "A seat opened up in %s and you are now enrolled");
+        } else if (ActivityCancelled.class.getSimpleName().equals(type)) {
+            ActivityCancelled cancelled = outboxService.readPayload(event, ActivityCancelled.class);
+            List<Long> recipients = jdbcTemplate.queryForList(CANCELLED_RECIPIENTS_SQL, Long.class,
+                    cancelled.activityId(), cancelled.activityId());
+            notify(event, recipients, NotificationType.ACTIVITY_CANCELLED, cancelled.activityId(), "%s has been cancelled");
+        } else if (UserStatusChanged.class.getSimpleName().equals(type)) {
+            UserStatusChanged changed = outboxService.readPayload(event, UserStatusChanged.class);
+            if (!changed.active()) {
+                // Filter-based updates do not list the users; only connected ones matter here
+                Collection<Long> userIds = changed.userIds() != null ? changed.userIds() : connectedUsers(false);
+                notificationHub.publish(userIds, NotificationDTO.builder()
+                        .id(event.getId())
+                        .type(NotificationType.ACCOUNT_DISABLED)
+                        .message("Your account has been disabled")
+                        .createdAt(event.getCreatedAt())
+                        .build());
+                notificationHub.disconnect(userIds);
+            }
+        } else {
+            UserDeleted deleted = outboxService.readPayload(event, UserDeleted.class);
+            notificationHub.disconnect(deleted.userIds() != null ? deleted.userIds() : connectedUsers(true));
+        }
+    }
+
+    private void notify(OutboxEvent event, Collection<Long> userIds, NotificationType type, Long activityId, String message) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        String name = jdbcTemplate.queryForList(ACTIVITY_NAME_SQL, String.class, activityId).stream().findFirst().orElse(null);
+        notificationHub.publish(userIds, NotificationDTO.builder()
+                .id(event.getId())
+                .type(type)
+                .activityId(activityId)
+                .activityName(name)
+                .message(String.format(message, name != null ? name : "the activity"))
+                .createdAt(event.getCreatedAt())
+                .build());
+    }
+
+    /**
+     * Connected users that are now disabled, or no longer exist.
+     */
+    private List<Long> connectedUsers(boolean deleted) {
+        List<Long> connected = notificationHub.connectedUserIds();
+        List<Long> matching = new ArrayList<>();
+        for (int start = 0; start < connected.size(); start += USER_CHUNK) {
+            List<Long> chunk = connected.subList(start, Math.min(connected.size(), start + USER_CHUNK));
+            Map<Long, User> users = new HashMap<>();
+            userRepository.findAllById(chunk).forEach(user -> users.put(user.getId(), user));
+            for (Long userId : chunk) {
+                User user = users.get(userId);
+                if (deleted ? user == null : user != null && !Boolean.TRUE.equals(user.getIsActive())) {
+                    matching.add(userId);
+                }
+            }
+        }
+        return matching;
+    }
+}
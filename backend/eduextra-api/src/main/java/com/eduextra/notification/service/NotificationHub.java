@@ -0,0 +1,398 @@
+package com.eduextra.notification.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.eduextra.notification.dto.NotificationDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-process fan-out of notifications to Server-Sent Events streams.
+ *
+ * Each user has a channel with their open streams and a short ring of their latest
+ * notifications. Streams are SseEmitters: while idle, a stream is an open socket and a
+ * suspended async request in Tomcat, with no thread attached, so a node can hold many of
+ * them cheaply.
+ *
+ * Publishing never waits for a client. Every stream has a bounded queue that a small pool of
+ * sender threads drains, one drain at a time per stream. A notification about the same thing
+ * (type and activity) as one still queued replaces it. When the queue is full the oldest
+ * entry is dropped and the client gets a resync event telling it to reload its state.
+ *
+ * Heartbeats are events with only an id: the feed position. They keep proxies from closing
+ * idle streams and move the client's Last-Event-ID forward. A client reconnecting with
+ * Last-Event-ID gets the newer notifications replayed from its ring, or a resync if some of
+ * them are no longer there. Rings are forgotten replay-window-seconds after the user's last
+ * notification or disconnection.
+ *
+ * Metrics: notifications.connections, notifications.sent, notifications.dropped (tag
+ * policy=coalesced|overflow).
+ */
+@Service
+public class NotificationHub {
+
+    static final String NOTIFICATION_EVENT = "notification";
+    static final String RESYNC_EVENT = "resync";
+
+    private final ConcurrentHashMap<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor sender;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter sent;
+    private final Counter coalesced;
+    private final Counter overflowed;
+
+    private final int queueSize;
+    private final int replaySize;
+    private final int maxStreamsPerUser;
+    private final long replayWindowMs;
+    private final long streamTimeoutMs;
+
+    // Feed position: every notification up to here has been published
+    private volatile long position;
+    // Notifications up to here may have been forgotten for some users; nothing is known before start
+    private final AtomicLong replayFloor = new AtomicLong(Long.MAX_VALUE);
+
+    public NotificationHub(MeterRegistry meterRegistry,
+            @Value("${application.notifications.sender-threads:4}") int senderThreads,
+            @Value("${application.notifications.queue-size:32}") int queueSize,
+            @Value("${application.notifications.replay-size:20}") int replaySize,
+            @Value("${application.notifications.replay-window-seconds:120}") long replayWindowSeconds,
+            @Value("${application.notifications.max-streams-per-user:5}") int maxStreamsPerUser,
+            @Value("${application.notifications.stream-timeout-minutes:30}") long streamTimeoutMinutes) {
+        this.queueSize = queueSize;
+        this.replaySize = replaySize;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+        this.replayWindowMs = replayWindowSeconds * 1000;
+        this.streamTimeoutMs = streamTimeoutMinutes * 60_000;
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notifications-sender");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.sent = Counter.builder("notifications.sent").description("Notifications written to streams").register(meterRegistry);
+        this.coalesced = Counter.builder("notifications.dropped").tag("policy", "coalesced")
+                .description("Queued notifications not sent").register(meterRegistry);
+        this.overflowed = Counter.builder("notifications.dropped").tag("policy", "overflow")
+                .description("Queued notifications not sent").register(meterRegistry);
+        Gauge.builder("notifications.connections", connections, AtomicInteger::get)
+                .description("Open notification streams").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * Sets the feed position the hub starts from. Clients reconnecting with an older
+     * Last-Event-ID are told to resync.
+     */
+    public void start(long position) {
+        this.position = position;
+        replayFloor.set(position);
+    }
+
+    /**
+     * Moves the feed position forward once everything up to it has been published.
+     */
+    public void advance(long position) {
+        if (position > this.position) {
+            this.position = position;
+        }
+    }
+
+    /**
+     * Tells every open stream to resync, as are clients reconnecting with a Last-Event-ID
+     * older than the current position.
+     */
+    public void resyncAll() {
+        replayFloor.accumulateAndGet(position, Math::max);
+        channels.values().forEach(channel -> {
+            synchronized (channel) {
+                channel.streams.forEach(Stream::resync);
+            }
+        });
+    }
+
+    /**
+     * Opens a stream for the user, replaying what they missed since lastEventId. Streams end
+     * after stream-timeout-minutes, or when the token they were opened with expires, and
+     * clients reconnect. Opening more than max-streams-per-user closes the oldest one.
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId, Instant tokenExpiresAt) {
+        long untilExpiry = Duration.between(Instant.now(), tokenExpiresAt).toMillis();
+        SseEmitter emitter = new SseEmitter(Math.max(1, Math.min(streamTimeoutMs, untilExpiry)));
+        Stream[] opened = new Stream[2];
+        withChannel(userId, channel -> {
+            Stream stream = new Stream(channel, emitter);
+            if (lastEventId != null) {
+                if (lastEventId < Math.max(replayFloor.get(), channel.evictedThrough)) {
+                    stream.resync();
+                }
+                for (NotificationDTO notification : channel.recent) {
+                    if (notification.getId() > lastEventId) {
+                        stream.offer(notification);
+                    }
+                }
+            }
+            // Sent right away so the client sees the stream open
+            stream.offer(position);
+            channel.streams.add(stream);
+            channel.touchedAt = System.currentTimeMillis();
+            opened[0] = stream;
+            opened[1] = channel.streams.size() > maxStreamsPerUser ? channel.streams.get(0) : null;
+        });
+        connections.incrementAndGet();
+        emitter.onCompletion(opened[0]::close);
+        emitter.onTimeout(opened[0]::close);
+        emitter.onError(e -> opened[0].close());
+        if (opened[1] != null) {
+            opened[1].finish();
+        }
+        return emitter;
+    }
+
+    /**
+     * Sends a notification to each user's open streams and keeps it for replay.
+     */
+    public void publish(Collection<Long> userIds, NotificationDTO notification) {
+        for (Long userId : userIds) {
+            withChannel(userId, channel -> {
+                channel.recent.add(notification);
+                if (channel.recent.size() > replaySize) {
+                    channel.evictedThrough = Math.max(channel.evictedThrough, channel.recent.poll().getId());
+                }
+                channel.touchedAt = System.currentTimeMillis();
+                channel.streams.forEach(stream -> stream.offer(notification));
+            });
+        }
+    }
+
+    /**
+     * Ends the users' streams once what is queued for them has been sent.
+     */
+    public void disconnect(Collection<Long> userIds) {
+        for (Long userId : userIds) {
+            Channel channel = channels.get(userId);
+            if (channel != null) {
+                synchronized (channel) {
+                    channel.streams.forEach(Stream::finish);
+                }
+            }
+        }
+    }
+
+    /**
+     * Users with at least one open stream on this node.
+     */
+    public List<Long> connectedUserIds() {
+        List<Long> userIds = new ArrayList<>();
+        channels.forEach((userId, channel) -> {
+            synchronized (channel) {
+                if (!channel.streams.isEmpty()) {
+                    userIds.add(userId);
+                }
+            }
+        });
+        return userIds;
+    }
+
+    @Scheduled(fixedDelayString = "${application.notifications.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        long current = position;
+        channels.values().forEach(channel -> {
+            synchronized (channel) {
+                channel.streams.forEach(stream -> stream.offer(current));
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${application.notifications.cleanup-interval-ms:60000}")
+    public void forgetIdleChannels() {
+        long cutoff = System.currentTimeMillis() - replayWindowMs;
+        channels.forEach((userId, channel) -> {
+            synchronized (channel) {
+                if (channel.streams.isEmpty() && channel.touchedAt < cutoff) {
+                    channel.removed = true;
+                    channels.remove(userId, channel);
+                    long forgotten = channel.recent.stream().mapToLong(NotificationDTO::getId).max().orElse(channel.evictedThrough);
+                    replayFloor.accumulateAndGet(forgotten, Math::max);
+                }
+            }
+        });
+    }
+
+    // Runs the action holding the user's channel, which the cleanup may replace meanwhile
+    private void withChannel(Long userId, Consumer<Channel> action) {
+        while (true) {
+            Channel channel = channels.computeIfAbsent(userId, id -> new Channel());
+            synchronized (channel) {
+                if (!channel.removed) {
+                    action.accept(channel);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * A user's open streams and latest notifications. Guarded by its own monitor.
+     */
+    private static final class Channel {
+        private final ArrayDeque<NotificationDTO> recent = new ArrayDeque<>();
+        private final List<Stream> streams = new ArrayList<>(1);
+        private long evictedThrough;
+        private long touchedAt = System.currentTimeMillis();
+        private boolean removed;
+    }
+
+    /**
+     * One open connection. Queued entries are notifications or heartbeat positions (Long).
+     */
+    private final class Stream {
+
+        private final Channel channel;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Object> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean missed;
+        // Ends the stream once the queue is empty
+        private boolean closing;
+        private boolean closed;
+
+        Stream(Channel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(Object entry) {
+            if (closed || closing) {
+                return;
+            }
+            if (entry instanceof Long && !queue.isEmpty()) {
+                // Pointless behind queued entries
+                return;
+            }
+            if (entry instanceof NotificationDTO notification) {
+                for (Iterator<Object> it = queue.iterator(); it.hasNext();) {
+                    if (it.next() instanceof NotificationDTO queued && sameSubject(queued, notification)) {
+                        it.remove();
+                        coalesced.increment();
+                        break;
+                    }
+                }
+            }
+            if (queue.size() >= queueSize) {
+                queue.poll();
+                missed = true;
+                overflowed.increment();
+            }
+            queue.add(entry);
+            schedule();
+        }
+
+        synchronized void resync() {
+            missed = true;
+            schedule();
+        }
+
+        synchronized void finish() {
+            closing = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining) {
+                draining = true;
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    draining = false;
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Object entry;
+                boolean resync;
+                synchronized (this) {
+                    resync = missed;
+                    missed = false;
+                    entry = resync ? null : queue.poll();
+                    if (closed || (!resync && entry == null && !closing)) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    if (resync) {
+                        emitter.send(SseEmitter.event().name(RESYNC_EVENT).data("missed"));
+                    } else if (entry == null) {
+                        emitter.complete();
+                        close();
+                        return;
+                    } else if (entry instanceof Long heartbeat) {
+                        emitter.send(SseEmitter.event().id(Long.toString(heartbeat)).comment("heartbeat"));
+                    } else {
+                        NotificationDTO notification = (NotificationDTO) entry;
+                        emitter.send(SseEmitter.event().id(Long.toString(notification.getId())).name(NOTIFICATION_EVENT)
+                                .data(notification, MediaType.APPLICATION_JSON));
+                        sent.increment();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away or the stream already ended
+                    close();
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                draining = false;
+                queue.clear();
+            }
+            synchronized (channel) {
+                channel.streams.remove(this);
+                channel.touchedAt = System.currentTimeMillis();
+            }
+            connections.decrementAndGet();
+        }
+    }
+
+    private static boolean sameSubject(NotificationDTO a, NotificationDTO b) {
+        return a.getType() == b.getType() && Objects.equals(a.getActivityId(), b.getActivityId());
+    }
+}
@@ -0,0 +1,58 @@
+package com.eduextra.outbox.repository;
+import com.eduextra.outbox.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Reclamar un lote de eventos pendientes; SKIP LOCKED (-2) deja los ya bloqueados a otros nodos
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.processedAt is null and e.availableAt <= :now "
+            + "and e.attempts < :maxAttempts order by e.id")
+    List<OutboxEvent> lockPendingBatch(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts,
+            Pageable pageable);
+
+    // Marcar un evento como despachado, en la misma transacción que sus suscriptores
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update OutboxEvent e set e.processedAt = :now, e.lastError = null where e.id = :id")
+    int markProcessed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Registrar un intento fallido y cuándo volver a intentarlo
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update OutboxEvent e set e.attempts = :attempts, e.availableAt = :availableAt, e.lastError = :lastError "
+            + "where e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("attempts") int attempts,
+            @Param("availableAt") LocalDateTime availableAt, @Param("lastError") String lastError);
+
+    // Fecha del evento pendiente más antiguo, para medir el retraso del relay
+    @Query("select min(e.createdAt) from OutboxEvent e where e.processedAt is null and e.attempts < :maxAttempts")
+    LocalDateTime findOldestPendingCreatedAt(@Param("maxAttempts") int maxAttempts);
+
+    long countByProcessedAtIsNullAndAttemptsLessThan(int maxAttempts);
+
+    long countByProcessedAtIsNullAndAttemptsGreaterThanEqual(int maxAttempts);
+
+    // Eventos posteriores a un id, despachados o no, para leer la tabla en orden
+    List<OutboxEvent> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    // Id del último evento, 0 si la tabla está vacía
+    @Query("select coalesce(max(e.id), 0) from OutboxEvent e")
+    long findMaxId();
+
+    // Limpiar eventos ya despachados
+    @Modifying
+    @Query("delete from OutboxEvent e where e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,43 @@
+package com.eduextra.outbox.service;
+
+import com.eduextra.outbox.model.OutboxEvent;
+
+/**
+ * In-process consumer of outbox events that runs on every node. Any Spring bean implementing
+ * this interface is picked up by OutboxTail.
+ *
+ * Meant for per-node state (in-memory indexes, caches, open streams): OutboxSubscriber
+ * delivers each event on a single node, this delivers it on all of them, including the node
+ * that made the change. Events can arrive late and out of id order, and failures are not
+ * retried: reload() is called instead. Handlers must be idempotent and must not write to the
+ * database.
+ */
+public interface OutboxBroadcastSubscriber {
+
+    /**
+     * Whether this subscriber wants events of the given type (e.g. "UserCreated").
+     */
+    boolean supports(String eventType);
+
+    void handle(OutboxEvent event);
+
+    /**
+     * Called once on startup with the highest event id when the tail started. Older events are
+     * only delivered if they commit after that.
+     */
+    default void started(long eventId) {
+    }
+
+    /**
+     * Called after each poll with the highest event id delivered so far.
+     */
+    default void caughtUp(long eventId) {
+    }
+
+    /**
+     * Reloads this node's state from the database, after a handler failed or events may have
+     * been missed. Runs on the tail's thread between polls.
+     */
+    default void reload() {
+    }
+}
@@ -0,0 +1,154 @@
+package com.eduextra.outbox.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.common.queue.WorkQueues;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Background relay that reads pending outbox events in batches and dispatches them to
+ * every OutboxSubscriber that supports their type.
+ *
+ * Each batch is claimed with SELECT ... FOR UPDATE SKIP LOCKED in a short transaction that
+ * pushes availableAt forward by claim-timeout-seconds, so several API nodes can run the relay
+ * concurrently without dispatching the same event twice at the same time, and events claimed
+ * by a node that dies become available again once the claim expires.
+ *
+ * Every event is then dispatched in its own transaction, which also marks it processed.
+ * Subscribers that write to the database join that transaction, so a failing subscriber
+ * only rolls back its own event; the failed attempt is recorded in a separate transaction
+ * and retried with exponential backoff up to max-attempts.
+ *
+ * Metrics: outbox.pending, outbox.dead, outbox.lag.seconds, outbox.dispatched,
+ * outbox.failures and outbox.batch.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectProvider<OutboxSubscriber> subscribers;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter dispatched;
+    private final Counter failures;
+    private final Timer batchTimer;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @Value("${application.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${application.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${application.outbox.claim-timeout-seconds:300}")
+    private long claimTimeoutSeconds;
+
+    @Value("${application.outbox.max-backoff-seconds:300}")
+    private long maxBackoffSeconds;
+
+    @Value("${application.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, ObjectProvider<OutboxSubscriber> subscribers,
+            TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.subscribers = subscribers;
+        this.transactionTemplate = transactionTemplate;
+        this.dispatched = Counter.builder("outbox.dispatched").description("Outbox events dispatched").register(meterRegistry);
+        this.failures = Counter.builder("outbox.failures").description("Failed outbox dispatch attempts").register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.batch").description("Time to dispatch one outbox batch").register(meterRegistry);
+        Gauge.builder("outbox.pending", pending, AtomicLong::get).description("Outbox events waiting to be dispatched").register(meterRegistry);
+        Gauge.builder("outbox.dead", dead, AtomicLong::get).description("Outbox events that exhausted their retries").register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", lagSeconds, AtomicLong::get).description("Age of the oldest pending outbox event").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${application.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        // Drain full batches back to back, stop as soon as a batch comes back short
+        int processed;
+        do {
+            processed = batchTimer.record(this::dispatchBatch);
+        } while (processed >= batchSize);
+        refreshGauges();
+    }
+
+    @Scheduled(cron = "${application.outbox.purge-cron:0 30 3 * * *}")
+    public void purgeProcessed() {
+        WorkQueues.purge(transactionTemplate,
+                () -> outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays)),
+                log, "dispatched outbox events");
+    }
+
+    /**
+     * Claims and dispatches one batch. Returns the number of events claimed.
+     */
+    int dispatchBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        List<OutboxSubscriber> targets = subscribers.orderedStream().toList();
+        for (OutboxEvent event : batch) {
+            dispatch(event, targets);
+        }
+        return batch.size();
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.lockPendingBatch(now, maxAttempts, PageRequest.of(0, batchSize));
+        // Flushed on commit; the row locks are released as soon as the claim is recorded
+        LocalDateTime claimedUntil = now.plusSeconds(claimTimeoutSeconds);
+        batch.forEach(event -> event.setAvailableAt(claimedUntil));
+        return batch;
+    }
+
+    private void dispatch(OutboxEvent event, List<OutboxSubscriber> targets) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (OutboxSubscriber subscriber : targets) {
+                    if (subscriber.supports(event.getEventType())) {
+                        subscriber.handle(event);
+                    }
+                }
+                outboxEventRepository.markProcessed(event.getId(), LocalDateTime.now());
+            });
+            dispatched.increment();
+        } catch (RuntimeException e) {
+            // The event's transaction is gone, so the failed attempt is written on its own
+            int attempts = event.getAttempts() + 1;
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markFailed(event.getId(), attempts,
+                    LocalDateTime.now().plus(WorkQueues.backoff(attempts, maxBackoffSeconds)), WorkQueues.errorMessage(e.toString())));
+            failures.increment();
+            log.warn("Outbox event {} ({}) failed on attempt {}: {}", event.getId(), event.getEventType(), attempts, e.toString());
+        }
+    }
+
+    private void refreshGauges() {
+        pending.set(outboxEventRepository.countByProcessedAtIsNullAndAttemptsLessThan(maxAttempts));
+        dead.set(outboxEventRepository.countByProcessedAtIsNullAndAttemptsGreaterThanEqual(maxAttempts));
+        LocalDateTime oldest = outboxEventRepository.findOldestPendingCreatedAt(maxAttempts);
+        lagSeconds.set(WorkQueues.lagSeconds(oldest, LocalDateTime.now()));
+    }
+}
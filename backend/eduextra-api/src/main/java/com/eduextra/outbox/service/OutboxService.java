@@ -0,0 +1,59 @@
+package com.eduextra.outbox.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes domain events to the outbox table.
+ *
+ * append must run inside the transaction of the change it describes, so the event is
+ * stored if and only if the change commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores an event whose type is the simple class name of the payload (e.g. UserCreated).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, Object aggregateId, Object payload) {
+        OutboxEvent event = OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId != null ? aggregateId.toString() : null)
+                .eventType(payload.getClass().getSimpleName())
+                .payload(toJson(payload))
+                .build();
+        outboxEventRepository.save(event);
+    }
+
+    /**
+     * Deserializes the payload of an event, for use by subscribers.
+     */
+    public <T> T readPayload(OutboxEvent event, Class<T> type) {
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid payload for outbox event " + event.getId(), e);
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize outbox event " + payload.getClass().getSimpleName(), e);
+        }
+    }
+}
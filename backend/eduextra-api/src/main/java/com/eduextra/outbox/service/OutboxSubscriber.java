@@ -0,0 +1,20 @@
+package com.eduextra.outbox.service;
+
+import com.eduextra.outbox.model.OutboxEvent;
+
+/**
+ * In-process consumer of outbox events. Any Spring bean implementing this interface is
+ * picked up by OutboxRelay.
+ *
+ * Delivery is at-least-once: if handle throws, the event is retried later and may be
+ * delivered again to subscribers that already processed it, so handlers must be idempotent.
+ */
+public interface OutboxSubscriber {
+
+    /**
+     * Whether this subscriber wants events of the given type (e.g. "UserCreated").
+     */
+    boolean supports(String eventType);
+
+    void handle(OutboxEvent event);
+}
@@ -0,0 +1,164 @@
+package com.eduextra.outbox.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.repository.OutboxEventRepository;
+
+/**
+ * Delivers outbox events to every OutboxBroadcastSubscriber on this node.
+ *
+ * The relay dispatches each event on only one node, so per-node state cannot be kept in sync
+ * by an OutboxSubscriber. Instead every node reads the outbox table on its own, in id order,
+ * without claiming anything.
+ *
+ * Ids are taken when a row is inserted but become visible when its transaction commits, so a
+ * lower id can show up after a higher one. Every id skipped below the highest one read is kept
+ * as a gap and looked up again on each poll until its row shows up. Ids of rolled-back
+ * transactions never do: gaps older than gap-timeout-seconds are dropped and every subscriber
+ * reloads its state from the database, at most once per timeout. A subscriber whose handler
+ * fails is reloaded the same way.
+ */
+@Service
+public class OutboxTail {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxTail.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectProvider<OutboxBroadcastSubscriber> subscribers;
+
+    @Value("${application.outbox.tail.batch-size:500}")
+    private int batchSize;
+
+    @Value("${application.outbox.tail.gap-timeout-seconds:300}")
+    private long gapTimeoutSeconds;
+
+    // Highest id read so far; every id up to it was delivered or is a gap
+    private long highWater = -1;
+    // Ids below the high-water mark not seen yet, with when they were first missed
+    private final TreeMap<Long, LocalDateTime> gaps = new TreeMap<>();
+    // Subscribers to reload, kept until their reload succeeds
+    private final Set<OutboxBroadcastSubscriber> stale = new LinkedHashSet<>();
+    private LocalDateTime lastReload = LocalDateTime.MIN;
+
+    public OutboxTail(OutboxEventRepository outboxEventRepository, ObjectProvider<OutboxBroadcastSubscriber> subscribers) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.subscribers = subscribers;
+    }
+
+    /**
+     * Starts from the end of the outbox. Runs before other startup listeners, so the in-memory
+     * state they load from the database misses no event committed after it. Ids missing among
+     * the last batch-size are tracked as gaps, as their transactions may still be open.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void start() {
+        long maxId = outboxEventRepository.findMaxId();
+        highWater = Math.max(0, maxId - batchSize);
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : outboxEventRepository.findByIdGreaterThanOrderById(highWater, PageRequest.of(0, batchSize))) {
+            markGaps(event.getId(), now);
+            highWater = event.getId();
+        }
+        markGaps(maxId + 1, now);
+        highWater = maxId;
+        for (OutboxBroadcastSubscriber subscriber : subscribers) {
+            subscriber.started(maxId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.outbox.tail.poll-interval-ms:500}")
+    public synchronized void poll() {
+        if (highWater < 0) {
+            return;
+        }
+        List<OutboxBroadcastSubscriber> targets = subscribers.orderedStream().toList();
+        LocalDateTime now = LocalDateTime.now();
+        if (!gaps.isEmpty()) {
+            List<Long> missing = new ArrayList<>(gaps.keySet());
+            for (int start = 0; start < missing.size(); start += batchSize) {
+                List<OutboxEvent> late = new ArrayList<>(
+                        outboxEventRepository.findAllById(missing.subList(start, Math.min(missing.size(), start + batchSize))));
+                late.sort(Comparator.comparing(OutboxEvent::getId));
+                for (OutboxEvent event : late) {
+                    gaps.remove(event.getId());
+                    deliver(event, targets);
+                }
+            }
+        }
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findByIdGreaterThanOrderById(highWater, PageRequest.of(0, batchSize));
+            for (OutboxEvent event : batch) {
+                markGaps(event.getId(), now);
+                deliver(event, targets);
+                highWater = event.getId();
+            }
+        } while (batch.size() == batchSize);
+        for (OutboxBroadcastSubscriber subscriber : targets) {
+            subscriber.caughtUp(highWater);
+        }
+        LocalDateTime cutoff = now.minusSeconds(gapTimeoutSeconds);
+        if (!gaps.isEmpty() && gaps.firstEntry().getValue().isBefore(cutoff) && lastReload.isBefore(cutoff)) {
+            int before = gaps.size();
+            gaps.values().removeIf(missedAt -> missedAt.isBefore(cutoff));
+            int expired = before - gaps.size();
+            log.warn("{} outbox ids never showed up within {}s; reloading broadcast subscribers", expired, gapTimeoutSeconds);
+            lastReload = now;
+            stale.addAll(targets);
+        }
+        stale.removeIf(this::reload);
+    }
+
+    private void markGaps(long id, LocalDateTime now) {
+        for (long missing = highWater + 1; missing < id; missing++) {
+            gaps.put(missing, now);
+        }
+    }
+
+    private void deliver(OutboxEvent event, List<OutboxBroadcastSubscriber> targets) {
+        for (OutboxBroadcastSubscriber subscriber : targets) {
+            if (!subscriber.supports(event.getEventType()) || stale.contains(subscriber)) {
+                continue;
+            }
+            try {
+                subscriber.handle(event);
+            } catch (RuntimeException e) {
+                // Its state may now be off; it is reloaded at the end of the poll
+                log.warn("Broadcast subscriber {} failed on outbox event {} ({}): {}",
+                        subscriber.getClass().getSimpleName(), event.getId(), event.getEventType(), e.toString());
+                stale.add(subscriber);
+            }
+        }
+    }
+
+    // True once reloaded; a failed reload is tried again on the next poll
+    private boolean reload(OutboxBroadcastSubscriber subscriber) {
+        try {
+            subscriber.reload();
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Broadcast subscriber {} could not reload its state", subscriber.getClass().getSimpleName(), e);
+            return false;
+        }
+    }
+}
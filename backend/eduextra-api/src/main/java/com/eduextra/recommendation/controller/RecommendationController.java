@@ -0,0 +1,72 @@
+package com.eduextra.recommendation.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import com.eduextra.activity.model.AgeGroup;
+import com.eduextra.exception.ErrorResponse;
+import com.eduextra.recommendation.dto.RecommendationDTO;
+import com.eduextra.recommendation.service.RecommendationService;
+import com.eduextra.user.model.User;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for activity recommendations. Suggestions are precomputed nightly and
+ * served from memory.
+ *
+ * Security: All endpoints require JWT Bearer authentication; recomputing requires ADMIN role.
+ */
+@RestController
+@RequestMapping("/activities/recommendations")
+@Tag(name = "Recommendations", description = "Activity suggestions from co-enrollment patterns")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class RecommendationController {
+
+    private final RecommendationService recommendationService;
+
+    @Operation(
+        summary = "Recommended activities",
+        description = "Open activities joined by students who share activities with the authenticated student, best match first, each with the activity that led to it. Students with no matches get the most joined activities.",
+        tags = {"Recommendations"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Recommendations retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @GetMapping
+    public ResponseEntity<List<RecommendationDTO>> recommendations(
+            @Parameter(description = "Only activities for this age group") @RequestParam(required = false) AgeGroup ageGroup,
+            @Parameter(description = "Skip activities that clash with the student's schedule") @RequestParam(defaultValue = "true") boolean freeOnly,
+            @Parameter(description = "Maximum number of activities (1-50)") @RequestParam(defaultValue = "10") int limit, @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(recommendationService.recommend(user.getId(), ageGroup, freeOnly, limit));
+    }
+
+    @Operation(
+        summary = "Recompute recommendations",
+        description = "Starts a recommendation run in the background instead of waiting for the nightly one.",
+        tags = {"Recommendations"},
+        responses = {
+            @ApiResponse(responseCode = "202", description = "Run queued")
+        }
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/recompute")
+    public ResponseEntity<Void> recompute() {
+        recommendationService.requestRecompute();
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.eduextra.recommendation.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+import com.eduextra.activity.model.AgeGroup;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Suggested activity")
+public class RecommendationDTO {
+
+    public enum Basis {
+        // Students in becauseActivityId also joined this activity
+        CO_ENROLLMENT,
+        // Among the most joined activities; used when there is no co-enrollment signal
+        POPULAR
+    }
+
+    @Schema(description = "Activity id", example = "12")
+    private Long activityId;
+
+    @Schema(description = "Activity name", example = "Robótica")
+    private String name;
+
+    @Schema(description = "Activity category", example = "Tecnología")
+    private String category;
+
+    private AgeGroup ageGroup;
+
+    private DayOfWeek dayOfWeek;
+
+    private LocalTime startTime;
+
+    private LocalTime endTime;
+
+    @Schema(description = "Relevance; only comparable within one response", example = "0.42")
+    private double score;
+
+    private Basis basis;
+
+    @Schema(description = "The student's activity this suggestion is most related to", example = "3")
+    private Long becauseActivityId;
+
+    @Schema(description = "Name of becauseActivityId", example = "Ajedrez")
+    private String becauseActivityName;
+}
@@ -0,0 +1,276 @@
+package com.eduextra.recommendation.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Item-item collaborative filtering over the enrollment matrix.
+ *
+ * Students and activities are dense indices and the matrix is kept in compressed sparse
+ * row form (offsets + column indices) in both directions. The similarity of two activities
+ * is the cosine of their enrollment columns, co(i, j) / sqrt(n(i) n(j)), and each activity
+ * keeps only its closest neighbours. A student's score for an activity is then the sum of
+ * its similarity to the activities the student is already in, and the best scores are kept.
+ *
+ * Both passes run in parallel over blocks of rows; each block has its own dense scratch
+ * accumulator (one int or float per activity) plus a list of the entries it touched, so
+ * the cost follows the non-zeros and nothing is shared between threads.
+ */
+final class CoEnrollmentSimilarity {
+
+    private static final int BLOCK = 256;
+
+    /**
+     * Enrollments as sparse rows: the activities of student s are
+     * items[offsets[s] .. offsets[s + 1]), sorted and without repeats.
+     */
+    record Matrix(int students, int activities, int[] offsets, int[] items) {
+    }
+
+    /**
+     * Top recommendations per student, as sparse rows: for student s, entries
+     * offsets[s] .. offsets[s + 1] hold the activity, its score, and the student's activity
+     * that contributed most to it.
+     */
+    record Recommendations(int[] offsets, int[] activities, float[] scores, int[] reasons) {
+    }
+
+    private final ForkJoinPool pool;
+
+    CoEnrollmentSimilarity(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    Recommendations compute(Matrix matrix, boolean[] candidate, int neighbours, int topN) throws InterruptedException {
+        int[][] transposed = transpose(matrix);
+        int[] columnOffsets = transposed[0];
+        int[] columnStudents = transposed[1];
+
+        int[][] neighbourIds = new int[matrix.activities()][];
+        float[][] neighbourWeights = new float[matrix.activities()][];
+        inParallel(matrix.activities(), (from, to) -> {
+            int[] co = new int[matrix.activities()];
+            int[] touched = new int[matrix.activities()];
+            TopN top = new TopN(neighbours);
+            for (int i = from; i < to; i++) {
+                int touchedCount = 0;
+                for (int p = columnOffsets[i]; p < columnOffsets[i + 1]; p++) {
+                    int s = columnStudents[p];
+                    for (int q = matrix.offsets()[s]; q < matrix.offsets()[s + 1]; q++) {
+                        int j = matrix.items()[q];
+                        if (j != i && co[j]++ == 0) {
+                            touched[touchedCount++] = j;
+                        }
+                    }
+                }
+                double degree = columnOffsets[i + 1] - columnOffsets[i];
+                for (int t = 0; t < touchedCount; t++) {
+                    int j = touched[t];
+                    if (candidate[j]) {
+                        top.offer(j, (float) (co[j] / Math.sqrt(degree * (columnOffsets[j + 1] - columnOffsets[j]))), 0);
+                    }
+                    co[j] = 0;
+                }
+                int kept = top.drain();
+                neighbourIds[i] = Arrays.copyOf(top.ids, kept);
+                neighbourWeights[i] = Arrays.copyOf(top.scores, kept);
+            }
+        });
+
+        int[][] rowIds = new int[matrix.students()][];
+        float[][] rowScores = new float[matrix.students()][];
+        int[][] rowReasons = new int[matrix.students()][];
+        inParallel(matrix.students(), (from, to) -> {
+            float[] score = new float[matrix.activities()];
+            float[] strongest = new float[matrix.activities()];
+            int[] reason = new int[matrix.activities()];
+            int[] touched = new int[matrix.activities()];
+            // stamp[j] == s + 1 marks activities student s is already in
+            int[] stamp = new int[matrix.activities()];
+            TopN top = new TopN(topN);
+            for (int s = from; s < to; s++) {
+                for (int q = matrix.offsets()[s]; q < matrix.offsets()[s + 1]; q++) {
+                    stamp[matrix.items()[q]] = s + 1;
+                }
+                int touchedCount = 0;
+                for (int q = matrix.offsets()[s]; q < matrix.offsets()[s + 1]; q++) {
+                    int i = matrix.items()[q];
+                    int[] ids = neighbourIds[i];
+                    float[] weights = neighbourWeights[i];
+                    for (int k = 0; k < ids.length; k++) {
+                        int j = ids[k];
+                        if (stamp[j] == s + 1) {
+                            continue;
+                        }
+                        if (score[j] == 0) {
+                            touched[touchedCount++] = j;
+                        }
+                        score[j] += weights[k];
+                        if (weights[k] > strongest[j]) {
+                            strongest[j] = weights[k];
+                            reason[j] = i;
+                        }
+                    }
+                }
+                for (int t = 0; t < touchedCount; t++) {
+                    int j = touched[t];
+                    top.offer(j, score[j], reason[j]);
+                    score[j] = 0;
+                    strongest[j] = 0;
+                }
+                int kept = top.drain();
+                rowIds[s] = Arrays.copyOf(top.ids, kept);
+                rowScores[s] = Arrays.copyOf(top.scores, kept);
+                rowReasons[s] = Arrays.copyOf(top.reasons, kept);
+            }
+        });
+
+        int[] offsets = new int[matrix.students() + 1];
+        for (int s = 0; s < matrix.students(); s++) {
+            offsets[s + 1] = offsets[s] + rowIds[s].length;
+        }
+        int[] activities = new int[offsets[matrix.students()]];
+        float[] scores = new float[activities.length];
+        int[] reasons = new int[activities.length];
+        for (int s = 0; s < matrix.students(); s++) {
+            System.arraycopy(rowIds[s], 0, activities, offsets[s], rowIds[s].length);
+            System.arraycopy(rowScores[s], 0, scores, offsets[s], rowScores[s].length);
+            System.arraycopy(rowReasons[s], 0, reasons, offsets[s], rowReasons[s].length);
+        }
+        return new Recommendations(offsets, activities, scores, reasons);
+    }
+
+    /**
+     * Students of each activity, as sparse rows: {offsets, students}.
+     */
+    private static int[][] transpose(Matrix matrix) {
+        int[] offsets = new int[matrix.activities() + 1];
+        for (int item : matrix.items()) {
+            offsets[item + 1]++;
+        }
+        for (int i = 0; i < matrix.activities(); i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] next = offsets.clone();
+        int[] students = new int[matrix.items().length];
+        for (int s = 0; s < matrix.students(); s++) {
+            for (int q = matrix.offsets()[s]; q < matrix.offsets()[s + 1]; q++) {
+                students[next[matrix.items()[q]]++] = s;
+            }
+        }
+        return new int[][] {offsets, students};
+    }
+
+    private interface BlockTask {
+        void run(int from, int to);
+    }
+
+    private void inParallel(int rows, BlockTask task) throws InterruptedException {
+        int blocks = (rows + BLOCK - 1) / BLOCK;
+        try {
+            pool.submit(() -> IntStream.range(0, blocks).parallel()
+                    .forEach(b -> task.run(b * BLOCK, Math.min(rows, (b + 1) * BLOCK)))).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Recommendation computation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Bounded min-heap keeping the n highest scores; ties go to the lower id.
+     */
+    private static final class TopN {
+
+        private final int capacity;
+        private final int[] ids;
+        private final float[] scores;
+        private final int[] reasons;
+        private int size;
+
+        TopN(int capacity) {
+            this.capacity = capacity;
+            this.ids = new int[capacity];
+            this.scores = new float[capacity];
+            this.reasons = new int[capacity];
+        }
+
+        void offer(int id, float score, int reason) {
+            if (capacity == 0) {
+                return;
+            }
+            if (size < capacity) {
+                ids[size] = id;
+                scores[size] = score;
+                reasons[size] = reason;
+                siftUp(size++);
+            } else if (worse(ids[0], scores[0], id, score)) {
+                ids[0] = id;
+                scores[0] = score;
+                reasons[0] = reason;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Sorts the kept entries best first (heap sort: the worst is moved to the end each
+         * time) and returns how many there are. The heap is empty afterwards.
+         */
+        int drain() {
+            int count = size;
+            while (size > 1) {
+                swap(0, --size);
+                siftDown(0);
+            }
+            size = 0;
+            return count;
+        }
+
+        // Whether (id a, score a) ranks below (id b, score b)
+        private static boolean worse(int idA, float scoreA, int idB, float scoreB) {
+            return scoreA < scoreB || (scoreA == scoreB && idA > idB);
+        }
+
+        private void siftUp(int k) {
+            while (k > 0) {
+                int parent = (k - 1) / 2;
+                if (!worse(ids[k], scores[k], ids[parent], scores[parent])) {
+                    break;
+                }
+                swap(k, parent);
+                k = parent;
+            }
+        }
+
+        private void siftDown(int k) {
+            while (true) {
+                int left = 2 * k + 1;
+                int right = left + 1;
+                int smallest = k;
+                if (left < size && worse(ids[left], scores[left], ids[smallest], scores[smallest])) {
+                    smallest = left;
+                }
+                if (right < size && worse(ids[right], scores[right], ids[smallest], scores[smallest])) {
+                    smallest = right;
+                }
+                if (smallest == k) {
+                    return;
+                }
+                swap(k, smallest);
+                k = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+            int reason = reasons[a];
+            reasons[a] = reasons[b];
+            reasons[b] = reason;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.eduextra.recommendation.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.model.AgeGroup;
+import com.eduextra.activity.repository.ActivityCatalogEntry;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.exception.ValidationException;
+import com.eduextra.recommendation.dto.RecommendationDTO;
+import com.eduextra.schedule.service.ScheduleIndex;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * "Students who joined X also joined Y" suggestions.
+ *
+ * A nightly job reads every active enrollment into a sparse student x activity matrix,
+ * computes activity-to-activity similarity and each student's best suggestions in
+ * parallel (see CoEnrollmentSimilarity), and swaps the result in as one immutable model.
+ * Requests only read that model plus the in-memory schedule index, so serving time depends
+ * on the number of suggestions kept per student, not on how many enrollments there are.
+ *
+ * Only activities that are open and still running are suggested; activities closed or
+ * cancelled after the run are dropped as their ActivityChanged events arrive. Students with
+ * no enrollments, or whose suggestions are all filtered out, get the most joined activities.
+ *
+ * Metrics: recommendations.compute, recommendations.students.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final String ENROLLMENTS_SQL = "select student_id, activity_id from enrollments where status = 'ACTIVE'";
+    private static final int POPULAR_KEPT = 200;
+
+    /**
+     * Result of one run. Activities and students are dense indices into the arrays.
+     */
+    private record Model(LongIntMap students, ActivityCatalogEntry[] catalog, CoEnrollmentSimilarity.Matrix enrollments,
+            CoEnrollmentSimilarity.Recommendations recommendations, int[] popular, int[] enrolledCount) {
+    }
+
+    private final ActivityRepository activityRepository;
+    private final ScheduleIndex scheduleIndex;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ForkJoinPool pool;
+    private final CoEnrollmentSimilarity similarity;
+    private final ThreadPoolExecutor jobRunner;
+    private final Timer computeTimer;
+
+    private volatile Model model;
+    // Activities whose status changed since the last run
+    private final ConcurrentHashMap<Long, ActivityStatus> statusChanges = new ConcurrentHashMap<>();
+
+    @Value("${application.recommendations.neighbours:50}")
+    private int neighbours;
+
+    @Value("${application.recommendations.per-student:30}")
+    private int perStudent;
+
+    public RecommendationService(ActivityRepository activityRepository, ScheduleIndex scheduleIndex, JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry, @Value("${application.recommendations.parallelism:0}") int parallelism) {
+        this.activityRepository = activityRepository;
+        this.scheduleIndex = scheduleIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        // 0 uses every core; the pool is only busy while the job runs
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.similarity = new CoEnrollmentSimilarity(pool);
+        // One run at a time; a run requested while another is queued is dropped
+        this.jobRunner = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), runnable -> {
+            Thread thread = new Thread(runnable, "recommendations-job");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        this.computeTimer = Timer.builder("recommendations.compute").description("Time to recompute activity recommendations").register(meterRegistry);
+        Gauge.builder("recommendations.students", this, s -> s.model == null ? 0 : s.model.students().size())
+                .description("Students with precomputed recommendations").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        requestRecompute();
+    }
+
+    @Scheduled(cron = "${application.recommendations.cron:0 0 3 * * *}")
+    public void nightlyRecompute() {
+        requestRecompute();
+    }
+
+    /**
+     * Queues a run in the background. Returns right away.
+     */
+    public void requestRecompute() {
+        jobRunner.execute(this::recompute);
+    }
+
+    /**
+     * Drops an activity from suggestions as soon as it stops being open, until the next run.
+     */
+    public void activityChanged(Long activityId, ActivityStatus status) {
+        statusChanges.put(activityId, status);
+    }
+
+    /**
+     * Runs the job now, on the calling thread.
+     */
+    public void recompute() {
+        long start = System.nanoTime();
+        try {
+            Model computed = computeTimer.recordCallable(this::computeModel);
+            statusChanges.clear();
+            model = computed;
+            log.info("Recommendations recomputed for {} students over {} activities in {} ms", computed.students().size(),
+                    computed.catalog().length, (System.nanoTime() - start) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Recommendation job failed; keeping the previous recommendations", e);
+        }
+    }
+
+    public List<RecommendationDTO> recommend(Long studentId, AgeGroup ageGroup, boolean freeOnly, int limit) {
+        if (limit < 1 || limit > 50) {
+            throw new ValidationException("Limit must be between 1 and 50");
+        }
+        Model current = model;
+        if (current == null) {
+            return List.of();
+        }
+        List<RecommendationDTO> result = new ArrayList<>(limit);
+        Set<Integer> used = new HashSet<>();
+        CoEnrollmentSimilarity.Recommendations recommendations = current.recommendations();
+        int s = current.students().get(studentId);
+        if (s >= 0) {
+            for (int k = recommendations.offsets()[s]; k < recommendations.offsets()[s + 1] && result.size() < limit; k++) {
+                int a = recommendations.activities()[k];
+                if (suggestable(current.catalog()[a], studentId, ageGroup, freeOnly)) {
+                    ActivityCatalogEntry because = current.catalog()[recommendations.reasons()[k]];
+                    result.add(toDTO(current.catalog()[a], recommendations.scores()[k], RecommendationDTO.Basis.CO_ENROLLMENT, because));
+                    used.add(a);
+                }
+            }
+        }
+        // Popular activities fill the gaps, never ones the student is already in
+        Set<Integer> own = new HashSet<>();
+        if (s >= 0) {
+            for (int q = current.enrollments().offsets()[s]; q < current.enrollments().offsets()[s + 1]; q++) {
+                own.add(current.enrollments().items()[q]);
+            }
+        }
+        for (int k = 0; k < current.popular().length && result.size() < limit; k++) {
+            int a = current.popular()[k];
+            if (!used.contains(a) && !own.contains(a) && suggestable(current.catalog()[a], studentId, ageGroup, freeOnly)) {
+                result.add(toDTO(current.catalog()[a], current.enrolledCount()[a], RecommendationDTO.Basis.POPULAR, null));
+            }
+        }
+        return result;
+    }
+
+    private Model computeModel() throws InterruptedException {
+        List<ActivityCatalogEntry> entries = activityRepository.findCatalogEntries();
+        LongIntMap activities = new LongIntMap(entries.size());
+        ActivityCatalogEntry[] catalog = new ActivityCatalogEntry[entries.size()];
+        for (ActivityCatalogEntry entry : entries) {
+            catalog[activities.indexOf(entry.id())] = entry;
+        }
+
+        // Enrollments as (student, activity) index pairs; cancelled activities are not in the catalog
+        LongIntMap students = new LongIntMap(1024);
+        int[][] pairs = {new int[1024], new int[1024]};
+        int[] count = {0};
+        jdbcTemplate.query(ENROLLMENTS_SQL, (RowCallbackHandler) rs -> {
+            int a = activities.get(rs.getLong(2));
+            if (a < 0) {
+                return;
+            }
+            if (count[0] == pairs[0].length) {
+                pairs[0] = Arrays.copyOf(pairs[0], count[0] * 2);
+                pairs[1] = Arrays.copyOf(pairs[1], count[0] * 2);
+            }
+            pairs[0][count[0]] = students.indexOf(rs.getLong(1));
+            pairs[1][count[0]++] = a;
+        });
+
+        // Counting sort by student into sparse rows
+        int studentCount = students.size();
+        int[] offsets = new int[studentCount + 1];
+        for (int k = 0; k < count[0]; k++) {
+            offsets[pairs[0][k] + 1]++;
+        }
+        for (int st = 0; st < studentCount; st++) {
+            offsets[st + 1] += offsets[st];
+        }
+        int[] next = offsets.clone();
+        int[] items = new int[count[0]];
+        for (int k = 0; k < count[0]; k++) {
+            items[next[pairs[0][k]]++] = pairs[1][k];
+        }
+        for (int st = 0; st < studentCount; st++) {
+            Arrays.sort(items, offsets[st], offsets[st + 1]);
+        }
+        CoEnrollmentSimilarity.Matrix matrix = new CoEnrollmentSimilarity.Matrix(studentCount, catalog.length, offsets, items);
+
+        LocalDate today = LocalDate.now();
+        boolean[] candidate = new boolean[catalog.length];
+        int[] enrolledCount = new int[catalog.length];
+        for (int a = 0; a < catalog.length; a++) {
+            candidate[a] = catalog[a].status() == ActivityStatus.OPEN && !catalog[a].endDate().isBefore(today);
+        }
+        for (int item : items) {
+            enrolledCount[item]++;
+        }
+        int[] popular = IntStream.range(0, catalog.length).filter(a -> candidate[a]).boxed()
+                .sorted((x, y) -> enrolledCount[x] != enrolledCount[y] ? Integer.compare(enrolledCount[y], enrolledCount[x])
+                        : Long.compare(catalog[x].id(), catalog[y].id()))
+                .limit(POPULAR_KEPT).mapToInt(Integer::intValue).toArray();
+
+        CoEnrollmentSimilarity.Recommendations recommendations = similarity.compute(matrix, candidate, neighbours, perStudent);
+        return new Model(students, catalog, matrix, recommendations, popular, enrolledCount);
+    }
+
+    private boolean suggestable(ActivityCatalogEntry activity, Long studentId, AgeGroup ageGroup, boolean freeOnly) {
+        ActivityStatus status = statusChanges.getOrDefault(activity.id(), activity.status());
+        return status == ActivityStatus.OPEN
+                && (ageGroup == null || ageGroup == activity.ageGroup())
+                && (!freeOnly || !scheduleIndex.overlapsStudentSchedule(studentId, activity.id()));
+    }
+
+    private RecommendationDTO toDTO(ActivityCatalogEntry activity, double score, RecommendationDTO.Basis basis,
+            ActivityCatalogEntry because) {
+        return RecommendationDTO.builder()
+                .activityId(activity.id())
+                .name(activity.name())
+                .category(activity.category())
+                .ageGroup(activity.ageGroup())
+                .dayOfWeek(activity.dayOfWeek())
+                .startTime(activity.startTime())
+                .endTime(activity.endTime())
+                .score(score)
+                .basis(basis)
+                .becauseActivityId(because != null ? because.id() : null)
+                .becauseActivityName(because != null ? because.name() : null)
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.eduextra.recommendation.service;
+
+import org.springframework.stereotype.Component;
+
+import com.eduextra.activity.event.ActivityChanged;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.outbox.service.OutboxBroadcastSubscriber;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Stops suggesting activities that were closed or cancelled on any node since this node's
+ * last recommendation run.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecommendationSubscriber implements OutboxBroadcastSubscriber {
+
+    private final OutboxService outboxService;
+    private final RecommendationService recommendationService;
+
+    @Override
+    public boolean supports(String eventType) {
+        return ActivityChanged.class.getSimpleName().equals(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        ActivityChanged changed = outboxService.readPayload(event, ActivityChanged.class);
+        recommendationService.activityChanged(changed.activityId(), changed.status());
+    }
+
+    @Override
+    public void reload() {
+        recommendationService.requestRecompute();
+    }
+}
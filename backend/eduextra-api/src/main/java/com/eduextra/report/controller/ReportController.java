@@ -0,0 +1,171 @@
+package com.eduextra.report.controller;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.eduextra.exception.ErrorResponse;
+import com.eduextra.report.dto.ActivityDayReportDTO;
+import com.eduextra.report.dto.ActivityTermReportDTO;
+import com.eduextra.report.dto.RoleDayReportDTO;
+import com.eduextra.report.service.ReportFormat;
+import com.eduextra.report.service.ReportService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for the reporting dashboard. Answers are read from precomputed rollups;
+ * exports are streamed row by row as CSV or XLSX.
+ *
+ * Security: All endpoints require JWT Bearer authentication and ADMIN or COORDINATOR role.
+ */
+@RestController
+@RequestMapping("/reports")
+@Tag(name = "Reports", description = "Dashboard reports and exports")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class ReportController {
+
+    private final ReportService reportService;
+
+    @Operation(
+        summary = "Activity totals of a school year",
+        description = "Fill rate, enrollments, withdrawals and attendance of every activity of the school year, by name.",
+        tags = {"Reports"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Report retrieved successfully")
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @GetMapping("/activity-terms")
+    public ResponseEntity<List<ActivityTermReportDTO>> activityTerms(
+            @Parameter(description = "Year the school year starts in; the current one by default", example = "2026") @RequestParam(required = false) Integer term) {
+        return ResponseEntity.ok(reportService.activityTerms(reportService.termOrCurrent(term)));
+    }
+
+    @Operation(
+        summary = "Export activity totals of a school year",
+        description = "Same rows as the activity totals report, streamed as CSV or XLSX.",
+        tags = {"Reports"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Export streamed")
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @GetMapping("/activity-terms/export")
+    public void exportActivityTerms(
+            @Parameter(description = "Year the school year starts in; the current one by default", example = "2026") @RequestParam(required = false) Integer term,
+            @Parameter(description = "Export format") @RequestParam(defaultValue = "CSV") ReportFormat format,
+            HttpServletResponse response) throws IOException {
+        int termYear = reportService.termOrCurrent(term);
+        prepare(response, format, "activity-terms-" + termYear);
+        reportService.exportActivityTerms(termYear, format, response.getOutputStream());
+    }
+
+    @Operation(
+        summary = "Daily activity counts",
+        description = "Enrollments, withdrawals and attendance per day, for one activity or all activities added up. At most 366 days; use the export for longer ranges.",
+        tags = {"Reports"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Report retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Activity not found",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @GetMapping("/activity-days")
+    public ResponseEntity<List<ActivityDayReportDTO>> activityDays(
+            @Parameter(description = "First day") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Only this activity") @RequestParam(required = false) Long activityId) {
+        return ResponseEntity.ok(reportService.activityDays(from, to, activityId));
+    }
+
+    @Operation(
+        summary = "Export daily activity counts",
+        description = "One row per activity and day with activity, streamed as CSV or XLSX. Any date range.",
+        tags = {"Reports"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @GetMapping("/activity-days/export")
+    public void exportActivityDays(
+            @Parameter(description = "First day") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Only this activity") @RequestParam(required = false) Long activityId,
+            @Parameter(description = "Export format") @RequestParam(defaultValue = "CSV") ReportFormat format,
+            HttpServletResponse response) throws IOException {
+        reportService.validateRange(from, to);
+        prepare(response, format, "activity-days-" + from + "-" + to);
+        reportService.exportActivityDays(from, to, activityId, format, response.getOutputStream());
+    }
+
+    @Operation(
+        summary = "Users per role over time",
+        description = "Total, active and newly registered users of each role at the end of each day. At most 366 days; use the export for longer ranges.",
+        tags = {"Reports"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Report retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @GetMapping("/user-roles")
+    public ResponseEntity<List<RoleDayReportDTO>> userRoles(
+            @Parameter(description = "First day") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(reportService.userRoles(from, to));
+    }
+
+    @Operation(
+        summary = "Export users per role over time",
+        description = "Same rows as the users per role report, streamed as CSV or XLSX. Any date range.",
+        tags = {"Reports"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @GetMapping("/user-roles/export")
+    public void exportUserRoles(
+            @Parameter(description = "First day") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Export format") @RequestParam(defaultValue = "CSV") ReportFormat format,
+            HttpServletResponse response) throws IOException {
+        reportService.validateRange(from, to);
+        prepare(response, format, "user-roles-" + from + "-" + to);
+        reportService.exportUserRoles(from, to, format, response.getOutputStream());
+    }
+
+    private void prepare(HttpServletResponse response, ReportFormat format, String name) {
+        response.setContentType(format.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + format.extension() + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+    }
+}
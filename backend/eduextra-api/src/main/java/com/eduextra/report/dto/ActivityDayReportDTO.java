@@ -0,0 +1,38 @@
+package com.eduextra.report.dto;
+
+import java.time.LocalDate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Enrollment and attendance counts of one day")
+public class ActivityDayReportDTO {
+
+    @Schema(description = "Day", example = "2026-10-05")
+    private LocalDate date;
+
+    private Long enrollments;
+
+    private Long withdrawals;
+
+    @Schema(description = "Sessions with recorded attendance")
+    private Long sessions;
+
+    private Long present;
+
+    private Long late;
+
+    private Long absent;
+
+    private Long excused;
+
+    @Schema(description = "(present + late) / (present + late + absent); null without recorded sessions", example = "0.85")
+    private Double attendanceRate;
+}
@@ -0,0 +1,54 @@
+package com.eduextra.report.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Enrollment and attendance totals of one activity over its term")
+public class ActivityTermReportDTO {
+
+    @Schema(description = "Activity id", example = "12")
+    private Long activityId;
+
+    @Schema(description = "Activity name", example = "Robótica")
+    private String name;
+
+    @Schema(description = "Activity category", example = "Tecnología")
+    private String category;
+
+    @Schema(description = "Year the school year starts in", example = "2026")
+    private Integer termYear;
+
+    private Integer capacity;
+
+    @Schema(description = "Seats taken now")
+    private Integer enrolled;
+
+    @Schema(description = "enrolled / capacity", example = "0.92")
+    private Double fillRate;
+
+    @Schema(description = "Enrollments made over the term, including later withdrawn ones")
+    private Integer enrollments;
+
+    private Integer withdrawals;
+
+    @Schema(description = "Sessions with recorded attendance")
+    private Integer sessions;
+
+    private Integer present;
+
+    private Integer late;
+
+    private Integer absent;
+
+    private Integer excused;
+
+    @Schema(description = "(present + late) / (present + late + absent); null without recorded sessions", example = "0.85")
+    private Double attendanceRate;
+}
@@ -0,0 +1,31 @@
+package com.eduextra.report.dto;
+
+import java.time.LocalDate;
+
+import com.eduextra.user.model.Role;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Users of one role at the end of one day")
+public class RoleDayReportDTO {
+
+    @Schema(description = "Day", example = "2026-10-05")
+    private LocalDate date;
+
+    private Role role;
+
+    private Integer total;
+
+    private Integer active;
+
+    @Schema(description = "Users created that day")
+    private Integer registered;
+}
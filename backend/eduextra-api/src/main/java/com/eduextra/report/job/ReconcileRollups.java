@@ -0,0 +1,10 @@
+package com.eduextra.report.job;
+
+import java.time.LocalDate;
+
+/**
+ * Background job that rebuilds the reporting rollups from the source tables, enqueued once
+ * per day by the first node whose schedule fires.
+ */
+public record ReconcileRollups(LocalDate scheduledFor) {
+}
@@ -0,0 +1,72 @@
+package com.eduextra.report.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What happened to one activity on one day: enrollments and withdrawals made that day and,
+ * if a session took place, the latest status of each student on its roster.
+ *
+ * Rows are written only by RollupService, always with values recomputed from the source
+ * tables, so rewriting a row is harmless.
+ */
+@Entity
+@Data
+@Table(name = "activity_day_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_activity_day_rollups_date_activity", columnNames = {"rollup_date", "activity_id"})
+}, indexes = {
+    @Index(name = "idx_activity_day_rollups_activity_date", columnList = "activity_id, rollup_date")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityDayRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(nullable = false)
+    private Long activityId;
+
+    @Column(nullable = false)
+    private Integer enrollments;
+
+    @Column(nullable = false)
+    private Integer withdrawals;
+
+    // 1 if a session was recorded that day
+    @Column(nullable = false)
+    private Integer sessions;
+
+    @Column(nullable = false)
+    private Integer present;
+
+    @Column(nullable = false)
+    private Integer late;
+
+    @Column(nullable = false)
+    private Integer absent;
+
+    @Column(nullable = false)
+    private Integer excused;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,66 @@
+package com.eduextra.report.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totals of one activity over its term: current capacity and seats taken, plus the sum of
+ * its daily rollups. An activity runs within one school year, so it has one row.
+ *
+ * termYear is the year the school year starts in (2026 for 2026-27).
+ */
+@Entity
+@Data
+@Table(name = "activity_term_rollups", indexes = {
+    @Index(name = "idx_activity_term_rollups_term", columnList = "term_year")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityTermRollup {
+
+    @Id
+    private Long activityId;
+
+    @Column(nullable = false)
+    private Integer termYear;
+
+    @Column(nullable = false)
+    private Integer capacity;
+
+    @Column(nullable = false)
+    private Integer enrolled;
+
+    @Column(nullable = false)
+    private Integer enrollments;
+
+    @Column(nullable = false)
+    private Integer withdrawals;
+
+    @Column(nullable = false)
+    private Integer sessions;
+
+    @Column(nullable = false)
+    private Integer present;
+
+    @Column(nullable = false)
+    private Integer late;
+
+    @Column(nullable = false)
+    private Integer absent;
+
+    @Column(nullable = false)
+    private Integer excused;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
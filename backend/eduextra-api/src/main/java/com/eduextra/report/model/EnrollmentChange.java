@@ -0,0 +1,66 @@
+package com.eduextra.report.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One student taking or giving back a seat, copied from the outbox event that announced it.
+ *
+ * Enrollment rows are overwritten when a student enrolls again and disappear with hard
+ * deletes, so the day rollups count these rows instead. They are only ever inserted, by
+ * RollupService, at most once per event and student.
+ */
+@Entity
+@Data
+@Table(name = "enrollment_changes", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_enrollment_changes_event_student", columnNames = {"event_id", "student_id"})
+}, indexes = {
+    @Index(name = "idx_enrollment_changes_activity_time", columnList = "activity_id, occurred_at"),
+    @Index(name = "idx_enrollment_changes_time", columnList = "occurred_at")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentChange {
+
+    public enum Kind {
+        ENROLLED,
+        WITHDRAWN
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Outbox event the row was copied from
+    @Column(nullable = false)
+    private Long eventId;
+
+    @Column(nullable = false)
+    private Long activityId;
+
+    @Column(nullable = false)
+    private Long studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Kind kind;
+
+    // When the enrollment changed: the creation time of the outbox event
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+}
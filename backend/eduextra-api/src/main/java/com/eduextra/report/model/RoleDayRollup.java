@@ -0,0 +1,59 @@
+package com.eduextra.report.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.eduextra.user.model.Role;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Users of one role at the end of one day. Only today's rows are rewritten; deleted users
+ * leave no trace in the users table, so earlier days stay as they were last written.
+ */
+@Entity
+@Data
+@Table(name = "role_day_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_role_day_rollups_date_role", columnNames = {"rollup_date", "role"})
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleDayRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate rollupDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Role role;
+
+    @Column(nullable = false)
+    private Integer total;
+
+    @Column(nullable = false)
+    private Integer active;
+
+    // Users created that day
+    @Column(nullable = false)
+    private Integer registered;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,23 @@
+package com.eduextra.report.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.report.model.ActivityDayRollup;
+
+@Repository
+public interface ActivityDayRollupRepository extends JpaRepository<ActivityDayRollup, Long> {
+
+    // Días de una actividad en un rango, del más antiguo al más reciente
+    List<ActivityDayRollup> findByActivityIdAndRollupDateBetweenOrderByRollupDate(Long activityId, LocalDate from, LocalDate to);
+
+    // Totales diarios de todas las actividades en un rango
+    @Query("SELECT new com.eduextra.report.repository.DayTotals(r.rollupDate, SUM(r.enrollments), SUM(r.withdrawals), "
+            + "SUM(r.sessions), SUM(r.present), SUM(r.late), SUM(r.absent), SUM(r.excused)) "
+            + "FROM ActivityDayRollup r WHERE r.rollupDate BETWEEN :from AND :to GROUP BY r.rollupDate ORDER BY r.rollupDate")
+    List<DayTotals> findDayTotals(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,9 @@
+package com.eduextra.report.repository;
+
+/**
+ * Term rollup of an activity with the activity's name and category.
+ */
+public record ActivityTermReportRow(Long activityId, String name, String category, Integer termYear, Integer capacity,
+        Integer enrolled, Integer enrollments, Integer withdrawals, Integer sessions, Integer present, Integer late,
+        Integer absent, Integer excused) {
+}
@@ -0,0 +1,19 @@
+package com.eduextra.report.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.report.model.ActivityTermRollup;
+
+@Repository
+public interface ActivityTermRollupRepository extends JpaRepository<ActivityTermRollup, Long> {
+
+    // Totales de las actividades de un curso, por nombre
+    @Query("SELECT new com.eduextra.report.repository.ActivityTermReportRow(a.id, a.name, a.category, r.termYear, r.capacity, "
+            + "r.enrolled, r.enrollments, r.withdrawals, r.sessions, r.present, r.late, r.absent, r.excused) "
+            + "FROM ActivityTermRollup r JOIN Activity a ON a.id = r.activityId WHERE r.termYear = :termYear ORDER BY a.name, a.id")
+    List<ActivityTermReportRow> findTermReport(Integer termYear);
+}
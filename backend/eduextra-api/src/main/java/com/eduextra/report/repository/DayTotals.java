@@ -0,0 +1,10 @@
+package com.eduextra.report.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Day rollups of every activity added up.
+ */
+public record DayTotals(LocalDate rollupDate, Long enrollments, Long withdrawals, Long sessions, Long present, Long late,
+        Long absent, Long excused) {
+}
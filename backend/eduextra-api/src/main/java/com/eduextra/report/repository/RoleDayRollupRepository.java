@@ -0,0 +1,16 @@
+package com.eduextra.report.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.report.model.RoleDayRollup;
+
+@Repository
+public interface RoleDayRollupRepository extends JpaRepository<RoleDayRollup, Long> {
+
+    // Usuarios por rol y día en un rango
+    List<RoleDayRollup> findByRollupDateBetweenOrderByRollupDateAscRoleAsc(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,61 @@
+package com.eduextra.report.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RFC 4180 CSV in UTF-8, with a byte order mark so spreadsheet apps detect the encoding.
+ * Text starting with a formula character is prefixed with a quote so it is not evaluated.
+ */
+final class CsvTableWriter implements TableWriter {
+
+    private final Writer out;
+
+    CsvTableWriter(OutputStream out) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        this.out.write('\uFEFF');
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        if (values.length == 0) {
+            return;
+        }
+        for (int k = 0; k < values.length; k++) {
+            if (k > 0) {
+                out.write(',');
+            }
+            if (values[k] != null) {
+                write(values[k] instanceof Number ? values[k].toString() : text(values[k].toString()));
+            }
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    private void write(String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static String text(String value) {
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            return "'" + value;
+        }
+        return value;
+    }
+
+}
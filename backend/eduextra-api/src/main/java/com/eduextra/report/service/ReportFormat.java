@@ -0,0 +1,33 @@
+package com.eduextra.report.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Export formats of the reports.
+ */
+public enum ReportFormat {
+
+    CSV("text/csv;charset=UTF-8", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    ReportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    TableWriter open(OutputStream out) throws IOException {
+        return this == CSV ? new CsvTableWriter(out) : new XlsxTableWriter(out);
+    }
+}
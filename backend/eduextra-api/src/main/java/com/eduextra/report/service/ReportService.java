@@ -0,0 +1,242 @@
+package com.eduextra.report.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.exception.ActivityNotFoundException;
+import com.eduextra.exception.ValidationException;
+import com.eduextra.report.dto.ActivityDayReportDTO;
+import com.eduextra.report.dto.ActivityTermReportDTO;
+import com.eduextra.report.dto.RoleDayReportDTO;
+import com.eduextra.report.model.ActivityDayRollup;
+import com.eduextra.report.repository.ActivityDayRollupRepository;
+import com.eduextra.report.repository.ActivityTermReportRow;
+import com.eduextra.report.repository.ActivityTermRollupRepository;
+import com.eduextra.report.repository.DayTotals;
+import com.eduextra.report.repository.RoleDayRollupRepository;
+
+/**
+ * Dashboard reports and their exports, read from the rollups kept by RollupService.
+ *
+ * Dashboard queries return at most a year of days. Exports have no range limit: rows are
+ * streamed from the database cursor straight into the CSV or XLSX writer, so memory stays
+ * flat however many years are exported.
+ */
+@Service
+public class ReportService {
+
+    private static final int MAX_DASHBOARD_DAYS = 366;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private static final String EXPORT_TERMS_SQL = "select a.id, a.name, a.category, r.term_year, r.capacity, r.enrolled, "
+            + "r.enrollments, r.withdrawals, r.sessions, r.present, r.late, r.absent, r.excused "
+            + "from activity_term_rollups r join activities a on a.id = r.activity_id where r.term_year = ? order by a.name, a.id";
+    private static final String EXPORT_DAYS_SQL = "select d.rollup_date, a.id, a.name, d.enrollments, d.withdrawals, d.sessions, "
+            + "d.present, d.late, d.absent, d.excused from activity_day_rollups d join activities a on a.id = d.activity_id "
+            + "where d.rollup_date between ? and ? order by d.rollup_date, d.activity_id";
+    private static final String EXPORT_ACTIVITY_DAYS_SQL = "select d.rollup_date, a.id, a.name, d.enrollments, d.withdrawals, "
+            + "d.sessions, d.present, d.late, d.absent, d.excused from activity_day_rollups d join activities a on a.id = d.activity_id "
+            + "where d.activity_id = ? and d.rollup_date between ? and ? order by d.rollup_date";
+    private static final String EXPORT_ROLES_SQL = "select rollup_date, role, total, active, registered from role_day_rollups "
+            + "where rollup_date between ? and ? order by rollup_date, role";
+
+    private final ActivityTermRollupRepository activityTermRollupRepository;
+    private final ActivityDayRollupRepository activityDayRollupRepository;
+    private final RoleDayRollupRepository roleDayRollupRepository;
+    private final ActivityRepository activityRepository;
+    private final RollupService rollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReportService(ActivityTermRollupRepository activityTermRollupRepository,
+            ActivityDayRollupRepository activityDayRollupRepository, RoleDayRollupRepository roleDayRollupRepository,
+            ActivityRepository activityRepository, RollupService rollupService, JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate) {
+        this.activityTermRollupRepository = activityTermRollupRepository;
+        this.activityDayRollupRepository = activityDayRollupRepository;
+        this.roleDayRollupRepository = roleDayRollupRepository;
+        this.activityRepository = activityRepository;
+        this.rollupService = rollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * The given school year, or the current one.
+     */
+    public int termOrCurrent(Integer termYear) {
+        return termYear != null ? termYear : rollupService.termOf(LocalDate.now());
+    }
+
+    public List<ActivityTermReportDTO> activityTerms(int termYear) {
+        return activityTermRollupRepository.findTermReport(termYear).stream().map(this::toDTO).toList();
+    }
+
+    /**
+     * Day by day counts of one activity, or of all activities added up.
+     */
+    public List<ActivityDayReportDTO> activityDays(LocalDate from, LocalDate to, Long activityId) {
+        validateDashboardRange(from, to);
+        if (activityId == null) {
+            return activityDayRollupRepository.findDayTotals(from, to).stream().map(this::toDTO).toList();
+        }
+        if (!activityRepository.existsById(activityId)) {
+            throw new ActivityNotFoundException("Activity not found");
+        }
+        return activityDayRollupRepository.findByActivityIdAndRollupDateBetweenOrderByRollupDate(activityId, from, to).stream()
+                .map(this::toDTO).toList();
+    }
+
+    public List<RoleDayReportDTO> userRoles(LocalDate from, LocalDate to) {
+        validateDashboardRange(from, to);
+        return roleDayRollupRepository.findByRollupDateBetweenOrderByRollupDateAscRoleAsc(from, to).stream()
+                .map(rollup -> RoleDayReportDTO.builder()
+                        .date(rollup.getRollupDate())
+                        .role(rollup.getRole())
+                        .total(rollup.getTotal())
+                        .active(rollup.getActive())
+                        .registered(rollup.getRegistered())
+                        .build())
+                .toList();
+    }
+
+    public void exportActivityTerms(int termYear, ReportFormat format, OutputStream out) throws IOException {
+        export(format, out, new Object[] {"activity_id", "name", "category", "term_year", "capacity", "enrolled", "fill_rate",
+                "enrollments", "withdrawals", "sessions", "present", "late", "absent", "excused", "attendance_rate"},
+                EXPORT_TERMS_SQL, rs -> new Object[] {rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4),
+                        rs.getInt(5), rs.getInt(6), fillRate(rs.getInt(6), rs.getInt(5)), rs.getInt(7), rs.getInt(8),
+                        rs.getInt(9), rs.getInt(10), rs.getInt(11), rs.getInt(12), rs.getInt(13),
+                        attendanceRate(rs.getInt(10), rs.getInt(11), rs.getInt(12))},
+                termYear);
+    }
+
+    public void exportActivityDays(LocalDate from, LocalDate to, Long activityId, ReportFormat format, OutputStream out)
+            throws IOException {
+        Object[] header = {"date", "activity_id", "name", "enrollments", "withdrawals", "sessions", "present", "late", "absent",
+                "excused", "attendance_rate"};
+        RowValues values = rs -> new Object[] {rs.getObject(1, LocalDate.class).toString(), rs.getLong(2), rs.getString(3),
+                rs.getInt(4), rs.getInt(5), rs.getInt(6), rs.getInt(7), rs.getInt(8), rs.getInt(9), rs.getInt(10),
+                attendanceRate(rs.getInt(7), rs.getInt(8), rs.getInt(9))};
+        if (activityId == null) {
+            export(format, out, header, EXPORT_DAYS_SQL, values, from, to);
+        } else {
+            export(format, out, header, EXPORT_ACTIVITY_DAYS_SQL, values, activityId, from, to);
+        }
+    }
+
+    public void exportUserRoles(LocalDate from, LocalDate to, ReportFormat format, OutputStream out) throws IOException {
+        export(format, out, new Object[] {"date", "role", "total", "active", "registered"},
+                EXPORT_ROLES_SQL, rs -> new Object[] {rs.getObject(1, LocalDate.class).toString(), rs.getString(2),
+                        rs.getInt(3), rs.getInt(4), rs.getInt(5)},
+                from, to);
+    }
+
+    /**
+     * Checks an export's date range before anything is written to the response.
+     */
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ValidationException("'from' must not be after 'to'");
+        }
+    }
+
+    private void validateDashboardRange(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DASHBOARD_DAYS) {
+            throw new ValidationException("Date range cannot exceed " + MAX_DASHBOARD_DAYS + " days; use the export for longer ranges");
+        }
+    }
+
+    private interface RowValues {
+        Object[] read(ResultSet rs) throws SQLException;
+    }
+
+    private void export(ReportFormat format, OutputStream out, Object[] header, String sql, RowValues values, Object... args)
+            throws IOException {
+        TableWriter writer = format.open(out);
+        writer.row(header);
+        try {
+            // Inside a transaction so PostgreSQL honours the fetch size instead of reading every row at once
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement statement = con.prepareStatement(sql);
+                statement.setFetchSize(EXPORT_FETCH_SIZE);
+                for (int k = 0; k < args.length; k++) {
+                    statement.setObject(k + 1, args[k]);
+                }
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    writer.row(values.read(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+    }
+
+    private ActivityTermReportDTO toDTO(ActivityTermReportRow row) {
+        return ActivityTermReportDTO.builder()
+                .activityId(row.activityId())
+                .name(row.name())
+                .category(row.category())
+                .termYear(row.termYear())
+                .capacity(row.capacity())
+                .enrolled(row.enrolled())
+                .fillRate(fillRate(row.enrolled(), row.capacity()))
+                .enrollments(row.enrollments())
+                .withdrawals(row.withdrawals())
+                .sessions(row.sessions())
+                .present(row.present())
+                .late(row.late())
+                .absent(row.absent())
+                .excused(row.excused())
+                .attendanceRate(attendanceRate(row.present(), row.late(), row.absent()))
+                .build();
+    }
+
+    private ActivityDayReportDTO toDTO(ActivityDayRollup rollup) {
+        return toDTO(new DayTotals(rollup.getRollupDate(), (long) rollup.getEnrollments(), (long) rollup.getWithdrawals(),
+                (long) rollup.getSessions(), (long) rollup.getPresent(), (long) rollup.getLate(), (long) rollup.getAbsent(),
+                (long) rollup.getExcused()));
+    }
+
+    private ActivityDayReportDTO toDTO(DayTotals totals) {
+        return ActivityDayReportDTO.builder()
+                .date(totals.rollupDate())
+                .enrollments(totals.enrollments())
+                .withdrawals(totals.withdrawals())
+                .sessions(totals.sessions())
+                .present(totals.present())
+                .late(totals.late())
+                .absent(totals.absent())
+                .excused(totals.excused())
+                .attendanceRate(attendanceRate(totals.present(), totals.late(), totals.absent()))
+                .build();
+    }
+
+    private static Double fillRate(int enrolled, int capacity) {
+        return capacity > 0 ? (double) enrolled / capacity : null;
+    }
+
+    // Late counts as attended; excused absences are left out, as in the attendance analytics
+    private static Double attendanceRate(long present, long late, long absent) {
+        long expected = present + late + absent;
+        return expected > 0 ? (double) (present + late) / expected : null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.eduextra.report.service;
+
+import org.springframework.stereotype.Component;
+
+import com.eduextra.job.model.Job;
+import com.eduextra.job.service.JobHandler;
+import com.eduextra.report.job.ReconcileRollups;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs the reconciliation enqueued by RollupService. It rewrites the rollups with absolute
+ * values in one transaction, so running it again after a failure or a lost lease is harmless.
+ */
+@Component
+@RequiredArgsConstructor
+public class RollupReconcileJobHandler implements JobHandler {
+
+    private final RollupService rollupService;
+
+    @Override
+    public boolean supports(String jobType) {
+        return ReconcileRollups.class.getSimpleName().equals(jobType);
+    }
+
+    @Override
+    public void handle(Job job) {
+        rollupService.reconcile();
+    }
+}
@@ -0,0 +1,323 @@
+package com.eduextra.report.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.attendance.model.AttendanceStatus;
+import com.eduextra.job.service.JobService;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.report.job.ReconcileRollups;
+import com.eduextra.report.model.EnrollmentChange;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Maintains the reporting rollups: one row per activity and day, one per activity for its
+ * term, and one per role and day, so dashboards and exports read precomputed rows instead
+ * of aggregating enrollments and the attendance log on every view.
+ *
+ * Enrollment counts come from enrollment_changes, an append-only copy of the enrollment
+ * events: enrollment rows are overwritten when a student enrolls again and removed by hard
+ * deletes, so their timestamps cannot say what happened on a past day.
+ *
+ * Domain events only mark the rows they affect as pending, once the relay's transaction has
+ * committed. Every flush interval the pending rows are recomputed from the source tables and
+ * written with absolute values, so an event delivered twice, or handled on another node,
+ * cannot count anything twice. Each row is written in its own short transaction.
+ *
+ * Pending rows live in memory and are lost on restart, and writes from two nodes may
+ * collide; the nightly reconciliation rebuilds the last reconcile-days days and every term
+ * row from the source tables in one pass, which also covers attendance recorded without an event.
+ * It runs as a background job, so a single node does it each night and a failed pass is retried.
+ *
+ * Metrics: reports.rollups.pending, reports.rollups.refreshed, reports.rollups.reconcile.
+ */
+@Service
+public class RollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupService.class);
+
+    private static final String RECORDED_SQL = "select count(*) from enrollment_changes where event_id = ?";
+    private static final String INSERT_CHANGE_SQL = "insert into enrollment_changes (event_id, activity_id, student_id, "
+            + "kind, occurred_at) values (?, ?, ?, ?, ?)";
+    private static final String DAY_ENROLLMENTS_SQL = "select "
+            + "sum(case when kind = 'ENROLLED' then 1 else 0 end), sum(case when kind = 'WITHDRAWN' then 1 else 0 end) "
+            + "from enrollment_changes where activity_id = ? and occurred_at >= ? and occurred_at < ?";
+    // Latest row per student; session_month keeps the scan within one partition
+    private static final String DAY_SESSION_SQL = "select r.status, count(*) from attendance_records r "
+            + "where r.session_month = ? and r.activity_id = ? and r.session_date = ? and r.id = "
+            + "(select max(l.id) from attendance_records l where l.session_month = r.session_month "
+            + "and l.activity_id = r.activity_id and l.session_date = r.session_date and l.student_id = r.student_id) "
+            + "group by r.status";
+    private static final String UPDATE_DAY_SQL = "update activity_day_rollups set enrollments = ?, withdrawals = ?, "
+            + "sessions = ?, present = ?, late = ?, absent = ?, excused = ?, updated_at = ? where rollup_date = ? and activity_id = ?";
+    private static final String INSERT_DAY_SQL = "insert into activity_day_rollups (enrollments, withdrawals, sessions, "
+            + "present, late, absent, excused, updated_at, rollup_date, activity_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_DAY_SQL = "delete from activity_day_rollups where rollup_date = ? and activity_id = ?";
+
+    private static final String TERM_SQL = "select a.start_date, a.capacity, a.seats_taken, "
+            + "coalesce(sum(d.enrollments), 0), coalesce(sum(d.withdrawals), 0), coalesce(sum(d.sessions), 0), "
+            + "coalesce(sum(d.present), 0), coalesce(sum(d.late), 0), coalesce(sum(d.absent), 0), coalesce(sum(d.excused), 0) "
+            + "from activities a left join activity_day_rollups d on d.activity_id = a.id "
+            + "where a.id = ? and a.status <> 'DRAFT' group by a.id, a.start_date, a.capacity, a.seats_taken";
+    private static final String UPDATE_TERM_SQL = "update activity_term_rollups set term_year = ?, capacity = ?, enrolled = ?, "
+            + "enrollments = ?, withdrawals = ?, sessions = ?, present = ?, late = ?, absent = ?, excused = ?, updated_at = ? "
+            + "where activity_id = ?";
+    private static final String INSERT_TERM_SQL = "insert into activity_term_rollups (term_year, capacity, enrolled, "
+            + "enrollments, withdrawals, sessions, present, late, absent, excused, updated_at, activity_id) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_TERM_SQL = "delete from activity_term_rollups where activity_id = ?";
+
+    private static final String ROLES_SQL = "select role, count(*), sum(case when is_active then 1 else 0 end), "
+            + "sum(case when created_at >= ? then 1 else 0 end) from users where created_at < ? group by role";
+    private static final String DELETE_ROLES_SQL = "delete from role_day_rollups where rollup_date = ?";
+    private static final String INSERT_ROLE_SQL = "insert into role_day_rollups (rollup_date, role, total, active, registered, updated_at) "
+            + "values (?, ?, ?, ?, ?, ?)";
+
+    private static final String RECONCILE_DELETE_DAYS_SQL = "delete from activity_day_rollups where rollup_date >= ?";
+    private static final String RECONCILE_INSERT_DAYS_SQL = "insert into activity_day_rollups (rollup_date, activity_id, "
+            + "enrollments, withdrawals, sessions, present, late, absent, excused, updated_at) "
+            + "select x.rollup_date, x.activity_id, sum(x.enrollments), sum(x.withdrawals), max(x.sessions), sum(x.present), "
+            + "sum(x.late), sum(x.absent), sum(x.excused), ? from ("
+            + "select cast(occurred_at as date) as rollup_date, activity_id, "
+            + "case when kind = 'ENROLLED' then 1 else 0 end as enrollments, case when kind = 'WITHDRAWN' then 1 else 0 end as withdrawals, "
+            + "0 as sessions, 0 as present, 0 as late, 0 as absent, 0 as excused from enrollment_changes where occurred_at >= ? "
+            + "union all select r.session_date, r.activity_id, 0, 0, 1, "
+            + "case when r.status = 'PRESENT' then 1 else 0 end, case when r.status = 'LATE' then 1 else 0 end, "
+            + "case when r.status = 'ABSENT' then 1 else 0 end, case when r.status = 'EXCUSED' then 1 else 0 end "
+            + "from attendance_records r where r.session_month >= ? and r.session_date >= ? and r.id in "
+            + "(select max(l.id) from attendance_records l where l.session_month >= ? and l.session_date >= ? "
+            + "group by l.activity_id, l.session_date, l.student_id)"
+            + ") x group by x.rollup_date, x.activity_id";
+    private static final String RECONCILE_DELETE_TERMS_SQL = "delete from activity_term_rollups";
+    private static final String RECONCILE_INSERT_TERMS_SQL = "insert into activity_term_rollups (activity_id, term_year, "
+            + "capacity, enrolled, enrollments, withdrawals, sessions, present, late, absent, excused, updated_at) "
+            + "select a.id, case when extract(month from a.start_date) >= ? then cast(extract(year from a.start_date) as integer) "
+            + "else cast(extract(year from a.start_date) as integer) - 1 end, a.capacity, a.seats_taken, "
+            + "coalesce(sum(d.enrollments), 0), coalesce(sum(d.withdrawals), 0), coalesce(sum(d.sessions), 0), "
+            + "coalesce(sum(d.present), 0), coalesce(sum(d.late), 0), coalesce(sum(d.absent), 0), coalesce(sum(d.excused), 0), ? "
+            + "from activities a left join activity_day_rollups d on d.activity_id = a.id where a.status <> 'DRAFT' "
+            + "group by a.id, a.start_date, a.capacity, a.seats_taken";
+
+    /**
+     * One activity on one day.
+     */
+    public record DayKey(LocalDate date, Long activityId) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobService jobService;
+    private final int termStartMonth;
+    private final int reconcileDays;
+
+    private final Set<DayKey> pendingDays = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingTerms = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pendingRoles = new AtomicBoolean(true);
+
+    private final Counter refreshed;
+    private final Timer reconcileTimer;
+
+    public RollupService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, JobService jobService,
+            MeterRegistry meterRegistry,
+            @Value("${application.reports.term-start-month:9}") int termStartMonth,
+            @Value("${application.reports.reconcile-days:31}") int reconcileDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jobService = jobService;
+        this.termStartMonth = termStartMonth;
+        this.reconcileDays = reconcileDays;
+        this.refreshed = Counter.builder("reports.rollups.refreshed").description("Rollup rows recomputed from events")
+                .register(meterRegistry);
+        this.reconcileTimer = Timer.builder("reports.rollups.reconcile").description("Time to reconcile the rollups")
+                .register(meterRegistry);
+        Gauge.builder("reports.rollups.pending", this, s -> s.pendingDays.size() + s.pendingTerms.size())
+                .description("Rollup rows waiting to be recomputed").register(meterRegistry);
+    }
+
+    /**
+     * School year a date belongs to, as the year it starts in.
+     */
+    public int termOf(LocalDate date) {
+        return date.getMonthValue() >= termStartMonth ? date.getYear() : date.getYear() - 1;
+    }
+
+    /**
+     * Copies the students of an enrollment event into enrollment_changes and marks the day of
+     * the event as pending. Must run in the relay's transaction; an event already copied is
+     * skipped, so a redelivery adds nothing.
+     */
+    public void enrollmentsChanged(OutboxEvent event, Long activityId, List<Long> studentIds, EnrollmentChange.Kind kind) {
+        Integer recorded = jdbcTemplate.queryForObject(RECORDED_SQL, Integer.class, event.getId());
+        if (recorded == null || recorded == 0) {
+            Timestamp occurredAt = Timestamp.valueOf(event.getCreatedAt());
+            jdbcTemplate.batchUpdate(INSERT_CHANGE_SQL, studentIds.stream()
+                    .distinct()
+                    .map(studentId -> new Object[] {event.getId(), activityId, studentId, kind.name(), occurredAt})
+                    .toList());
+        }
+        activityDayChanged(event.getCreatedAt().toLocalDate(), activityId);
+    }
+
+    public void activityDayChanged(LocalDate date, Long activityId) {
+        // Flushing before the relay commits would miss the rows copied above
+        afterCommit(() -> {
+            pendingDays.add(new DayKey(date, activityId));
+            pendingTerms.add(activityId);
+        });
+    }
+
+    public void activityChanged(Long activityId) {
+        afterCommit(() -> pendingTerms.add(activityId));
+    }
+
+    public void usersChanged() {
+        afterCommit(() -> pendingRoles.set(true));
+    }
+
+    /**
+     * Recomputes the pending rows. Day rows go first since term rows are summed from them.
+     */
+    @Scheduled(fixedDelayString = "${application.reports.flush-interval-ms:5000}")
+    public void flush() {
+        for (DayKey key : drain(pendingDays)) {
+            refresh(() -> refreshDay(key), () -> pendingDays.add(key), key);
+        }
+        for (Long activityId : drain(pendingTerms)) {
+            refresh(() -> refreshTerm(activityId), () -> pendingTerms.add(activityId), activityId);
+        }
+        if (pendingRoles.getAndSet(false)) {
+            refresh(this::refreshRoles, () -> pendingRoles.set(true), "roles");
+        }
+    }
+
+    /**
+     * Enqueues the night's reconciliation. Every node's schedule fires, but the dedupe key
+     * keeps a single job per day, which runs on whichever node claims it.
+     */
+    @Scheduled(cron = "${application.reports.reconcile-cron:0 45 2 * * *}")
+    public void scheduleReconcile() {
+        LocalDate today = LocalDate.now();
+        jobService.enqueueOnce("rollup-reconcile:" + today, "maintenance", new ReconcileRollups(today));
+    }
+
+    /**
+     * Rebuilds the day rows of the last reconcile-days days, every term row and today's role
+     * rows from the source tables, in one transaction. On failure the current rollups are
+     * kept and the exception is left to the job for a retry.
+     */
+    public void reconcile() {
+        LocalDate from = LocalDate.now().minusDays(reconcileDays);
+        int fromMonth = from.getYear() * 100 + from.getMonthValue();
+        Timestamp fromTime = Timestamp.valueOf(from.atStartOfDay());
+        reconcileTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.update(RECONCILE_DELETE_DAYS_SQL, from);
+            int days = jdbcTemplate.update(RECONCILE_INSERT_DAYS_SQL, now, fromTime, fromMonth, from, fromMonth, from);
+            jdbcTemplate.update(RECONCILE_DELETE_TERMS_SQL);
+            int terms = jdbcTemplate.update(RECONCILE_INSERT_TERMS_SQL, termStartMonth, now);
+            refreshRoles();
+            log.info("Reporting rollups reconciled: {} activity days since {}, {} activity terms", days, from, terms);
+        }));
+    }
+
+    private void refresh(Runnable work, Runnable retry, Object key) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> work.run());
+            refreshed.increment();
+        } catch (DataAccessException e) {
+            // Typically a row inserted concurrently by another node; try again next flush
+            retry.run();
+            log.warn("Could not refresh rollup {}: {}", key, e.toString());
+        }
+    }
+
+    private void refreshDay(DayKey key) {
+        Timestamp start = Timestamp.valueOf(key.date().atStartOfDay());
+        Timestamp end = Timestamp.valueOf(key.date().plusDays(1).atStartOfDay());
+        int[] counts = new int[2 + AttendanceStatus.values().length];
+        jdbcTemplate.query(DAY_ENROLLMENTS_SQL, rs -> {
+            counts[0] = rs.getInt(1);
+            counts[1] = rs.getInt(2);
+        }, key.activityId(), start, end);
+        jdbcTemplate.query(DAY_SESSION_SQL, rs -> {
+            counts[2 + AttendanceStatus.valueOf(rs.getString(1)).ordinal()] = rs.getInt(2);
+        }, key.date().getYear() * 100 + key.date().getMonthValue(), key.activityId(), key.date());
+
+        int present = counts[2 + AttendanceStatus.PRESENT.ordinal()];
+        int late = counts[2 + AttendanceStatus.LATE.ordinal()];
+        int absent = counts[2 + AttendanceStatus.ABSENT.ordinal()];
+        int excused = counts[2 + AttendanceStatus.EXCUSED.ordinal()];
+        int sessions = present + late + absent + excused > 0 ? 1 : 0;
+        if (counts[0] == 0 && counts[1] == 0 && sessions == 0) {
+            jdbcTemplate.update(DELETE_DAY_SQL, key.date(), key.activityId());
+            return;
+        }
+        Object[] values = {counts[0], counts[1], sessions, present, late, absent, excused,
+                Timestamp.valueOf(LocalDateTime.now()), key.date(), key.activityId()};
+        if (jdbcTemplate.update(UPDATE_DAY_SQL, values) == 0) {
+            jdbcTemplate.update(INSERT_DAY_SQL, values);
+        }
+    }
+
+    private void refreshTerm(Long activityId) {
+        List<Object[]> rows = jdbcTemplate.query(TERM_SQL, (rs, rowNum) -> new Object[] {
+                termOf(rs.getObject(1, LocalDate.class)), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5),
+                rs.getInt(6), rs.getInt(7), rs.getInt(8), rs.getInt(9), rs.getInt(10),
+                Timestamp.valueOf(LocalDateTime.now()), activityId}, activityId);
+        if (rows.isEmpty()) {
+            jdbcTemplate.update(DELETE_TERM_SQL, activityId);
+        } else if (jdbcTemplate.update(UPDATE_TERM_SQL, rows.get(0)) == 0) {
+            jdbcTemplate.update(INSERT_TERM_SQL, rows.get(0));
+        }
+    }
+
+    private void refreshRoles() {
+        LocalDate today = LocalDate.now();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = jdbcTemplate.query(ROLES_SQL, (rs, rowNum) -> new Object[] {
+                today, rs.getString(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), now},
+                Timestamp.valueOf(today.atStartOfDay()), Timestamp.valueOf(today.plusDays(1).atStartOfDay()));
+        jdbcTemplate.update(DELETE_ROLES_SQL, today);
+        jdbcTemplate.batchUpdate(INSERT_ROLE_SQL, rows);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static <T> List<T> drain(Set<T> pending) {
+        List<T> drained = new ArrayList<>(pending);
+        drained.forEach(pending::remove);
+        return drained;
+    }
+}
@@ -0,0 +1,80 @@
+package com.eduextra.report.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.eduextra.activity.event.ActivityChanged;
+import com.eduextra.allocation.event.SeatsAllocated;
+import com.eduextra.attendance.event.AttendanceRecorded;
+import com.eduextra.enrollment.event.EnrollmentCreated;
+import com.eduextra.enrollment.event.EnrollmentWithdrawn;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.outbox.service.OutboxSubscriber;
+import com.eduextra.report.model.EnrollmentChange.Kind;
+import com.eduextra.user.event.UserCreated;
+import com.eduextra.user.event.UserDeleted;
+import com.eduextra.user.event.UserStatusChanged;
+import com.eduextra.user.event.UserUpdated;
+import com.eduextra.waitlist.event.WaitlistPromoted;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Marks the rollup rows touched by each event. Runs inside the relay's transaction, so it
+ * only records which rows the next flush has to recompute, plus the append-only copy of
+ * enrollment events the day rows are counted from.
+ */
+@Component
+@RequiredArgsConstructor
+public class RollupSubscriber implements OutboxSubscriber {
+
+    private static final Set<String> USER_EVENT_TYPES = Set.of(
+            UserCreated.class.getSimpleName(),
+            UserUpdated.class.getSimpleName(),
+            UserStatusChanged.class.getSimpleName(),
+            UserDeleted.class.getSimpleName());
+
+    private static final Set<String> ACTIVITY_EVENT_TYPES = Set.of(
+            EnrollmentCreated.class.getSimpleName(),
+            EnrollmentWithdrawn.class.getSimpleName(),
+            WaitlistPromoted.class.getSimpleName(),
+            SeatsAllocated.class.getSimpleName(),
+            AttendanceRecorded.class.getSimpleName(),
+            ActivityChanged.class.getSimpleName());
+
+    private final OutboxService outboxService;
+    private final RollupService rollupService;
+
+    @Override
+    public boolean supports(String eventType) {
+        return ACTIVITY_EVENT_TYPES.contains(eventType) || USER_EVENT_TYPES.contains(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        String type = event.getEventType();
+        if (USER_EVENT_TYPES.contains(type)) {
+            rollupService.usersChanged();
+        } else if (AttendanceRecorded.class.getSimpleName().equals(type)) {
+            AttendanceRecorded recorded = outboxService.readPayload(event, AttendanceRecorded.class);
+            rollupService.activityDayChanged(recorded.sessionDate(), recorded.activityId());
+        } else if (ActivityChanged.class.getSimpleName().equals(type)) {
+            rollupService.activityChanged(outboxService.readPayload(event, ActivityChanged.class).activityId());
+        } else if (EnrollmentCreated.class.getSimpleName().equals(type)) {
+            EnrollmentCreated created = outboxService.readPayload(event, EnrollmentCreated.class);
+            rollupService.enrollmentsChanged(event, created.activityId(), List.of(created.studentId()), Kind.ENROLLED);
+        } else if (EnrollmentWithdrawn.class.getSimpleName().equals(type)) {
+            EnrollmentWithdrawn withdrawn = outboxService.readPayload(event, EnrollmentWithdrawn.class);
+            rollupService.enrollmentsChanged(event, withdrawn.activityId(), List.of(withdrawn.studentId()), Kind.WITHDRAWN);
+        } else if (WaitlistPromoted.class.getSimpleName().equals(type)) {
+            WaitlistPromoted promoted = outboxService.readPayload(event, WaitlistPromoted.class);
+            rollupService.enrollmentsChanged(event, promoted.activityId(), promoted.studentIds(), Kind.ENROLLED);
+        } else {
+            SeatsAllocated allocated = outboxService.readPayload(event, SeatsAllocated.class);
+            rollupService.enrollmentsChanged(event, allocated.activityId(), allocated.studentIds(), Kind.ENROLLED);
+        }
+    }
+}
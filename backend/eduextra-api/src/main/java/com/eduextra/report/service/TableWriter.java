@@ -0,0 +1,20 @@
+package com.eduextra.report.service;
+
+import java.io.IOException;
+
+/**
+ * Writes a report one row at a time; the first row is the header. Nothing is kept once a
+ * row is written, so memory does not grow with the report.
+ */
+interface TableWriter {
+
+    /**
+     * Values may be strings, numbers, dates or null.
+     */
+    void row(Object... values) throws IOException;
+
+    /**
+     * Completes the document. The underlying stream is flushed but left open.
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,160 @@
+package com.eduextra.report.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Minimal Office Open XML workbook written as a stream: each sheet is a zip entry whose rows
+ * are appended as they come, with text as inline strings so no shared-string table has to
+ * be held in memory. The workbook part listing the sheets is written last, once their
+ * number is known; a sheet that reaches the row limit continues on the next one under the
+ * same header.
+ */
+final class XlsxTableWriter implements TableWriter {
+
+    // Excel's row limit, header included
+    private static final int MAX_ROWS = 1_048_576;
+
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String OFFICE_REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private final ZipOutputStream zip;
+    private final Writer out;
+    private final int maxRows;
+    private Object[] header;
+    private int sheets;
+    private int rowsInSheet;
+
+    XlsxTableWriter(OutputStream out) {
+        this(out, MAX_ROWS);
+    }
+
+    // A lower row limit lets tests cross a sheet boundary without a million rows
+    XlsxTableWriter(OutputStream out, int maxRows) {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.out = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 16 * 1024);
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        if (header == null) {
+            header = values.clone();
+        }
+        if (sheets == 0 || rowsInSheet == maxRows) {
+            if (sheets > 0) {
+                closeSheet();
+            }
+            openSheet();
+            if (sheets > 1) {
+                writeRow(header);
+            }
+        }
+        writeRow(values);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (sheets == 0) {
+            openSheet();
+        }
+        closeSheet();
+        entry("[Content_Types].xml", contentTypes());
+        entry("_rels/.rels", "<Relationships xmlns=\"" + REL_NS + "\"><Relationship Id=\"rId1\" Type=\"" + OFFICE_REL_NS
+                + "/officeDocument\" Target=\"xl/workbook.xml\"/></Relationships>");
+        StringBuilder workbook = new StringBuilder("<workbook xmlns=\"" + MAIN_NS + "\" xmlns:r=\"" + OFFICE_REL_NS + "\"><sheets>");
+        StringBuilder relationships = new StringBuilder("<Relationships xmlns=\"" + REL_NS + "\">");
+        for (int k = 1; k <= sheets; k++) {
+            workbook.append("<sheet name=\"Report").append(k == 1 ? "" : " " + k).append("\" sheetId=\"").append(k)
+                    .append("\" r:id=\"rId").append(k).append("\"/>");
+            relationships.append("<Relationship Id=\"rId").append(k).append("\" Type=\"").append(OFFICE_REL_NS)
+                    .append("/worksheet\" Target=\"worksheets/sheet").append(k).append(".xml\"/>");
+        }
+        entry("xl/workbook.xml", workbook.append("</sheets></workbook>").toString());
+        entry("xl/_rels/workbook.xml.rels", relationships.append("</Relationships>").toString());
+        zip.finish();
+        zip.flush();
+    }
+
+    private void openSheet() throws IOException {
+        sheets++;
+        rowsInSheet = 0;
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheets + ".xml"));
+        out.write(XML_HEADER);
+        out.write("<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>");
+    }
+
+    private void closeSheet() throws IOException {
+        out.write("</sheetData></worksheet>");
+        out.flush();
+        zip.closeEntry();
+    }
+
+    private void writeRow(Object[] values) throws IOException {
+        rowsInSheet++;
+        out.write("<row r=\"");
+        out.write(Integer.toString(rowsInSheet));
+        out.write("\">");
+        for (Object value : values) {
+            if (value == null) {
+                out.write("<c/>");
+            } else if (value instanceof Number number) {
+                out.write("<c><v>");
+                out.write(number.toString());
+                out.write("</v></c>");
+            } else {
+                out.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                escape(value.toString());
+                out.write("</t></is></c>");
+            }
+        }
+        out.write("</row>");
+    }
+
+    private void escape(String text) throws IOException {
+        for (int k = 0; k < text.length(); k++) {
+            char c = text.charAt(k);
+            switch (c) {
+                case '&' -> out.write("&amp;");
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '"' -> out.write("&quot;");
+                default -> {
+                    // Control characters other than tab and line breaks are not allowed in XML
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+    }
+
+    private String contentTypes() {
+        StringBuilder types = new StringBuilder("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/xl/workbook.xml\" "
+                + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+        for (int k = 1; k <= sheets; k++) {
+            types.append("<Override PartName=\"/xl/worksheets/sheet").append(k).append(".xml\" ")
+                    .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        return types.append("</Types>").toString();
+    }
+
+    private void entry(String name, String xml) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        out.write(XML_HEADER);
+        out.write(xml);
+        out.flush();
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,61 @@
+package com.eduextra.schedule.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.eduextra.exception.ErrorResponse;
+import com.eduextra.schedule.dto.ProposedSlotDTO;
+import com.eduextra.schedule.dto.ScheduleConflictDTO;
+import com.eduextra.schedule.dto.TimetableValidationResponseDTO;
+import com.eduextra.schedule.service.ScheduleIndex;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for timetable checks. Single enrollments and assignments are checked
+ * automatically; these endpoints check the whole timetable at once.
+ *
+ * Security: All endpoints require JWT Bearer authentication and ADMIN or COORDINATOR role.
+ */
+@RestController
+@RequestMapping("/schedule")
+@Tag(name = "Schedule Management", description = "Timetable overlap checks")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class ScheduleController {
+
+    private final ScheduleIndex scheduleIndex;
+
+    @Operation(
+        summary = "Validate the timetable",
+        description = "Checks every student, monitor and room for overlapping activities. Optional proposed slot changes are applied on top of the current timetable first, so a new timetable can be checked before it is published.",
+        tags = {"Schedule Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Timetable checked"),
+            @ApiResponse(responseCode = "400", description = "Invalid proposed slot", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Proposed slot for an unknown activity", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @PostMapping("/validate")
+    public ResponseEntity<TimetableValidationResponseDTO> validate(
+            @Valid @RequestBody(required = false) List<@Valid ProposedSlotDTO> proposed) {
+        List<ScheduleConflictDTO> conflicts = scheduleIndex.validate(proposed != null ? proposed : List.of());
+        return ResponseEntity.ok(TimetableValidationResponseDTO.builder()
+                .valid(conflicts.isEmpty())
+                .conflicts(conflicts)
+                .build());
+    }
+}
@@ -0,0 +1,36 @@
+package com.eduextra.schedule.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Two activities that overlap in the schedule of a student, a monitor or a room")
+public class ScheduleConflictDTO {
+
+    public enum ConflictType {
+        STUDENT,
+        MONITOR,
+        ROOM
+    }
+
+    @Schema(description = "Whose schedule has the overlap")
+    private ConflictType type;
+
+    @Schema(description = "Student or monitor id (STUDENT and MONITOR conflicts)", example = "42")
+    private Long userId;
+
+    @Schema(description = "Room (ROOM conflicts)", example = "aula 3")
+    private String room;
+
+    @Schema(description = "Activity that starts first", example = "3")
+    private Long activityId;
+
+    @Schema(description = "Activity it overlaps with", example = "7")
+    private Long conflictingActivityId;
+}
@@ -0,0 +1,23 @@
+package com.eduextra.schedule.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result of checking a whole timetable for overlaps")
+public class TimetableValidationResponseDTO {
+
+    @Schema(description = "Whether no student, monitor or room has overlapping activities", example = "true")
+    private boolean valid;
+
+    @Schema(description = "Overlaps found")
+    private List<ScheduleConflictDTO> conflicts;
+}
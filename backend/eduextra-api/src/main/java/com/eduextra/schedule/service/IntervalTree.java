@@ -0,0 +1,169 @@
+package com.eduextra.schedule.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Interval tree over half-open [start, end) ranges: a treap ordered by (start, key) where
+ * every node also keeps the largest end in its subtree. Subtrees that end before the query
+ * starts, or start after it ends, are skipped, so an overlap query costs O(log n + k).
+ *
+ * Keys are unique; inserting an existing key replaces its interval. Not thread-safe.
+ */
+class IntervalTree<T> {
+
+    private static final class Node<T> {
+        final int start;
+        final int end;
+        final long key;
+        final T value;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        int maxEnd;
+        Node<T> left;
+        Node<T> right;
+
+        Node(int start, int end, long key, T value) {
+            this.start = start;
+            this.end = end;
+            this.key = key;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node<T> root;
+    private final Map<Long, Node<T>> byKey = new HashMap<>();
+
+    void put(int start, int end, long key, T value) {
+        remove(key);
+        Node<T> node = new Node<>(start, end, key, value);
+        root = insert(root, node);
+        byKey.put(key, node);
+    }
+
+    boolean remove(long key) {
+        Node<T> node = byKey.remove(key);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node.start, key);
+        return true;
+    }
+
+    boolean contains(long key) {
+        return byKey.containsKey(key);
+    }
+
+    boolean isEmpty() {
+        return byKey.isEmpty();
+    }
+
+    int size() {
+        return byKey.size();
+    }
+
+    /**
+     * Visits every value whose interval intersects [start, end).
+     */
+    void forEachOverlap(int start, int end, Consumer<T> action) {
+        visit(root, start, end, action);
+    }
+
+    private void visit(Node<T> node, int start, int end, Consumer<T> action) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        visit(node.left, start, end, action);
+        if (node.start >= end) {
+            // Everything to the right starts even later
+            return;
+        }
+        if (node.end > start) {
+            action.accept(node.value);
+        }
+        visit(node.right, start, end, action);
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.key, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<T> delete(Node<T> node, int start, long key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, key, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, key);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, key);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            if (node.left.priority > node.right.priority) {
+                node = rotateRight(node);
+                node.right = delete(node.right, start, key);
+            } else {
+                node = rotateLeft(node);
+                node.left = delete(node.left, start, key);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private int compare(int start, long key, Node<T> node) {
+        int cmp = Integer.compare(start, node.start);
+        return cmp != 0 ? cmp : Long.compare(key, node.key);
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private void update(Node<T> node) {
+        int maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+}
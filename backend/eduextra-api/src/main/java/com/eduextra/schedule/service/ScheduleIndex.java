@@ -0,0 +1,405 @@
+package com.eduextra.schedule.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.activity.repository.ActivitySlot;
+import com.eduextra.enrollment.repository.ActiveEnrollment;
+import com.eduextra.enrollment.repository.EnrollmentRepository;
+import com.eduextra.exception.ActivityNotFoundException;
+import com.eduextra.exception.ScheduleConflictException;
+import com.eduextra.exception.ValidationException;
+import com.eduextra.schedule.dto.ProposedSlotDTO;
+import com.eduextra.schedule.dto.ScheduleConflictDTO;
+import com.eduextra.schedule.dto.ScheduleConflictDTO.ConflictType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory index of weekly schedules, used to reject overlapping enrollments and monitor or
+ * room assignments without querying the database.
+ *
+ * Every user (students and monitors) and every room has an interval tree of the activity
+ * slots they hold, keyed by minute of the week; hits are then filtered by term dates. The
+ * index is loaded on startup, updated right after commit by the services on this node and
+ * by ScheduleSubscriber, on every node, for changes made elsewhere. Checks and bookings take
+ * the tree's monitor, so they are exact for writes made on one node.
+ *
+ * Changes made on other nodes arrive an outbox tail poll late. Within that window two nodes
+ * can each accept one of two overlapping enrollments of the same student, or assignments of
+ * the same monitor or room; nothing in the database prevents it, since rooms are free text
+ * and an overlap is not expressible as a portable constraint. Such overlaps need the same
+ * student, monitor or room to be booked on two nodes in well under a second, and they show
+ * up in validate() (POST /schedule/validate) once the tail has caught up.
+ *
+ * Metrics: schedule.conflicts (tag type=student|monitor|room).
+ */
+@Service
+public class ScheduleIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduleIndex.class);
+
+    private final ActivityRepository activityRepository;
+    private final EnrollmentRepository enrollmentRepository;
+
+    private final ConcurrentHashMap<Long, ActivitySlot> slots = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> studentsByActivity = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, IntervalTree<ActivitySlot>> userTrees = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, IntervalTree<ActivitySlot>> roomTrees = new ConcurrentHashMap<>();
+
+    private final Map<ConflictType, Counter> conflicts = new HashMap<>();
+
+    public ScheduleIndex(ActivityRepository activityRepository, EnrollmentRepository enrollmentRepository,
+            MeterRegistry meterRegistry) {
+        this.activityRepository = activityRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        for (ConflictType type : ConflictType.values()) {
+            conflicts.put(type, Counter.builder("schedule.conflicts").tag("type", type.name().toLowerCase(Locale.ROOT))
+                    .description("Enrollments or assignments rejected because of a schedule overlap").register(meterRegistry));
+        }
+    }
+
+    /**
+     * Loads the index from the database, on startup and when OutboxTail may have missed events.
+     * Everything is read before the old index is cleared, so checks see it empty only briefly.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ActivitySlot> activeSlots = activityRepository.findActiveSlots();
+        List<ActiveEnrollment> enrollments = enrollmentRepository.findAllActive();
+        slots.clear();
+        studentsByActivity.clear();
+        userTrees.clear();
+        roomTrees.clear();
+        for (ActivitySlot slot : activeSlots) {
+            activityChangedNow(slot);
+        }
+        for (ActiveEnrollment enrollment : enrollments) {
+            addStudentNow(enrollment.studentId(), enrollment.activityId());
+        }
+        log.info("Indexed {} activity slots and {} enrollments", slots.size(), enrollments.size());
+    }
+
+    /**
+     * Books the activity in the student's schedule, failing if it overlaps another activity
+     * of theirs. The check and the booking happen under the tree's monitor, without touching
+     * the database, so two overlapping enrollments made on this node cannot both pass. The
+     * booking is undone if the transaction rolls back and recorded again once it commits, in
+     * case a late event from the tail removed it meanwhile.
+     */
+    public void reserveStudent(Long studentId, Long activityId) {
+        ActivitySlot slot = slot(activityId);
+        if (slot.cancelled()) {
+            return;
+        }
+        IntervalTree<ActivitySlot> tree = userTree(studentId);
+        synchronized (tree) {
+            if (tree.contains(activityId)) {
+                return;
+            }
+            ActivitySlot clash = firstOverlap(tree, slot);
+            if (clash != null) {
+                conflicts.get(ConflictType.STUDENT).increment();
+                throw new ScheduleConflictException(
+                        "Activity overlaps with activity " + clash.id() + " in the student's schedule");
+            }
+            tree.put(slot.weekStart(), slot.weekEnd(), activityId, slot);
+        }
+        students(activityId).add(studentId);
+        afterCompletion(committed -> {
+            if (committed) {
+                addStudentNow(studentId, activityId);
+            } else {
+                removeStudentNow(studentId, activityId);
+            }
+        });
+    }
+
+    /**
+     * Fails if the activity overlaps one already in this node's copy of the student's schedule,
+     * without booking it. Unlike reserveStudent, it does not stop a concurrent enrollment on
+     * this node from taking the slot before the caller books it.
+     */
+    public void checkStudent(Long studentId, Long activityId) {
+        ActivitySlot clash = studentClash(studentId, activityId);
+        if (clash != null) {
+            conflicts.get(ConflictType.STUDENT).increment();
+            throw new ScheduleConflictException("Activity overlaps with activity " + clash.id() + " in the student's schedule");
+        }
+    }
+
+    /**
+     * Whether the activity overlaps one already in the student's schedule.
+     */
+    public boolean overlapsStudentSchedule(Long studentId, Long activityId) {
+        return studentClash(studentId, activityId) != null;
+    }
+
+    private ActivitySlot studentClash(Long studentId, Long activityId) {
+        ActivitySlot slot = slot(activityId);
+        IntervalTree<ActivitySlot> tree = userTrees.get(studentId);
+        if (slot.cancelled() || tree == null) {
+            return null;
+        }
+        synchronized (tree) {
+            return tree.contains(activityId) ? null : firstOverlap(tree, slot);
+        }
+    }
+
+    /**
+     * Fails if a new or edited activity would put its monitor, or its room, in two places at once.
+     * Only this node's index is checked: an activity saved on another node within the last tail
+     * poll can still clash, which validate() reports afterwards (see the class comment).
+     */
+    public void checkActivity(ActivitySlot slot) {
+        if (slot.cancelled()) {
+            return;
+        }
+        if (slot.monitorId() != null) {
+            ActivitySlot clash = firstOverlap(userTrees.get(slot.monitorId()), slot);
+            if (clash != null) {
+                conflicts.get(ConflictType.MONITOR).increment();
+                throw new ScheduleConflictException("Monitor is already assigned to activity " + clash.id() + " at that time");
+            }
+        }
+        String room = roomKey(slot.room());
+        if (room != null) {
+            ActivitySlot clash = firstOverlap(roomTrees.get(room), slot);
+            if (clash != null) {
+                conflicts.get(ConflictType.ROOM).increment();
+                throw new ScheduleConflictException("Room is already booked by activity " + clash.id() + " at that time");
+            }
+        }
+    }
+
+    /**
+     * Records an enrollment made elsewhere (another node, a waitlist promotion). Idempotent.
+     */
+    public void addStudent(Long studentId, Long activityId) {
+        afterCompletion(committed -> {
+            if (committed) {
+                addStudentNow(studentId, activityId);
+            }
+        });
+    }
+
+    public void removeStudent(Long studentId, Long activityId) {
+        afterCompletion(committed -> {
+            if (committed) {
+                removeStudentNow(studentId, activityId);
+            }
+        });
+    }
+
+    /**
+     * Moves an activity's students, monitor and room to its new slot once the transaction commits.
+     */
+    public void activityChanged(ActivitySlot slot) {
+        afterCompletion(committed -> {
+            if (committed) {
+                activityChangedNow(slot);
+            }
+        });
+    }
+
+    /**
+     * Checks a whole timetable at once, optionally with proposed slot changes applied on top of
+     * the current one. Students are checked in parallel; each one's slots are sorted and swept
+     * for overlaps, as are each monitor's and each room's.
+     */
+    public List<ScheduleConflictDTO> validate(Collection<ProposedSlotDTO> proposed) {
+        Map<Long, ActivitySlot> effective = new HashMap<>(slots);
+        for (ProposedSlotDTO change : proposed) {
+            if (!change.getEndTime().isAfter(change.getStartTime()) || change.getEndDate().isBefore(change.getStartDate())) {
+                throw new ValidationException("Proposed slot for activity " + change.getActivityId() + " ends before it starts");
+            }
+            ActivitySlot current = slot(change.getActivityId());
+            effective.put(current.id(), new ActivitySlot(current.id(), change.getDayOfWeek(), change.getStartTime(),
+                    change.getEndTime(), change.getStartDate(), change.getEndDate(), change.getRoom(), change.getMonitorId(),
+                    current.status()));
+        }
+
+        Map<Long, List<Long>> activitiesByStudent = new HashMap<>();
+        studentsByActivity.forEach((activityId, students) ->
+                students.forEach(studentId -> activitiesByStudent.computeIfAbsent(studentId, id -> new ArrayList<>()).add(activityId)));
+        Map<Long, List<Long>> activitiesByMonitor = new HashMap<>();
+        Map<String, List<Long>> activitiesByRoom = new HashMap<>();
+        effective.values().stream().filter(slot -> !slot.cancelled()).forEach(slot -> {
+            if (slot.monitorId() != null) {
+                activitiesByMonitor.computeIfAbsent(slot.monitorId(), id -> new ArrayList<>()).add(slot.id());
+            }
+            String room = roomKey(slot.room());
+            if (room != null) {
+                activitiesByRoom.computeIfAbsent(room, key -> new ArrayList<>()).add(slot.id());
+            }
+        });
+
+        List<ScheduleConflictDTO> found = activitiesByStudent.entrySet().parallelStream()
+                .flatMap(e -> sweep(ConflictType.STUDENT, e.getKey(), null, e.getValue(), effective).stream())
+                .collect(Collectors.toCollection(ArrayList::new));
+        activitiesByMonitor.forEach((monitorId, ids) -> found.addAll(sweep(ConflictType.MONITOR, monitorId, null, ids, effective)));
+        activitiesByRoom.forEach((room, ids) -> found.addAll(sweep(ConflictType.ROOM, null, room, ids, effective)));
+        return found;
+    }
+
+    private List<ScheduleConflictDTO> sweep(ConflictType type, Long userId, String room, List<Long> activityIds,
+            Map<Long, ActivitySlot> effective) {
+        List<ActivitySlot> held = activityIds.stream()
+                .map(effective::get)
+                .filter(slot -> slot != null && !slot.cancelled())
+                .sorted(Comparator.comparingInt(ActivitySlot::weekStart))
+                .collect(Collectors.toList());
+        List<ScheduleConflictDTO> found = new ArrayList<>();
+        for (int i = 0; i < held.size(); i++) {
+            ActivitySlot slot = held.get(i);
+            for (int j = i + 1; j < held.size() && held.get(j).weekStart() < slot.weekEnd(); j++) {
+                if (slot.sameTerm(held.get(j))) {
+                    found.add(ScheduleConflictDTO.builder()
+                            .type(type)
+                            .userId(userId)
+                            .room(room)
+                            .activityId(slot.id())
+                            .conflictingActivityId(held.get(j).id())
+                            .build());
+                }
+            }
+        }
+        return found;
+    }
+
+    private ActivitySlot firstOverlap(IntervalTree<ActivitySlot> tree, ActivitySlot slot) {
+        if (tree == null) {
+            return null;
+        }
+        List<ActivitySlot> hits = new ArrayList<>(1);
+        synchronized (tree) {
+            tree.forEachOverlap(slot.weekStart(), slot.weekEnd(), hit -> {
+                if (!hit.id().equals(slot.id()) && hit.sameTerm(slot)) {
+                    hits.add(hit);
+                }
+            });
+        }
+        return hits.isEmpty() ? null : hits.get(0);
+    }
+
+    private void addStudentNow(Long studentId, Long activityId) {
+        students(activityId).add(studentId);
+        ActivitySlot slot = slots.get(activityId);
+        if (slot != null && !slot.cancelled()) {
+            IntervalTree<ActivitySlot> tree = userTree(studentId);
+            synchronized (tree) {
+                tree.put(slot.weekStart(), slot.weekEnd(), activityId, slot);
+            }
+        }
+    }
+
+    private void removeStudentNow(Long studentId, Long activityId) {
+        Set<Long> students = studentsByActivity.get(activityId);
+        if (students != null) {
+            students.remove(studentId);
+        }
+        IntervalTree<ActivitySlot> tree = userTrees.get(studentId);
+        if (tree != null) {
+            synchronized (tree) {
+                tree.remove(activityId);
+            }
+        }
+    }
+
+    private void activityChangedNow(ActivitySlot slot) {
+        ActivitySlot previous = slots.put(slot.id(), slot);
+        if (previous != null && previous.monitorId() != null) {
+            remove(userTrees.get(previous.monitorId()), slot.id());
+        }
+        if (previous != null && roomKey(previous.room()) != null) {
+            remove(roomTrees.get(roomKey(previous.room())), slot.id());
+        }
+        // Cancelled activities keep their students so they come back if it is reopened
+        for (Long studentId : students(slot.id())) {
+            if (slot.cancelled()) {
+                remove(userTrees.get(studentId), slot.id());
+            } else {
+                put(userTree(studentId), slot);
+            }
+        }
+        if (slot.cancelled()) {
+            return;
+        }
+        if (slot.monitorId() != null) {
+            put(userTree(slot.monitorId()), slot);
+        }
+        String room = roomKey(slot.room());
+        if (room != null) {
+            put(roomTrees.computeIfAbsent(room, key -> new IntervalTree<>()), slot);
+        }
+    }
+
+    private void put(IntervalTree<ActivitySlot> tree, ActivitySlot slot) {
+        synchronized (tree) {
+            tree.put(slot.weekStart(), slot.weekEnd(), slot.id(), slot);
+        }
+    }
+
+    private void remove(IntervalTree<ActivitySlot> tree, Long activityId) {
+        if (tree != null) {
+            synchronized (tree) {
+                tree.remove(activityId);
+            }
+        }
+    }
+
+    private ActivitySlot slot(Long activityId) {
+        ActivitySlot slot = slots.get(activityId);
+        if (slot == null) {
+            // Activities created on another node may not have reached this one yet
+            slot = activityRepository.findSlotById(activityId)
+                    .orElseThrow(() -> new ActivityNotFoundException("Activity not found"));
+            activityChangedNow(slot);
+        }
+        return slot;
+    }
+
+    private Set<Long> students(Long activityId) {
+        return studentsByActivity.computeIfAbsent(activityId, id -> ConcurrentHashMap.newKeySet());
+    }
+
+    private IntervalTree<ActivitySlot> userTree(Long userId) {
+        return userTrees.computeIfAbsent(userId, id -> new IntervalTree<>());
+    }
+
+    private String roomKey(String room) {
+        return room == null || room.isBlank() ? null : room.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
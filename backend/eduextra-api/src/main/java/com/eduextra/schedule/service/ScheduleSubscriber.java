@@ -0,0 +1,71 @@
+package com.eduextra.schedule.service;
+
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.eduextra.activity.event.ActivityChanged;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.allocation.event.SeatsAllocated;
+import com.eduextra.enrollment.event.EnrollmentCreated;
+import com.eduextra.enrollment.event.EnrollmentWithdrawn;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.outbox.service.OutboxBroadcastSubscriber;
+import com.eduextra.waitlist.event.WaitlistPromoted;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Brings enrollments and assignments made on other nodes into this node's schedule index.
+ * Runs on every node through OutboxTail; changes made on this node are already applied, so
+ * every update here is idempotent. Delivery lags the commit by up to a poll interval; see
+ * ScheduleIndex for what that allows.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScheduleSubscriber implements OutboxBroadcastSubscriber {
+
+    private static final Set<String> EVENT_TYPES = Set.of(
+            EnrollmentCreated.class.getSimpleName(),
+            EnrollmentWithdrawn.class.getSimpleName(),
+            WaitlistPromoted.class.getSimpleName(),
+            SeatsAllocated.class.getSimpleName(),
+            ActivityChanged.class.getSimpleName());
+
+    private final OutboxService outboxService;
+    private final ActivityRepository activityRepository;
+    private final ScheduleIndex scheduleIndex;
+
+    @Override
+    public boolean supports(String eventType) {
+        return EVENT_TYPES.contains(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        String type = event.getEventType();
+        if (EnrollmentCreated.class.getSimpleName().equals(type)) {
+            EnrollmentCreated created = outboxService.readPayload(event, EnrollmentCreated.class);
+            scheduleIndex.addStudent(created.studentId(), created.activityId());
+        } else if (EnrollmentWithdrawn.class.getSimpleName().equals(type)) {
+            EnrollmentWithdrawn withdrawn = outboxService.readPayload(event, EnrollmentWithdrawn.class);
+            scheduleIndex.removeStudent(withdrawn.studentId(), withdrawn.activityId());
+        } else if (WaitlistPromoted.class.getSimpleName().equals(type)) {
+            WaitlistPromoted promoted = outboxService.readPayload(event, WaitlistPromoted.class);
+            promoted.studentIds().forEach(studentId -> scheduleIndex.addStudent(studentId, promoted.activityId()));
+        } else if (SeatsAllocated.class.getSimpleName().equals(type)) {
+            SeatsAllocated allocated = outboxService.readPayload(event, SeatsAllocated.class);
+            allocated.studentIds().forEach(studentId -> scheduleIndex.addStudent(studentId, allocated.activityId()));
+        } else {
+            // The event only carries the status; the slot itself is read back
+            Long activityId = outboxService.readPayload(event, ActivityChanged.class).activityId();
+            activityRepository.findSlotById(activityId).ifPresent(scheduleIndex::activityChanged);
+        }
+    }
+
+    @Override
+    public void reload() {
+        scheduleIndex.rebuild();
+    }
+}
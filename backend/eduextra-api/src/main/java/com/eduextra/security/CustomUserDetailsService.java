@@ -1,18 +1,14 @@
 package com.eduextra.security;
 
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import com.eduextra.user.model.User;
 import com.eduextra.user.repository.UserRepository;
 
 import lombok.RequiredArgsConstructor;
 
-import java.util.Collections;
-
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
@@ -21,16 +17,8 @@ public class CustomUserDetailsService implements UserDetailsService {
     
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        // Se devuelve la propia entidad para que los controladores la lean del contexto de seguridad
+        return userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Username not found" + email));
-        
-        // Crear autoridad basada en el rol (puede expandirse para múltiples roles si es necesario)
-        SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + user.getRole().name());
-        
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singleton(authority)
-        );
     }
 }
@@ -10,6 +10,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -21,27 +22,39 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
+    private static final String PUBLIC_PATH_PREFIX = "/public/";
+    private static final String QUEUE_TICKET_PATH_PREFIX = "/waiting-room/tickets/";
+    private static final String NOTIFICATION_STREAM_PATH = "/notifications/stream";
+    private static final String ACCESS_TOKEN_PARAMETER = "access_token";
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+    
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
     
+    // Las rutas públicas se sirven igual con o sin token, así que no se valida.
+    // Tampoco en el sondeo de la sala de espera: el ticket firmado basta y así no se lee el usuario
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = URL_PATH_HELPER.getPathWithinApplication(request);
+        return path.startsWith(PUBLIC_PATH_PREFIX)
+                || ("GET".equals(request.getMethod()) && path.startsWith(QUEUE_TICKET_PATH_PREFIX));
+    }
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
-        final String authHeader = request.getHeader("Authorization");
-        final String jwt;
+        final String jwt = resolveToken(request);
         final String userEmail;
         
-        // Si no hay encabezado de autorización o no comienza con "Bearer ", continuar la cadena de filtros
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        // Si no hay token, continuar la cadena de filtros
+        if (jwt == null) {
             filterChain.doFilter(request, response);
             return;
         }
         
-        // Extraer el token JWT (eliminar "Bearer " del encabezado)
-        jwt = authHeader.substring(7);
         userEmail = jwtService.extractUsername(jwt);
         
         // Si el email es no nulo y el contexto de seguridad no tiene autenticación
@@ -68,4 +81,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Continuar con la cadena de filtros
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Token JWT del encabezado "Authorization: Bearer ...". EventSource no puede enviar
+     * encabezados, así que el stream de notificaciones también lo acepta como access_token.
+     */
+    public static String resolveToken(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        if ("GET".equals(request.getMethod())
+                && NOTIFICATION_STREAM_PATH.equals(URL_PATH_HELPER.getPathWithinApplication(request))) {
+            String token = request.getParameter(ACCESS_TOKEN_PARAMETER);
+            return token != null && !token.isBlank() ? token : null;
+        }
+        return null;
+    }
 }
@@ -90,7 +90,7 @@ public class JwtService {
         return extractExpiration(token).before(new Date());
     }
     
-    private Date extractExpiration(String token) {
+    public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
     
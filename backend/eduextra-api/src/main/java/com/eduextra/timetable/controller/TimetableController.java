@@ -0,0 +1,107 @@
+package com.eduextra.timetable.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.eduextra.exception.ErrorResponse;
+import com.eduextra.timetable.dto.TimetableJobRequestDTO;
+import com.eduextra.timetable.dto.TimetableJobResponseDTO;
+import com.eduextra.timetable.service.TimetableService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for timetable solver jobs. Jobs run in the background; clients poll them
+ * for progress and apply the result once they are happy with it.
+ *
+ * Security: All endpoints require JWT Bearer authentication and ADMIN or COORDINATOR role.
+ */
+@RestController
+@RequestMapping("/timetable/jobs")
+@Tag(name = "Timetabling", description = "Automatic timetable and monitor assignment")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class TimetableController {
+
+    private final TimetableService timetableService;
+
+    @Operation(
+        summary = "Start a timetable job",
+        description = "Assigns the activities to time slots, rooms and monitors without double bookings, too small rooms, unavailable monitors or student overlaps, while balancing monitor load and avoiding gaps. FULL plans from scratch; INCREMENTAL starts from the current timetable and moves as little as possible. The job runs in the background until its time limit.",
+        tags = {"Timetabling"},
+        responses = {
+            @ApiResponse(responseCode = "202", description = "Job queued"),
+            @ApiResponse(responseCode = "400", description = "Invalid slots, rooms or monitors",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Activity not found",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Too many jobs queued",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @PostMapping
+    public ResponseEntity<TimetableJobResponseDTO> submit(@Valid @RequestBody TimetableJobRequestDTO request) {
+        return ResponseEntity.accepted().body(timetableService.submit(request));
+    }
+
+    @Operation(
+        summary = "Get a timetable job",
+        description = "Returns the job's progress and the best timetable found so far.",
+        tags = {"Timetabling"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Job retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Job not found",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @GetMapping("/{id}")
+    public ResponseEntity<TimetableJobResponseDTO> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(timetableService.getJob(id));
+    }
+
+    @Operation(
+        summary = "Stop a timetable job",
+        description = "Stops the job early. The best timetable found so far is kept and can still be applied.",
+        tags = {"Timetabling"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Job stopping"),
+            @ApiResponse(responseCode = "404", description = "Job not found",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<TimetableJobResponseDTO> cancel(@PathVariable String id) {
+        return ResponseEntity.ok(timetableService.cancel(id));
+    }
+
+    @Operation(
+        summary = "Apply a timetable",
+        description = "Writes the job's best timetable to the activities it changes. Fails if the job has not finished, its timetable breaks hard constraints, or the activities or the live timetable changed since it was planned.",
+        tags = {"Timetabling"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Timetable applied"),
+            @ApiResponse(responseCode = "404", description = "Job not found",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "Job not finished, not feasible, already applied or no longer fits",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "412", description = "An activity was edited after the job was planned",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @PostMapping("/{id}/apply")
+    public ResponseEntity<TimetableJobResponseDTO> apply(@PathVariable String id) {
+        return ResponseEntity.ok(timetableService.apply(id));
+    }
+}
@@ -0,0 +1,21 @@
+package com.eduextra.timetable.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+@Schema(description = "Weekly windows in which a monitor can be assigned")
+public class MonitorAvailabilityDTO {
+
+    @NotNull(message = "Monitor id is required")
+    @Schema(description = "User id of the monitor", example = "12")
+    private Long monitorId;
+
+    @NotEmpty(message = "At least one available window is required")
+    private List<@Valid TimeSlotDTO> available;
+}
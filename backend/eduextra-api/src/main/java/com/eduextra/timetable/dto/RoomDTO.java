@@ -0,0 +1,25 @@
+package com.eduextra.timetable.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Room the solver can use")
+public class RoomDTO {
+
+    @NotBlank(message = "Room name is required")
+    @Schema(description = "Room name", example = "Aula 3")
+    private String name;
+
+    @NotNull(message = "Room capacity is required")
+    @Min(value = 1, message = "Room capacity must be at least 1")
+    @Schema(description = "Students that fit in the room", example = "25")
+    private Integer capacity;
+}
@@ -0,0 +1,29 @@
+package com.eduextra.timetable.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Weekly time window")
+public class TimeSlotDTO {
+
+    @NotNull(message = "Day of week is required")
+    @Schema(description = "Day of the week", example = "MONDAY")
+    private DayOfWeek dayOfWeek;
+
+    @NotNull(message = "Start time is required")
+    @Schema(description = "Start time", example = "17:00")
+    private LocalTime startTime;
+
+    @NotNull(message = "End time is required")
+    @Schema(description = "End time", example = "18:30")
+    private LocalTime endTime;
+}
@@ -0,0 +1,39 @@
+package com.eduextra.timetable.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Where and when the solver placed an activity")
+public class TimetableAssignmentDTO {
+
+    @Schema(description = "Activity id", example = "3")
+    private Long activityId;
+
+    @Schema(description = "Day of the week", example = "TUESDAY")
+    private DayOfWeek dayOfWeek;
+
+    @Schema(description = "Start time", example = "17:00")
+    private LocalTime startTime;
+
+    @Schema(description = "End time", example = "18:00")
+    private LocalTime endTime;
+
+    @Schema(description = "Room", example = "Aula 3")
+    private String room;
+
+    @Schema(description = "Monitor in charge", example = "12")
+    private Long monitorId;
+
+    @Schema(description = "Whether this differs from the activity's current slot, room or monitor", example = "true")
+    private boolean changed;
+}
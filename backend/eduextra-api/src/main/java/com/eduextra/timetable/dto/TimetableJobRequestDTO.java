@@ -0,0 +1,50 @@
+package com.eduextra.timetable.dto;
+
+import java.util.List;
+
+import com.eduextra.timetable.model.TimetablePlanningMode;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+@Schema(description = "Activities to place and the rooms, time slots and monitors available to them")
+public class TimetableJobRequestDTO {
+
+    @NotEmpty(message = "At least one activity is required")
+    @Size(max = 2000, message = "A job can plan at most 2000 activities")
+    private List<Long> activityIds;
+
+    // Must not overlap each other; an activity starts at the beginning of its slot
+    @NotEmpty(message = "At least one time slot is required")
+    @Size(max = 200, message = "A job can use at most 200 time slots")
+    private List<@Valid TimeSlotDTO> timeSlots;
+
+    @NotEmpty(message = "At least one room is required")
+    @Size(max = 500, message = "A job can use at most 500 rooms")
+    private List<@Valid RoomDTO> rooms;
+
+    // Every active monitor when not given
+    @Schema(description = "Monitors that can be assigned; every active monitor when empty")
+    private List<Long> monitorIds;
+
+    // Monitors not listed are available at any time
+    private List<@Valid MonitorAvailabilityDTO> monitorAvailability;
+
+    @Schema(description = "FULL plans from scratch; INCREMENTAL keeps the current timetable and only moves what is needed",
+            example = "FULL")
+    private TimetablePlanningMode mode;
+
+    // INCREMENTAL only: activities that were added or changed since the timetable was published
+    private List<Long> changedActivityIds;
+
+    @Min(value = 1, message = "Time limit must be between 1 and 600 seconds")
+    @Max(value = 600, message = "Time limit must be between 1 and 600 seconds")
+    @Schema(description = "Longest the solver may run", example = "30")
+    private Integer timeLimitSeconds;
+}
@@ -0,0 +1,67 @@
+package com.eduextra.timetable.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.eduextra.timetable.model.TimetableJobStatus;
+import com.eduextra.timetable.model.TimetablePlanningMode;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progress and best timetable found so far by a solver job")
+public class TimetableJobResponseDTO {
+
+    @Schema(description = "Job id", example = "5b0f8a4e-3c1d-4f59-9a55-0e4a2f1b7c11")
+    private String id;
+
+    private TimetableJobStatus status;
+
+    private TimetablePlanningMode mode;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Time limit of the run in milliseconds", example = "30000")
+    private long timeLimitMs;
+
+    @Schema(description = "Time spent solving in milliseconds", example = "12500")
+    private long elapsedMs;
+
+    @Schema(description = "Share of the time limit used, 100 once finished", example = "41")
+    private int progressPercent;
+
+    @Schema(description = "Moves evaluated by all solver threads", example = "18250000")
+    private long iterations;
+
+    @Schema(description = "Times a better timetable was found", example = "312")
+    private int improvements;
+
+    @Schema(description = "Broken hard constraints (double bookings, room too small, monitor unavailable, student overlaps)", example = "0")
+    private long hardViolations;
+
+    @Schema(description = "Soft penalty (uneven monitor load, gaps in monitor days, changes to the current timetable)", example = "148")
+    private long softPenalty;
+
+    @Schema(description = "Whether the best timetable breaks no hard constraint", example = "true")
+    private boolean feasible;
+
+    @Schema(description = "Whether the timetable has been written to the activities", example = "false")
+    private boolean applied;
+
+    @Schema(description = "Why the job failed")
+    private String error;
+
+    @Schema(description = "Best timetable found so far")
+    private List<TimetableAssignmentDTO> assignments;
+}
@@ -0,0 +1,9 @@
+package com.eduextra.timetable.model;
+
+public enum TimetableJobStatus {
+    QUEUED,
+    SOLVING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.eduextra.timetable.model;
+
+public enum TimetablePlanningMode {
+    // Plan every activity from scratch
+    FULL,
+    // Start from the current timetable and only move what is needed
+    INCREMENTAL
+}
@@ -0,0 +1,134 @@
+package com.eduextra.timetable.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.eduextra.timetable.model.TimetableJobStatus;
+import com.eduextra.timetable.model.TimetablePlanningMode;
+
+/**
+ * A solver run and its progress. Solver threads report moves and offer better timetables;
+ * request threads read the latest state at any time.
+ */
+final class TimetableJob {
+
+    /**
+     * Best timetable found so far and its score.
+     */
+    record Best(long score, TimetableState.Assignment assignment) {
+    }
+
+    final String id;
+    final TimetablePlanningMode mode;
+    final TimetableProblem problem;
+    final long timeLimitMs;
+    final LocalDateTime createdAt = LocalDateTime.now();
+
+    final LongAdder iterations = new LongAdder();
+
+    private volatile TimetableJobStatus status = TimetableJobStatus.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+    private volatile boolean applied;
+
+    private volatile Best best;
+    private volatile long lastImprovementNanos;
+    private volatile int improvements;
+
+    TimetableJob(String id, TimetablePlanningMode mode, TimetableProblem problem, long timeLimitMs) {
+        this.id = id;
+        this.mode = mode;
+        this.problem = problem;
+        this.timeLimitMs = timeLimitMs;
+    }
+
+    void started() {
+        startedNanos = System.nanoTime();
+        lastImprovementNanos = startedNanos;
+        startedAt = LocalDateTime.now();
+        status = TimetableJobStatus.SOLVING;
+    }
+
+    void finished(TimetableJobStatus outcome, String error) {
+        this.error = error;
+        finishedNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        status = outcome;
+    }
+
+    /**
+     * Keeps the timetable if it beats the best one. Returns whether it did.
+     */
+    synchronized boolean offer(long score, TimetableState.Assignment assignment) {
+        Best current = best;
+        if (current != null && current.score() <= score) {
+            return false;
+        }
+        best = new Best(score, assignment);
+        improvements++;
+        lastImprovementNanos = System.nanoTime();
+        return true;
+    }
+
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    boolean cancelRequested() {
+        return cancelRequested;
+    }
+
+    boolean finished() {
+        TimetableJobStatus current = status;
+        return current == TimetableJobStatus.COMPLETED || current == TimetableJobStatus.CANCELLED
+                || current == TimetableJobStatus.FAILED;
+    }
+
+    long elapsedMs() {
+        if (startedNanos == 0) {
+            return 0;
+        }
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        return (end - startedNanos) / 1_000_000;
+    }
+
+    long sinceLastImprovementMs() {
+        return (System.nanoTime() - lastImprovementNanos) / 1_000_000;
+    }
+
+    TimetableJobStatus status() {
+        return status;
+    }
+
+    LocalDateTime startedAt() {
+        return startedAt;
+    }
+
+    LocalDateTime finishedAt() {
+        return finishedAt;
+    }
+
+    String error() {
+        return error;
+    }
+
+    Best best() {
+        return best;
+    }
+
+    int improvements() {
+        return improvements;
+    }
+
+    boolean applied() {
+        return applied;
+    }
+
+    void markApplied() {
+        applied = true;
+    }
+}
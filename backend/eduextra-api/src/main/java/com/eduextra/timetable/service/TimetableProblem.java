@@ -0,0 +1,292 @@
+package com.eduextra.timetable.service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import com.eduextra.activity.repository.ActivitySlot;
+import com.eduextra.enrollment.repository.ActiveEnrollment;
+import com.eduextra.timetable.dto.RoomDTO;
+import com.eduextra.timetable.dto.TimeSlotDTO;
+
+/**
+ * Immutable input of a solver run, with everything the score needs precomputed as dense
+ * arrays: activities, time slots, rooms and monitors are referred to by index.
+ *
+ * Activities that are not being planned are fixed: they block their room and monitor in the
+ * slots they overlap, and their students cannot be in a planned activity at the same time.
+ * Planned activities are assumed to share a term, so two of them clash whenever they get the
+ * same slot; fixed ones only count if their term overlaps a planned activity's.
+ */
+final class TimetableProblem {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    // Activities, in request order
+    final List<ActivitySlot> activities;
+    final int[] duration;
+    final int[] capacity;
+
+    // Time slots, in request order
+    final DayOfWeek[] slotDay;
+    final LocalTime[] slotTime;
+    final int[] slotStart;
+    final int[] slotEnd;
+    // Per day of the week (0 = Monday), its slots sorted by start
+    final int[][] slotsByDay;
+    final int[] dayOf;
+
+    final String[] roomNames;
+    final int[] roomCapacity;
+    // Per activity, the rooms it fits in (every room when none does)
+    final int[][] fittingRooms;
+
+    final long[] monitorIds;
+
+    // [room][slot] and [monitor][slot]: taken by a fixed activity
+    final boolean[][] roomBlocked;
+    final boolean[][] monitorBlocked;
+    // [monitor][slot]: outside the monitor's availability
+    final boolean[][] monitorUnavailable;
+    // [activity][slot]: students of the activity busy in a fixed activity at that slot (null row when none)
+    final int[][] studentClash;
+    // Per activity, the planned activities sharing students with it and how many
+    final int[][] neighbours;
+    final int[][] shared;
+
+    // Current placement of each activity, -1 where it does not match any slot, room or monitor
+    final int[] initialSlot;
+    final int[] initialRoom;
+    final int[] initialMonitor;
+
+    final boolean incremental;
+    final boolean[] changed;
+
+    private TimetableProblem(List<ActivitySlot> activities, Map<Long, Integer> capacities, List<TimeSlotDTO> timeSlots,
+            List<RoomDTO> rooms, List<Long> monitorIds, boolean incremental) {
+        this.activities = List.copyOf(activities);
+        this.incremental = incremental;
+        int n = activities.size();
+        duration = new int[n];
+        capacity = new int[n];
+        for (int a = 0; a < n; a++) {
+            ActivitySlot slot = activities.get(a);
+            duration[a] = (int) Duration.between(slot.startTime(), slot.endTime()).toMinutes();
+            capacity[a] = capacities.getOrDefault(slot.id(), 0);
+        }
+
+        int slots = timeSlots.size();
+        slotDay = new DayOfWeek[slots];
+        slotTime = new LocalTime[slots];
+        slotStart = new int[slots];
+        slotEnd = new int[slots];
+        dayOf = new int[slots];
+        List<List<Integer>> byDay = new ArrayList<>();
+        for (int d = 0; d < 7; d++) {
+            byDay.add(new ArrayList<>());
+        }
+        for (int s = 0; s < slots; s++) {
+            TimeSlotDTO slot = timeSlots.get(s);
+            slotDay[s] = slot.getDayOfWeek();
+            slotTime[s] = slot.getStartTime();
+            dayOf[s] = slot.getDayOfWeek().getValue() - 1;
+            slotStart[s] = weekMinute(slot.getDayOfWeek(), slot.getStartTime());
+            slotEnd[s] = weekMinute(slot.getDayOfWeek(), slot.getEndTime());
+            byDay.get(dayOf[s]).add(s);
+        }
+        slotsByDay = new int[7][];
+        for (int d = 0; d < 7; d++) {
+            slotsByDay[d] = byDay.get(d).stream().sorted((x, y) -> Integer.compare(slotStart[x], slotStart[y]))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+
+        roomNames = rooms.stream().map(room -> room.getName().trim()).toArray(String[]::new);
+        roomCapacity = rooms.stream().mapToInt(RoomDTO::getCapacity).toArray();
+        fittingRooms = new int[n][];
+        for (int a = 0; a < n; a++) {
+            int needed = capacity[a];
+            int[] fitting = IntStream.range(0, roomNames.length).filter(r -> roomCapacity[r] >= needed).toArray();
+            fittingRooms[a] = fitting.length > 0 ? fitting : IntStream.range(0, roomNames.length).toArray();
+        }
+
+        this.monitorIds = monitorIds.stream().mapToLong(Long::longValue).toArray();
+        roomBlocked = new boolean[roomNames.length][slots];
+        monitorBlocked = new boolean[this.monitorIds.length][slots];
+        monitorUnavailable = new boolean[this.monitorIds.length][slots];
+        studentClash = new int[n][];
+        neighbours = new int[n][];
+        shared = new int[n][];
+        initialSlot = new int[n];
+        initialRoom = new int[n];
+        initialMonitor = new int[n];
+        changed = new boolean[n];
+    }
+
+    /**
+     * @param activities    activities to place, with their current slot
+     * @param capacities    seats of each activity, by id
+     * @param availability  windows of the monitors that are not always available, by monitor id
+     * @param others        every other non-cancelled activity
+     * @param enrollments   active enrollments of every student enrolled in a planned activity
+     * @param changedIds    INCREMENTAL only: activities that must be placed again
+     */
+    static TimetableProblem of(List<ActivitySlot> activities, Map<Long, Integer> capacities, List<TimeSlotDTO> timeSlots,
+            List<RoomDTO> rooms, List<Long> monitorIds, Map<Long, List<TimeSlotDTO>> availability,
+            List<ActivitySlot> others, List<ActiveEnrollment> enrollments, boolean incremental, Set<Long> changedIds) {
+        TimetableProblem problem = new TimetableProblem(activities, capacities, timeSlots, rooms, monitorIds, incremental);
+        problem.index(availability, others, enrollments, changedIds);
+        return problem;
+    }
+
+    int activityCount() {
+        return activities.size();
+    }
+
+    int slotCount() {
+        return slotStart.length;
+    }
+
+    int roomCount() {
+        return roomNames.length;
+    }
+
+    int monitorCount() {
+        return monitorIds.length;
+    }
+
+    private void index(Map<Long, List<TimeSlotDTO>> availability, List<ActivitySlot> others,
+            List<ActiveEnrollment> enrollments, Set<Long> changedIds) {
+        Map<Long, Integer> activityIndex = new HashMap<>();
+        for (int a = 0; a < activities.size(); a++) {
+            activityIndex.put(activities.get(a).id(), a);
+        }
+        Map<String, Integer> roomIndex = new HashMap<>();
+        for (int r = 0; r < roomNames.length; r++) {
+            roomIndex.put(roomKey(roomNames[r]), r);
+        }
+        Map<Long, Integer> monitorIndex = new HashMap<>();
+        for (int m = 0; m < monitorIds.length; m++) {
+            monitorIndex.put(monitorIds[m], m);
+        }
+
+        for (int m = 0; m < monitorIds.length; m++) {
+            List<TimeSlotDTO> windows = availability.get(monitorIds[m]);
+            if (windows == null) {
+                continue;
+            }
+            for (int s = 0; s < slotCount(); s++) {
+                int start = slotStart[s];
+                int end = slotEnd[s];
+                monitorUnavailable[m][s] = windows.stream().noneMatch(window ->
+                        weekMinute(window.getDayOfWeek(), window.getStartTime()) <= start
+                                && end <= weekMinute(window.getDayOfWeek(), window.getEndTime()));
+            }
+        }
+
+        // Fixed activities only matter if they run in the same term as something being planned
+        Map<Long, ActivitySlot> fixed = new HashMap<>();
+        for (ActivitySlot other : others) {
+            if (!activityIndex.containsKey(other.id()) && !other.cancelled()
+                    && activities.stream().anyMatch(other::sameTerm)) {
+                fixed.put(other.id(), other);
+            }
+        }
+        for (ActivitySlot other : fixed.values()) {
+            Integer room = roomIndex.get(roomKey(other.room()));
+            Integer monitor = other.monitorId() != null ? monitorIndex.get(other.monitorId()) : null;
+            for (int s = 0; s < slotCount(); s++) {
+                if (overlaps(other, s)) {
+                    if (room != null) {
+                        roomBlocked[room][s] = true;
+                    }
+                    if (monitor != null) {
+                        monitorBlocked[monitor][s] = true;
+                    }
+                }
+            }
+        }
+
+        Map<Long, List<Long>> byStudent = new HashMap<>();
+        for (ActiveEnrollment enrollment : enrollments) {
+            byStudent.computeIfAbsent(enrollment.studentId(), id -> new ArrayList<>()).add(enrollment.activityId());
+        }
+        List<Map<Integer, Integer>> pairs = new ArrayList<>();
+        for (int a = 0; a < activities.size(); a++) {
+            pairs.add(new HashMap<>());
+        }
+        for (List<Long> studentActivities : byStudent.values()) {
+            List<Integer> planned = new ArrayList<>();
+            List<ActivitySlot> busy = new ArrayList<>();
+            for (Long activityId : studentActivities) {
+                Integer a = activityIndex.get(activityId);
+                if (a != null) {
+                    planned.add(a);
+                } else if (fixed.containsKey(activityId)) {
+                    busy.add(fixed.get(activityId));
+                }
+            }
+            for (int i = 0; i < planned.size(); i++) {
+                int a = planned.get(i);
+                for (int j = i + 1; j < planned.size(); j++) {
+                    int b = planned.get(j);
+                    pairs.get(a).merge(b, 1, Integer::sum);
+                    pairs.get(b).merge(a, 1, Integer::sum);
+                }
+                for (ActivitySlot other : busy) {
+                    if (!other.sameTerm(activities.get(a))) {
+                        continue;
+                    }
+                    for (int s = 0; s < slotCount(); s++) {
+                        if (overlaps(other, s)) {
+                            if (studentClash[a] == null) {
+                                studentClash[a] = new int[slotCount()];
+                            }
+                            studentClash[a][s]++;
+                        }
+                    }
+                }
+            }
+        }
+        for (int a = 0; a < activities.size(); a++) {
+            Map<Integer, Integer> row = pairs.get(a);
+            neighbours[a] = row.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            shared[a] = Arrays.stream(neighbours[a]).map(row::get).toArray();
+        }
+
+        for (int a = 0; a < activities.size(); a++) {
+            ActivitySlot current = activities.get(a);
+            initialSlot[a] = -1;
+            int start = weekMinute(current.dayOfWeek(), current.startTime());
+            int end = weekMinute(current.dayOfWeek(), current.endTime());
+            for (int s = 0; s < slotCount(); s++) {
+                if (slotStart[s] == start && end <= slotEnd[s]) {
+                    initialSlot[a] = s;
+                    break;
+                }
+            }
+            initialRoom[a] = roomIndex.getOrDefault(roomKey(current.room()), -1);
+            initialMonitor[a] = current.monitorId() != null ? monitorIndex.getOrDefault(current.monitorId(), -1) : -1;
+            changed[a] = changedIds.contains(current.id());
+        }
+    }
+
+    private boolean overlaps(ActivitySlot other, int s) {
+        return other.weekStart() < slotEnd[s] && slotStart[s] < other.weekEnd();
+    }
+
+    static int weekMinute(DayOfWeek day, LocalTime time) {
+        return (day.getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    static String roomKey(String room) {
+        return room == null || room.isBlank() ? null : room.trim().toLowerCase(Locale.ROOT);
+    }
+}
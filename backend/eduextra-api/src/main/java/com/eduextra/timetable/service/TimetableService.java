@@ -0,0 +1,443 @@
+package com.eduextra.timetable.service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.activity.event.ActivityChanged;
+import com.eduextra.activity.event.ActivityRescheduled;
+import com.eduextra.activity.model.Activity;
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.activity.repository.ActivitySeats;
+import com.eduextra.activity.repository.ActivitySlot;
+import com.eduextra.activity.service.ActivityService;
+import com.eduextra.enrollment.repository.EnrollmentRepository;
+import com.eduextra.exception.ActivityNotFoundException;
+import com.eduextra.exception.PreconditionFailedException;
+import com.eduextra.exception.ScheduleConflictException;
+import com.eduextra.exception.TimetableJobNotFoundException;
+import com.eduextra.exception.TooManyRequestsException;
+import com.eduextra.exception.ValidationException;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.schedule.dto.ProposedSlotDTO;
+import com.eduextra.schedule.dto.ScheduleConflictDTO;
+import com.eduextra.schedule.service.ScheduleIndex;
+import com.eduextra.timetable.dto.MonitorAvailabilityDTO;
+import com.eduextra.timetable.dto.TimeSlotDTO;
+import com.eduextra.timetable.dto.TimetableAssignmentDTO;
+import com.eduextra.timetable.dto.TimetableJobRequestDTO;
+import com.eduextra.timetable.dto.TimetableJobResponseDTO;
+import com.eduextra.timetable.model.TimetableJobStatus;
+import com.eduextra.timetable.model.TimetablePlanningMode;
+import com.eduextra.user.model.Role;
+import com.eduextra.user.model.User;
+import com.eduextra.user.repository.UserRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Asynchronous timetable solver jobs.
+ *
+ * A job snapshots the activities, their enrollments and the fixed part of the timetable when
+ * it is submitted, then solves on a bounded pool (see TimetableSolver) while coordinators
+ * poll its progress and best timetable so far. Nothing changes until the result is applied,
+ * which checks that the planned activities were not edited meanwhile and that the new slots
+ * still fit the live timetable, then writes them in one transaction.
+ *
+ * Jobs live in memory on the node that runs them and are dropped some time after they finish.
+ *
+ * Metrics: timetable.solve, timetable.jobs.running, timetable.jobs.queued.
+ */
+@Service
+public class TimetableService {
+
+    private static final Logger log = LoggerFactory.getLogger(TimetableService.class);
+
+    private final ActivityRepository activityRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final UserRepository userRepository;
+    private final ScheduleIndex scheduleIndex;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<String, TimetableJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor jobExecutor;
+    private final ExecutorService solverExecutor;
+    private final TimetableSolver solver;
+    private final Timer solveTimer;
+
+    @Value("${application.timetable.default-time-limit-seconds:30}")
+    private int defaultTimeLimitSeconds;
+
+    @Value("${application.timetable.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    public TimetableService(ActivityRepository activityRepository, EnrollmentRepository enrollmentRepository,
+            UserRepository userRepository, ScheduleIndex scheduleIndex, OutboxService outboxService,
+            TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+            @Value("${application.timetable.max-concurrent-jobs:2}") int maxConcurrentJobs,
+            @Value("${application.timetable.queue-capacity:10}") int queueCapacity,
+            @Value("${application.timetable.solver-threads:0}") int solverThreads,
+            @Value("${application.timetable.unimproved-seconds-limit:5}") long unimprovedSecondsLimit) {
+        this.activityRepository = activityRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.userRepository = userRepository;
+        this.scheduleIndex = scheduleIndex;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+
+        // 0 uses up to four cores per job
+        int threads = solverThreads > 0 ? solverThreads : Math.min(4, Runtime.getRuntime().availableProcessors());
+        AtomicInteger jobThreadIndex = new AtomicInteger();
+        this.jobExecutor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "timetable-job-" + jobThreadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        AtomicInteger solverThreadIndex = new AtomicInteger();
+        this.solverExecutor = Executors.newFixedThreadPool(maxConcurrentJobs * threads, runnable -> {
+            Thread thread = new Thread(runnable, "timetable-solver-" + solverThreadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.solver = new TimetableSolver(solverExecutor, threads, unimprovedSecondsLimit * 1000);
+
+        this.solveTimer = Timer.builder("timetable.solve").description("Time spent solving one timetable job").register(meterRegistry);
+        Gauge.builder("timetable.jobs.running", jobExecutor, ThreadPoolExecutor::getActiveCount).description("Timetable jobs being solved").register(meterRegistry);
+        Gauge.builder("timetable.jobs.queued", jobExecutor, e -> e.getQueue().size()).description("Timetable jobs waiting for a solver").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        solverExecutor.shutdownNow();
+    }
+
+    /**
+     * Validates the request, snapshots the problem and queues the job. Returns right away.
+     */
+    public TimetableJobResponseDTO submit(TimetableJobRequestDTO request) {
+        TimetablePlanningMode mode = request.getMode() != null ? request.getMode() : TimetablePlanningMode.FULL;
+        TimetableProblem problem = buildProblem(request, mode);
+        int timeLimitSeconds = request.getTimeLimitSeconds() != null ? request.getTimeLimitSeconds() : defaultTimeLimitSeconds;
+        TimetableJob job = new TimetableJob(UUID.randomUUID().toString(), mode, problem, timeLimitSeconds * 1000L);
+        long seed = ThreadLocalRandom.current().nextLong();
+
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job, seed));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new TooManyRequestsException("Too many timetable jobs are queued, try again later");
+        }
+        return mapToResponseDTO(job);
+    }
+
+    public TimetableJobResponseDTO getJob(String id) {
+        return mapToResponseDTO(findJob(id));
+    }
+
+    /**
+     * Stops the job early; the best timetable found so far is kept and can still be applied.
+     */
+    public TimetableJobResponseDTO cancel(String id) {
+        TimetableJob job = findJob(id);
+        job.cancel();
+        return mapToResponseDTO(job);
+    }
+
+    /**
+     * Writes the best timetable of a finished job to its activities.
+     */
+    public TimetableJobResponseDTO apply(String id) {
+        TimetableJob job = findJob(id);
+        synchronized (job) {
+            if (!job.finished() || job.status() == TimetableJobStatus.FAILED) {
+                throw new ScheduleConflictException("Only finished jobs can be applied");
+            }
+            if (job.applied()) {
+                throw new ScheduleConflictException("Timetable has already been applied");
+            }
+            TimetableJob.Best best = job.best();
+            if (best == null || TimetableState.hardOf(best.score()) > 0) {
+                throw new ScheduleConflictException("Timetable breaks hard constraints and cannot be applied");
+            }
+            transactionTemplate.executeWithoutResult(status -> write(job, best));
+            job.markApplied();
+        }
+        log.info("Applied timetable job {}", id);
+        return mapToResponseDTO(job);
+    }
+
+    @Scheduled(fixedDelayString = "${application.timetable.purge-interval-ms:60000}")
+    public void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.finished() && job.finishedAt().isBefore(cutoff));
+    }
+
+    private void run(TimetableJob job, long seed) {
+        if (job.cancelRequested()) {
+            job.finished(TimetableJobStatus.CANCELLED, null);
+            return;
+        }
+        job.started();
+        Timer.Sample sample = Timer.start();
+        try {
+            solver.solve(job, seed);
+            job.finished(job.cancelRequested() ? TimetableJobStatus.CANCELLED : TimetableJobStatus.COMPLETED, null);
+            TimetableJob.Best best = job.best();
+            log.info("Timetable job {} finished in {} ms: {} hard, {} soft after {} moves", job.id, job.elapsedMs(),
+                    TimetableState.hardOf(best.score()), TimetableState.softOf(best.score()), job.iterations.sum());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finished(TimetableJobStatus.FAILED, "Solver was stopped");
+        } catch (RuntimeException e) {
+            log.warn("Timetable job {} failed", job.id, e);
+            job.finished(TimetableJobStatus.FAILED, e.getMessage());
+        } finally {
+            sample.stop(solveTimer);
+        }
+    }
+
+    private TimetableProblem buildProblem(TimetableJobRequestDTO request, TimetablePlanningMode mode) {
+        List<TimeSlotDTO> timeSlots = request.getTimeSlots();
+        List<TimeSlotDTO> sorted = new ArrayList<>(timeSlots);
+        sorted.sort(Comparator.comparingInt((TimeSlotDTO slot) -> TimetableProblem.weekMinute(slot.getDayOfWeek(), slot.getStartTime())));
+        for (int i = 0; i < sorted.size(); i++) {
+            TimeSlotDTO slot = sorted.get(i);
+            if (!slot.getEndTime().isAfter(slot.getStartTime())) {
+                throw new ValidationException("Time slots must end after they start");
+            }
+            if (i > 0 && sorted.get(i - 1).getDayOfWeek() == slot.getDayOfWeek()
+                    && sorted.get(i - 1).getEndTime().isAfter(slot.getStartTime())) {
+                throw new ValidationException("Time slots must not overlap");
+            }
+        }
+        Set<String> roomKeys = new HashSet<>();
+        request.getRooms().forEach(room -> {
+            if (!roomKeys.add(TimetableProblem.roomKey(room.getName()))) {
+                throw new ValidationException("Room " + room.getName().trim() + " is listed twice");
+            }
+        });
+
+        Set<Long> activityIds = new LinkedHashSet<>(request.getActivityIds());
+        Map<Long, ActivitySlot> slots = activityRepository.findSlotsByIds(activityIds).stream()
+                .collect(Collectors.toMap(ActivitySlot::id, Function.identity()));
+        if (slots.size() != activityIds.size()) {
+            throw new ActivityNotFoundException("Activity not found");
+        }
+        if (slots.values().stream().anyMatch(ActivitySlot::cancelled)) {
+            throw new ValidationException("Cancelled activities cannot be planned");
+        }
+        Map<Long, Integer> capacities = activityRepository.findSeatsByIds(activityIds).stream()
+                .collect(Collectors.toMap(ActivitySeats::id, ActivitySeats::capacity));
+
+        Set<Long> changedIds = new HashSet<>();
+        if (mode == TimetablePlanningMode.INCREMENTAL && request.getChangedActivityIds() != null) {
+            changedIds.addAll(request.getChangedActivityIds());
+            if (!activityIds.containsAll(changedIds)) {
+                throw new ValidationException("Changed activities must be part of the job");
+            }
+        }
+
+        List<Long> monitorIds = monitors(request.getMonitorIds());
+        Map<Long, List<TimeSlotDTO>> availability = new HashMap<>();
+        if (request.getMonitorAvailability() != null) {
+            for (MonitorAvailabilityDTO entry : request.getMonitorAvailability()) {
+                if (!monitorIds.contains(entry.getMonitorId())) {
+                    throw new ValidationException("Availability given for user " + entry.getMonitorId() + " who is not one of the job's monitors");
+                }
+                availability.computeIfAbsent(entry.getMonitorId(), monitorId -> new ArrayList<>()).addAll(entry.getAvailable());
+            }
+        }
+
+        List<ActivitySlot> planned = activityIds.stream().map(slots::get).collect(Collectors.toList());
+        return TimetableProblem.of(planned, capacities, timeSlots, request.getRooms(), monitorIds, availability,
+                activityRepository.findActiveSlots(), enrollmentRepository.findActiveOfStudentsEnrolledIn(activityIds),
+                mode == TimetablePlanningMode.INCREMENTAL, changedIds);
+    }
+
+    private List<Long> monitors(List<Long> requested) {
+        if (requested == null || requested.isEmpty()) {
+            List<Long> all = userRepository.findByRole(Role.MONITOR).stream()
+                    .filter(User::getIsActive)
+                    .map(User::getId)
+                    .sorted()
+                    .collect(Collectors.toList());
+            if (all.isEmpty()) {
+                throw new ValidationException("There are no active monitors to assign");
+            }
+            return all;
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(requested));
+        Map<Long, User> users = userRepository.findAllById(ids).stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        for (Long id : ids) {
+            User user = users.get(id);
+            if (user == null || user.getRole() != Role.MONITOR || !Boolean.TRUE.equals(user.getIsActive())) {
+                throw new ValidationException("User " + id + " is not an active monitor");
+            }
+        }
+        return ids;
+    }
+
+    private void write(TimetableJob job, TimetableJob.Best best) {
+        TimetableProblem problem = job.problem;
+        Map<Long, TimetableAssignmentDTO> changes = assignments(problem, best).stream()
+                .filter(TimetableAssignmentDTO::isChanged)
+                .collect(Collectors.toMap(TimetableAssignmentDTO::getActivityId, Function.identity()));
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<Long, ActivitySlot> planned = problem.activities.stream()
+                .collect(Collectors.toMap(ActivitySlot::id, Function.identity()));
+        List<Activity> activities = activityRepository.findAllById(changes.keySet());
+        List<ProposedSlotDTO> proposed = new ArrayList<>();
+        for (Activity activity : activities) {
+            if (!samePlacement(ActivitySlot.of(activity), planned.get(activity.getId()))) {
+                throw new PreconditionFailedException("Activity " + activity.getId() + " has changed since the timetable was planned");
+            }
+            TimetableAssignmentDTO change = changes.get(activity.getId());
+            ProposedSlotDTO slot = new ProposedSlotDTO();
+            slot.setActivityId(activity.getId());
+            slot.setDayOfWeek(change.getDayOfWeek());
+            slot.setStartTime(change.getStartTime());
+            slot.setEndTime(change.getEndTime());
+            slot.setStartDate(activity.getStartDate());
+            slot.setEndDate(activity.getEndDate());
+            slot.setRoom(change.getRoom());
+            slot.setMonitorId(change.getMonitorId());
+            proposed.add(slot);
+        }
+
+        // The live timetable may have moved on since the snapshot
+        List<ScheduleConflictDTO> conflicts = scheduleIndex.validate(proposed).stream()
+                .filter(conflict -> changes.containsKey(conflict.getActivityId()) || changes.containsKey(conflict.getConflictingActivityId()))
+                .collect(Collectors.toList());
+        if (!conflicts.isEmpty()) {
+            ScheduleConflictDTO first = conflicts.get(0);
+            throw new ScheduleConflictException("Timetable no longer fits: activity " + first.getActivityId()
+                    + " overlaps activity " + first.getConflictingActivityId() + " (" + first.getType() + ")");
+        }
+
+        Map<Long, ActivitySlot> before = new HashMap<>();
+        for (Activity activity : activities) {
+            before.put(activity.getId(), ActivitySlot.of(activity));
+            TimetableAssignmentDTO change = changes.get(activity.getId());
+            activity.setDayOfWeek(change.getDayOfWeek());
+            activity.setStartTime(change.getStartTime());
+            activity.setEndTime(change.getEndTime());
+            activity.setRoom(change.getRoom());
+            activity.setMonitorId(change.getMonitorId());
+        }
+        activityRepository.saveAllAndFlush(activities);
+        for (Activity activity : activities) {
+            scheduleIndex.activityChanged(ActivitySlot.of(activity));
+            outboxService.append(ActivityService.AGGREGATE_TYPE, activity.getId(), new ActivityChanged(activity.getId(), activity.getStatus()));
+            if (!ActivitySlot.of(activity).sameSchedule(before.get(activity.getId())) && activity.getStatus() != ActivityStatus.DRAFT) {
+                outboxService.append(ActivityService.AGGREGATE_TYPE, activity.getId(), new ActivityRescheduled(activity.getId()));
+            }
+        }
+    }
+
+    private boolean samePlacement(ActivitySlot current, ActivitySlot planned) {
+        return current.dayOfWeek() == planned.dayOfWeek() && current.startTime().equals(planned.startTime())
+                && current.endTime().equals(planned.endTime()) && current.startDate().equals(planned.startDate())
+                && current.endDate().equals(planned.endDate())
+                && Objects.equals(TimetableProblem.roomKey(current.room()), TimetableProblem.roomKey(planned.room()))
+                && Objects.equals(current.monitorId(), planned.monitorId()) && !current.cancelled();
+    }
+
+    private List<TimetableAssignmentDTO> assignments(TimetableProblem problem, TimetableJob.Best best) {
+        TimetableState.Assignment assignment = best.assignment();
+        List<TimetableAssignmentDTO> result = new ArrayList<>(problem.activityCount());
+        for (int a = 0; a < problem.activityCount(); a++) {
+            ActivitySlot current = problem.activities.get(a);
+            int s = assignment.slot()[a];
+            LocalTime start = problem.slotTime[s];
+            LocalTime end = start.plusMinutes(problem.duration[a]);
+            String room = problem.roomNames[assignment.room()[a]];
+            Long monitorId = problem.monitorIds[assignment.monitor()[a]];
+            boolean changed = current.dayOfWeek() != problem.slotDay[s] || !current.startTime().equals(start)
+                    || !current.endTime().equals(end)
+                    || !Objects.equals(TimetableProblem.roomKey(current.room()), TimetableProblem.roomKey(room))
+                    || !Objects.equals(current.monitorId(), monitorId);
+            result.add(TimetableAssignmentDTO.builder()
+                    .activityId(current.id())
+                    .dayOfWeek(problem.slotDay[s])
+                    .startTime(start)
+                    .endTime(end)
+                    .room(room)
+                    .monitorId(monitorId)
+                    .changed(changed)
+                    .build());
+        }
+        return result;
+    }
+
+    private TimetableJob findJob(String id) {
+        TimetableJob job = jobs.get(id);
+        if (job == null) {
+            throw new TimetableJobNotFoundException("Timetable job not found");
+        }
+        return job;
+    }
+
+    private TimetableJobResponseDTO mapToResponseDTO(TimetableJob job) {
+        TimetableJob.Best best = job.best();
+        long elapsedMs = job.elapsedMs();
+        int progress = job.finished() ? 100
+                : job.status() == TimetableJobStatus.QUEUED ? 0
+                : (int) Math.min(99, elapsedMs * 100 / Math.max(1, job.timeLimitMs));
+        return TimetableJobResponseDTO.builder()
+                .id(job.id)
+                .status(job.status())
+                .mode(job.mode)
+                .createdAt(job.createdAt)
+                .startedAt(job.startedAt())
+                .finishedAt(job.finishedAt())
+                .timeLimitMs(job.timeLimitMs)
+                .elapsedMs(elapsedMs)
+                .progressPercent(progress)
+                .iterations(job.iterations.sum())
+                .improvements(job.improvements())
+                .hardViolations(best != null ? TimetableState.hardOf(best.score()) : 0)
+                .softPenalty(best != null ? TimetableState.softOf(best.score()) : 0)
+                .feasible(best != null && TimetableState.hardOf(best.score()) == 0)
+                .applied(job.applied())
+                .error(job.error())
+                .assignments(best != null ? assignments(job.problem, best) : List.of())
+                .build();
+    }
+}
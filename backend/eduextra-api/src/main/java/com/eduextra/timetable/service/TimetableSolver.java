@@ -0,0 +1,239 @@
+package com.eduextra.timetable.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * Local search over a {@link TimetableProblem}.
+ *
+ * Activities without a place are first put in the cheapest slot and room, then in the
+ * cheapest monitor (greedy construction, most constrained first). Then several threads run
+ * late acceptance hill climbing from that start, each with its own random moves: move an
+ * activity to another slot, room or monitor, or swap the slot and room of two activities.
+ * Threads offer every timetable that beats the best one so far to the job, and a thread that
+ * has been stuck for a while restarts from the best one found by any thread.
+ *
+ * A run stops at the time limit, when it is cancelled, when the timetable is perfect or when
+ * a feasible timetable has not improved for a while. When re-planning (INCREMENTAL), only
+ * changed, unplaced and conflicting activities move at first; activities still in conflict
+ * are added as the search goes on, and every change is penalised, so one edit produces a
+ * small diff instead of a new timetable.
+ */
+final class TimetableSolver {
+
+    // Length of the late acceptance history
+    private static final int HISTORY = 1000;
+    // Moves between checks of the clock, the job and the shared best
+    private static final int CHECK_EVERY = 1024;
+    // Moves without improvement before a thread restarts from the shared best
+    private static final int RESTART_AFTER = 200_000;
+    // Moves between widening the movable set while re-planning is still infeasible
+    private static final int WIDEN_EVERY = 50_000;
+
+    private final ExecutorService workers;
+    private final int threads;
+    private final long unimprovedLimitMs;
+
+    TimetableSolver(ExecutorService workers, int threads, long unimprovedLimitMs) {
+        this.workers = workers;
+        this.threads = threads;
+        this.unimprovedLimitMs = unimprovedLimitMs;
+    }
+
+    void solve(TimetableJob job, long seed) throws InterruptedException {
+        TimetableProblem problem = job.problem;
+        long deadline = System.nanoTime() + job.timeLimitMs * 1_000_000;
+
+        TimetableState start = new TimetableState(problem);
+        if (problem.incremental) {
+            start.load(new TimetableState.Assignment(problem.initialSlot, problem.initialRoom, problem.initialMonitor));
+        }
+        construct(problem, start);
+        job.offer(start.score(), start.snapshot());
+
+        boolean[] movable = new boolean[problem.activityCount()];
+        for (int a = 0; a < movable.length; a++) {
+            movable[a] = !problem.incremental || problem.changed[a] || problem.initialSlot[a] == TimetableState.UNASSIGNED
+                    || problem.initialRoom[a] == TimetableState.UNASSIGNED
+                    || problem.initialMonitor[a] == TimetableState.UNASSIGNED || start.violated(a);
+        }
+        if (start.score() == 0 || IntStream.range(0, movable.length).noneMatch(a -> movable[a])) {
+            return;
+        }
+
+        TimetableState.Assignment initial = start.snapshot();
+        List<Future<?>> running = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(seed + t);
+            running.add(workers.submit(() -> search(job, initial, movable.clone(), random, deadline)));
+        }
+        try {
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            running.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Solver thread failed", e.getCause());
+        } catch (InterruptedException e) {
+            running.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    /**
+     * Greedy placement of every activity that has no slot, room or monitor yet, those sharing
+     * the most students and needing the most seats first.
+     */
+    private void construct(TimetableProblem problem, TimetableState state) {
+        Integer[] order = IntStream.range(0, problem.activityCount()).filter(a -> !state.isPlaced(a)).boxed()
+                .toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.<Integer>comparingInt(a -> Arrays.stream(problem.shared[a]).sum())
+                .thenComparingInt(a -> problem.capacity[a]).reversed());
+        for (int a : order) {
+            int m = state.monitor[a] != TimetableState.UNASSIGNED ? state.monitor[a] : leastLoaded(problem, state);
+            int bestSlot = 0;
+            int bestRoom = 0;
+            long bestScore = Long.MAX_VALUE;
+            for (int s = 0; s < problem.slotCount(); s++) {
+                for (int r : problem.fittingRooms[a]) {
+                    state.assign(a, s, r, m);
+                    if (state.score() < bestScore) {
+                        bestScore = state.score();
+                        bestSlot = s;
+                        bestRoom = r;
+                    }
+                }
+            }
+            int bestMonitor = m;
+            for (int candidate = 0; candidate < problem.monitorCount(); candidate++) {
+                state.assign(a, bestSlot, bestRoom, candidate);
+                if (state.score() < bestScore) {
+                    bestScore = state.score();
+                    bestMonitor = candidate;
+                }
+            }
+            state.assign(a, bestSlot, bestRoom, bestMonitor);
+        }
+    }
+
+    private int leastLoaded(TimetableProblem problem, TimetableState state) {
+        int best = 0;
+        for (int m = 1; m < problem.monitorCount(); m++) {
+            if (state.load(m) < state.load(best)) {
+                best = m;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Late acceptance hill climbing: a move is kept if it is no worse than the current score
+     * or than the score HISTORY moves ago, which lets the search climb out of local optima
+     * without any temperature to tune.
+     */
+    private void search(TimetableJob job, TimetableState.Assignment initial, boolean[] movable,
+            SplittableRandom random, long deadline) {
+        TimetableProblem problem = job.problem;
+        TimetableState state = new TimetableState(problem);
+        state.load(initial);
+        int n = problem.activityCount();
+        int[] candidates = new int[n];
+        int candidateCount = 0;
+        for (int a = 0; a < n; a++) {
+            if (movable[a]) {
+                candidates[candidateCount++] = a;
+            }
+        }
+
+        long current = state.score();
+        long best = current;
+        long[] history = new long[HISTORY];
+        Arrays.fill(history, current);
+        long iteration = 0;
+        long lastImprovement = 0;
+
+        while (true) {
+            int a = candidates[random.nextInt(candidateCount)];
+            int oldSlot = state.slot[a];
+            int oldRoom = state.room[a];
+            int oldMonitor = state.monitor[a];
+            int b = -1;
+            switch (random.nextInt(4)) {
+                case 0 -> state.assign(a, random.nextInt(problem.slotCount()), oldRoom, oldMonitor);
+                case 1 -> {
+                    int[] rooms = problem.fittingRooms[a];
+                    state.assign(a, oldSlot, rooms[random.nextInt(rooms.length)], oldMonitor);
+                }
+                case 2 -> state.assign(a, oldSlot, oldRoom, random.nextInt(problem.monitorCount()));
+                default -> {
+                    // Both sides of a swap must be movable, or pinned activities would drift
+                    b = candidates[random.nextInt(candidateCount)];
+                    if (b == a) {
+                        continue;
+                    }
+                    int otherSlot = state.slot[b];
+                    int otherRoom = state.room[b];
+                    state.assign(a, otherSlot, otherRoom, oldMonitor);
+                    state.assign(b, oldSlot, oldRoom, state.monitor[b]);
+                }
+            }
+
+            long score = state.score();
+            int v = (int) (iteration % HISTORY);
+            if (score <= current || score <= history[v]) {
+                current = score;
+            } else if (b >= 0) {
+                int otherSlot = state.slot[a];
+                int otherRoom = state.room[a];
+                state.assign(b, otherSlot, otherRoom, state.monitor[b]);
+                state.assign(a, oldSlot, oldRoom, oldMonitor);
+            } else {
+                state.assign(a, oldSlot, oldRoom, oldMonitor);
+            }
+            if (current < history[v]) {
+                history[v] = current;
+            }
+            if (current < best) {
+                best = current;
+                lastImprovement = iteration;
+                if (best < job.best().score()) {
+                    job.offer(best, state.snapshot());
+                }
+            }
+            iteration++;
+
+            if (iteration % CHECK_EVERY != 0) {
+                continue;
+            }
+            job.iterations.add(CHECK_EVERY);
+            TimetableJob.Best shared = job.best();
+            if (System.nanoTime() >= deadline || job.cancelRequested() || Thread.currentThread().isInterrupted()
+                    || shared.score() == 0
+                    || (TimetableState.hardOf(shared.score()) == 0 && job.sinceLastImprovementMs() >= unimprovedLimitMs)) {
+                return;
+            }
+            if (iteration - lastImprovement >= RESTART_AFTER && shared.score() < current) {
+                state.load(shared.assignment());
+                current = state.score();
+                best = Math.min(best, current);
+                Arrays.fill(history, current);
+                lastImprovement = iteration;
+            }
+            if (problem.incremental && iteration % WIDEN_EVERY == 0 && TimetableState.hardOf(current) > 0) {
+                for (int c = 0; c < n; c++) {
+                    if (!movable[c] && state.violated(c)) {
+                        movable[c] = true;
+                        candidates[candidateCount++] = c;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.eduextra.timetable.service;
+
+import java.util.Arrays;
+
+/**
+ * A working timetable with an incrementally maintained score.
+ *
+ * Placing or removing one activity only touches the counters of its room, its monitor and
+ * the activities sharing students with it, so a move is scored in time proportional to what
+ * it changes rather than to the size of the timetable. The score packs the hard penalty
+ * above the soft one in a single long; lower is better and 0 is perfect.
+ *
+ * Hard: double-booked rooms and monitors (per pair), rooms or monitors taken by a fixed
+ * activity, rooms too small, slots too short, monitors outside their availability and
+ * students in two activities at once (per student).
+ * Soft: monitor load (sum of squares, so even loads score best), idle slots between a
+ * monitor's first and last activity of a day and, when re-planning, every changed slot,
+ * room or monitor.
+ *
+ * Not thread-safe; every solver thread has its own.
+ */
+final class TimetableState {
+
+    static final int UNASSIGNED = -1;
+
+    private static final long HARD_UNIT = 1L << 40;
+    private static final long LOAD_WEIGHT = 1;
+    private static final long GAP_WEIGHT = 3;
+    private static final long CHANGE_WEIGHT = 20;
+
+    /**
+     * Copy of a timetable: per activity, its slot, room and monitor indexes.
+     */
+    record Assignment(int[] slot, int[] room, int[] monitor) {
+    }
+
+    private final TimetableProblem problem;
+
+    final int[] slot;
+    final int[] room;
+    final int[] monitor;
+    private final boolean[] placed;
+
+    private final int[][] roomUse;
+    private final int[][] monitorUse;
+    private final int[] load;
+    private final int[][] gaps;
+
+    private long hard;
+    private long soft;
+
+    TimetableState(TimetableProblem problem) {
+        this.problem = problem;
+        int n = problem.activityCount();
+        slot = new int[n];
+        room = new int[n];
+        monitor = new int[n];
+        Arrays.fill(slot, UNASSIGNED);
+        Arrays.fill(room, UNASSIGNED);
+        Arrays.fill(monitor, UNASSIGNED);
+        placed = new boolean[n];
+        roomUse = new int[problem.roomCount()][problem.slotCount()];
+        monitorUse = new int[problem.monitorCount()][problem.slotCount()];
+        load = new int[problem.monitorCount()];
+        gaps = new int[problem.monitorCount()][7];
+    }
+
+    static long hardOf(long score) {
+        return score / HARD_UNIT;
+    }
+
+    static long softOf(long score) {
+        return score % HARD_UNIT;
+    }
+
+    long score() {
+        return hard * HARD_UNIT + soft;
+    }
+
+    boolean isPlaced(int a) {
+        return placed[a];
+    }
+
+    int load(int m) {
+        return load[m];
+    }
+
+    /**
+     * Moves an activity, placing it if it was not placed yet.
+     */
+    void assign(int a, int s, int r, int m) {
+        if (placed[a]) {
+            unplace(a);
+        }
+        slot[a] = s;
+        room[a] = r;
+        monitor[a] = m;
+        place(a);
+    }
+
+    /**
+     * Replaces the whole timetable. Activities with an unassigned slot, room or monitor stay unplaced.
+     */
+    void load(Assignment assignment) {
+        for (int a = 0; a < placed.length; a++) {
+            if (placed[a]) {
+                unplace(a);
+            }
+        }
+        System.arraycopy(assignment.slot(), 0, slot, 0, slot.length);
+        System.arraycopy(assignment.room(), 0, room, 0, room.length);
+        System.arraycopy(assignment.monitor(), 0, monitor, 0, monitor.length);
+        for (int a = 0; a < placed.length; a++) {
+            if (slot[a] != UNASSIGNED && room[a] != UNASSIGNED && monitor[a] != UNASSIGNED) {
+                place(a);
+            }
+        }
+    }
+
+    Assignment snapshot() {
+        return new Assignment(slot.clone(), room.clone(), monitor.clone());
+    }
+
+    /**
+     * Whether the activity is involved in any broken hard constraint.
+     */
+    boolean violated(int a) {
+        if (!placed[a]) {
+            return true;
+        }
+        int s = slot[a];
+        int r = room[a];
+        int m = monitor[a];
+        return roomUse[r][s] > 1 || problem.roomBlocked[r][s] || problem.roomCapacity[r] < problem.capacity[a]
+                || tooShort(a, s) || monitorUse[m][s] > 1 || problem.monitorBlocked[m][s]
+                || problem.monitorUnavailable[m][s] || (problem.studentClash[a] != null && problem.studentClash[a][s] > 0)
+                || sharedAt(a, s) > 0;
+    }
+
+    private void place(int a) {
+        int s = slot[a];
+        int r = room[a];
+        int m = monitor[a];
+        hard += roomUse[r][s]++;
+        hard += monitorUse[m][s]++;
+        hard += hardPenalty(a, s, r, m);
+        soft += LOAD_WEIGHT * (2L * load[m] + 1);
+        load[m]++;
+        updateGaps(m, problem.dayOf[s]);
+        soft += changePenalty(a);
+        placed[a] = true;
+    }
+
+    private void unplace(int a) {
+        placed[a] = false;
+        int s = slot[a];
+        int r = room[a];
+        int m = monitor[a];
+        hard -= --roomUse[r][s];
+        hard -= --monitorUse[m][s];
+        hard -= hardPenalty(a, s, r, m);
+        load[m]--;
+        soft -= LOAD_WEIGHT * (2L * load[m] + 1);
+        updateGaps(m, problem.dayOf[s]);
+        soft -= changePenalty(a);
+    }
+
+    // Everything but the pairwise room and monitor bookings
+    private long hardPenalty(int a, int s, int r, int m) {
+        long penalty = 0;
+        if (problem.roomBlocked[r][s]) {
+            penalty++;
+        }
+        if (problem.roomCapacity[r] < problem.capacity[a]) {
+            penalty++;
+        }
+        if (tooShort(a, s)) {
+            penalty++;
+        }
+        if (problem.monitorBlocked[m][s]) {
+            penalty++;
+        }
+        if (problem.monitorUnavailable[m][s]) {
+            penalty++;
+        }
+        if (problem.studentClash[a] != null) {
+            penalty += problem.studentClash[a][s];
+        }
+        return penalty + sharedAt(a, s);
+    }
+
+    // Students shared with other placed activities in the same slot
+    private long sharedAt(int a, int s) {
+        int[] neighbours = problem.neighbours[a];
+        long clash = 0;
+        for (int i = 0; i < neighbours.length; i++) {
+            int b = neighbours[i];
+            if (placed[b] && slot[b] == s) {
+                clash += problem.shared[a][i];
+            }
+        }
+        return clash;
+    }
+
+    private boolean tooShort(int a, int s) {
+        return problem.slotEnd[s] - problem.slotStart[s] < problem.duration[a];
+    }
+
+    private long changePenalty(int a) {
+        if (!problem.incremental) {
+            return 0;
+        }
+        int changes = (slot[a] != problem.initialSlot[a] ? 1 : 0) + (room[a] != problem.initialRoom[a] ? 1 : 0)
+                + (monitor[a] != problem.initialMonitor[a] ? 1 : 0);
+        return CHANGE_WEIGHT * changes;
+    }
+
+    private void updateGaps(int m, int day) {
+        int[] daySlots = problem.slotsByDay[day];
+        int first = -1;
+        int last = -1;
+        int busy = 0;
+        for (int i = 0; i < daySlots.length; i++) {
+            if (monitorUse[m][daySlots[i]] > 0) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+                busy++;
+            }
+        }
+        int idle = first < 0 ? 0 : last - first + 1 - busy;
+        soft += GAP_WEIGHT * (idle - gaps[m][day]);
+        gaps[m][day] = idle;
+    }
+}
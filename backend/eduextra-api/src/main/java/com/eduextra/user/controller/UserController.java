@@ -1,9 +1,14 @@
 package com.eduextra.user.controller;
 
 import com.eduextra.common.dto.PagedResponseDTO;
+import com.eduextra.common.web.ETags;
+import com.eduextra.user.dto.BulkUserActionRequestDTO;
+import com.eduextra.user.dto.BulkUserActionResponseDTO;
+import com.eduextra.user.dto.UserPatchDTO;
 import com.eduextra.user.dto.UserRequestDTO;
 import com.eduextra.user.dto.UserResponseDTO;
 import com.eduextra.user.model.Role;
+import com.eduextra.user.model.User;
 import com.eduextra.user.service.UserService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -18,11 +23,15 @@ import lombok.RequiredArgsConstructor;
 
 import com.eduextra.exception.ErrorResponse;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import java.util.List;
 
 /**
@@ -78,9 +87,60 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(
+        summary = "Enable users in bulk",
+        description = "Enables every user matched by an id list or a search/role filter with a single update. Returns the number of users whose state changed.",
+        tags = {"User Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Users enabled successfully",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkUserActionResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Neither ids nor a filter were provided",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @PatchMapping("/bulk/enable")
+    public ResponseEntity<BulkUserActionResponseDTO> enableUsers(@Valid @RequestBody BulkUserActionRequestDTO request) {
+        return ResponseEntity.ok(userService.setUsersActive(request, true));
+    }
+
+    @Operation(
+        summary = "Disable users in bulk",
+        description = "Disables every user matched by an id list or a search/role filter with a single update. Returns the number of users whose state changed.",
+        tags = {"User Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Users disabled successfully",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkUserActionResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Neither ids nor a filter were provided",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @PatchMapping("/bulk/disable")
+    public ResponseEntity<BulkUserActionResponseDTO> disableUsers(@Valid @RequestBody BulkUserActionRequestDTO request) {
+        return ResponseEntity.ok(userService.setUsersActive(request, false));
+    }
+
+    @Operation(
+        summary = "Permanently delete users in bulk",
+        description = "Deletes every user matched by an id list or a search/role filter with a single statement. This action is irreversible.",
+        tags = {"User Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Users permanently deleted",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkUserActionResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Neither ids nor a filter were provided",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/bulk/permanent-delete")
+    public ResponseEntity<BulkUserActionResponseDTO> permanentlyDeleteUsers(@Valid @RequestBody BulkUserActionRequestDTO request) {
+        return ResponseEntity.ok(userService.permanentlyDeleteUsers(request));
+    }
+
     @Operation(
         summary = "Create a new user",
-        description = "Registers a new user in the system with the provided details. Requires a valid email, password, and role.",
+        description = "Registers a new user in the system with the provided details. Requires a valid email, password, and role. Send an Idempotency-Key header to safely retry: a repeated key returns the original response.",
         tags = {"User Management"},
         responses = {
             @ApiResponse(responseCode = "200", description = "User created successfully"),
@@ -109,7 +169,7 @@ public class UserController {
     )
     @GetMapping("/{id}")
     public ResponseEntity<UserResponseDTO> getUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+        return ETags.ok(userService.getUserById(id), UserResponseDTO::getVersion);
     }
 
     @Operation(
@@ -162,13 +222,66 @@ public class UserController {
             @ApiResponse(responseCode = "400", description = "Validation error", 
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "409", description = "Email already exists", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "412", description = "User was modified since the given ETag", 
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
         }
     )
     @PutMapping("/{id}")
     public ResponseEntity<UserResponseDTO> updateUser(@PathVariable Long id,
+            @Parameter(description = "ETag of the user as last read by the client")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UserRequestDTO userRequestDTO) {
-        return ResponseEntity.ok(userService.updateUser(id, userRequestDTO));
+        UserResponseDTO user = userService.updateUser(id, userRequestDTO, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(user, UserResponseDTO::getVersion);
+    }
+
+    @Operation(
+        summary = "Partially update a user",
+        description = "Applies a JSON Merge Patch to the user identified by their ID. Only the fields present in the body are updated and the password is only changed when sent. Send the ETag from a previous read in If-Match to avoid overwriting concurrent changes.",
+        tags = {"User Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "User updated successfully"),
+            @ApiResponse(responseCode = "404", description = "User not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Validation error", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Only admins can patch other users or change a role", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "412", description = "User was modified since the given ETag", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasRole('ADMIN') or #id == authentication.principal.id")
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<UserResponseDTO> patchUser(@PathVariable Long id,
+            @Parameter(description = "ETag of the user as last read by the client")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UserPatchDTO patch, @AuthenticationPrincipal User caller) {
+        UserResponseDTO user = userService.patchUser(id, patch, ETags.parseIfMatch(ifMatch), caller);
+        return ETags.ok(user, UserResponseDTO::getVersion);
+    }
+
+    @Operation(
+        summary = "Upload a user avatar",
+        description = "Stores a PNG, JPEG, GIF or WebP image on the server and sets the user's avatarUrl to it. Identical images are stored once and served from /avatars/{hash}.",
+        tags = {"User Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Avatar updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Empty file or unsupported image format", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Only admins can change another user's avatar", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "User not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "413", description = "Image is too large", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasRole('ADMIN') or #id == authentication.principal.id")
+    @PutMapping(value = "/{id}/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<UserResponseDTO> updateAvatar(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        return ETags.ok(userService.updateAvatar(id, file), UserResponseDTO::getVersion);
     }
 
     @Operation(
@@ -188,6 +301,24 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(
+        summary = "Restore an archived user",
+        description = "Moves a user from the archive of long-deactivated accounts back into the active user table. The account keeps its previous status.",
+        tags = {"User Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "User restored successfully"),
+            @ApiResponse(responseCode = "404", description = "Archived user not found", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "Email or name is now used by another user", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/restore")
+    public ResponseEntity<UserResponseDTO> restoreUser(@PathVariable Long id) {
+        return ETags.ok(userService.restoreUser(id), UserResponseDTO::getVersion);
+    }
+
     @Operation(
         summary = "Get current user profile",
         description = "Retrieves the profile information of the currently authenticated user based on the JWT token.",
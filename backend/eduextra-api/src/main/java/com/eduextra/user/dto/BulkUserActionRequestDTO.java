@@ -0,0 +1,42 @@
+package com.eduextra.user.dto;
+
+import java.util.List;
+
+import com.eduextra.user.model.Role;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for bulk user operations
+ * Targets users either by an explicit id list or by the same search/role filter used for pagination
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Bulk user action request. Provide either a list of ids or a search/role filter")
+public class BulkUserActionRequestDTO {
+
+    @Size(max = 1000, message = "No more than 1000 ids can be processed per request")
+    @Schema(description = "Ids of the users to process", example = "[1, 2, 3]")
+    private List<Long> ids;
+
+    @Schema(description = "Search term for user names, ignored when ids are provided", example = "Juan")
+    private String search;
+
+    @Schema(description = "Role filter, ignored when ids are provided")
+    private Role role;
+
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+
+    public boolean hasFilter() {
+        return (search != null && !search.trim().isEmpty()) || role != null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.eduextra.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for bulk user operation results
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result of a bulk user action")
+public class BulkUserActionResponseDTO {
+
+    @Schema(description = "Number of users affected by the operation", example = "42")
+    private int affected;
+}
@@ -0,0 +1,67 @@
+package com.eduextra.user.dto;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.eduextra.user.model.Role;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+
+/**
+ * DTO for partial user updates following JSON Merge Patch (RFC 7396) semantics.
+ * Absent fields are left untouched, fields sent as null are cleared.
+ * Setters record which fields were present in the request body.
+ */
+@Getter
+@Schema(description = "Partial user update. Only the fields present in the body are modified")
+public class UserPatchDTO {
+
+    @Size(min = 3, max = 100, message = "Name must be between 3 and 100 characters")
+    private String fullName;
+
+    @Email(message = "Invalid email format")
+    private String email;
+
+    @Size(min = 6, message = "Password must be at least 6 characters")
+    private String password;
+
+    private String avatarUrl;
+
+    private Role role;
+
+    @JsonIgnore
+    private final Set<String> presentFields = new HashSet<>();
+
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+        presentFields.add("fullName");
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        presentFields.add("email");
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+        presentFields.add("password");
+    }
+
+    public void setAvatarUrl(String avatarUrl) {
+        this.avatarUrl = avatarUrl;
+        presentFields.add("avatarUrl");
+    }
+
+    public void setRole(Role role) {
+        this.role = role;
+        presentFields.add("role");
+    }
+
+    public boolean isPresent(String field) {
+        return presentFields.contains(field);
+    }
+}
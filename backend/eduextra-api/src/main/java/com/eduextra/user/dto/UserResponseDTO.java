@@ -43,4 +43,10 @@ public class UserResponseDTO {
     
     @Schema(description = "When the user was last updated")
     private LocalDateTime updatedAt;
+
+    @Schema(description = "Version of the user record, also sent as the ETag header", example = "3")
+    private Long version;
+
+    @Schema(description = "Whether the user lives in the archive of long-deactivated accounts", example = "false")
+    private Boolean archived;
 }
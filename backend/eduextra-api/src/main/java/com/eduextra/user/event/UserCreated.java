@@ -0,0 +1,9 @@
+package com.eduextra.user.event;
+
+import com.eduextra.user.model.Role;
+
+/**
+ * Outbox event published when a user is created (admin creation or self-registration).
+ */
+public record UserCreated(Long userId, String email, String fullName, Role role) {
+}
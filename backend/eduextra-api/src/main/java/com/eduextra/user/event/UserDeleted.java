@@ -0,0 +1,21 @@
+package com.eduextra.user.event;
+
+import java.util.List;
+
+import com.eduextra.user.model.Role;
+
+/**
+ * Outbox event published when users are permanently deleted.
+ * Targets either explicit userIds or, for filter-based bulk deletes, the users matching
+ * search/role (userIds is then null).
+ */
+public record UserDeleted(List<Long> userIds, String search, Role role, int affected) {
+
+    public static UserDeleted forIds(List<Long> userIds, int affected) {
+        return new UserDeleted(userIds, null, null, affected);
+    }
+
+    public static UserDeleted forFilter(String search, Role role, int affected) {
+        return new UserDeleted(null, search, role, affected);
+    }
+}
@@ -0,0 +1,21 @@
+package com.eduextra.user.event;
+
+import java.util.List;
+
+import com.eduextra.user.model.Role;
+
+/**
+ * Outbox event published when users are enabled or disabled.
+ * Targets either explicit userIds or, for filter-based bulk updates, the users matching
+ * search/role (userIds is then null).
+ */
+public record UserStatusChanged(List<Long> userIds, String search, Role role, boolean active, int affected) {
+
+    public static UserStatusChanged forIds(List<Long> userIds, boolean active, int affected) {
+        return new UserStatusChanged(userIds, null, null, active, affected);
+    }
+
+    public static UserStatusChanged forFilter(String search, Role role, boolean active, int affected) {
+        return new UserStatusChanged(null, search, role, active, affected);
+    }
+}
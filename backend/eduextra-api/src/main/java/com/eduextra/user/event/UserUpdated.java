@@ -0,0 +1,10 @@
+package com.eduextra.user.event;
+
+import java.util.Set;
+
+/**
+ * Outbox event published when user details change. changedFields never contains values,
+ * only field names, so passwords are never written to the outbox.
+ */
+public record UserUpdated(Long userId, Set<String> changedFields) {
+}
@@ -0,0 +1,10 @@
+package com.eduextra.user.job;
+
+import java.time.LocalDate;
+
+/**
+ * Background job that runs one pass of user archival, enqueued once per day by the first
+ * node whose schedule fires.
+ */
+public record ArchiveInactiveUsers(LocalDate scheduledFor) {
+}
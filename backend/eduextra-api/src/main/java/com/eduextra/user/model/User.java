@@ -18,27 +18,39 @@ import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 @Entity
 @Data
-@Table(name = "users")
+@DynamicUpdate // UPDATE statements only include the columns that actually changed
+@Table(name = "users", uniqueConstraints = {
+    // Named so GlobalExceptionHandler can tell which unique value was duplicated
+    @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email"),
+    @UniqueConstraint(name = User.FULL_NAME_CONSTRAINT, columnNames = "full_name")
+})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class User implements UserDetails {
 
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+    public static final String FULL_NAME_CONSTRAINT = "uk_users_full_name";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String fullName;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -58,6 +70,12 @@ public class User implements UserDetails {
 
     private LocalDateTime updatedAt;
 
+    // Optimistic locking, exposed to clients as the ETag of the user resource.
+    // Left null on new entities so Spring Data keeps using persist() for them.
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,57 @@
+package com.eduextra.user.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cold storage for users that have been deactivated for a long time.
+ * Rows keep the original user id so they can be restored into users unchanged.
+ */
+@Entity
+@Data
+@Table(name = "users_archive", indexes = {
+    @Index(name = "idx_users_archive_email", columnList = "email")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserArchive {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String fullName;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(nullable = false)
+    private String password;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Role role;
+
+    private Boolean isActive;
+
+    private String avatarUrl;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
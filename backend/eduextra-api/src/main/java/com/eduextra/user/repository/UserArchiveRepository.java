@@ -0,0 +1,32 @@
+package com.eduextra.user.repository;
+import com.eduextra.user.model.UserArchive;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserArchiveRepository extends JpaRepository<UserArchive, Long> {
+
+    // Copiar usuarios a la tabla de archivo en una sola sentencia INSERT ... SELECT
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("insert into UserArchive (id, fullName, email, password, role, isActive, avatarUrl, createdAt, updatedAt, archivedAt) "
+            + "select u.id, u.fullName, u.email, u.password, u.role, u.isActive, u.avatarUrl, u.createdAt, u.updatedAt, :now "
+            + "from User u where u.id in :ids")
+    int copyFromUsers(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Devolver un usuario archivado a la tabla users conservando su id
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("insert into User (id, fullName, email, password, role, isActive, avatarUrl, createdAt, updatedAt, version) "
+            + "select a.id, a.fullName, a.email, a.password, a.role, a.isActive, a.avatarUrl, a.createdAt, :now, 0L "
+            + "from UserArchive a where a.id = :id")
+    int copyToUsers(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Borrar un usuario archivado sin cargar la entidad
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from UserArchive a where a.id = :id")
+    int deleteByIdReturningCount(@Param("id") Long id);
+}
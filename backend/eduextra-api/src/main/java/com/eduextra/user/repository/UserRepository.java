@@ -1,11 +1,16 @@
 package com.eduextra.user.repository;
 import com.eduextra.user.model.Role;
 import com.eduextra.user.model.User;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -31,5 +36,47 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     // Buscar por nombre y rol con paginación
     Page<User> findByFullNameContainingIgnoreCaseAndRole(String name, Role role, Pageable pageable);
-}
 
+    // Activar/desactivar un usuario en una sola sentencia
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.isActive = :active, u.updatedAt = :now, u.version = u.version + 1 where u.id = :id")
+    int updateActiveById(@Param("id") Long id, @Param("active") boolean active, @Param("now") LocalDateTime now);
+
+    // Activar/desactivar en bloque por ids (solo cuenta los que cambian de estado)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.isActive = :active, u.updatedAt = :now, u.version = u.version + 1 where u.id in :ids and u.isActive <> :active")
+    int updateActiveByIds(@Param("ids") Collection<Long> ids, @Param("active") boolean active, @Param("now") LocalDateTime now);
+
+    // Activar/desactivar en bloque por filtro de nombre y/o rol
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.isActive = :active, u.updatedAt = :now, u.version = u.version + 1 "
+            + "where u.isActive <> :active "
+            + "and (:pattern is null or lower(u.fullName) like :pattern escape '\\') "
+            + "and (:role is null or u.role = :role)")
+    int updateActiveByFilter(@Param("pattern") String pattern, @Param("role") Role role,
+            @Param("active") boolean active, @Param("now") LocalDateTime now);
+
+    // Borrar un usuario sin cargar la entidad
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from User u where u.id = :id")
+    int deleteByIdReturningCount(@Param("id") Long id);
+
+    // Borrar en bloque por ids
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from User u where u.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // Ids de los usuarios que cumplen el filtro de nombre y/o rol
+    @Query("select u.id from User u "
+            + "where (:pattern is null or lower(u.fullName) like :pattern escape '\\') "
+            + "and (:role is null or u.role = :role)")
+    List<Long> findIdsByFilter(@Param("pattern") String pattern, @Param("role") Role role);
+
+    // Ids de usuarios desactivados antes de la fecha límite, candidatos a archivarse
+    @Query("select u.id from User u where u.isActive = false and u.updatedAt < :cutoff order by u.id")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Ids activos de entre los indicados
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.isActive = true")
+    List<Long> findActiveIdsByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,30 @@
+package com.eduextra.user.service;
+
+import org.springframework.stereotype.Component;
+
+import com.eduextra.job.model.Job;
+import com.eduextra.job.service.JobHandler;
+import com.eduextra.user.job.ArchiveInactiveUsers;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs the archival pass enqueued by UserArchivalService. Archival moves users in
+ * self-contained batches, so a pass that is interrupted and run again picks up where it left off.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserArchivalJobHandler implements JobHandler {
+
+    private final UserArchivalService userArchivalService;
+
+    @Override
+    public boolean supports(String jobType) {
+        return ArchiveInactiveUsers.class.getSimpleName().equals(jobType);
+    }
+
+    @Override
+    public void handle(Job job) {
+        userArchivalService.runArchival();
+    }
+}
@@ -0,0 +1,141 @@
+package com.eduextra.user.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.enrollment.service.EnrollmentService;
+import com.eduextra.job.service.JobService;
+import com.eduextra.user.job.ArchiveInactiveUsers;
+import com.eduextra.user.repository.UserArchiveRepository;
+import com.eduextra.user.repository.UserRepository;
+
+/**
+ * Moves users that have been deactivated for longer than the configured period
+ * into users_archive so the hot users table stays proportional to the current population.
+ *
+ * Work is done in small batches, each one in its own short transaction, with a pause
+ * between batches and only inside the configured off-peak window. The pass runs as a
+ * background job, so only one node archives and a pass cut short by a restart is retried.
+ */
+@Service
+public class UserArchivalService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserArchivalService.class);
+
+    private final UserRepository userRepository;
+    private final UserArchiveRepository userArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JobService jobService;
+    private final EnrollmentService enrollmentService;
+
+    @Value("${application.users.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.users.archive.inactive-days:365}")
+    private int inactiveDays;
+
+    @Value("${application.users.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${application.users.archive.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    @Value("${application.users.archive.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    @Value("${application.users.archive.window-start-hour:1}")
+    private int windowStartHour;
+
+    @Value("${application.users.archive.window-end-hour:6}")
+    private int windowEndHour;
+
+    public UserArchivalService(UserRepository userRepository, UserArchiveRepository userArchiveRepository,
+            TransactionTemplate transactionTemplate, JobService jobService, EnrollmentService enrollmentService) {
+        this.userRepository = userRepository;
+        this.userArchiveRepository = userArchiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jobService = jobService;
+        this.enrollmentService = enrollmentService;
+    }
+
+    /**
+     * Enqueues the day's archival pass. Every node's schedule fires, but the dedupe key
+     * keeps a single job per day, which runs on whichever node claims it.
+     */
+    @Scheduled(cron = "${application.users.archive.cron:0 0 2 * * *}")
+    public void archiveInactiveUsers() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        jobService.enqueueOnce("user-archival:" + today, "maintenance", new ArchiveInactiveUsers(today));
+    }
+
+    /**
+     * Runs one archival pass and returns the number of users moved to the archive.
+     * Stops early when the off-peak window closes or the batch limit is reached.
+     */
+    public int runArchival() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(inactiveDays);
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun && isInsideWindow(); batch++) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            total += moved;
+            if (!pause()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Archived {} users inactive for more than {} days", total, inactiveDays);
+        }
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        // Always page 0: archived rows disappear from users, so the next batch starts over
+        List<Long> ids = userRepository.findArchivableIds(cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Normally already withdrawn when the users were disabled; this keeps seats from leaking
+        enrollmentService.withdrawStudents(ids);
+        userArchiveRepository.copyFromUsers(ids, LocalDateTime.now());
+        return userRepository.deleteByIds(ids);
+    }
+
+    private boolean isInsideWindow() {
+        if (windowStartHour == windowEndHour) {
+            return true; // Same start and end hour means no window restriction
+        }
+        int hour = LocalTime.now().getHour();
+        return windowStartHour < windowEndHour
+                ? hour >= windowStartHour && hour < windowEndHour
+                : hour >= windowStartHour || hour < windowEndHour;
+    }
+
+    private boolean pause() {
+        if (batchPauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
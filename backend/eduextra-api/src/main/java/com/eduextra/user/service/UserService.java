@@ -1,39 +1,81 @@
 package com.eduextra.user.service;
 
+import com.eduextra.avatar.service.AvatarStorageService;
+import com.eduextra.avatar.service.AvatarThumbnailService;
+import com.eduextra.avatar.service.StoredAvatar;
 import com.eduextra.common.dto.PagedResponseDTO;
-import com.eduextra.exception.EmailAlreadyExistsException;
+import com.eduextra.enrollment.service.EnrollmentService;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.exception.PreconditionFailedException;
 import com.eduextra.exception.UserNotFoundException;
+import com.eduextra.exception.ValidationException;
+import com.eduextra.user.dto.BulkUserActionRequestDTO;
+import com.eduextra.user.dto.BulkUserActionResponseDTO;
+import com.eduextra.user.dto.UserPatchDTO;
 import com.eduextra.user.dto.UserRequestDTO;
 import com.eduextra.user.dto.UserResponseDTO;
+import com.eduextra.user.event.UserCreated;
+import com.eduextra.user.event.UserDeleted;
+import com.eduextra.user.event.UserStatusChanged;
+import com.eduextra.user.event.UserUpdated;
 import com.eduextra.user.model.Role;
 import com.eduextra.user.model.User;
+import com.eduextra.user.model.UserArchive;
+import com.eduextra.user.repository.UserArchiveRepository;
 import com.eduextra.user.repository.UserRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService {
 
+    public static final String AGGREGATE_TYPE = "User";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserArchiveRepository userArchiveRepository;
+    private final OutboxService outboxService;
+    private final AvatarStorageService avatarStorageService;
+    private final AvatarThumbnailService avatarThumbnailService;
+    private final EnrollmentService enrollmentService;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+            UserArchiveRepository userArchiveRepository, OutboxService outboxService,
+            AvatarStorageService avatarStorageService, AvatarThumbnailService avatarThumbnailService,
+            EnrollmentService enrollmentService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userArchiveRepository = userArchiveRepository;
+        this.outboxService = outboxService;
+        this.avatarStorageService = avatarStorageService;
+        this.avatarThumbnailService = avatarThumbnailService;
+        this.enrollmentService = enrollmentService;
     }
 
+    /**
+     * Creates a user in a single INSERT. Email and name uniqueness are enforced by the
+     * database constraints; violations are translated to 409 by GlobalExceptionHandler.
+     */
+    @Transactional
     public UserResponseDTO createUser(UserRequestDTO userRequestDTO) {
-
-        if(userRepository.existsByEmail(userRequestDTO.getEmail())) {
-            throw new EmailAlreadyExistsException("Email already exists");
-        }
-
         User user = User.builder()
                 .fullName(userRequestDTO.getFullName())
                 .email(userRequestDTO.getEmail())
@@ -43,13 +85,33 @@ public class UserService {
                 .avatarUrl(userRequestDTO.getAvatarUrl())
                 .build();
 
-        userRepository.save(user);
+        userRepository.saveAndFlush(user);
+        outboxService.append(AGGREGATE_TYPE, user.getId(),
+                new UserCreated(user.getId(), user.getEmail(), user.getFullName(), user.getRole()));
         return mapToResponseDTO(user);
     }
 
     public UserResponseDTO getUserById(Long id) {
-        User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User not found"));
-        return mapToResponseDTO(user);
+        // Archived users are only looked up when the user is not in the hot table
+        return userRepository.findById(id)
+                .map(this::mapToResponseDTO)
+                .orElseGet(() -> userArchiveRepository.findById(id)
+                        .map(this::mapArchiveToResponseDTO)
+                        .orElseThrow(() -> new UserNotFoundException("User not found")));
+    }
+
+    /**
+     * Moves an archived user back into the users table. The account keeps its
+     * previous active state and id.
+     */
+    @Transactional
+    public UserResponseDTO restoreUser(Long id) {
+        if (userArchiveRepository.copyToUsers(id, LocalDateTime.now()) == 0) {
+            throw new UserNotFoundException("Archived user not found");
+        }
+        userArchiveRepository.deleteByIdReturningCount(id);
+        return mapToResponseDTO(userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found")));
     }
 
     public UserResponseDTO getUserByEmail(String email) {
@@ -99,7 +161,22 @@ public class UserService {
     }
 
     public UserResponseDTO updateUser(Long id, UserRequestDTO userRequestDTO) {
+        return updateUser(id, userRequestDTO, null);
+    }
+
+    /**
+     * Full update. When expectedVersion is not null the update only succeeds
+     * if the stored user still has that version (If-Match).
+     */
+    @Transactional
+    public UserResponseDTO updateUser(Long id, UserRequestDTO userRequestDTO, Long expectedVersion) {
         User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User not found"));
+        checkVersion(user, expectedVersion);
+        Set<String> changed = new LinkedHashSet<>();
+        trackChange(changed, "fullName", user.getFullName(), userRequestDTO.getFullName());
+        trackChange(changed, "email", user.getEmail(), userRequestDTO.getEmail());
+        trackChange(changed, "role", user.getRole(), userRequestDTO.getRole());
+        trackChange(changed, "avatarUrl", user.getAvatarUrl(), userRequestDTO.getAvatarUrl());
         user.setFullName(userRequestDTO.getFullName());
         user.setEmail(userRequestDTO.getEmail());
         user.setRole(userRequestDTO.getRole());
@@ -107,28 +184,210 @@ public class UserService {
         // Only update password if provided
         if (userRequestDTO.getPassword() != null && !userRequestDTO.getPassword().trim().isEmpty()) {
             user.setPassword(passwordEncoder.encode(userRequestDTO.getPassword()));
+            changed.add("password");
         }
-        userRepository.save(user);
+        userRepository.saveAndFlush(user);
+        publishUpdate(user, changed);
         return mapToResponseDTO(user);
     }
 
-    public void disableUser(Long id) {
+    /**
+     * Partial update with JSON Merge Patch semantics. Only fields present in the patch are
+     * touched, so the UPDATE statement only contains the changed columns and the password
+     * is only hashed when a new one is sent. Users other than admins can only patch
+     * themselves and cannot change their role.
+     */
+    @Transactional
+    public UserResponseDTO patchUser(Long id, UserPatchDTO patch, Long expectedVersion, User caller) {
+        boolean admin = caller.getRole() == Role.ADMIN;
+        if (!admin && !caller.getId().equals(id)) {
+            throw new AccessDeniedException("Only admins can change other users");
+        }
         User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User not found"));
-        user.setIsActive(false);
-        userRepository.save(user);
+        checkVersion(user, expectedVersion);
+        if (!admin && patch.isPresent("role") && patch.getRole() != user.getRole()) {
+            throw new AccessDeniedException("Only admins can change a user's role");
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        if (patch.isPresent("fullName")) {
+            String fullName = requireNotBlank(patch.getFullName(), "fullName");
+            trackChange(changed, "fullName", user.getFullName(), fullName);
+            user.setFullName(fullName);
+        }
+        if (patch.isPresent("email")) {
+            String email = requireNotBlank(patch.getEmail(), "email");
+            trackChange(changed, "email", user.getEmail(), email);
+            user.setEmail(email);
+        }
+        if (patch.isPresent("role")) {
+            if (patch.getRole() == null) {
+                throw new ValidationException("role cannot be null");
+            }
+            trackChange(changed, "role", user.getRole(), patch.getRole());
+            user.setRole(patch.getRole());
+        }
+        if (patch.isPresent("avatarUrl")) {
+            trackChange(changed, "avatarUrl", user.getAvatarUrl(), patch.getAvatarUrl());
+            user.setAvatarUrl(patch.getAvatarUrl());
+        }
+        if (patch.isPresent("password")) {
+            user.setPassword(passwordEncoder.encode(requireNotBlank(patch.getPassword(), "password")));
+            changed.add("password");
+        }
+
+        // Flush here so a concurrent modification surfaces as an optimistic lock failure
+        userRepository.saveAndFlush(user);
+        publishUpdate(user, changed);
+        return mapToResponseDTO(user);
     }
 
-    public void enableUser(Long id, boolean enable) {
+    /**
+     * Stores an uploaded avatar in local content-addressed storage and points avatarUrl at it.
+     * The user is checked first so unknown ids do not leave files behind.
+     */
+    @Transactional
+    public UserResponseDTO updateAvatar(Long id, MultipartFile file) {
         User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User not found"));
-        user.setIsActive(enable);
-        userRepository.save(user);
+        if (file == null || file.isEmpty()) {
+            throw new ValidationException("Avatar file cannot be empty");
+        }
+        StoredAvatar avatar;
+        try (InputStream content = file.getInputStream()) {
+            avatar = avatarStorageService.store(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read avatar upload", e);
+        }
+        // Small variants are generated in the background; until then the original is served
+        avatarThumbnailService.enqueue(avatar);
+
+        Set<String> changed = new LinkedHashSet<>();
+        String avatarUrl = avatarStorageService.publicUrl(avatar);
+        trackChange(changed, "avatarUrl", user.getAvatarUrl(), avatarUrl);
+        user.setAvatarUrl(avatarUrl);
+        userRepository.saveAndFlush(user);
+        publishUpdate(user, changed);
+        return mapToResponseDTO(user);
+    }
+
+    private void trackChange(Set<String> changed, String field, Object oldValue, Object newValue) {
+        if (!Objects.equals(oldValue, newValue)) {
+            changed.add(field);
+        }
+    }
+
+    private void publishUpdate(User user, Set<String> changed) {
+        if (!changed.isEmpty()) {
+            outboxService.append(AGGREGATE_TYPE, user.getId(), new UserUpdated(user.getId(), changed));
+        }
+    }
+
+    private void checkVersion(User user, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new PreconditionFailedException("User has been modified by another request");
+        }
     }
 
+    private String requireNotBlank(String value, String field) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new ValidationException(field + " cannot be empty");
+        }
+        return value;
+    }
+
+    @Transactional
+    public void disableUser(Long id) {
+        enableUser(id, false);
+    }
+
+    @Transactional
+    public void enableUser(Long id, boolean enable) {
+        // Single UPDATE instead of findById + save
+        if (userRepository.updateActiveById(id, enable, LocalDateTime.now()) == 0) {
+            throw new UserNotFoundException("User not found");
+        }
+        outboxService.append(AGGREGATE_TYPE, id, UserStatusChanged.forIds(List.of(id), enable, 1));
+    }
+
+    @Transactional
     public void permanentlyDeleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
+        // Enrollments have no foreign key to users, so their seats are freed first
+        enrollmentService.withdrawStudents(List.of(id));
+        // Single DELETE instead of existsById + deleteById (which loads the entity again)
+        if (userRepository.deleteByIdReturningCount(id) == 0) {
             throw new UserNotFoundException("User not found");
         }
-        userRepository.deleteById(id);
+        outboxService.append(AGGREGATE_TYPE, id, UserDeleted.forIds(List.of(id), 1));
+    }
+
+    /**
+     * Enables or disables every user matched by the request in a single UPDATE statement.
+     * Users already in the requested state are not counted.
+     */
+    @Transactional
+    public BulkUserActionResponseDTO setUsersActive(BulkUserActionRequestDTO request, boolean enable) {
+        validateBulkRequest(request);
+        LocalDateTime now = LocalDateTime.now();
+        int affected;
+        if (request.hasIds()) {
+            affected = userRepository.updateActiveByIds(request.getIds(), enable, now);
+            if (affected > 0) {
+                outboxService.append(AGGREGATE_TYPE, null, UserStatusChanged.forIds(request.getIds(), enable, affected));
+            }
+        } else {
+            affected = userRepository.updateActiveByFilter(toLikePattern(request.getSearch()), request.getRole(), enable, now);
+            if (affected > 0) {
+                outboxService.append(AGGREGATE_TYPE, null,
+                        UserStatusChanged.forFilter(request.getSearch(), request.getRole(), enable, affected));
+            }
+        }
+        return BulkUserActionResponseDTO.builder().affected(affected).build();
+    }
+
+    /**
+     * Permanently deletes every user matched by the request in a single DELETE statement.
+     * Their active enrollments are withdrawn first in the same transaction.
+     */
+    @Transactional
+    public BulkUserActionResponseDTO permanentlyDeleteUsers(BulkUserActionRequestDTO request) {
+        validateBulkRequest(request);
+        int affected;
+        if (request.hasIds()) {
+            enrollmentService.withdrawStudents(request.getIds());
+            affected = userRepository.deleteByIds(request.getIds());
+            if (affected > 0) {
+                outboxService.append(AGGREGATE_TYPE, null, UserDeleted.forIds(request.getIds(), affected));
+            }
+        } else {
+            // The matched ids are read once so enrollments and users are removed for the same set
+            List<Long> ids = userRepository.findIdsByFilter(toLikePattern(request.getSearch()), request.getRole());
+            enrollmentService.withdrawStudents(ids);
+            affected = ids.isEmpty() ? 0 : userRepository.deleteByIds(ids);
+            if (affected > 0) {
+                outboxService.append(AGGREGATE_TYPE, null,
+                        UserDeleted.forFilter(request.getSearch(), request.getRole(), affected));
+            }
+        }
+        return BulkUserActionResponseDTO.builder().affected(affected).build();
+    }
+
+    private void validateBulkRequest(BulkUserActionRequestDTO request) {
+        // An empty filter would match every user, so it is never accepted
+        if (!request.hasIds() && !request.hasFilter()) {
+            throw new ValidationException("Either ids or a search/role filter is required");
+        }
+    }
+
+    private String toLikePattern(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return null;
+        }
+        // LIKE wildcards typed by the user are matched literally
+        String escaped = search.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 
     private UserResponseDTO mapToResponseDTO(User user) {
@@ -141,6 +400,22 @@ public class UserService {
                 .avatarUrl(user.getAvatarUrl())
                 .createdAt(user.getCreatedAt())
                 .updatedAt(user.getUpdatedAt())
+                .version(user.getVersion())
+                .archived(false)
+                .build();
+    }
+
+    private UserResponseDTO mapArchiveToResponseDTO(UserArchive user) {
+        return UserResponseDTO.builder()
+                .id(user.getId())
+                .fullName(user.getFullName())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .isActive(user.getIsActive())
+                .avatarUrl(user.getAvatarUrl())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .archived(true)
                 .build();
     }
 }
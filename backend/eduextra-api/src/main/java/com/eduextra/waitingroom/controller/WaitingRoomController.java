@@ -0,0 +1,66 @@
+package com.eduextra.waitingroom.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.eduextra.user.model.User;
+import com.eduextra.waitingroom.dto.QueueTicketDTO;
+import com.eduextra.waitingroom.service.WaitingRoomService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for the enrollment waiting room. Tickets are polled with the signed
+ * ticket alone, so polling is answered from memory without loading the user.
+ */
+@RestController
+@RequestMapping("/waiting-room")
+@Tag(name = "Waiting Room", description = "Admission queue for enrollment rushes")
+@RequiredArgsConstructor
+public class WaitingRoomController {
+
+    private final WaitingRoomService waitingRoomService;
+
+    @Operation(
+        summary = "Take a queue ticket",
+        description = "Queues the authenticated student for enrollment. Asking again returns the same ticket and place. Send the ticket in the Queue-Ticket header of enrollment requests once it is admitted.",
+        tags = {"Waiting Room"},
+        responses = {
+            @ApiResponse(responseCode = "201", description = "Ticket issued or returned")
+        }
+    )
+    @SecurityRequirement(name = "Bearer Authentication")
+    @PostMapping("/tickets")
+    public ResponseEntity<QueueTicketDTO> takeTicket(@AuthenticationPrincipal User user) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .cacheControl(CacheControl.noStore())
+                .body(waitingRoomService.issue(user.getId()));
+    }
+
+    @Operation(
+        summary = "Get a ticket's place in the queue",
+        description = "Position, estimated wait and whether the ticket is admitted. Poll again after pollAfterSeconds.",
+        tags = {"Waiting Room"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Ticket status returned"),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired ticket, or issued by another node")
+        }
+    )
+    @GetMapping("/tickets/{ticket}")
+    public ResponseEntity<QueueTicketDTO> getTicket(@PathVariable String ticket) {
+        return waitingRoomService.status(ticket)
+                .map(status -> ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(status))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
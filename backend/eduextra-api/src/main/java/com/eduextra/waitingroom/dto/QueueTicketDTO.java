@@ -0,0 +1,36 @@
+package com.eduextra.waitingroom.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a place in the enrollment waiting room
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Place in the enrollment waiting room")
+public class QueueTicketDTO {
+
+    @Schema(description = "Signed ticket; send it in the Queue-Ticket header when enrolling")
+    private String ticket;
+
+    @Schema(description = "Whether the ticket lets enrollment requests through now", example = "false")
+    private Boolean admitted;
+
+    @Schema(description = "Students ahead, this one included; 0 once admitted", example = "1250")
+    private Long position;
+
+    @Schema(description = "Estimated wait at the current admission rate", example = "42")
+    private Long estimatedWaitSeconds;
+
+    @Schema(description = "When to poll the ticket again", example = "10")
+    private Long pollAfterSeconds;
+
+    @Schema(description = "Seconds an admitted ticket stays valid", example = "600")
+    private Long validForSeconds;
+}
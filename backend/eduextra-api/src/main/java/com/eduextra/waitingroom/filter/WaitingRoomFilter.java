@@ -0,0 +1,95 @@
+package com.eduextra.waitingroom.filter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.eduextra.exception.ErrorResponse;
+import com.eduextra.user.model.User;
+import com.eduextra.waitingroom.service.WaitingRoomService;
+import com.eduextra.waitingroom.service.WaitingRoomService.Admission;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Puts POST requests on the configured paths behind the waiting room. Requests that are not
+ * admitted get a 429 with Retry-After before any database work; admitted ones are timed so
+ * the admission rate follows how long enrollment actually takes.
+ *
+ * Runs after the Spring Security filter chain, so the student is already authenticated.
+ */
+@Component
+public class WaitingRoomFilter extends OncePerRequestFilter {
+
+    public static final String TICKET_HEADER = "Queue-Ticket";
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final WaitingRoomService waitingRoomService;
+    private final ObjectMapper objectMapper;
+    private final List<String> paths;
+
+    public WaitingRoomFilter(WaitingRoomService waitingRoomService, ObjectMapper objectMapper,
+            @Value("${application.waiting-room.paths:/activities/*/enrollments}") String paths) {
+        this.waitingRoomService = waitingRoomService;
+        this.objectMapper = objectMapper;
+        this.paths = Arrays.stream(paths.split(",")).map(String::trim).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (!waitingRoomService.isEnabled() || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = URL_PATH_HELPER.getPathWithinApplication(request);
+        return paths.stream().noneMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            // Security rejects the request further down
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Admission admission = waitingRoomService.admit(user.getId(), request.getHeader(TICKET_HEADER));
+        if (!admission.admitted()) {
+            ErrorResponse error = new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), admission.message(),
+                    "uri=" + request.getRequestURI());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, admission.retryAfterSeconds())));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), error);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            waitingRoomService.recordLatency(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.eduextra.waitingroom.service;
+
+/**
+ * FIFO admission at an adaptive rate.
+ *
+ * Waiting clients hold consecutive sequence numbers and everything up to admittedThrough is
+ * admitted. Admission works like a token bucket refilled at the current rate and holding
+ * at most one second of tokens. The queue is advanced lazily on every call, so no thread
+ * has to tick it. A client without a ticket may go straight in while nobody is waiting and
+ * a token is left; otherwise it has to queue.
+ *
+ * The rate follows the latency of admitted requests, AIMD style: once per adjust interval
+ * it is cut by a third if the mean latency was above target, and raised by a fixed step if
+ * latency was fine and there was more demand than admissions.
+ *
+ * Every operation is a few arithmetic steps under the monitor, so one lock is enough.
+ * Times are System.nanoTime() values passed in by the caller.
+ */
+final class AdmissionQueue {
+
+    private static final double DECREASE_FACTOR = 0.7;
+
+    private final double minRate;
+    private final double maxRate;
+    private final double rateStep;
+    private final long targetLatencyNanos;
+    private final long adjustIntervalNanos;
+
+    private double rate;
+    private double tokens;
+    private long refilledAt;
+    private long adjustedAt;
+    private long issued;
+    private long admittedThrough;
+    // Whether anyone was kept waiting since the last adjustment
+    private boolean saturated;
+    private long latencySum;
+    private long latencySamples;
+
+    AdmissionQueue(double initialRate, double minRate, double maxRate, double rateStep, long targetLatencyNanos,
+            long adjustIntervalNanos, long now) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.rateStep = rateStep;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.adjustIntervalNanos = adjustIntervalNanos;
+        this.rate = Math.max(minRate, Math.min(maxRate, initialRate));
+        this.tokens = burst();
+        this.refilledAt = now;
+        this.adjustedAt = now;
+    }
+
+    /**
+     * Puts a client at the back of the queue and returns its sequence number.
+     */
+    synchronized long enqueue(long now) {
+        advance(now);
+        long sequence = ++issued;
+        advance(now);
+        return sequence;
+    }
+
+    /**
+     * Lets a client without a ticket in if nobody is waiting and the rate allows it.
+     */
+    synchronized boolean tryEnterDirectly(long now) {
+        advance(now);
+        if (admittedThrough == issued && tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        saturated = true;
+        return false;
+    }
+
+    /**
+     * Clients still ahead of the given sequence number, itself included; 0 once admitted.
+     */
+    synchronized long position(long sequence, long now) {
+        advance(now);
+        return Math.max(0, sequence - admittedThrough);
+    }
+
+    synchronized long waiting(long now) {
+        advance(now);
+        return issued - admittedThrough;
+    }
+
+    synchronized long admittedThrough(long now) {
+        advance(now);
+        return admittedThrough;
+    }
+
+    synchronized double rate() {
+        return rate;
+    }
+
+    /**
+     * Latency of a request that was let in, fed back into the rate.
+     */
+    synchronized void recordLatency(long nanos) {
+        latencySum += nanos;
+        latencySamples++;
+    }
+
+    private void advance(long now) {
+        // Admit everyone the elapsed time paid for before capping what is left over
+        double available = tokens + rate * (now - refilledAt) / 1e9;
+        refilledAt = now;
+        long admitted = Math.min((long) available, issued - admittedThrough);
+        admittedThrough += admitted;
+        tokens = Math.min(burst(), available - admitted);
+        if (admittedThrough < issued) {
+            saturated = true;
+        }
+        if (now - adjustedAt >= adjustIntervalNanos) {
+            adjust();
+            adjustedAt = now;
+        }
+    }
+
+    private void adjust() {
+        if (latencySamples > 0) {
+            if (latencySum / latencySamples > targetLatencyNanos) {
+                rate = Math.max(minRate, rate * DECREASE_FACTOR);
+                tokens = Math.min(tokens, burst());
+            } else if (saturated) {
+                rate = Math.min(maxRate, rate + rateStep);
+            }
+        }
+        latencySum = 0;
+        latencySamples = 0;
+        saturated = admittedThrough < issued;
+    }
+
+    private double burst() {
+        return Math.max(1, rate);
+    }
+}
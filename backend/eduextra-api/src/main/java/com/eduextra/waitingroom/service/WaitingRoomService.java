@@ -0,0 +1,262 @@
+package com.eduextra.waitingroom.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eduextra.waitingroom.dto.QueueTicketDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Virtual waiting room in front of enrollment, for the rush when registration opens.
+ *
+ * Students take a queue ticket and are admitted in order at a rate that adapts to how long
+ * admitted enrollment requests take (see AdmissionQueue). While nobody is waiting and the
+ * rate allows it, requests without a ticket go straight through, so outside a rush the
+ * room is invisible. An admitted ticket lets its student enroll for admission-window-seconds.
+ *
+ * Tickets are signed with a key generated at startup and the queue lives in memory, so
+ * issuing and polling never touch the database. Both are per node: a ticket is only
+ * recognised by the node that issued it (route /waiting-room and enrollment with sticky
+ * sessions) and the configured rates apply to each node.
+ *
+ * Metrics: waitingroom.waiting, waitingroom.rate, waitingroom.requests
+ * (tag result=direct|ticket|turned_away).
+ */
+@Service
+public class WaitingRoomService {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 16;
+    private static final long MAX_POLL_SECONDS = 30;
+
+    /**
+     * Whether a request may go through now and, if not, when to try again.
+     */
+    public record Admission(boolean admitted, long retryAfterSeconds, String message) {
+    }
+
+    private record ParsedTicket(long userId, long sequence) {
+    }
+
+    private static final class Entry {
+
+        private final long sequence;
+        private final String ticket;
+        // Epoch millis of the first time the ticket was seen admitted, 0 before
+        private volatile long admittedAt;
+
+        private Entry(long sequence, String ticket) {
+            this.sequence = sequence;
+            this.ticket = ticket;
+        }
+    }
+
+    private final AdmissionQueue queue;
+    private final boolean enabled;
+    private final long admissionWindowMs;
+    private final SecretKeySpec key;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Counter direct;
+    private final Counter withTicket;
+    private final Counter turnedAway;
+
+    public WaitingRoomService(MeterRegistry meterRegistry,
+            @Value("${application.waiting-room.enabled:true}") boolean enabled,
+            @Value("${application.waiting-room.initial-rate:50}") double initialRate,
+            @Value("${application.waiting-room.min-rate:5}") double minRate,
+            @Value("${application.waiting-room.max-rate:500}") double maxRate,
+            @Value("${application.waiting-room.rate-step:5}") double rateStep,
+            @Value("${application.waiting-room.target-latency-ms:250}") long targetLatencyMs,
+            @Value("${application.waiting-room.adjust-interval-ms:1000}") long adjustIntervalMs,
+            @Value("${application.waiting-room.admission-window-seconds:600}") long admissionWindowSeconds) {
+        this.enabled = enabled;
+        this.queue = new AdmissionQueue(initialRate, minRate, maxRate, rateStep, TimeUnit.MILLISECONDS.toNanos(targetLatencyMs),
+                TimeUnit.MILLISECONDS.toNanos(adjustIntervalMs), System.nanoTime());
+        this.admissionWindowMs = admissionWindowSeconds * 1000;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, MAC_ALGORITHM);
+        this.direct = Counter.builder("waitingroom.requests").tag("result", "direct")
+                .description("Enrollment requests seen by the waiting room").register(meterRegistry);
+        this.withTicket = Counter.builder("waitingroom.requests").tag("result", "ticket")
+                .description("Enrollment requests seen by the waiting room").register(meterRegistry);
+        this.turnedAway = Counter.builder("waitingroom.requests").tag("result", "turned_away")
+                .description("Enrollment requests seen by the waiting room").register(meterRegistry);
+        Gauge.builder("waitingroom.waiting", queue, q -> q.waiting(System.nanoTime()))
+                .description("Students queued and not yet admitted").register(meterRegistry);
+        Gauge.builder("waitingroom.rate", queue, AdmissionQueue::rate)
+                .description("Current admissions per second").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the student, or returns the ticket they already hold so that asking again
+     * never costs them their place.
+     */
+    public QueueTicketDTO issue(Long userId) {
+        long now = System.nanoTime();
+        Entry entry = entries.compute(userId, (id, existing) -> {
+            if (existing != null && !expired(existing)) {
+                return existing;
+            }
+            long sequence = queue.enqueue(now);
+            return new Entry(sequence, sign(id, sequence));
+        });
+        return describe(entry, now);
+    }
+
+    /**
+     * Position and wait of a ticket, if it was issued by this node and is still valid.
+     */
+    public Optional<QueueTicketDTO> status(String ticket) {
+        Entry entry = find(ticket);
+        return entry == null ? Optional.empty() : Optional.of(describe(entry, System.nanoTime()));
+    }
+
+    /**
+     * Decides whether a student's enrollment request may go through now.
+     */
+    public Admission admit(Long userId, String ticket) {
+        long now = System.nanoTime();
+        Entry entry = ticket != null ? find(ticket) : null;
+        if (entry != null && entries.get(userId) == entry) {
+            long position = queue.position(entry.sequence, now);
+            if (position == 0) {
+                markAdmitted(entry);
+                withTicket.increment();
+                return new Admission(true, 0, null);
+            }
+            turnedAway.increment();
+            return new Admission(false, waitSeconds(position), "Your queue ticket has not been admitted yet");
+        }
+        if (queue.tryEnterDirectly(now)) {
+            direct.increment();
+            return new Admission(true, 0, null);
+        }
+        turnedAway.increment();
+        return new Admission(false, waitSeconds(queue.waiting(now) + 1),
+                "Enrollment is busy: take a queue ticket at POST /waiting-room/tickets and send it in the Queue-Ticket header once admitted");
+    }
+
+    /**
+     * Feeds the duration of an admitted request back into the admission rate.
+     */
+    public void recordLatency(long nanos) {
+        queue.recordLatency(nanos);
+    }
+
+    /**
+     * Starts the admission window of tickets nobody has polled since they were admitted and
+     * forgets the ones whose window is over.
+     */
+    @Scheduled(fixedDelayString = "${application.waiting-room.cleanup-interval-ms:10000}")
+    public void purgeExpired() {
+        long admittedThrough = queue.admittedThrough(System.nanoTime());
+        entries.values().removeIf(entry -> {
+            if (entry.sequence <= admittedThrough) {
+                markAdmitted(entry);
+            }
+            return expired(entry);
+        });
+    }
+
+    private QueueTicketDTO describe(Entry entry, long now) {
+        long position = queue.position(entry.sequence, now);
+        long validForSeconds = admissionWindowMs / 1000;
+        if (position == 0) {
+            markAdmitted(entry);
+            validForSeconds = Math.max(0, (entry.admittedAt + admissionWindowMs - System.currentTimeMillis()) / 1000);
+        }
+        long wait = waitSeconds(position);
+        return QueueTicketDTO.builder()
+                .ticket(entry.ticket)
+                .admitted(position == 0)
+                .position(position)
+                .estimatedWaitSeconds(wait)
+                // Polling at half the remaining wait keeps the poll rate flat as the queue drains
+                .pollAfterSeconds(position == 0 ? 0 : Math.max(1, Math.min(MAX_POLL_SECONDS, wait / 2)))
+                .validForSeconds(validForSeconds)
+                .build();
+    }
+
+    private long waitSeconds(long position) {
+        return position == 0 ? 0 : (long) Math.ceil(position / queue.rate());
+    }
+
+    private Entry find(String ticket) {
+        ParsedTicket parsed = parse(ticket);
+        if (parsed == null) {
+            return null;
+        }
+        Entry entry = entries.get(parsed.userId());
+        return entry != null && entry.sequence == parsed.sequence() && !expired(entry) ? entry : null;
+    }
+
+    private void markAdmitted(Entry entry) {
+        if (entry.admittedAt == 0) {
+            entry.admittedAt = System.currentTimeMillis();
+        }
+    }
+
+    private boolean expired(Entry entry) {
+        return entry.admittedAt != 0 && System.currentTimeMillis() - entry.admittedAt > admissionWindowMs;
+    }
+
+    // Ticket format: userId.sequence.signature
+    private String sign(long userId, long sequence) {
+        String payload = userId + "." + sequence;
+        return payload + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(mac(payload));
+    }
+
+    private ParsedTicket parse(String ticket) {
+        String[] parts = ticket.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        byte[] signature;
+        long userId;
+        long sequence;
+        try {
+            signature = Base64.getUrlDecoder().decode(parts[2]);
+            userId = Long.parseLong(parts[0]);
+            sequence = Long.parseLong(parts[1]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(signature, mac(parts[0] + "." + parts[1]))) {
+            return null;
+        }
+        return new ParsedTicket(userId, sequence);
+    }
+
+    private byte[] mac(String payload) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)), MAC_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.eduextra.waitlist.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import com.eduextra.common.dto.PagedResponseDTO;
+import com.eduextra.exception.ErrorResponse;
+import com.eduextra.user.model.User;
+import com.eduextra.waitlist.dto.WaitlistEntryResponseDTO;
+import com.eduextra.waitlist.dto.WaitlistPriorityRequestDTO;
+import com.eduextra.waitlist.service.WaitlistService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for activity waitlists. Students join a waitlist by enrolling in a full
+ * activity (POST /activities/{activityId}/enrollments).
+ *
+ * Security: All endpoints require JWT Bearer authentication.
+ */
+@RestController
+@RequestMapping("/activities/{activityId}/waitlist")
+@Tag(name = "Waitlist Management", description = "Operations related to activity waitlists")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    @Operation(
+        summary = "Get my waitlist position",
+        description = "Returns the authenticated student's position on the waitlist of an activity.",
+        tags = {"Waitlist Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Position retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Student is not on the waitlist", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @GetMapping("/me")
+    public ResponseEntity<WaitlistEntryResponseDTO> getMyPosition(@PathVariable Long activityId, @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(waitlistService.getPosition(activityId, user.getId()));
+    }
+
+    @Operation(
+        summary = "Leave a waitlist",
+        description = "Removes the authenticated student from the waitlist of an activity.",
+        tags = {"Waitlist Management"},
+        responses = {
+            @ApiResponse(responseCode = "204", description = "Left the waitlist"),
+            @ApiResponse(responseCode = "404", description = "Student is not on the waitlist", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @DeleteMapping("/me")
+    public ResponseEntity<Void> leave(@PathVariable Long activityId, @AuthenticationPrincipal User user) {
+        waitlistService.leave(activityId, user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(
+        summary = "Get the waitlist of an activity",
+        description = "Retrieves the waiting students of an activity in promotion order.",
+        tags = {"Waitlist Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Waitlist retrieved successfully")
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @GetMapping
+    public ResponseEntity<PagedResponseDTO<WaitlistEntryResponseDTO>> getWaitlist(@PathVariable Long activityId,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(waitlistService.getWaitlist(activityId, page, size));
+    }
+
+    @Operation(
+        summary = "Change a student's waitlist priority",
+        description = "Moves a student up or down the waitlist. Higher priorities are promoted first; students with the same priority keep their join order.",
+        tags = {"Waitlist Management"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Priority updated"),
+            @ApiResponse(responseCode = "400", description = "Invalid priority", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Student is not on the waitlist", 
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'COORDINATOR')")
+    @PatchMapping("/{studentId}")
+    public ResponseEntity<WaitlistEntryResponseDTO> setPriority(@PathVariable Long activityId, @PathVariable Long studentId,
+            @Valid @RequestBody WaitlistPriorityRequestDTO request) {
+        return ResponseEntity.ok(waitlistService.setPriority(activityId, studentId, request.getPriority()));
+    }
+}
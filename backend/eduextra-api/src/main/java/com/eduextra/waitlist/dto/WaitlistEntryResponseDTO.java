@@ -0,0 +1,35 @@
+package com.eduextra.waitlist.dto;
+
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A student's place on an activity waitlist")
+public class WaitlistEntryResponseDTO {
+
+    @Schema(description = "Activity id", example = "3")
+    private Long activityId;
+
+    @Schema(description = "Student id", example = "42")
+    private Long studentId;
+
+    @Schema(description = "Priority boost, higher is promoted first", example = "0")
+    private Integer priority;
+
+    @Schema(description = "1-based position on the waitlist", example = "4")
+    private Integer position;
+
+    @Schema(description = "Number of students waiting", example = "37")
+    private Integer waiting;
+
+    @Schema(description = "When the student joined the waitlist")
+    private LocalDateTime joinedAt;
+}
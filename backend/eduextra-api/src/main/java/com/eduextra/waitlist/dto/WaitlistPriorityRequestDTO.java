@@ -0,0 +1,15 @@
+package com.eduextra.waitlist.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class WaitlistPriorityRequestDTO {
+
+    @NotNull(message = "Priority is required")
+    @Min(value = 0, message = "Priority must be between 0 and 100")
+    @Max(value = 100, message = "Priority must be between 0 and 100")
+    private Integer priority;
+}
@@ -0,0 +1,10 @@
+package com.eduextra.waitlist.event;
+
+import java.util.List;
+
+/**
+ * Outbox event published when students join, leave or move within an activity's waitlist.
+ * Carries no positions: every node re-reads those students' entries to update its queue.
+ */
+public record WaitlistChanged(Long activityId, List<Long> studentIds) {
+}
@@ -0,0 +1,9 @@
+package com.eduextra.waitlist.event;
+
+import java.util.List;
+
+/**
+ * Outbox event published when waiting students are given seats in one promotion batch.
+ */
+public record WaitlistPromoted(Long activityId, List<Long> studentIds) {
+}
@@ -0,0 +1,54 @@
+package com.eduextra.waitlist.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A student waiting for a seat in a full activity. Entries are promoted by priority
+ * (higher first) and then by id, which is the join order. Promoted or cancelled entries
+ * are deleted.
+ */
+@Entity
+@Data
+@Table(name = "waitlist_entries", uniqueConstraints = {
+    @UniqueConstraint(name = WaitlistEntry.ACTIVITY_STUDENT_CONSTRAINT, columnNames = {"activity_id", "student_id"})
+}, indexes = {
+    @Index(name = "idx_waitlist_entries_activity_order", columnList = "activity_id, priority DESC, id"),
+    @Index(name = "idx_waitlist_entries_student_id", columnList = "student_id")
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+
+    public static final String ACTIVITY_STUDENT_CONSTRAINT = "uk_waitlist_entries_activity_student";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long activityId;
+
+    @Column(nullable = false)
+    private Long studentId;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer priority = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime joinedAt;
+}
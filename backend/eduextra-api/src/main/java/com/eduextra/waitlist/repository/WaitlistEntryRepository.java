@@ -0,0 +1,65 @@
+package com.eduextra.waitlist.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.eduextra.waitlist.model.WaitlistEntry;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // Buscar la entrada de un estudiante en la lista de espera de una actividad
+    Optional<WaitlistEntry> findByActivityIdAndStudentId(Long activityId, Long studentId);
+
+    // Entradas de varios estudiantes en la lista de espera de una actividad
+    List<WaitlistEntry> findByActivityIdAndStudentIdIn(Long activityId, Collection<Long> studentIds);
+
+    // Ver si una actividad tiene estudiantes esperando
+    boolean existsByActivityId(Long activityId);
+
+    // Siguientes estudiantes a promocionar, en orden de prioridad y llegada
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.activityId = :activityId ORDER BY w.priority DESC, w.id ASC")
+    List<WaitlistEntry> findNext(@Param("activityId") Long activityId, Pageable pageable);
+
+    // Lista de espera paginada de una actividad
+    @Query(value = "SELECT w FROM WaitlistEntry w WHERE w.activityId = :activityId ORDER BY w.priority DESC, w.id ASC",
+            countQuery = "SELECT COUNT(w) FROM WaitlistEntry w WHERE w.activityId = :activityId")
+    Page<WaitlistEntry> findPageByActivityId(@Param("activityId") Long activityId, Pageable pageable);
+
+    // Todas las entradas, en orden, para reconstruir las colas en memoria
+    @Query("SELECT w FROM WaitlistEntry w ORDER BY w.activityId, w.priority DESC, w.id ASC")
+    Stream<WaitlistEntry> streamAllOrdered();
+
+    // Actividades con estudiantes esperando
+    @Query("SELECT DISTINCT w.activityId FROM WaitlistEntry w")
+    List<Long> findActivityIdsWithEntries();
+
+    // Entradas de estudiantes desactivados
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.studentId IN (SELECT u.id FROM User u WHERE u.isActive = false)")
+    List<WaitlistEntry> findOfInactiveStudents();
+
+    // Elimina varias entradas de una actividad de una sola vez
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM WaitlistEntry w WHERE w.activityId = :activityId AND w.studentId IN :studentIds")
+    int deleteByActivityIdAndStudentIds(@Param("activityId") Long activityId, @Param("studentIds") Collection<Long> studentIds);
+
+    // Elimina varias entradas por id
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM WaitlistEntry w WHERE w.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // Cambia la prioridad de una entrada
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WaitlistEntry w SET w.priority = :priority WHERE w.activityId = :activityId AND w.studentId = :studentId")
+    int updatePriority(@Param("activityId") Long activityId, @Param("studentId") Long studentId, @Param("priority") int priority);
+}
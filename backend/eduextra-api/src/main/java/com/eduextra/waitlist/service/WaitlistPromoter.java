@@ -0,0 +1,195 @@
+package com.eduextra.waitlist.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.activity.repository.ActivitySeats;
+import com.eduextra.activity.service.ActivityService;
+import com.eduextra.enrollment.service.EnrollmentService;
+import com.eduextra.exception.ActivityFullException;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.user.repository.UserRepository;
+import com.eduextra.waitlist.event.WaitlistPromoted;
+import com.eduextra.waitlist.model.WaitlistEntry;
+import com.eduextra.waitlist.repository.WaitlistEntryRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hands freed seats to waiting students.
+ *
+ * Events only mark activities dirty (or request a sweep of disabled students); a scheduled
+ * pass then promotes per activity in one short transaction: read the free seats, take that
+ * many students from the head of the waitlist, enroll them with a single seat update and
+ * delete their entries. Bursts of withdrawals on the same activity collapse into one pass.
+ *
+ * Metrics: waitlist.promoted, waitlist.promotion.
+ */
+@Service
+public class WaitlistPromoter {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistPromoter.class);
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final ActivityRepository activityRepository;
+    private final UserRepository userRepository;
+    private final EnrollmentService enrollmentService;
+    private final WaitlistService waitlistService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean sweepRequested = new AtomicBoolean();
+
+    private final Counter promoted;
+    private final Timer promotionTimer;
+
+    @Value("${application.waitlist.promotion-batch-size:100}")
+    private int batchSize;
+
+    public WaitlistPromoter(WaitlistEntryRepository waitlistEntryRepository, ActivityRepository activityRepository,
+            UserRepository userRepository, EnrollmentService enrollmentService, WaitlistService waitlistService,
+            OutboxService outboxService, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.activityRepository = activityRepository;
+        this.userRepository = userRepository;
+        this.enrollmentService = enrollmentService;
+        this.waitlistService = waitlistService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.promoted = Counter.builder("waitlist.promoted").description("Students promoted from a waitlist").register(meterRegistry);
+        this.promotionTimer = Timer.builder("waitlist.promotion").description("Time to promote one activity's waitlist").register(meterRegistry);
+    }
+
+    /**
+     * Catches up on seats freed while the application was down.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void markAllDirty() {
+        dirty.addAll(waitlistEntryRepository.findActivityIdsWithEntries());
+        sweepRequested.set(true);
+    }
+
+    public void markDirty(Long activityId) {
+        dirty.add(activityId);
+    }
+
+    /**
+     * Asks the next pass to withdraw disabled students from their activities and waitlists.
+     */
+    public void requestSweep() {
+        sweepRequested.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${application.waitlist.promotion-interval-ms:1000}")
+    public void promotePending() {
+        if (sweepRequested.getAndSet(false)) {
+            dirty.addAll(sweepInactiveStudents());
+        }
+        for (Long activityId : new ArrayList<>(dirty)) {
+            dirty.remove(activityId);
+            try {
+                boolean more = promotionTimer.record(() -> transactionTemplate.execute(status -> promote(activityId)));
+                if (more) {
+                    dirty.add(activityId);
+                }
+            } catch (ActivityFullException e) {
+                // Seats taken on another node between the read and the update; try again next pass
+                dirty.add(activityId);
+            } catch (RuntimeException e) {
+                dirty.add(activityId);
+                log.warn("Waitlist promotion failed for activity {}: {}", activityId, e.toString());
+            }
+        }
+    }
+
+    /**
+     * Promotes as many waiting students as there are free seats. Returns whether the
+     * activity should be looked at again (a full batch was promoted or ineligible
+     * students were dropped).
+     */
+    boolean promote(Long activityId) {
+        ActivitySeats seats = activityRepository.findSeatsById(activityId).orElse(null);
+        if (seats == null || seats.status() != ActivityStatus.OPEN || seats.remaining() <= 0) {
+            return false;
+        }
+        int take = Math.min(seats.remaining(), batchSize);
+        List<WaitlistEntry> next = waitlistEntryRepository.findNext(activityId, PageRequest.of(0, take));
+        if (next.isEmpty()) {
+            return false;
+        }
+
+        List<Long> candidates = next.stream().map(WaitlistEntry::getStudentId).collect(Collectors.toList());
+        Set<Long> active = new HashSet<>(userRepository.findActiveIdsByIdIn(candidates));
+        List<Long> eligible = candidates.stream().filter(active::contains).collect(Collectors.toList());
+        List<Long> enrolled = eligible.isEmpty() ? List.of() : enrollmentService.enrollFromWaitlist(activityId, eligible);
+
+        // Disabled students, students already enrolled and students with a clash leave the waitlist too
+        waitlistEntryRepository.deleteByActivityIdAndStudentIds(activityId, candidates);
+        waitlistService.publishChanged(activityId, candidates);
+        if (!enrolled.isEmpty()) {
+            outboxService.append(ActivityService.AGGREGATE_TYPE, activityId, new WaitlistPromoted(activityId, enrolled));
+        }
+        afterCommit(() -> {
+            waitlistService.removeFromQueue(activityId, candidates);
+            promoted.increment(enrolled.size());
+        });
+        return (take == batchSize && next.size() == take) || enrolled.size() < candidates.size();
+    }
+
+    /**
+     * Withdraws disabled students from their activities and drops their waitlist entries.
+     * Returns the activities that got seats back.
+     */
+    private Set<Long> sweepInactiveStudents() {
+        try {
+            Set<Long> freed = new HashSet<>(enrollmentService.withdrawInactiveStudents());
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, List<Long>> byActivity = waitlistEntryRepository.findOfInactiveStudents().stream()
+                        .collect(Collectors.groupingBy(WaitlistEntry::getActivityId,
+                                Collectors.mapping(WaitlistEntry::getStudentId, Collectors.toList())));
+                byActivity.forEach((activityId, studentIds) -> {
+                    waitlistEntryRepository.deleteByActivityIdAndStudentIds(activityId, studentIds);
+                    waitlistService.publishChanged(activityId, studentIds);
+                });
+                afterCommit(() -> byActivity.forEach(waitlistService::removeFromQueue));
+            });
+            return freed;
+        } catch (RuntimeException e) {
+            sweepRequested.set(true);
+            log.warn("Sweep of disabled students failed: {}", e.toString());
+            return Set.of();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package com.eduextra.waitlist.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Waitlist of one activity held in memory: higher priority first, then join order.
+ *
+ * Implemented as a treap whose nodes know their subtree size, so adding, removing and
+ * computing a student's position are all O(log n). Thread safe.
+ */
+final class WaitlistQueue {
+
+    private Node root;
+    private final Map<Long, Node> byStudent = new HashMap<>();
+
+    /**
+     * Adds a student, or moves them if already present. seq is the join order (entry id).
+     */
+    synchronized void add(long studentId, int priority, long seq) {
+        Node existing = byStudent.remove(studentId);
+        if (existing != null) {
+            root = delete(root, existing);
+        }
+        Node node = new Node(studentId, priority, seq);
+        byStudent.put(studentId, node);
+        root = insert(root, node);
+    }
+
+    synchronized boolean remove(long studentId) {
+        Node node = byStudent.remove(studentId);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node);
+        return true;
+    }
+
+    /**
+     * 1-based position of the student, or 0 if not waiting.
+     */
+    synchronized int position(long studentId) {
+        Node target = byStudent.get(studentId);
+        if (target == null) {
+            return 0;
+        }
+        int before = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(target, node);
+            if (cmp == 0) {
+                return before + size(node.left) + 1;
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                before += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * First n students in promotion order.
+     */
+    synchronized List<Long> peek(int n) {
+        List<Long> result = new ArrayList<>(Math.min(n, size(root)));
+        collect(root, n, result);
+        return result;
+    }
+
+    synchronized int size() {
+        return size(root);
+    }
+
+    private void collect(Node node, int n, List<Long> result) {
+        if (node == null || result.size() >= n) {
+            return;
+        }
+        collect(node.left, n, result);
+        if (result.size() < n) {
+            result.add(node.studentId);
+            collect(node.right, n, result);
+        }
+    }
+
+    private Node insert(Node node, Node item) {
+        if (node == null) {
+            return item;
+        }
+        if (item.heap > node.heap) {
+            Node[] parts = split(node, item);
+            item.left = parts[0];
+            item.right = parts[1];
+            return update(item);
+        }
+        if (compare(item, node) < 0) {
+            node.left = insert(node.left, item);
+        } else {
+            node.right = insert(node.right, item);
+        }
+        return update(node);
+    }
+
+    private Node delete(Node node, Node item) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(item, node);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, item);
+        } else {
+            node.right = delete(node.right, item);
+        }
+        return update(node);
+    }
+
+    // Splits into nodes ordered before key and nodes ordered after it
+    private Node[] split(Node node, Node key) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+        if (compare(node, key) < 0) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            return new Node[] {update(node), parts[1]};
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        return new Node[] {parts[0], update(node)};
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.heap > right.heap) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private static int compare(Node a, Node b) {
+        if (a.priority != b.priority) {
+            return Integer.compare(b.priority, a.priority);
+        }
+        return Long.compare(a.seq, b.seq);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static final class Node {
+        final long studentId;
+        final int priority;
+        final long seq;
+        final int heap = ThreadLocalRandom.current().nextInt();
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(long studentId, int priority, long seq) {
+            this.studentId = studentId;
+            this.priority = priority;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.eduextra.waitlist.service;
+
+import org.springframework.stereotype.Component;
+
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.service.OutboxBroadcastSubscriber;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.waitlist.event.WaitlistChanged;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Brings waitlist changes made on any node into this node's in-memory queues. The entries
+ * are re-read from the database, so late or repeated events are harmless.
+ */
+@Component
+@RequiredArgsConstructor
+public class WaitlistQueueSubscriber implements OutboxBroadcastSubscriber {
+
+    private final OutboxService outboxService;
+    private final WaitlistService waitlistService;
+
+    @Override
+    public boolean supports(String eventType) {
+        return WaitlistChanged.class.getSimpleName().equals(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        WaitlistChanged changed = outboxService.readPayload(event, WaitlistChanged.class);
+        waitlistService.refreshQueue(changed.activityId(), changed.studentIds());
+    }
+
+    @Override
+    public void reload() {
+        waitlistService.rebuild();
+    }
+}
@@ -0,0 +1,281 @@
+package com.eduextra.waitlist.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.activity.service.ActivityService;
+import com.eduextra.common.dto.PagedResponseDTO;
+import com.eduextra.enrollment.dto.EnrollmentResponseDTO;
+import com.eduextra.enrollment.model.EnrollmentStatus;
+import com.eduextra.enrollment.repository.EnrollmentRepository;
+import com.eduextra.enrollment.service.EnrollmentService;
+import com.eduextra.exception.ActivityFullException;
+import com.eduextra.exception.ActivityNotFoundException;
+import com.eduextra.exception.EnrollmentNotAllowedException;
+import com.eduextra.exception.WaitlistEntryNotFoundException;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.schedule.service.ScheduleIndex;
+import com.eduextra.user.model.Role;
+import com.eduextra.waitlist.dto.WaitlistEntryResponseDTO;
+import com.eduextra.waitlist.event.WaitlistChanged;
+import com.eduextra.waitlist.model.WaitlistEntry;
+import com.eduextra.waitlist.repository.WaitlistEntryRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Activity waitlists. The waitlist_entries table is the source of truth; each node keeps an
+ * in-memory queue per activity, rebuilt on startup, to answer positions in O(log n).
+ *
+ * Queues are updated right after commit on the node that made the change, and on every node
+ * by WaitlistChanged events from the outbox tail, so positions on other nodes can lag by a
+ * poll interval. Decisions that must not lag, such as whether a student may skip the
+ * waitlist, are taken against the database.
+ *
+ * Metrics: waitlist.waiting.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistService.class);
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final ActivityRepository activityRepository;
+    private final EnrollmentService enrollmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduleIndex scheduleIndex;
+    private final OutboxService outboxService;
+
+    private final ConcurrentHashMap<Long, WaitlistQueue> queues = new ConcurrentHashMap<>();
+
+    public WaitlistService(WaitlistEntryRepository waitlistEntryRepository, EnrollmentRepository enrollmentRepository,
+            ActivityRepository activityRepository, EnrollmentService enrollmentService,
+            TransactionTemplate transactionTemplate, ScheduleIndex scheduleIndex, OutboxService outboxService,
+            MeterRegistry meterRegistry) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.activityRepository = activityRepository;
+        this.enrollmentService = enrollmentService;
+        this.transactionTemplate = transactionTemplate;
+        this.scheduleIndex = scheduleIndex;
+        this.outboxService = outboxService;
+        Gauge.builder("waitlist.waiting", queues, q -> q.values().stream().mapToInt(WaitlistQueue::size).sum())
+                .description("Students waiting on any activity waitlist").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        queues.clear();
+        int loaded = transactionTemplate.execute(status -> {
+            int count = 0;
+            try (Stream<WaitlistEntry> entries = waitlistEntryRepository.streamAllOrdered()) {
+                for (WaitlistEntry entry : (Iterable<WaitlistEntry>) entries::iterator) {
+                    queue(entry.getActivityId()).add(entry.getStudentId(), entry.getPriority(), entry.getId());
+                    count++;
+                }
+            }
+            return count;
+        });
+        log.info("Loaded {} waitlist entries", loaded);
+    }
+
+    /**
+     * Enrolls the student, or puts them on the waitlist when the activity is full.
+     * Students never jump a non-empty waitlist, even if a seat has just been freed and
+     * not yet handed to the next student in line. The waitlist is checked in the database,
+     * as students may have just joined it on another node.
+     */
+    public EnrollmentResponseDTO enrollOrJoin(Long activityId, Long studentId, Role role) {
+        if (role != Role.STUDENT) {
+            throw new EnrollmentNotAllowedException("Only students can enroll in activities");
+        }
+        if (!waitlistEntryRepository.existsByActivityId(activityId)) {
+            try {
+                return enrollmentService.enroll(activityId, studentId, role);
+            } catch (ActivityFullException e) {
+                // Fall through to the waitlist
+            }
+        }
+        WaitlistEntry entry = join(activityId, studentId);
+        return EnrollmentResponseDTO.builder()
+                .activityId(activityId)
+                .studentId(studentId)
+                .waitlisted(true)
+                .waitlistPosition(queue(activityId).position(studentId))
+                .enrolledAt(entry.getJoinedAt())
+                .build();
+    }
+
+    private WaitlistEntry join(Long activityId, Long studentId) {
+        return transactionTemplate.execute(status -> {
+            if (!activityRepository.existsById(activityId)) {
+                throw new ActivityNotFoundException("Activity not found");
+            }
+            enrollmentRepository.findByActivityIdAndStudentId(activityId, studentId)
+                    .filter(e -> e.getStatus() == EnrollmentStatus.ACTIVE)
+                    .ifPresent(e -> {
+                        throw new EnrollmentNotAllowedException("Student is already enrolled in this activity");
+                    });
+            // No point waiting for a seat the student could not take
+            scheduleIndex.checkStudent(studentId, activityId);
+            // A second join fails on uk_waitlist_entries_activity_student and becomes 409
+            WaitlistEntry entry = waitlistEntryRepository.saveAndFlush(WaitlistEntry.builder()
+                    .activityId(activityId)
+                    .studentId(studentId)
+                    .priority(0)
+                    .joinedAt(LocalDateTime.now())
+                    .build());
+            publishChanged(activityId, List.of(studentId));
+            afterCommit(() -> queue(activityId).add(studentId, entry.getPriority(), entry.getId()));
+            return entry;
+        });
+    }
+
+    public void leave(Long activityId, Long studentId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (waitlistEntryRepository.deleteByActivityIdAndStudentIds(activityId, List.of(studentId)) == 0) {
+                throw new WaitlistEntryNotFoundException("Waitlist entry not found");
+            }
+            publishChanged(activityId, List.of(studentId));
+            afterCommit(() -> queue(activityId).remove(studentId));
+        });
+    }
+
+    /**
+     * Moves a student up (or back down) the waitlist. Students with the same priority keep their join order.
+     */
+    public WaitlistEntryResponseDTO setPriority(Long activityId, Long studentId, int priority) {
+        WaitlistEntry entry = transactionTemplate.execute(status -> {
+            if (waitlistEntryRepository.updatePriority(activityId, studentId, priority) == 0) {
+                throw new WaitlistEntryNotFoundException("Waitlist entry not found");
+            }
+            WaitlistEntry updated = waitlistEntryRepository.findByActivityIdAndStudentId(activityId, studentId)
+                    .orElseThrow(() -> new WaitlistEntryNotFoundException("Waitlist entry not found"));
+            publishChanged(activityId, List.of(studentId));
+            afterCommit(() -> queue(activityId).add(studentId, priority, updated.getId()));
+            return updated;
+        });
+        return mapToResponseDTO(entry);
+    }
+
+    /**
+     * Position of a student, answered from memory. A student missing from this node's queue
+     * is looked up in the database, in case they just joined on another node.
+     */
+    public WaitlistEntryResponseDTO getPosition(Long activityId, Long studentId) {
+        WaitlistQueue queue = queue(activityId);
+        int position = queue.position(studentId);
+        if (position == 0) {
+            refreshQueue(activityId, List.of(studentId));
+            position = queue.position(studentId);
+        }
+        if (position == 0) {
+            throw new WaitlistEntryNotFoundException("Waitlist entry not found");
+        }
+        return WaitlistEntryResponseDTO.builder()
+                .activityId(activityId)
+                .studentId(studentId)
+                .position(position)
+                .waiting(queue.size())
+                .build();
+    }
+
+    public PagedResponseDTO<WaitlistEntryResponseDTO> getWaitlist(Long activityId, int page, int size) {
+        Page<WaitlistEntry> entryPage = waitlistEntryRepository.findPageByActivityId(activityId, PageRequest.of(page, size));
+        List<WaitlistEntryResponseDTO> content = entryPage.getContent().stream()
+                .map(this::mapToResponseDTO)
+                .collect(Collectors.toList());
+
+        return PagedResponseDTO.<WaitlistEntryResponseDTO>builder()
+                .content(content)
+                .page(entryPage.getNumber())
+                .size(entryPage.getSize())
+                .totalElements(entryPage.getTotalElements())
+                .totalPages(entryPage.getTotalPages())
+                .first(entryPage.isFirst())
+                .last(entryPage.isLast())
+                .hasNext(entryPage.hasNext())
+                .hasPrevious(entryPage.hasPrevious())
+                .build();
+    }
+
+    public int waiting(Long activityId) {
+        WaitlistQueue queue = queues.get(activityId);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Makes this node's queue match the students' entries in the database.
+     */
+    void refreshQueue(Long activityId, Collection<Long> studentIds) {
+        WaitlistQueue queue = queue(activityId);
+        List<WaitlistEntry> entries = waitlistEntryRepository.findByActivityIdAndStudentIdIn(activityId, studentIds);
+        Set<Long> present = new HashSet<>();
+        for (WaitlistEntry entry : entries) {
+            queue.add(entry.getStudentId(), entry.getPriority(), entry.getId());
+            present.add(entry.getStudentId());
+        }
+        studentIds.stream().filter(studentId -> !present.contains(studentId)).forEach(queue::remove);
+    }
+
+    /**
+     * Tells every node to re-read these students' entries. Must run in the transaction that changed them.
+     */
+    void publishChanged(Long activityId, List<Long> studentIds) {
+        outboxService.append(ActivityService.AGGREGATE_TYPE, activityId, new WaitlistChanged(activityId, studentIds));
+    }
+
+    /**
+     * Drops students from the in-memory queue once their promotion or removal has committed.
+     */
+    void removeFromQueue(Long activityId, Collection<Long> studentIds) {
+        WaitlistQueue queue = queues.get(activityId);
+        if (queue != null) {
+            studentIds.forEach(queue::remove);
+        }
+    }
+
+    private WaitlistQueue queue(Long activityId) {
+        return queues.computeIfAbsent(activityId, id -> new WaitlistQueue());
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private WaitlistEntryResponseDTO mapToResponseDTO(WaitlistEntry entry) {
+        return WaitlistEntryResponseDTO.builder()
+                .activityId(entry.getActivityId())
+                .studentId(entry.getStudentId())
+                .priority(entry.getPriority())
+                .position(queue(entry.getActivityId()).position(entry.getStudentId()))
+                .waiting(waiting(entry.getActivityId()))
+                .joinedAt(entry.getJoinedAt())
+                .build();
+    }
+}
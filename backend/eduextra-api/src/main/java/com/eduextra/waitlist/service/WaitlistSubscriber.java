@@ -0,0 +1,52 @@
+package com.eduextra.waitlist.service;
+
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.eduextra.activity.event.ActivityChanged;
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.enrollment.event.EnrollmentWithdrawn;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.outbox.service.OutboxSubscriber;
+import com.eduextra.user.event.UserStatusChanged;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Feeds the waitlist promoter from outbox events. Runs inside the relay's transaction, so
+ * it only marks work for the promoter's next pass.
+ */
+@Component
+@RequiredArgsConstructor
+public class WaitlistSubscriber implements OutboxSubscriber {
+
+    private static final Set<String> EVENT_TYPES = Set.of(
+            EnrollmentWithdrawn.class.getSimpleName(),
+            ActivityChanged.class.getSimpleName(),
+            UserStatusChanged.class.getSimpleName());
+
+    private final OutboxService outboxService;
+    private final WaitlistPromoter waitlistPromoter;
+
+    @Override
+    public boolean supports(String eventType) {
+        return EVENT_TYPES.contains(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        if (EnrollmentWithdrawn.class.getSimpleName().equals(event.getEventType())) {
+            waitlistPromoter.markDirty(outboxService.readPayload(event, EnrollmentWithdrawn.class).activityId());
+        } else if (ActivityChanged.class.getSimpleName().equals(event.getEventType())) {
+            // Capacity increases and re-opened activities free seats too
+            ActivityChanged changed = outboxService.readPayload(event, ActivityChanged.class);
+            if (changed.status() == ActivityStatus.OPEN) {
+                waitlistPromoter.markDirty(changed.activityId());
+            }
+        } else if (!outboxService.readPayload(event, UserStatusChanged.class).active()) {
+            waitlistPromoter.requestSweep();
+        }
+    }
+}
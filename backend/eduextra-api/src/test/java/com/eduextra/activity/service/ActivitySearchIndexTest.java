@@ -0,0 +1,166 @@
+package com.eduextra.activity.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.eduextra.activity.dto.ActivityResponseDTO;
+import com.eduextra.activity.dto.ActivitySearchCriteria;
+import com.eduextra.activity.dto.ActivitySearchResponseDTO;
+import com.eduextra.activity.dto.FacetCountDTO;
+import com.eduextra.activity.model.Activity;
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.model.AgeGroup;
+import com.eduextra.activity.repository.ActivityRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ActivitySearchIndex Tests")
+class ActivitySearchIndexTest {
+
+    private static final String[] CATEGORIES = {"Arte", "Deporte", "Música", "Tecnología"};
+
+    @Mock
+    private ActivityRepository activityRepository;
+
+    private ActivitySearchIndex activitySearchIndex;
+
+    private final List<Activity> activities = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        activitySearchIndex = new ActivitySearchIndex(activityRepository, new SimpleMeterRegistry());
+        Random random = new Random(13);
+        for (long id = 1; id <= 300; id++) {
+            int start = 9 + random.nextInt(11);
+            activities.add(Activity.builder()
+                    .id(id)
+                    .name("Actividad " + random.nextInt(1000))
+                    .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                    .ageGroup(AgeGroup.values()[random.nextInt(AgeGroup.values().length)])
+                    .monitorId(random.nextInt(5) == 0 ? null : 1L + random.nextInt(8))
+                    .dayOfWeek(DayOfWeek.of(1 + random.nextInt(5)))
+                    .startTime(LocalTime.of(start, 0))
+                    .endTime(LocalTime.of(start + 1, 30))
+                    .startDate(LocalDate.of(2026, 9, 1))
+                    .endDate(LocalDate.now().plusMonths(6))
+                    .capacity(10)
+                    .seatsTaken(random.nextInt(11))
+                    .status(random.nextBoolean() ? ActivityStatus.OPEN : ActivityStatus.CLOSED)
+                    .build());
+        }
+        when(activityRepository.findPublicCatalog(any())).thenReturn(activities);
+        activitySearchIndex.rebuild();
+    }
+
+    private long count(Predicate<Activity> filter) {
+        return activities.stream().filter(filter).count();
+    }
+
+    private Map<String, Long> facet(ActivitySearchResponseDTO response, String name) {
+        return response.getFacets().get(name).stream()
+                .collect(Collectors.toMap(FacetCountDTO::getValue, FacetCountDTO::getCount));
+    }
+
+    @Test
+    @DisplayName("Debería devolver los mismos resultados y recuentos que un filtrado directo")
+    void search_ShouldMatchBruteForce() {
+        // GIVEN
+        ActivitySearchCriteria criteria = ActivitySearchCriteria.builder()
+                .categories(List.of("Arte", "Música"))
+                .days(List.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY))
+                .freeSeats(true)
+                .from(LocalTime.of(10, 0))
+                .page(0)
+                .size(100)
+                .build();
+        Predicate<Activity> category = a -> a.getCategory().equals("Arte") || a.getCategory().equals("Música");
+        Predicate<Activity> day = a -> a.getDayOfWeek() == DayOfWeek.MONDAY || a.getDayOfWeek() == DayOfWeek.WEDNESDAY;
+        Predicate<Activity> free = a -> a.getSeatsTaken() < a.getCapacity();
+        Predicate<Activity> time = a -> !a.getStartTime().isBefore(LocalTime.of(10, 0));
+
+        // WHEN
+        ActivitySearchResponseDTO response = activitySearchIndex.search(criteria);
+
+        // THEN
+        List<Long> expected = activities.stream()
+                .filter(category.and(day).and(free).and(time))
+                .sorted(Comparator.comparing(Activity::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(Activity::getId))
+                .map(Activity::getId)
+                .toList();
+        assertEquals(expected, response.getResults().getContent().stream().map(ActivityResponseDTO::getId).toList());
+        assertEquals(expected.size(), response.getResults().getTotalElements());
+        // A facet's counts ignore its own filter but apply the others
+        assertEquals(count(day.and(free).and(time).and(a -> a.getCategory().equals("Deporte"))),
+                facet(response, "category").getOrDefault("Deporte", 0L));
+        assertEquals(count(category.and(free).and(time).and(a -> a.getDayOfWeek() == DayOfWeek.FRIDAY)),
+                facet(response, "dayOfWeek").getOrDefault("FRIDAY", 0L));
+        assertEquals(count(category.and(day).and(time).and(free.negate())),
+                facet(response, "freeSeats").getOrDefault("false", 0L));
+        assertTrue(response.getFacets().get("category").stream().anyMatch(f -> f.getValue().equals("Arte") && f.isSelected()));
+    }
+
+    @Test
+    @DisplayName("Debería paginar en orden de nombre")
+    void search_ShouldPaginate() {
+        // GIVEN
+        ActivitySearchCriteria first = ActivitySearchCriteria.builder().page(0).size(40).build();
+        ActivitySearchCriteria last = ActivitySearchCriteria.builder().page(7).size(40).build();
+
+        // WHEN
+        ActivitySearchResponseDTO firstPage = activitySearchIndex.search(first);
+        ActivitySearchResponseDTO lastPage = activitySearchIndex.search(last);
+
+        // THEN
+        assertEquals(300, firstPage.getResults().getTotalElements());
+        assertEquals(8, firstPage.getResults().getTotalPages());
+        assertEquals(40, firstPage.getResults().getContent().size());
+        assertEquals(20, lastPage.getResults().getContent().size());
+        assertTrue(lastPage.getResults().isLast());
+    }
+
+    @Test
+    @DisplayName("Debería reflejar los cambios de plazas y quitar las actividades canceladas")
+    void activityChanged_ShouldUpdateFacets() {
+        // GIVEN
+        Activity full = activities.stream().filter(a -> a.getSeatsTaken() < a.getCapacity()).findFirst().orElseThrow();
+        Activity cancelled = activities.get(activities.size() - 1);
+        long freeBefore = count(a -> a.getSeatsTaken() < a.getCapacity());
+        ActivitySearchCriteria criteria = ActivitySearchCriteria.builder().page(0).size(10).build();
+
+        // WHEN
+        full.setSeatsTaken(full.getCapacity());
+        cancelled.setStatus(ActivityStatus.CANCELLED);
+        when(activityRepository.findById(full.getId())).thenReturn(Optional.of(full));
+        when(activityRepository.findById(cancelled.getId())).thenReturn(Optional.of(cancelled));
+        activitySearchIndex.activityChanged(full.getId());
+        activitySearchIndex.activityChanged(cancelled.getId());
+
+        // THEN
+        ActivitySearchResponseDTO response = activitySearchIndex.search(criteria);
+        long cancelledWasFree = cancelled.getSeatsTaken() < cancelled.getCapacity() ? 1 : 0;
+        assertEquals(freeBefore - 1 - cancelledWasFree, facet(response, "freeSeats").get("true"));
+        assertEquals(299, response.getResults().getTotalElements());
+    }
+}
@@ -0,0 +1,168 @@
+package com.eduextra.allocation.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LotteryAllocator Tests")
+class LotteryAllocatorTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final LotteryAllocator allocator = new LotteryAllocator(pool);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Random round: every student ranks `choices` activities, with popular activities
+     * chosen more often so most of them are oversubscribed.
+     */
+    private LotteryAllocator.Problem randomProblem(int students, int activities, int choices, int capacity,
+            int maxPerStudent, long seed) {
+        Random random = new Random(seed);
+        int[][] chosen = new int[students][];
+        int[][] ranks = new int[students][];
+        for (int s = 0; s < students; s++) {
+            List<Integer> picked = new ArrayList<>();
+            while (picked.size() < choices) {
+                int a = (int) (Math.pow(random.nextDouble(), 2) * activities);
+                if (!picked.contains(a)) {
+                    picked.add(a);
+                }
+            }
+            chosen[s] = picked.stream().mapToInt(Integer::intValue).toArray();
+            ranks[s] = new int[choices];
+            for (int i = 0; i < choices; i++) {
+                ranks[s][i] = i + 1;
+            }
+        }
+        int[] capacities = new int[activities];
+        java.util.Arrays.fill(capacities, capacity);
+        List<Integer> order = new ArrayList<>();
+        for (int s = 0; s < students; s++) {
+            order.add(s);
+        }
+        Collections.shuffle(order, random);
+        int[] draw = new int[students];
+        for (int position = 0; position < students; position++) {
+            draw[order.get(position)] = position;
+        }
+        BitSet[] overlaps = new BitSet[activities];
+        for (int a = 0; a < activities; a++) {
+            overlaps[a] = new BitSet(activities);
+            // Activities in the same "slot" (a % 10) clash
+            for (int b = a % 10; b < activities; b += 10) {
+                if (b != a) {
+                    overlaps[a].set(b);
+                }
+            }
+        }
+        return new LotteryAllocator.Problem(chosen, ranks, capacities, draw, overlaps, maxPerStudent);
+    }
+
+    @Test
+    @DisplayName("Debería ser estable: nadie prefiere una actividad que admitió a alguien con peor sorteo o tiene plazas")
+    void allocate_ShouldBeStableAndRespectCapacity() {
+        // GIVEN
+        LotteryAllocator.Problem problem = randomProblem(3000, 60, 5, 30, 1, 7);
+
+        // WHEN
+        LotteryAllocator.Outcome outcome = allocator.allocate(problem);
+
+        // THEN
+        int activities = problem.capacity().length;
+        int[] seats = new int[activities];
+        int[] worstDraw = new int[activities];
+        java.util.Arrays.fill(worstDraw, -1);
+        for (int s = 0; s < outcome.activities().length; s++) {
+            for (int a : outcome.activities()[s]) {
+                seats[a]++;
+                worstDraw[a] = Math.max(worstDraw[a], problem.draw()[s]);
+            }
+        }
+        for (int a = 0; a < activities; a++) {
+            assertTrue(seats[a] <= problem.capacity()[a]);
+        }
+        for (int s = 0; s < problem.choices().length; s++) {
+            int got = outcome.activities()[s].length == 0 ? Integer.MAX_VALUE : outcome.ranks()[s][0];
+            for (int i = 0; i < problem.choices()[s].length && problem.ranks()[s][i] < got; i++) {
+                int preferred = problem.choices()[s][i];
+                assertTrue(seats[preferred] == problem.capacity()[preferred], "activity with free seats was skipped");
+                assertTrue(worstDraw[preferred] < problem.draw()[s], "activity admitted a worse draw");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Debería dar el mismo resultado con el mismo sorteo")
+    void allocate_WithSameDraw_ShouldBeDeterministic() {
+        // GIVEN
+        LotteryAllocator.Problem problem = randomProblem(2000, 40, 4, 20, 2, 11);
+
+        // WHEN
+        LotteryAllocator.Outcome first = allocator.allocate(problem);
+        LotteryAllocator.Outcome second = new LotteryAllocator(ForkJoinPool.commonPool()).allocate(problem);
+
+        // THEN
+        for (int s = 0; s < first.activities().length; s++) {
+            assertArrayEquals(first.activities()[s], second.activities()[s]);
+        }
+    }
+
+    @Test
+    @DisplayName("No debería asignar a un estudiante dos actividades que se solapan")
+    void allocate_WithSeveralSeatsPerStudent_ShouldRespectOverlaps() {
+        // GIVEN
+        LotteryAllocator.Problem problem = randomProblem(2000, 40, 6, 50, 3, 13);
+
+        // WHEN
+        LotteryAllocator.Outcome outcome = allocator.allocate(problem);
+
+        // THEN
+        int withSeveral = 0;
+        for (int[] won : outcome.activities()) {
+            assertTrue(won.length <= 3);
+            withSeveral += won.length > 1 ? 1 : 0;
+            for (int i = 0; i < won.length; i++) {
+                for (int j = i + 1; j < won.length; j++) {
+                    assertFalse(problem.overlaps()[won[i]].get(won[j]));
+                }
+            }
+        }
+        assertTrue(withSeveral > 0);
+    }
+
+    @Test
+    @DisplayName("Debería asignar 10k estudiantes y 200 actividades en pocos segundos")
+    void allocate_AtTargetScale_ShouldFinishQuickly() {
+        // GIVEN
+        LotteryAllocator.Problem problem = randomProblem(10_000, 200, 5, 40, 1, 17);
+
+        // WHEN
+        long started = System.nanoTime();
+        LotteryAllocator.Outcome outcome = allocator.allocate(problem);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        // THEN
+        int allocated = 0;
+        for (int[] won : outcome.activities()) {
+            allocated += won.length;
+        }
+        assertEquals(200 * 40, allocated);
+        assertTrue(elapsedMs < 5000, "took " + elapsedMs + " ms");
+    }
+}
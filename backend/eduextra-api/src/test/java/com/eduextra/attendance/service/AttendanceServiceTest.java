@@ -0,0 +1,289 @@
+package com.eduextra.attendance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.eduextra.activity.model.Activity;
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.model.AgeGroup;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.attendance.dto.AttendanceEntryDTO;
+import com.eduextra.attendance.dto.AttendanceRosterRequestDTO;
+import com.eduextra.attendance.dto.AttendanceSubmissionResultDTO;
+import com.eduextra.attendance.dto.AttendanceSubmissionResultDTO.Outcome;
+import com.eduextra.attendance.dto.AttendanceSyncRequestDTO;
+import com.eduextra.attendance.dto.QueuedSessionDTO;
+import com.eduextra.attendance.model.AttendanceStatus;
+import com.eduextra.enrollment.model.Enrollment;
+import com.eduextra.enrollment.model.EnrollmentStatus;
+import com.eduextra.enrollment.repository.EnrollmentRepository;
+import com.eduextra.exception.ValidationException;
+import com.eduextra.user.model.Role;
+import com.eduextra.user.model.User;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "application.attendance.insert-chunk-size=3",
+    "application.outbox.poll-interval-ms=3600000",
+    "application.waitlist.promotion-interval-ms=3600000"
+})
+@DisplayName("AttendanceService Tests")
+class AttendanceServiceTest {
+
+    private static final String RECORD_INSERT = "insert into attendance_records";
+    private static final String SUBMISSION_INSERT = "insert into attendance_submissions";
+
+    // Ids únicos por test, ya que la base de datos se comparte entre ellos
+    private static final AtomicLong NEXT_ID = new AtomicLong(910_000);
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @MockitoSpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    private final User admin = User.builder().id(1L).role(Role.ADMIN).build();
+    private final LocalDate sessionDate = LocalDate.now().minusWeeks(1);
+
+    private Long activityId;
+    private Long monitorId;
+    private List<Long> students;
+
+    @BeforeEach
+    void setUp() {
+        monitorId = NEXT_ID.incrementAndGet();
+        activityId = activityRepository.save(Activity.builder()
+                .name("Ajedrez")
+                .category("Juegos")
+                .ageGroup(AgeGroup.TEENS)
+                .monitorId(monitorId)
+                .dayOfWeek(sessionDate.getDayOfWeek())
+                .startTime(LocalTime.of(17, 0))
+                .endTime(LocalTime.of(18, 0))
+                .startDate(LocalDate.now().minusWeeks(10))
+                .endDate(LocalDate.now().plusWeeks(10))
+                .capacity(20)
+                .status(ActivityStatus.OPEN)
+                .build()).getId();
+        students = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Long studentId = NEXT_ID.incrementAndGet();
+            enrollmentRepository.save(Enrollment.builder()
+                    .activityId(activityId)
+                    .studentId(studentId)
+                    .status(EnrollmentStatus.ACTIVE)
+                    .enrolledAt(LocalDate.now().minusWeeks(5).atStartOfDay())
+                    .build());
+            students.add(studentId);
+        }
+        clearInvocations(jdbcTemplate);
+    }
+
+    private List<AttendanceEntryDTO> roster(int size) {
+        return students.subList(0, size).stream()
+                .map(studentId -> new AttendanceEntryDTO(studentId, AttendanceStatus.PRESENT))
+                .toList();
+    }
+
+    private AttendanceRosterRequestDTO request(String submissionId, int size) {
+        AttendanceRosterRequestDTO request = new AttendanceRosterRequestDTO();
+        request.setSubmissionId(submissionId);
+        request.setRecords(roster(size));
+        return request;
+    }
+
+    private QueuedSessionDTO queued(String submissionId, Long activityId, LocalDate date, List<AttendanceEntryDTO> records) {
+        QueuedSessionDTO session = new QueuedSessionDTO();
+        session.setSubmissionId(submissionId);
+        session.setActivityId(activityId);
+        session.setSessionDate(date);
+        session.setRecords(records);
+        return session;
+    }
+
+    private List<AttendanceSubmissionResultDTO> sync(User recorder, QueuedSessionDTO... sessions) {
+        AttendanceSyncRequestDTO request = new AttendanceSyncRequestDTO();
+        request.setSessions(List.of(sessions));
+        return attendanceService.sync(request, recorder).getResults();
+    }
+
+    private int storedRecords() {
+        return jdbcTemplate.queryForObject("select count(*) from attendance_records where activity_id = ?", Integer.class,
+                activityId);
+    }
+
+    private String id(String name) {
+        return name + "-" + activityId;
+    }
+
+    @Test
+    @DisplayName("Debería partir los registros en inserciones de insert-chunk-size filas")
+    void recordSession_ShouldSplitRecordsIntoChunks() {
+        // WHEN: 7 records with chunks of 3
+        AttendanceSubmissionResultDTO result = attendanceService.recordSession(activityId, sessionDate,
+                request(id("roster"), 7), admin);
+
+        // THEN
+        assertEquals(Outcome.RECORDED, result.getOutcome());
+        assertEquals(7, result.getRecorded());
+        assertEquals(7, storedRecords());
+        verify(jdbcTemplate, times(3)).update(startsWith(RECORD_INSERT), any(Object[].class));
+        assertEquals(7, attendanceService.getSession(activityId, sessionDate, admin).getRecords().size());
+    }
+
+    @Test
+    @DisplayName("No debería lanzar una inserción vacía cuando los registros llenan justo los lotes")
+    void sync_WithExactMultipleOfChunk_ShouldNotIssueEmptyInsert() {
+        // WHEN: 2 rosters of 3 records and 4 submissions, all spanning chunks of 3
+        List<AttendanceSubmissionResultDTO> results = sync(admin,
+                queued(id("a"), activityId, sessionDate, roster(3)),
+                queued(id("b"), activityId, sessionDate.minusWeeks(1), roster(3)),
+                queued(id("c"), activityId, sessionDate.minusWeeks(2), roster(1)),
+                queued(id("d"), activityId, sessionDate.minusWeeks(3), roster(2)));
+
+        // THEN
+        assertTrue(results.stream().allMatch(r -> r.getOutcome() == Outcome.RECORDED));
+        assertEquals(9, storedRecords());
+        verify(jdbcTemplate, times(3)).update(startsWith(RECORD_INSERT), any(Object[].class));
+        verify(jdbcTemplate, times(2)).update(startsWith(SUBMISSION_INSERT), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Debería marcar como DUPLICATE un reintento y los ids repetidos en la misma subida")
+    void sync_WithRepeatedSubmissionIds_ShouldReportDuplicates() {
+        // GIVEN
+        attendanceService.recordSession(activityId, sessionDate, request(id("first"), 4), admin);
+
+        // WHEN
+        AttendanceSubmissionResultDTO retry = attendanceService.recordSession(activityId, sessionDate,
+                request(id("first"), 4), admin);
+        List<AttendanceSubmissionResultDTO> results = sync(admin,
+                queued(id("first"), activityId, sessionDate, roster(4)),
+                queued(id("second"), activityId, sessionDate.minusWeeks(1), roster(2)),
+                queued(id("second"), activityId, sessionDate.minusWeeks(1), roster(2)));
+
+        // THEN
+        assertEquals(Outcome.DUPLICATE, retry.getOutcome());
+        assertEquals(List.of(Outcome.DUPLICATE, Outcome.RECORDED, Outcome.DUPLICATE),
+                results.stream().map(AttendanceSubmissionResultDTO::getOutcome).toList());
+        assertEquals(6, storedRecords());
+    }
+
+    @Test
+    @DisplayName("Debería grabar una sola vez dos subidas simultáneas de la misma lista")
+    void recordSession_WithConcurrentRetries_ShouldRecordOnce() throws Exception {
+        // GIVEN
+        int uploads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(uploads);
+        List<Future<AttendanceSubmissionResultDTO>> futures = new ArrayList<>();
+
+        // WHEN
+        try {
+            for (int i = 0; i < uploads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return attendanceService.recordSession(activityId, sessionDate, request(id("retry"), 5), admin);
+                }));
+            }
+            start.countDown();
+
+            // THEN
+            int recorded = 0;
+            for (Future<AttendanceSubmissionResultDTO> future : futures) {
+                if (future.get().getOutcome() == Outcome.RECORDED) {
+                    recorded++;
+                }
+            }
+            assertEquals(1, recorded);
+            assertEquals(5, storedRecords());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería rechazar cada lista inválida sin bloquear las demás")
+    void sync_WithInvalidRosters_ShouldRejectEachOnItsOwn() {
+        // GIVEN
+        List<AttendanceEntryDTO> stranger = List.of(new AttendanceEntryDTO(NEXT_ID.incrementAndGet(), AttendanceStatus.ABSENT));
+        List<AttendanceEntryDTO> twice = List.of(new AttendanceEntryDTO(students.get(0), AttendanceStatus.PRESENT),
+                new AttendanceEntryDTO(students.get(0), AttendanceStatus.LATE));
+
+        // WHEN
+        List<AttendanceSubmissionResultDTO> results = sync(admin,
+                queued(id("ok"), activityId, sessionDate, roster(2)),
+                queued(id("unknown"), -1L, sessionDate, roster(2)),
+                queued(id("future"), activityId, sessionDate.plusWeeks(2), roster(2)),
+                queued(id("weekday"), activityId, sessionDate.plusDays(1), roster(2)),
+                queued(id("stranger"), activityId, sessionDate, stranger),
+                queued(id("twice"), activityId, sessionDate, twice));
+
+        // THEN
+        assertEquals(List.of(Outcome.RECORDED, Outcome.REJECTED, Outcome.REJECTED, Outcome.REJECTED, Outcome.REJECTED,
+                Outcome.REJECTED), results.stream().map(AttendanceSubmissionResultDTO::getOutcome).toList());
+        assertTrue(results.stream().skip(1).allMatch(r -> r.getError() != null && r.getRecorded() == 0));
+        assertEquals(2, storedRecords());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar las listas de actividades de otro monitor")
+    void sync_WithOtherMonitor_ShouldReject() {
+        // GIVEN
+        User otherMonitor = User.builder().id(NEXT_ID.incrementAndGet()).role(Role.MONITOR).build();
+        User ownMonitor = User.builder().id(monitorId).role(Role.MONITOR).build();
+
+        // WHEN
+        List<AttendanceSubmissionResultDTO> rejected = sync(otherMonitor, queued(id("other"), activityId, sessionDate, roster(2)));
+        List<AttendanceSubmissionResultDTO> accepted = sync(ownMonitor, queued(id("own"), activityId, sessionDate, roster(2)));
+
+        // THEN
+        assertEquals(Outcome.REJECTED, rejected.get(0).getOutcome());
+        assertEquals(Outcome.RECORDED, accepted.get(0).getOutcome());
+        assertThrows(AccessDeniedException.class,
+                () -> attendanceService.recordSession(activityId, sessionDate, request(id("live"), 2), otherMonitor));
+    }
+
+    @Test
+    @DisplayName("Debería lanzar la excepción al grabar en vivo una lista inválida")
+    void recordSession_WithInvalidRoster_ShouldThrow() {
+        // WHEN & THEN
+        assertThrows(ValidationException.class,
+                () -> attendanceService.recordSession(activityId, sessionDate.plusDays(1), request(id("bad"), 2), admin));
+        assertEquals(0, storedRecords());
+    }
+}
@@ -0,0 +1,122 @@
+package com.eduextra.attendance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CompressedBitmap Tests")
+class CompressedBitmapTest {
+
+    /**
+     * Random set mixing sparse chunks (stored as arrays) and dense chunks (stored as bitmaps).
+     */
+    private BitSet randomSet(Random random) {
+        BitSet set = new BitSet();
+        for (int chunk = 0; chunk < 6; chunk++) {
+            int count = random.nextBoolean() ? random.nextInt(200) : 4000 + random.nextInt(30_000);
+            for (int k = 0; k < count; k++) {
+                set.set(chunk * 65536 + random.nextInt(65536));
+            }
+        }
+        return set;
+    }
+
+    private CompressedBitmap toBitmap(BitSet set) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        set.stream().forEach(bitmap::add);
+        return bitmap;
+    }
+
+    private BitSet toBitSet(CompressedBitmap bitmap) {
+        BitSet set = new BitSet();
+        bitmap.forEach(set::set);
+        return set;
+    }
+
+    @Test
+    @DisplayName("Debería dar los mismos resultados que BitSet en AND, OR y ANDNOT")
+    void operations_ShouldMatchBitSet() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            // GIVEN
+            BitSet a = randomSet(random);
+            BitSet b = randomSet(random);
+            CompressedBitmap x = toBitmap(a);
+            CompressedBitmap y = toBitmap(b);
+
+            // WHEN
+            CompressedBitmap and = x.and(y);
+            CompressedBitmap or = x.or(y);
+            CompressedBitmap andNot = x.andNot(y);
+
+            // THEN
+            BitSet expectedAnd = (BitSet) a.clone();
+            expectedAnd.and(b);
+            BitSet expectedOr = (BitSet) a.clone();
+            expectedOr.or(b);
+            BitSet expectedAndNot = (BitSet) a.clone();
+            expectedAndNot.andNot(b);
+            assertEquals(expectedAnd, toBitSet(and));
+            assertEquals(expectedOr, toBitSet(or));
+            assertEquals(expectedAndNot, toBitSet(andNot));
+            assertEquals(expectedAnd.cardinality(), and.cardinality());
+            assertEquals(expectedOr.cardinality(), or.cardinality());
+            assertEquals(a.cardinality(), x.cardinality());
+        }
+    }
+
+    @Test
+    @DisplayName("Debería mantener el contenido al añadir y quitar valores por encima y por debajo del umbral de bitmap")
+    void addRemove_ShouldSwitchContainersTransparently() {
+        // GIVEN
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+        Random random = new Random(3);
+
+        // WHEN
+        for (int k = 0; k < 20_000; k++) {
+            int value = random.nextInt(10_000);
+            bitmap.add(value);
+            expected.set(value);
+        }
+        for (int k = 0; k < 15_000; k++) {
+            int value = random.nextInt(10_000);
+            bitmap.remove(value);
+            expected.clear(value);
+        }
+
+        // THEN
+        assertEquals(expected, toBitSet(bitmap));
+        assertEquals(expected.cardinality(), bitmap.cardinality());
+        assertTrue(bitmap.contains(expected.nextSetBit(0)));
+        assertFalse(bitmap.contains(expected.nextClearBit(0)));
+    }
+
+    @Test
+    @DisplayName("Debería leer lo mismo que escribió")
+    void writeRead_ShouldRoundTrip() throws IOException {
+        // GIVEN
+        BitSet set = randomSet(new Random(5));
+        CompressedBitmap bitmap = toBitmap(set);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // WHEN
+        bitmap.write(new DataOutputStream(bytes));
+        CompressedBitmap read = CompressedBitmap.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        // THEN
+        assertEquals(set, toBitSet(read));
+        assertEquals(set.cardinality(), read.cardinality());
+    }
+}
@@ -0,0 +1,128 @@
+package com.eduextra.calendar.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.calendar.repository.CalendarTokenRepository;
+import com.eduextra.calendar.service.CalendarFeedService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CalendarController Tests")
+class CalendarControllerTest {
+
+    private static final String FEED_URL = "/calendar/token-1.ics";
+    private static final Long USER_ID = 7L;
+    private static final Long ACTIVITY_ID = 3L;
+
+    @Mock
+    private CalendarTokenRepository calendarTokenRepository;
+
+    @Mock
+    private ActivityRepository activityRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private CalendarFeedService calendarFeedService;
+
+    private MockMvc setUp(long feedCacheSeconds) throws Exception {
+        calendarFeedService = new CalendarFeedService(calendarTokenRepository, activityRepository, jdbcTemplate,
+                new SimpleMeterRegistry(), "Europe/Madrid", 3600, feedCacheSeconds);
+        when(calendarTokenRepository.findActiveUserIdByTokenHash(anyString())).thenReturn(Optional.of(USER_ID));
+        ResultSet row = mock(ResultSet.class);
+        lenient().when(row.getLong("id")).thenReturn(ACTIVITY_ID);
+        lenient().when(row.getString("name")).thenReturn("Ajedrez");
+        lenient().when(row.getString("day_of_week")).thenReturn("MONDAY");
+        lenient().when(row.getString("status")).thenReturn("OPEN");
+        lenient().when(row.getObject("start_time", LocalTime.class)).thenReturn(LocalTime.of(17, 0));
+        lenient().when(row.getObject("end_time", LocalTime.class)).thenReturn(LocalTime.of(18, 0));
+        lenient().when(row.getObject("start_date", LocalDate.class)).thenReturn(LocalDate.of(2026, 9, 1));
+        lenient().when(row.getObject("end_date", LocalDate.class)).thenReturn(LocalDate.of(2027, 6, 1));
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(USER_ID), eq(USER_ID));
+        return MockMvcBuilders.standaloneSetup(new CalendarController(calendarFeedService)).build();
+    }
+
+    @Test
+    @DisplayName("Debería responder 304 sin consultar la base de datos mientras el calendario no cambie")
+    void getFeed_WithCurrentETag_ShouldReturnNotModified() throws Exception {
+        // GIVEN
+        MockMvc mvc = setUp(900);
+        MvcResult first = mvc.perform(get(FEED_URL)).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // WHEN
+        MvcResult second = mvc.perform(get(FEED_URL).header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+
+        // THEN
+        assertEquals(200, first.getResponse().getStatus());
+        assertEquals(304, second.getResponse().getStatus());
+        assertEquals(etag, second.getResponse().getHeader(HttpHeaders.ETAG));
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class), eq(USER_ID), eq(USER_ID));
+    }
+
+    @Test
+    @DisplayName("Debería regenerar el calendario cuando cambia una de sus actividades")
+    void getFeed_AfterActivityChanged_ShouldRegenerate() throws Exception {
+        // GIVEN
+        MockMvc mvc = setUp(900);
+        String etag = mvc.perform(get(FEED_URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        when(activityRepository.findSlotById(ACTIVITY_ID)).thenReturn(Optional.empty());
+
+        // WHEN
+        calendarFeedService.invalidateActivity(ACTIVITY_ID);
+        MvcResult result = mvc.perform(get(FEED_URL).header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+
+        // THEN
+        assertEquals(200, result.getResponse().getStatus());
+        assertNotEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowCallbackHandler.class), eq(USER_ID), eq(USER_ID));
+    }
+
+    @Test
+    @DisplayName("Debería regenerar el calendario caducado aunque no haya llegado ninguna invalidación")
+    void getFeed_WithExpiredFeed_ShouldRegenerate() throws Exception {
+        // GIVEN
+        MockMvc mvc = setUp(0);
+        String etag = mvc.perform(get(FEED_URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // WHEN
+        MvcResult result = mvc.perform(get(FEED_URL).header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+
+        // THEN
+        assertEquals(200, result.getResponse().getStatus());
+        assertNotEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+}
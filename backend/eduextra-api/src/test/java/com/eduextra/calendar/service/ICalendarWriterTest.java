@@ -0,0 +1,60 @@
+package com.eduextra.calendar.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ICalendarWriter Tests")
+class ICalendarWriterTest {
+
+    private String write(String summary) throws IOException {
+        StringWriter out = new StringWriter();
+        ICalendarWriter calendar = new ICalendarWriter(out, "Europe/Madrid");
+        calendar.begin("EduExtra");
+        calendar.event(new ICalendarWriter.WeeklyEvent("activity-1@eduextra", Instant.parse("2026-09-01T10:00:00Z"),
+                summary, null, null, LocalDateTime.of(2026, 9, 7, 17, 0), LocalDateTime.of(2026, 9, 7, 18, 30),
+                DayOfWeek.MONDAY, Instant.parse("2027-06-01T15:00:00Z"), false));
+        calendar.end();
+        return out.toString();
+    }
+
+    @Test
+    @DisplayName("Debería escapar el texto y escribir la recurrencia semanal")
+    void event_ShouldEscapeTextAndWriteRecurrence() throws IOException {
+        // WHEN
+        String feed = write("Teatro; nivel 2, grupo\\A\nsegunda línea");
+
+        // THEN
+        assertTrue(feed.contains("\r\nSUMMARY:Teatro\\; nivel 2\\, grupo\\\\A\\nsegunda línea\r\n"));
+        assertTrue(feed.contains("\r\nDTSTART;TZID=Europe/Madrid:20260907T170000\r\n"));
+        assertTrue(feed.contains("\r\nRRULE:FREQ=WEEKLY;BYDAY=MO;UNTIL=20270601T150000Z\r\n"));
+        assertTrue(feed.endsWith("END:VCALENDAR\r\n"));
+    }
+
+    @Test
+    @DisplayName("Debería plegar las líneas largas sin partir caracteres multibyte")
+    void event_ShouldFoldLongLinesByOctets() throws IOException {
+        // GIVEN
+        String summary = "Música y danza ".repeat(12);
+
+        // WHEN
+        String feed = write(summary);
+
+        // THEN
+        for (String line : feed.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+        String unfolded = feed.replace("\r\n ", "");
+        assertTrue(unfolded.contains("SUMMARY:" + summary + "\r\n"));
+        assertEquals(-1, feed.indexOf('�'));
+    }
+}
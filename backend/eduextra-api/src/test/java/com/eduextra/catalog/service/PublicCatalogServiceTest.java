@@ -0,0 +1,132 @@
+package com.eduextra.catalog.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.eduextra.activity.model.Activity;
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.model.AgeGroup;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.catalog.dto.PublicCatalogDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PublicCatalogService Tests")
+class PublicCatalogServiceTest {
+
+    @Mock
+    private ActivityRepository activityRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private PublicCatalogService publicCatalogService;
+
+    @BeforeEach
+    void setUp() {
+        publicCatalogService = new PublicCatalogService(activityRepository, objectMapper, new SimpleMeterRegistry(), 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publicCatalogService.shutdown();
+    }
+
+    private Activity activity(Long id, AgeGroup ageGroup, int seatsTaken) {
+        return Activity.builder()
+                .id(id)
+                .name("Actividad " + id)
+                .category("Deporte")
+                .ageGroup(ageGroup)
+                .dayOfWeek(DayOfWeek.MONDAY)
+                .startTime(LocalTime.of(17, 0))
+                .endTime(LocalTime.of(18, 0))
+                .startDate(LocalDate.of(2026, 9, 1))
+                .endDate(LocalDate.of(2027, 6, 1))
+                .capacity(20)
+                .seatsTaken(seatsTaken)
+                .status(ActivityStatus.OPEN)
+                .build();
+    }
+
+    private byte[] gunzip(byte[] gzip) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería generar el JSON y su versión gzip con las plazas libres")
+    void rebuild_ShouldRenderJsonAndGzip() throws IOException {
+        // GIVEN
+        when(activityRepository.findPublicCatalog(any())).thenReturn(List.of(
+                activity(1L, AgeGroup.CHILDREN, 5), activity(2L, AgeGroup.TEENS, 20)));
+
+        // WHEN
+        publicCatalogService.rebuild();
+
+        // THEN
+        CatalogSnapshot all = publicCatalogService.snapshot(null).orElseThrow();
+        assertArrayEquals(all.json(), gunzip(all.gzip()));
+        PublicCatalogDTO catalog = objectMapper.readValue(all.json(), PublicCatalogDTO.class);
+        assertEquals(all.version(), catalog.getVersion());
+        assertEquals(15, catalog.getActivities().get(0).getSeatsAvailable());
+        assertEquals(0, catalog.getActivities().get(1).getSeatsAvailable());
+        PublicCatalogDTO teens = objectMapper.readValue(publicCatalogService.snapshot(AgeGroup.TEENS).orElseThrow().json(), PublicCatalogDTO.class);
+        assertEquals(List.of(2L), teens.getActivities().stream().map(a -> a.getId()).toList());
+        assertNotEquals(all.etag(), all.gzipEtag());
+    }
+
+    @Test
+    @DisplayName("Debería mantener la versión si nada cambia y cambiarla solo en las instantáneas afectadas")
+    void rebuild_ShouldKeepVersionUntilContentChanges() {
+        // GIVEN
+        when(activityRepository.findPublicCatalog(any())).thenReturn(List.of(
+                activity(1L, AgeGroup.CHILDREN, 5), activity(2L, AgeGroup.TEENS, 3)));
+        publicCatalogService.rebuild();
+        CatalogSnapshot all = publicCatalogService.snapshot(null).orElseThrow();
+        CatalogSnapshot children = publicCatalogService.snapshot(AgeGroup.CHILDREN).orElseThrow();
+        CatalogSnapshot teens = publicCatalogService.snapshot(AgeGroup.TEENS).orElseThrow();
+
+        // WHEN: nothing changes
+        publicCatalogService.rebuild();
+
+        // THEN
+        assertSame(all, publicCatalogService.snapshot(null).orElseThrow());
+
+        // WHEN: a teens seat is taken
+        when(activityRepository.findPublicCatalog(any())).thenReturn(List.of(
+                activity(1L, AgeGroup.CHILDREN, 5), activity(2L, AgeGroup.TEENS, 4)));
+        publicCatalogService.rebuild();
+
+        // THEN
+        assertNotEquals(all.version(), publicCatalogService.snapshot(null).orElseThrow().version());
+        assertNotEquals(teens.version(), publicCatalogService.snapshot(AgeGroup.TEENS).orElseThrow().version());
+        assertSame(children, publicCatalogService.snapshot(AgeGroup.CHILDREN).orElseThrow());
+        assertTrue(publicCatalogService.snapshot(AgeGroup.ADULTS).isPresent());
+    }
+}
@@ -0,0 +1,145 @@
+package com.eduextra.enrollment.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.activity.repository.ActivitySeats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SeatReservationService Tests")
+class SeatReservationServiceTest {
+
+    private static final Long ACTIVITY_ID = 1L;
+
+    @Mock
+    private ActivityRepository activityRepository;
+
+    private SeatReservationService seatReservationService;
+
+    // Simula la fila de la actividad en la base de datos
+    private final AtomicInteger seatsTaken = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        seatReservationService = new SeatReservationService(activityRepository, new SimpleMeterRegistry(), 60_000);
+    }
+
+    private void givenOpenActivity(int capacity) {
+        when(activityRepository.findSeatsById(ACTIVITY_ID)).thenAnswer(invocation ->
+                Optional.of(new ActivitySeats(ACTIVITY_ID, capacity, seatsTaken.get(), ActivityStatus.OPEN)));
+        when(activityRepository.reserveSeat(anyLong())).thenAnswer(invocation -> {
+            int current;
+            do {
+                current = seatsTaken.get();
+                if (current >= capacity) {
+                    return 0;
+                }
+            } while (!seatsTaken.compareAndSet(current, current + 1));
+            return 1;
+        });
+    }
+
+    @Test
+    @DisplayName("No debería vender más plazas que la capacidad con muchas peticiones concurrentes")
+    void acquireAndConfirm_UnderContention_ShouldNeverOversell() throws Exception {
+        // GIVEN
+        givenOpenActivity(25);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        AtomicInteger reserved = new AtomicInteger();
+        List<Future<?>> attempts = new ArrayList<>();
+
+        // WHEN
+        for (int i = 0; i < 2000; i++) {
+            attempts.add(executor.submit(() -> {
+                if (seatReservationService.acquire(ACTIVITY_ID) == SeatReservationService.Result.RESERVED
+                        && seatReservationService.confirm(ACTIVITY_ID) == SeatReservationService.Result.RESERVED) {
+                    reserved.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> attempt : attempts) {
+            attempt.get();
+        }
+        executor.shutdown();
+
+        // THEN
+        assertEquals(25, reserved.get());
+        assertEquals(25, seatsTaken.get());
+        // Once full, attempts are rejected from memory without touching the database
+        verify(activityRepository, times(25)).reserveSeat(ACTIVITY_ID);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar y resincronizar cuando otro nodo ocupó las plazas")
+    void confirm_WhenDatabaseIsFull_ShouldReturnFull() {
+        // GIVEN
+        givenOpenActivity(2);
+        assertEquals(SeatReservationService.Result.RESERVED, seatReservationService.acquire(ACTIVITY_ID));
+        seatsTaken.set(2); // otro nodo ocupa las plazas restantes
+
+        // WHEN
+        SeatReservationService.Result result = seatReservationService.confirm(ACTIVITY_ID);
+
+        // THEN
+        assertEquals(SeatReservationService.Result.FULL, result);
+        assertEquals(0, seatReservationService.remaining(ACTIVITY_ID));
+    }
+
+    @Test
+    @DisplayName("Debería volver a resincronizar tras una lectura fallida")
+    void acquire_AfterFailedResync_ShouldResyncAgain() {
+        // GIVEN: a full activity, re-read on every rejection
+        seatReservationService = new SeatReservationService(activityRepository, new SimpleMeterRegistry(), 0);
+        when(activityRepository.findSeatsById(ACTIVITY_ID))
+                .thenReturn(Optional.of(new ActivitySeats(ACTIVITY_ID, 1, 1, ActivityStatus.OPEN)))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(Optional.of(new ActivitySeats(ACTIVITY_ID, 1, 0, ActivityStatus.OPEN)));
+        assertEquals(0, seatReservationService.remaining(ACTIVITY_ID));
+        assertThrows(QueryTimeoutException.class, () -> seatReservationService.acquire(ACTIVITY_ID));
+
+        // WHEN: the seat was released on another node meanwhile
+        SeatReservationService.Result result = seatReservationService.acquire(ACTIVITY_ID);
+
+        // THEN
+        assertEquals(SeatReservationService.Result.RESERVED, result);
+        verify(activityRepository, times(3)).findSeatsById(ACTIVITY_ID);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar las reservas de una actividad que no está abierta")
+    void acquire_WhenActivityIsClosed_ShouldReturnClosed() {
+        // GIVEN
+        when(activityRepository.findSeatsById(ACTIVITY_ID))
+                .thenReturn(Optional.of(new ActivitySeats(ACTIVITY_ID, 10, 0, ActivityStatus.DRAFT)));
+
+        // WHEN
+        SeatReservationService.Result result = seatReservationService.acquire(ACTIVITY_ID);
+
+        // THEN
+        assertEquals(SeatReservationService.Result.CLOSED, result);
+    }
+}
@@ -0,0 +1,247 @@
+package com.eduextra.idempotency.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.eduextra.idempotency.model.IdempotencyRecord;
+import com.eduextra.idempotency.repository.IdempotencyRecordRepository;
+import com.eduextra.idempotency.service.IdempotencyService.Acquired;
+import com.eduextra.idempotency.service.IdempotencyService.Mismatch;
+import com.eduextra.idempotency.service.IdempotencyService.Outcome;
+import com.eduextra.idempotency.service.IdempotencyService.Replay;
+import com.eduextra.idempotency.service.IdempotencyService.StoredResponse;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyService Tests")
+class IdempotencyServiceTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final String KEY = "POST /auth/register anonymous key-1";
+    private static final byte[] BODY = "{\"token\":\"eyJhbGciOiJIUzI1NiJ9.secret\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService();
+    }
+
+    @Test
+    @DisplayName("Debería devolver la respuesta guardada al repetir la misma petición")
+    void begin_WithCompletedKey_ShouldReplayStoredResponse() {
+        // GIVEN
+        Acquired acquired = assertInstanceOf(Acquired.class, service.begin(KEY, "hash-a"));
+        service.complete(acquired.keyHash(), "hash-a", 201, "application/json", BODY);
+
+        // WHEN
+        Outcome outcome = service.begin(KEY, "hash-a");
+
+        // THEN
+        Replay replay = assertInstanceOf(Replay.class, outcome);
+        assertEquals(201, replay.response().status());
+        assertArrayEquals(BODY, replay.response().body());
+        verify(repository, times(1)).insertInProgress(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar una clave reutilizada con otro cuerpo")
+    void begin_WithDifferentBody_ShouldReturnMismatch() {
+        // GIVEN
+        Acquired acquired = assertInstanceOf(Acquired.class, service.begin(KEY, "hash-a"));
+        service.complete(acquired.keyHash(), "hash-a", 201, "application/json", BODY);
+
+        // WHEN & THEN
+        assertInstanceOf(Mismatch.class, service.begin(KEY, "hash-b"));
+    }
+
+    @Test
+    @DisplayName("Debería ejecutar una sola vez las peticiones concurrentes con la misma clave")
+    void begin_WithConcurrentRequests_ShouldExecuteOnce() throws Exception {
+        // GIVEN
+        int requests = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        List<Future<Outcome>> outcomes = new ArrayList<>();
+
+        // WHEN
+        try {
+            for (int i = 0; i < requests; i++) {
+                outcomes.add(executor.submit(() -> {
+                    start.await();
+                    Outcome outcome = service.begin(KEY, "hash-a");
+                    if (outcome instanceof Acquired acquired) {
+                        Thread.sleep(50); // Let the duplicates queue up behind the running request
+                        service.complete(acquired.keyHash(), "hash-a", 201, "application/json", BODY);
+                    }
+                    return outcome;
+                }));
+            }
+            start.countDown();
+
+            // THEN
+            int acquired = 0;
+            int replayed = 0;
+            for (Future<Outcome> future : outcomes) {
+                Outcome outcome = future.get();
+                if (outcome instanceof Acquired) {
+                    acquired++;
+                } else if (outcome instanceof Replay) {
+                    replayed++;
+                }
+            }
+            assertEquals(1, acquired);
+            assertEquals(requests - 1, replayed);
+            verify(repository, times(1)).insertInProgress(anyString(), anyString(), any(), any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería guardar el cuerpo cifrado y recuperarlo desde otro nodo")
+    void complete_ShouldStoreEncryptedBodyReadableByOtherNodes() {
+        // GIVEN
+        Acquired acquired = assertInstanceOf(Acquired.class, service.begin(KEY, "hash-a"));
+        service.complete(acquired.keyHash(), "hash-a", 201, "application/json", BODY);
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(repository).complete(eq(acquired.keyHash()), anyInt(), any(), stored.capture(), any());
+        assertFalse(stored.getValue().contains("eyJ"));
+
+        // WHEN: a node with an empty cache finds the completed row
+        when(repository.findById(acquired.keyHash())).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .keyHash(acquired.keyHash())
+                .requestHash("hash-a")
+                .status(IdempotencyRecord.Status.COMPLETED)
+                .responseStatus(201)
+                .contentType("application/json")
+                .responseBody(stored.getValue())
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build()));
+        Outcome outcome = newService().begin(KEY, "hash-a");
+
+        // THEN
+        assertArrayEquals(BODY, assertInstanceOf(Replay.class, outcome).response().body());
+    }
+
+    @Test
+    @DisplayName("Debería descartar una respuesta guardada que no se puede descifrar")
+    void begin_WithUndecryptableRow_ShouldExecuteAgain() {
+        // GIVEN
+        String keyHash = IdempotencyService.sha256Hex(KEY.getBytes(StandardCharsets.UTF_8));
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+        when(repository.findById(keyHash)).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .keyHash(keyHash)
+                .requestHash("hash-a")
+                .status(IdempotencyRecord.Status.COMPLETED)
+                .responseStatus(201)
+                .responseBody("{\"token\":\"plain\"}")
+                .expiresAt(expiresAt)
+                .build()));
+        when(repository.deleteIfUnchanged(keyHash, expiresAt)).thenReturn(1);
+
+        // WHEN & THEN
+        assertInstanceOf(Acquired.class, service.begin(KEY, "hash-a"));
+        verify(repository).deleteIfUnchanged(keyHash, expiresAt);
+    }
+
+    @Test
+    @DisplayName("Debería esperar al otro nodo si este ya sustituyó la clave caducada")
+    void begin_WithExpiredKeyTakenByOtherNode_ShouldNotExecuteAgain() {
+        // GIVEN: the expired row is gone by the time of the delete, the other node completes it
+        String keyHash = IdempotencyService.sha256Hex(KEY.getBytes(StandardCharsets.UTF_8));
+        LocalDateTime expiredAt = LocalDateTime.now().minusMinutes(1);
+        IdempotencyService otherNode = newService();
+        Acquired other = assertInstanceOf(Acquired.class, otherNode.begin(KEY, "hash-a"));
+        otherNode.complete(other.keyHash(), "hash-a", 201, "application/json", BODY);
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(repository).complete(eq(keyHash), anyInt(), any(), stored.capture(), any());
+        when(repository.findById(keyHash)).thenReturn(
+                Optional.of(IdempotencyRecord.builder()
+                        .keyHash(keyHash)
+                        .requestHash("hash-a")
+                        .status(IdempotencyRecord.Status.IN_PROGRESS)
+                        .expiresAt(expiredAt)
+                        .build()),
+                Optional.of(IdempotencyRecord.builder()
+                        .keyHash(keyHash)
+                        .requestHash("hash-a")
+                        .status(IdempotencyRecord.Status.COMPLETED)
+                        .responseStatus(201)
+                        .contentType("application/json")
+                        .responseBody(stored.getValue())
+                        .expiresAt(LocalDateTime.now().plusHours(1))
+                        .build()));
+
+        // WHEN
+        Outcome outcome = service.begin(KEY, "hash-a");
+
+        // THEN
+        assertArrayEquals(BODY, assertInstanceOf(Replay.class, outcome).response().body());
+        verify(repository).deleteIfUnchanged(keyHash, expiredAt);
+        verify(repository, times(1)).insertInProgress(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Debería expulsar las respuestas menos usadas al superar el límite de bytes")
+    void boundedResponseCache_ShouldEvictLeastRecentlyUsed() {
+        // GIVEN
+        IdempotencyService.BoundedResponseCache cache = new IdempotencyService.BoundedResponseCache(10, 10);
+        cache.put("a", response(4));
+        cache.put("b", response(4));
+        cache.get("a");
+
+        // WHEN
+        cache.put("c", response(4));
+
+        // THEN
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    private IdempotencyService newService() {
+        IdempotencyService idempotencyService = new IdempotencyService(repository, 100, 1 << 20, SECRET);
+        ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "lockTimeoutSeconds", 60L);
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(idempotencyService, "pollIntervalMs", 10L);
+        return idempotencyService;
+    }
+
+    private StoredResponse response(int size) {
+        return new StoredResponse("hash", 201, "application/json", new byte[size], LocalDateTime.now().plusHours(1));
+    }
+}
@@ -0,0 +1,47 @@
+package com.eduextra.job.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.eduextra.common.queue.WorkQueues;
+
+@DisplayName("JobService Tests")
+class JobServiceTest {
+
+    @Test
+    @DisplayName("Debería leer las colas con su concurrencia, por defecto uno")
+    void parseQueues_ShouldReadConcurrency() {
+        // WHEN
+        Map<String, Integer> queues = JobService.parseQueues(" default:4, maintenance , reports:2,");
+
+        // THEN
+        assertEquals(List.of("default", "maintenance", "reports"), List.copyOf(queues.keySet()));
+        assertEquals(4, queues.get("default"));
+        assertEquals(1, queues.get("maintenance"));
+        assertEquals(2, queues.get("reports"));
+    }
+
+    @Test
+    @DisplayName("Debería rechazar colas mal configuradas")
+    void parseQueues_ShouldRejectInvalidQueues() {
+        assertThrows(IllegalArgumentException.class, () -> JobService.parseQueues("default:0"));
+        assertThrows(IllegalArgumentException.class, () -> JobService.parseQueues(":3"));
+        assertThrows(IllegalArgumentException.class, () -> JobService.parseQueues(" , "));
+    }
+
+    @Test
+    @DisplayName("Debería duplicar la espera entre intentos hasta el máximo")
+    void backoff_ShouldDoubleUpToMaximum() {
+        assertEquals(Duration.ofSeconds(2), WorkQueues.backoff(1, 600));
+        assertEquals(Duration.ofSeconds(16), WorkQueues.backoff(4, 600));
+        assertEquals(Duration.ofSeconds(600), WorkQueues.backoff(10, 600));
+        assertEquals(Duration.ofSeconds(600), WorkQueues.backoff(64, 600));
+    }
+}
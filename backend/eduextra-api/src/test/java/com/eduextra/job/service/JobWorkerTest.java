@@ -0,0 +1,190 @@
+package com.eduextra.job.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.job.model.Job;
+import com.eduextra.job.model.JobStatus;
+import com.eduextra.job.repository.JobRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "application.jobs.enabled=false",
+    "application.jobs.queues=default:4,maintenance:1,worker-test:2",
+    "application.jobs.visibility-timeout-seconds=300",
+    "application.outbox.poll-interval-ms=3600000",
+    "application.waitlist.promotion-interval-ms=3600000"
+})
+@DisplayName("JobWorker Tests")
+class JobWorkerTest {
+
+    // Only this test uses the queue, so jobs left by other tests are never claimed here
+    private static final String QUEUE = "worker-test";
+    private static final String OTHER_NODE = "node-gone";
+
+    @Autowired
+    private JobWorker jobWorker;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String node;
+
+    @BeforeEach
+    void setUp() {
+        node = (String) ReflectionTestUtils.getField(jobWorker, "node");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobRepository.deleteAll(jobRepository.findAll().stream().filter(job -> QUEUE.equals(job.getQueue())).toList());
+    }
+
+    @Test
+    @DisplayName("Debería reclamar por prioridad solo los trabajos listos y arrendarlos a este nodo")
+    void claim_ShouldLeaseRunnableJobsByPriority() {
+        // GIVEN
+        Job low = save(JobStatus.PENDING, 0, null, null, 0);
+        Job high = save(JobStatus.PENDING, 5, null, null, 0);
+        Job later = save(JobStatus.PENDING, 9, null, null, 0);
+        later.setRunAt(LocalDateTime.now().plusHours(1));
+        jobRepository.save(later);
+
+        // WHEN
+        List<Job> first = claim(1);
+        List<Job> second = claim(2);
+
+        // THEN
+        assertEquals(List.of(high.getId()), first.stream().map(Job::getId).toList());
+        assertEquals(List.of(low.getId()), second.stream().map(Job::getId).toList());
+        Job claimed = jobRepository.findById(high.getId()).orElseThrow();
+        assertEquals(JobStatus.RUNNING, claimed.getStatus());
+        assertEquals(node, claimed.getLockedBy());
+        assertEquals(1, claimed.getAttempts());
+        assertTrue(claimed.getLockedUntil().isAfter(LocalDateTime.now().plusSeconds(250)));
+        assertEquals(JobStatus.PENDING, jobRepository.findById(later.getId()).orElseThrow().getStatus());
+        assertEquals(List.of(), claim(2));
+    }
+
+    @Test
+    @DisplayName("Debería volver a reclamar un trabajo cuyo arriendo venció")
+    void claim_WithExpiredLease_ShouldRunJobAgain() {
+        // GIVEN
+        Job expired = save(JobStatus.RUNNING, 0, OTHER_NODE, LocalDateTime.now().minusMinutes(1), 2);
+        Job leased = save(JobStatus.RUNNING, 0, OTHER_NODE, LocalDateTime.now().plusMinutes(5), 2);
+
+        // WHEN
+        List<Job> claimed = claim(2);
+
+        // THEN
+        assertEquals(List.of(expired.getId()), claimed.stream().map(Job::getId).toList());
+        Job reclaimed = jobRepository.findById(expired.getId()).orElseThrow();
+        assertEquals(node, reclaimed.getLockedBy());
+        assertEquals(3, reclaimed.getAttempts());
+        assertEquals(OTHER_NODE, jobRepository.findById(leased.getId()).orElseThrow().getLockedBy());
+    }
+
+    @Test
+    @DisplayName("Debería marcar DEAD un trabajo cuyo arriendo venció en el último intento")
+    void claim_WithExpiredLeaseOnLastAttempt_ShouldMarkDead() {
+        // GIVEN
+        Job expired = save(JobStatus.RUNNING, 0, OTHER_NODE, LocalDateTime.now().minusMinutes(1), 3);
+
+        // WHEN
+        List<Job> claimed = claim(2);
+
+        // THEN
+        assertEquals(List.of(), claimed);
+        Job dead = jobRepository.findById(expired.getId()).orElseThrow();
+        assertEquals(JobStatus.DEAD, dead.getStatus());
+        assertNull(dead.getLockedBy());
+        assertTrue(dead.getLastError().contains(OTHER_NODE));
+    }
+
+    @Test
+    @DisplayName("Debería ignorar el resultado de un nodo que ya perdió el trabajo")
+    void markOutcome_FromNodeWithoutLease_ShouldNotChangeJob() {
+        // GIVEN: taken over by this node after the other one's lease expired
+        Job expired = save(JobStatus.RUNNING, 0, OTHER_NODE, LocalDateTime.now().minusMinutes(1), 1);
+        claim(1);
+        LocalDateTime now = LocalDateTime.now();
+
+        // WHEN
+        Integer succeeded = transactionTemplate.execute(status -> jobRepository.markSucceeded(expired.getId(), OTHER_NODE, now));
+        Integer retried = transactionTemplate.execute(status ->
+                jobRepository.markRetry(expired.getId(), OTHER_NODE, now.plusSeconds(4), "late failure"));
+
+        // THEN
+        assertEquals(0, succeeded);
+        assertEquals(0, retried);
+        Job running = jobRepository.findById(expired.getId()).orElseThrow();
+        assertEquals(JobStatus.RUNNING, running.getStatus());
+        assertEquals(node, running.getLockedBy());
+        assertNull(running.getLastError());
+    }
+
+    @Test
+    @DisplayName("Debería devolver a la cola o terminar el trabajo del nodo que lo tiene")
+    void markOutcome_FromLeaseHolder_ShouldUpdateJob() {
+        // GIVEN
+        Job retried = save(JobStatus.PENDING, 1, null, null, 0);
+        Job succeeded = save(JobStatus.PENDING, 0, null, null, 0);
+        claim(2);
+        LocalDateTime runAt = LocalDateTime.now().plusMinutes(1);
+
+        // WHEN
+        transactionTemplate.executeWithoutResult(status -> {
+            jobRepository.markRetry(retried.getId(), node, runAt, "boom");
+            jobRepository.markSucceeded(succeeded.getId(), node, LocalDateTime.now());
+        });
+
+        // THEN
+        Job pending = jobRepository.findById(retried.getId()).orElseThrow();
+        assertEquals(JobStatus.PENDING, pending.getStatus());
+        assertNull(pending.getLockedBy());
+        assertEquals("boom", pending.getLastError());
+        assertEquals(1, pending.getAttempts());
+        Job done = jobRepository.findById(succeeded.getId()).orElseThrow();
+        assertEquals(JobStatus.SUCCEEDED, done.getStatus());
+        assertNull(done.getLockedBy());
+        // Not runnable until its backoff is over
+        assertEquals(List.of(), claim(2));
+    }
+
+    private List<Job> claim(int limit) {
+        return transactionTemplate.execute(status -> jobWorker.claim(QUEUE, limit));
+    }
+
+    private Job save(JobStatus status, int priority, String lockedBy, LocalDateTime lockedUntil, int attempts) {
+        return jobRepository.save(Job.builder()
+                .queue(QUEUE)
+                .type("TestJob")
+                .payload("{}")
+                .priority(priority)
+                .status(status)
+                .attempts(attempts)
+                .maxAttempts(3)
+                .lockedBy(lockedBy)
+                .lockedUntil(lockedUntil)
+                .build());
+    }
+}
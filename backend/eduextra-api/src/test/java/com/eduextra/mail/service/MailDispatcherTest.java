@@ -0,0 +1,126 @@
+package com.eduextra.mail.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.mail.model.EmailMessage;
+import com.eduextra.mail.model.EmailStatus;
+import com.eduextra.mail.model.EmailTemplate;
+import com.eduextra.mail.repository.EmailMessageRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import jakarta.mail.internet.MimeMessage;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.mail.port=3025",
+    "application.mail.enabled=false",
+    "application.outbox.poll-interval-ms=3600000",
+    "application.waitlist.promotion-interval-ms=3600000"
+})
+@DisplayName("MailDispatcher Tests")
+class MailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private static final String VALID_PARAMS = "{\"activity\":\"Ajedrez\",\"day\":\"Monday\",\"start\":\"17:00\","
+            + "\"end\":\"18:00\",\"startDate\":\"2026-09-01\",\"endDate\":\"2027-06-01\",\"room\":\"A1\"}";
+
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    @Autowired
+    private EmailMessageRepository emailMessageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Debería marcar como fallido solo el correo que no se puede componer y enviar el resto")
+    void sendBatch_WithUnrenderableMessage_ShouldFailItAndSendTheRest() throws Exception {
+        // GIVEN: one recipient with a broken and a valid digestible email, another with a broken welcome
+        EmailMessage broken = save("ana@eduextra.local", EmailTemplate.ACTIVITY_CANCELLED, "not json");
+        EmailMessage valid = save("ana@eduextra.local", EmailTemplate.ACTIVITY_RESCHEDULED, VALID_PARAMS);
+        EmailMessage welcome = save("luis@eduextra.local", EmailTemplate.WELCOME, "[1, 2]");
+
+        // WHEN
+        mailDispatcher.sendBatch();
+
+        // THEN
+        assertFailed(broken);
+        assertFailed(welcome);
+        assertEquals(EmailStatus.SENT, emailMessageRepository.findById(valid.getId()).orElseThrow().getStatus());
+        List<String> recipients = Arrays.stream(greenMail.getReceivedMessages()).map(MailDispatcherTest::recipient).toList();
+        assertEquals(List.of("ana@eduextra.local"), recipients);
+    }
+
+    @Test
+    @DisplayName("Debería ignorar el resultado de un nodo cuyo envío ya reclamó otro")
+    void markOutcome_FromExpiredClaim_ShouldNotChangeEmail() {
+        // GIVEN: a node claimed the email and its lease ran out before it recorded the outcome
+        LocalDateTime expiredLease = LocalDateTime.now().minusMinutes(1).truncatedTo(ChronoUnit.MILLIS);
+        EmailMessage claimed = emailMessageRepository.save(EmailMessage.builder()
+                .recipient("eva@eduextra.local")
+                .template(EmailTemplate.ACTIVITY_RESCHEDULED)
+                .params(VALID_PARAMS)
+                .status(EmailStatus.SENDING)
+                .attempts(1)
+                .availableAt(expiredLease)
+                .lockedBy("node-gone")
+                .build());
+        mailDispatcher.sendBatch();
+
+        // WHEN
+        Integer failed = transactionTemplate.execute(status ->
+                emailMessageRepository.markFailed(List.of(claimed.getId()), "node-gone", expiredLease, "late failure"));
+
+        // THEN
+        assertEquals(0, failed);
+        EmailMessage stored = emailMessageRepository.findById(claimed.getId()).orElseThrow();
+        assertEquals(EmailStatus.SENT, stored.getStatus());
+        assertEquals(2, stored.getAttempts());
+        assertNull(stored.getLockedBy());
+        assertNull(stored.getLastError());
+    }
+
+    private void assertFailed(EmailMessage message) {
+        EmailMessage stored = emailMessageRepository.findById(message.getId()).orElseThrow();
+        assertEquals(EmailStatus.FAILED, stored.getStatus());
+        assertEquals(1, stored.getAttempts());
+        assertTrue(stored.getLastError().startsWith("Could not render"));
+    }
+
+    private EmailMessage save(String recipient, EmailTemplate template, String params) {
+        return emailMessageRepository.save(EmailMessage.builder()
+                .recipient(recipient)
+                .template(template)
+                .params(params)
+                .build());
+    }
+
+    private static String recipient(MimeMessage message) {
+        try {
+            return message.getAllRecipients()[0].toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.eduextra.mail.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.eduextra.mail.model.EmailTemplate;
+
+@DisplayName("MailTemplates Tests")
+class MailTemplatesTest {
+
+    private final MailTemplates mailTemplates = new MailTemplates();
+
+    @Test
+    @DisplayName("Debería sustituir los parámetros y dejar vacíos los que faltan")
+    void parse_ShouldReplacePlaceholders() {
+        // GIVEN
+        MailTemplates.Template template = MailTemplates.Template.parse("test.txt",
+                "subject: Hola {{ name }}\nsummary: {{name}} en {{activity}}\n---\n{{name}}: {{missing}}{{activity}}.\n");
+
+        // WHEN
+        MailTemplates.Rendered rendered = template.render(Map.of("name", "Ana", "activity", "Ajedrez"));
+
+        // THEN
+        assertEquals("Hola Ana", rendered.subject());
+        assertEquals("Ana en Ajedrez", rendered.summary());
+        assertEquals("Ana: Ajedrez.\n", rendered.body());
+    }
+
+    @Test
+    @DisplayName("Debería quitar los saltos de línea del asunto")
+    void render_ShouldKeepSubjectOnOneLine() {
+        // WHEN
+        MailTemplates.Rendered rendered = mailTemplates.render(EmailTemplate.ACTIVITY_CANCELLED,
+                Map.of("activity", "Teatro\r\nBcc: someone@example.com"));
+
+        // THEN
+        assertEquals("Teatro Bcc: someone@example.com has been cancelled", rendered.subject());
+    }
+
+    @Test
+    @DisplayName("Debería listar los resúmenes de cada correo en el resumen")
+    void renderDigest_ShouldListSummaries() {
+        // GIVEN
+        MailTemplates.Rendered cancelled = mailTemplates.render(EmailTemplate.ACTIVITY_CANCELLED, Map.of("activity", "Teatro"));
+        MailTemplates.Rendered promoted = mailTemplates.render(EmailTemplate.WAITLIST_PROMOTED, Map.of(
+                "activity", "Ajedrez", "day", "Tuesday", "start", "17:00", "end", "18:00", "room", "Aula 4"));
+
+        // WHEN
+        MailTemplates.Rendered digest = mailTemplates.renderDigest(List.of(cancelled, promoted));
+
+        // THEN
+        assertEquals("You have 2 updates from EduExtra", digest.subject());
+        assertTrue(digest.body().contains("- Teatro has been cancelled\n"
+                + "- A seat opened up in Ajedrez and you are now enrolled (Tuesday 17:00-18:00, Aula 4)\n"), digest.body());
+    }
+}
@@ -0,0 +1,102 @@
+package com.eduextra.mail.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import jakarta.mail.Message;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+
+@DisplayName("SmtpConnectionPool Tests")
+class SmtpConnectionPoolTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final SmtpConnectionPool pool = new SmtpConnectionPool(Session.getInstance(new Properties()), "smtp",
+            "localhost", ServerSetupTest.SMTP.getPort(), null, null, 2, 60_000);
+
+    @AfterEach
+    void closePool() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Debería enviar varios correos reutilizando la misma conexión")
+    void borrow_ShouldReuseOpenConnection() throws Exception {
+        // GIVEN
+        Transport first = pool.borrow();
+        first.sendMessage(message("a@eduextra.local"), new InternetAddress[] {new InternetAddress("a@eduextra.local")});
+        pool.release(first, false);
+
+        // WHEN
+        Transport second = pool.borrow();
+        second.sendMessage(message("b@eduextra.local"), new InternetAddress[] {new InternetAddress("b@eduextra.local")});
+        pool.release(second, false);
+
+        // THEN
+        assertSame(first, second);
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        assertEquals(1, pool.idleConnections());
+    }
+
+    @Test
+    @DisplayName("Debería abrir otra conexión si el servidor cerró la anterior")
+    void borrow_ShouldReconnectWhenServerClosedConnection() throws Exception {
+        // GIVEN
+        Transport first = pool.borrow();
+        pool.release(first, false);
+        greenMail.stop();
+        greenMail.start();
+
+        // WHEN
+        Transport second = pool.borrow();
+        second.sendMessage(message("c@eduextra.local"), new InternetAddress[] {new InternetAddress("c@eduextra.local")});
+        pool.release(second, false);
+
+        // THEN
+        assertNotSame(first, second);
+        assertEquals(1, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    @DisplayName("Debería cerrar las conexiones ociosas pasado el tiempo límite")
+    void evictIdle_ShouldCloseExpiredConnections() throws Exception {
+        // GIVEN
+        SmtpConnectionPool shortLived = new SmtpConnectionPool(Session.getInstance(new Properties()), "smtp",
+                "localhost", ServerSetupTest.SMTP.getPort(), null, null, 1, 0);
+        Transport transport = shortLived.borrow();
+        shortLived.release(transport, false);
+
+        // WHEN
+        shortLived.evictIdle();
+
+        // THEN
+        assertEquals(0, shortLived.idleConnections());
+        assertFalse(transport.isConnected());
+    }
+
+    private MimeMessage message(String to) throws Exception {
+        MimeMessage message = new MimeMessage(pool.session());
+        message.setFrom("no-reply@eduextra.local");
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(to));
+        message.setSubject("Test");
+        message.setText("Hello");
+        message.saveChanges();
+        return message;
+    }
+}
@@ -0,0 +1,154 @@
+package com.eduextra.notification.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.eduextra.activity.event.ActivityCancelled;
+import com.eduextra.activity.event.ActivityChanged;
+import com.eduextra.enrollment.event.EnrollmentCreated;
+import com.eduextra.notification.dto.NotificationDTO;
+import com.eduextra.notification.model.NotificationType;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.repository.OutboxEventRepository;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.user.event.UserDeleted;
+import com.eduextra.user.event.UserStatusChanged;
+import com.eduextra.user.model.User;
+import com.eduextra.user.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NotificationFeed Tests")
+class NotificationFeedTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NotificationHub notificationHub;
+
+    private NotificationFeed notificationFeed;
+
+    @BeforeEach
+    void setUp() {
+        notificationFeed = new NotificationFeed(new OutboxService(outboxEventRepository, objectMapper), userRepository,
+                jdbcTemplate, notificationHub);
+    }
+
+    @Test
+    @DisplayName("Debería notificar al alumno con el id del evento como posición")
+    void handle_EnrollmentCreated_ShouldPublishToStudent() throws Exception {
+        // GIVEN
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(3L))).thenReturn(List.of("Ajedrez"));
+
+        // WHEN
+        notificationFeed.handle(event(41L, new EnrollmentCreated(9L, 3L, 7L)));
+
+        // THEN
+        ArgumentCaptor<NotificationDTO> published = ArgumentCaptor.forClass(NotificationDTO.class);
+        verify(notificationHub).publish(eq(List.of(7L)), published.capture());
+        assertEquals(41L, published.getValue().getId());
+        assertEquals(NotificationType.ENROLLMENT_CONFIRMED, published.getValue().getType());
+        assertEquals("Your enrollment in Ajedrez is confirmed", published.getValue().getMessage());
+    }
+
+    @Test
+    @DisplayName("Debería avisar a los inscritos y al monitor cuando se cancela una actividad")
+    void handle_ActivityCancelled_ShouldPublishToRecipients() throws Exception {
+        // GIVEN
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(3L), eq(3L))).thenReturn(List.of(7L, 20L));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(3L))).thenReturn(List.of("Ajedrez"));
+
+        // WHEN
+        notificationFeed.handle(event(44L, new ActivityCancelled(3L)));
+
+        // THEN
+        ArgumentCaptor<NotificationDTO> published = ArgumentCaptor.forClass(NotificationDTO.class);
+        verify(notificationHub).publish(eq(List.of(7L, 20L)), published.capture());
+        assertEquals(NotificationType.ACTIVITY_CANCELLED, published.getValue().getType());
+        assertEquals("Ajedrez has been cancelled", published.getValue().getMessage());
+    }
+
+    @Test
+    @DisplayName("Debería ignorar los cambios de actividad que no son una cancelación")
+    void supports_ActivityChanged_ShouldBeFalse() {
+        assertFalse(notificationFeed.supports(ActivityChanged.class.getSimpleName()));
+    }
+
+    @Test
+    @DisplayName("Debería avisar y cerrar los streams de los usuarios desactivados")
+    void handle_UserDisabled_ShouldPublishAndDisconnect() throws Exception {
+        // WHEN
+        notificationFeed.handle(event(42L, new UserStatusChanged(List.of(7L, 8L), null, null, false, 2)));
+
+        // THEN
+        ArgumentCaptor<NotificationDTO> published = ArgumentCaptor.forClass(NotificationDTO.class);
+        verify(notificationHub).publish(eq(List.of(7L, 8L)), published.capture());
+        assertEquals(NotificationType.ACCOUNT_DISABLED, published.getValue().getType());
+        verify(notificationHub).disconnect(List.of(7L, 8L));
+    }
+
+    @Test
+    @DisplayName("Debería cerrar solo los streams de usuarios conectados que ya no existen")
+    void handle_UserDeletedByFilter_ShouldDisconnectMissingUsers() throws Exception {
+        // GIVEN
+        when(notificationHub.connectedUserIds()).thenReturn(List.of(7L, 8L));
+        when(userRepository.findAllById(List.of(7L, 8L))).thenReturn(List.of(User.builder().id(8L).build()));
+
+        // WHEN
+        notificationFeed.handle(event(43L, new UserDeleted(null, "ana", null, 1)));
+
+        // THEN
+        verify(notificationHub).disconnect(List.of(7L));
+        verify(notificationHub, never()).publish(anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Debería mover la posición del hub con la del tail")
+    void startedAndCaughtUp_ShouldMoveHubPosition() {
+        // WHEN
+        notificationFeed.started(100L);
+        notificationFeed.caughtUp(120L);
+
+        // THEN
+        verify(notificationHub).start(100L);
+        verify(notificationHub).advance(120L);
+    }
+
+    private OutboxEvent event(Long id, Object payload) throws Exception {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType("Activity")
+                .eventType(payload.getClass().getSimpleName())
+                .payload(objectMapper.writeValueAsString(payload))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
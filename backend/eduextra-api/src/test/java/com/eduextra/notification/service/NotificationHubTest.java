@@ -0,0 +1,214 @@
+package com.eduextra.notification.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.eduextra.notification.dto.NotificationDTO;
+import com.eduextra.notification.model.NotificationType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("NotificationHub Tests")
+class NotificationHubTest {
+
+    private static final Long USER_ID = 7L;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationHub notificationHub;
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        notificationHub.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debería descartar lo más antiguo y pedir resync cuando la cola del stream se llena")
+    void publish_WithFullQueue_ShouldDropOldestAndResync() throws Exception {
+        // GIVEN
+        setUp(3, 20);
+        MvcResult stream = open(null);
+        awaitContent(stream, content -> content.contains(":heartbeat"));
+        CountDownLatch release = blockSender();
+
+        // WHEN: five notifications about different activities while the sender is busy
+        for (long id = 1; id <= 5; id++) {
+            publish(id, NotificationType.ENROLLMENT_CONFIRMED, 100 + id);
+        }
+        release.countDown();
+
+        // THEN
+        String content = awaitContent(stream, body -> body.contains("id:5\n"));
+        assertTrue(content.indexOf("event:resync") < content.indexOf("id:3\n"));
+        assertFalse(content.contains("id:1\n"));
+        assertFalse(content.contains("id:2\n"));
+        assertTrue(content.contains("id:3\n") && content.contains("id:4\n"));
+        assertEquals(2.0, meterRegistry.get("notifications.dropped").tag("policy", "overflow").counter().count());
+    }
+
+    @Test
+    @DisplayName("Debería sustituir una notificación en cola por otra sobre lo mismo")
+    void publish_WithSameSubjectQueued_ShouldCoalesce() throws Exception {
+        // GIVEN
+        setUp(32, 20);
+        MvcResult stream = open(null);
+        awaitContent(stream, content -> content.contains(":heartbeat"));
+        CountDownLatch release = blockSender();
+
+        // WHEN
+        publish(1, NotificationType.ENROLLMENT_CONFIRMED, 10L);
+        publish(2, NotificationType.ENROLLMENT_CONFIRMED, 10L);
+        publish(3, NotificationType.ENROLLMENT_CONFIRMED, 11L);
+        release.countDown();
+
+        // THEN
+        String content = awaitContent(stream, body -> body.contains("id:3\n"));
+        assertFalse(content.contains("id:1\n"));
+        assertTrue(content.contains("id:2\n"));
+        assertFalse(content.contains("event:resync"));
+        assertEquals(1.0, meterRegistry.get("notifications.dropped").tag("policy", "coalesced").counter().count());
+    }
+
+    @Test
+    @DisplayName("Debería reenviar lo posterior a Last-Event-ID al reconectar")
+    void subscribe_WithLastEventId_ShouldReplayNewerNotifications() throws Exception {
+        // GIVEN
+        setUp(32, 20);
+        publish(1, NotificationType.ENROLLMENT_CONFIRMED, 10L);
+        publish(2, NotificationType.WAITLIST_PROMOTED, 11L);
+        publish(3, NotificationType.ACTIVITY_CANCELLED, 12L);
+        notificationHub.advance(3);
+
+        // WHEN
+        MvcResult stream = open(1L);
+
+        // THEN: no heartbeat behind the replayed notifications, they already carry the position
+        String content = awaitContent(stream, body -> body.contains("id:3\n"));
+        assertFalse(content.contains("id:1\n"));
+        assertTrue(content.indexOf("id:2\n") < content.indexOf("id:3\n"));
+        assertFalse(content.contains("event:resync"));
+    }
+
+    @Test
+    @DisplayName("Debería pedir resync si lo perdido ya no está en el historial del usuario")
+    void subscribe_WithEvictedLastEventId_ShouldResync() throws Exception {
+        // GIVEN: only the last two notifications are kept
+        setUp(32, 2);
+        publish(1, NotificationType.ENROLLMENT_CONFIRMED, 10L);
+        publish(2, NotificationType.ENROLLMENT_CONFIRMED, 11L);
+        publish(3, NotificationType.ENROLLMENT_CONFIRMED, 12L);
+
+        // WHEN
+        MvcResult stream = open(0L);
+
+        // THEN
+        String content = awaitContent(stream, body -> body.contains("id:3\n"));
+        assertTrue(content.indexOf("event:resync") < content.indexOf("id:2\n"));
+    }
+
+    @Test
+    @DisplayName("Debería pedir resync si Last-Event-ID es anterior al arranque del nodo")
+    void subscribe_WithLastEventIdBeforeStart_ShouldResync() throws Exception {
+        // GIVEN
+        setUp(32, 20);
+        notificationHub.start(50);
+
+        // WHEN
+        MvcResult stream = open(40L);
+
+        // THEN
+        String content = awaitContent(stream, body -> body.contains(":heartbeat"));
+        assertTrue(content.contains("event:resync"));
+        assertTrue(content.contains("id:50\n"));
+    }
+
+    private void setUp(int queueSize, int replaySize) {
+        meterRegistry = new SimpleMeterRegistry();
+        notificationHub = new NotificationHub(meterRegistry, 1, queueSize, replaySize, 120, 5, 30);
+        notificationHub.start(0);
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(notificationHub)).build();
+    }
+
+    private MvcResult open(Long lastEventId) throws Exception {
+        return lastEventId == null
+                ? mockMvc.perform(get("/stream")).andReturn()
+                : mockMvc.perform(get("/stream").header("Last-Event-ID", lastEventId)).andReturn();
+    }
+
+    private void publish(long id, NotificationType type, Long activityId) {
+        notificationHub.publish(List.of(USER_ID), NotificationDTO.builder()
+                .id(id)
+                .type(type)
+                .activityId(activityId)
+                .message("Notification " + id)
+                .build());
+    }
+
+    // Keeps the only sender thread busy, so whatever is published meanwhile waits in the stream's queue
+    private CountDownLatch blockSender() throws InterruptedException {
+        ThreadPoolExecutor sender = (ThreadPoolExecutor) ReflectionTestUtils.getField(notificationHub, "sender");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        sender.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        return release;
+    }
+
+    private static String awaitContent(MvcResult stream, Predicate<String> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            String content = stream.getResponse().getContentAsString();
+            if (condition.test(content)) {
+                return content;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Stream content never matched: " + stream.getResponse().getContentAsString());
+    }
+
+    /**
+     * Serves the hub's streams the way NotificationController does, without the security parts.
+     */
+    @RestController
+    static class StreamController {
+
+        private final NotificationHub notificationHub;
+
+        StreamController(NotificationHub notificationHub) {
+            this.notificationHub = notificationHub;
+        }
+
+        @GetMapping("/stream")
+        SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+            return notificationHub.subscribe(USER_ID, lastEventId, Instant.now().plusSeconds(600));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.eduextra.outbox.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.repository.OutboxEventRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "application.outbox.poll-interval-ms=3600000",
+    "application.outbox.max-attempts=2",
+    "application.outbox.max-backoff-seconds=0"
+})
+@DisplayName("OutboxRelay Tests")
+class OutboxRelayTest {
+
+    record PassingProbe(String name) {
+    }
+
+    record FailingProbe(String name) {
+    }
+
+    record SideEffectProbe(String name) {
+    }
+
+    static final AtomicInteger failingCalls = new AtomicInteger();
+
+    @TestConfiguration
+    static class ProbeSubscriberConfig {
+
+        // Writes to the database and then fails inside a participating transaction,
+        // which marks the surrounding transaction rollback-only
+        @Bean
+        OutboxSubscriber probeSubscriber(OutboxService outboxService, TransactionTemplate transactionTemplate) {
+            return new OutboxSubscriber() {
+                @Override
+                public boolean supports(String eventType) {
+                    return eventType.equals("PassingProbe") || eventType.equals("FailingProbe");
+                }
+
+                @Override
+                public void handle(OutboxEvent event) {
+                    if (event.getEventType().equals("FailingProbe")) {
+                        failingCalls.incrementAndGet();
+                        outboxService.append("Probe", null, new SideEffectProbe("rolled back"));
+                        transactionTemplate.executeWithoutResult(status -> {
+                            throw new IllegalStateException("probe failure");
+                        });
+                    }
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        failingCalls.set(0);
+    }
+
+    @Test
+    @DisplayName("Debería registrar el intento fallido sin bloquear el resto del lote")
+    void relay_WithFailingSubscriber_ShouldRecordAttemptAndDispatchOthers() {
+        // GIVEN
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxService.append("Probe", 1L, new FailingProbe("first"));
+            outboxService.append("Probe", 2L, new PassingProbe("second"));
+        });
+
+        // WHEN
+        outboxRelay.relay();
+
+        // THEN
+        OutboxEvent failed = find("FailingProbe");
+        assertNull(failed.getProcessedAt());
+        assertEquals(1, failed.getAttempts());
+        assertTrue(failed.getLastError().contains("probe failure"));
+        assertNotNull(find("PassingProbe").getProcessedAt());
+        // The failing subscriber's own writes were rolled back with its event
+        assertTrue(outboxEventRepository.findAll().stream().noneMatch(e -> e.getEventType().equals("SideEffectProbe")));
+    }
+
+    @Test
+    @DisplayName("Debería dejar de reintentar un evento al agotar los intentos")
+    void relay_WithAlwaysFailingSubscriber_ShouldStopAtMaxAttempts() {
+        // GIVEN
+        transactionTemplate.executeWithoutResult(status -> outboxService.append("Probe", 1L, new FailingProbe("dead")));
+
+        // WHEN
+        outboxRelay.relay();
+        outboxRelay.relay();
+        outboxRelay.relay();
+
+        // THEN
+        OutboxEvent dead = find("FailingProbe");
+        assertEquals(2, dead.getAttempts());
+        assertNull(dead.getProcessedAt());
+        assertEquals(2, failingCalls.get());
+    }
+
+    private OutboxEvent find(String eventType) {
+        List<OutboxEvent> events = outboxEventRepository.findAll().stream()
+                .filter(e -> e.getEventType().equals(eventType))
+                .toList();
+        assertEquals(1, events.size());
+        return events.get(0);
+    }
+}
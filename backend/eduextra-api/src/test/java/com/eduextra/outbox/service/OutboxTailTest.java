@@ -0,0 +1,140 @@
+package com.eduextra.outbox.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.outbox.repository.OutboxEventRepository;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxTail Tests")
+class OutboxTailTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private ObjectProvider<OutboxBroadcastSubscriber> subscribers;
+
+    @Mock
+    private OutboxBroadcastSubscriber subscriber;
+
+    private OutboxTail outboxTail;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(subscribers.iterator()).thenAnswer(invocation -> List.of(subscriber).iterator());
+        lenient().when(subscribers.orderedStream()).thenAnswer(invocation -> Stream.of(subscriber));
+        lenient().when(subscriber.supports(anyString())).thenReturn(true);
+        outboxTail = new OutboxTail(outboxEventRepository, subscribers);
+        ReflectionTestUtils.setField(outboxTail, "batchSize", 500);
+        ReflectionTestUtils.setField(outboxTail, "gapTimeoutSeconds", 300L);
+    }
+
+    @Test
+    @DisplayName("Debería entregar un evento con id menor que confirma después de otro mayor")
+    void poll_WithLateCommit_ShouldDeliverSkippedId() {
+        // GIVEN: 11 is read while 10 is still uncommitted
+        start(9L);
+        when(outboxEventRepository.findByIdGreaterThanOrderById(eq(9L), any(Pageable.class))).thenReturn(List.of(event(11L)));
+        outboxTail.poll();
+
+        // WHEN: 10 commits long after 11
+        when(outboxEventRepository.findAllById(List.of(10L))).thenReturn(List.of(event(10L)));
+        when(outboxEventRepository.findByIdGreaterThanOrderById(eq(11L), any(Pageable.class))).thenReturn(List.of());
+        outboxTail.poll();
+
+        // THEN
+        InOrder delivered = inOrder(subscriber);
+        delivered.verify(subscriber).handle(eventWithId(11L));
+        delivered.verify(subscriber).handle(eventWithId(10L));
+        verify(subscriber, never()).reload();
+    }
+
+    @Test
+    @DisplayName("Debería recargar a los suscriptores cuando un id nunca aparece")
+    void poll_WithExpiredGap_ShouldReloadSubscribers() {
+        // GIVEN: 10 was rolled back and never shows up
+        start(9L);
+        when(outboxEventRepository.findByIdGreaterThanOrderById(eq(9L), any(Pageable.class))).thenReturn(List.of(event(11L)));
+        outboxTail.poll();
+        when(outboxEventRepository.findByIdGreaterThanOrderById(eq(11L), any(Pageable.class))).thenReturn(List.of());
+        ReflectionTestUtils.setField(outboxTail, "gapTimeoutSeconds", -1L);
+
+        // WHEN
+        outboxTail.poll();
+        outboxTail.poll();
+
+        // THEN: reloaded once, and the gap is no longer looked up
+        verify(subscriber, times(1)).reload();
+        verify(outboxEventRepository, times(1)).findAllById(List.of(10L));
+    }
+
+    @Test
+    @DisplayName("Debería recargar al suscriptor que falla y reintentar si la recarga falla")
+    void poll_WithFailingHandler_ShouldReloadSubscriber() {
+        // GIVEN
+        start(9L);
+        when(outboxEventRepository.findByIdGreaterThanOrderById(eq(9L), any(Pageable.class))).thenReturn(List.of(event(10L)));
+        when(outboxEventRepository.findByIdGreaterThanOrderById(eq(10L), any(Pageable.class))).thenReturn(List.of());
+        doThrow(new IllegalStateException("boom")).when(subscriber).handle(any());
+        doThrow(new IllegalStateException("database down")).doNothing().when(subscriber).reload();
+
+        // WHEN
+        outboxTail.poll();
+        outboxTail.poll();
+        outboxTail.poll();
+
+        // THEN
+        verify(subscriber, times(2)).reload();
+        verify(subscriber, times(3)).caughtUp(10L);
+    }
+
+    private void start(long maxId) {
+        when(outboxEventRepository.findMaxId()).thenReturn(maxId);
+        when(outboxEventRepository.findByIdGreaterThanOrderById(anyLong(), any(Pageable.class)))
+                .thenReturn(LongStream.rangeClosed(1, maxId).mapToObj(OutboxTailTest::event).toList());
+        outboxTail.start();
+        verify(subscriber).started(maxId);
+    }
+
+    private static OutboxEvent event(long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType("Activity")
+                .eventType("ActivityChanged")
+                .payload("{}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static OutboxEvent eventWithId(Long id) {
+        return argThat(event -> event != null && id.equals(event.getId()));
+    }
+}
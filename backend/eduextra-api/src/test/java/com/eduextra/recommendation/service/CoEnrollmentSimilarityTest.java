@@ -0,0 +1,103 @@
+package com.eduextra.recommendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CoEnrollmentSimilarity Tests")
+class CoEnrollmentSimilarityTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final CoEnrollmentSimilarity similarity = new CoEnrollmentSimilarity(pool);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private CoEnrollmentSimilarity.Matrix matrix(int activities, int[]... rows) {
+        int[] offsets = new int[rows.length + 1];
+        for (int s = 0; s < rows.length; s++) {
+            offsets[s + 1] = offsets[s] + rows[s].length;
+        }
+        int[] items = Arrays.stream(rows).flatMapToInt(Arrays::stream).toArray();
+        return new CoEnrollmentSimilarity.Matrix(rows.length, activities, offsets, items);
+    }
+
+    private boolean[] all(int activities) {
+        boolean[] candidate = new boolean[activities];
+        Arrays.fill(candidate, true);
+        return candidate;
+    }
+
+    private int[] row(CoEnrollmentSimilarity.Recommendations recommendations, int s) {
+        return Arrays.copyOfRange(recommendations.activities(), recommendations.offsets()[s], recommendations.offsets()[s + 1]);
+    }
+
+    @Test
+    @DisplayName("Debería recomendar la actividad que más comparten los alumnos parecidos")
+    void compute_ShouldRankByCoEnrollment() throws InterruptedException {
+        // GIVEN: 0 and 1 are usually joined together, 2 only once with 0
+        CoEnrollmentSimilarity.Matrix matrix = matrix(4,
+                new int[] {0, 1}, new int[] {0, 1}, new int[] {0, 1, 3}, new int[] {0, 2}, new int[] {0});
+
+        // WHEN
+        CoEnrollmentSimilarity.Recommendations result = similarity.compute(matrix, all(4), 10, 10);
+
+        // THEN: student 4 gets 1 first, because of 0
+        int[] suggested = row(result, 4);
+        assertEquals(1, suggested[0]);
+        assertEquals(0, result.reasons()[result.offsets()[4]]);
+        assertTrue(result.scores()[result.offsets()[4]] > result.scores()[result.offsets()[4] + 1]);
+        // Never suggests an activity the student is already in
+        assertTrue(Arrays.stream(row(result, 0)).noneMatch(a -> a == 0 || a == 1));
+    }
+
+    @Test
+    @DisplayName("Debería respetar los candidatos y el número máximo por alumno")
+    void compute_ShouldHonourCandidatesAndTopN() throws InterruptedException {
+        // GIVEN
+        CoEnrollmentSimilarity.Matrix matrix = matrix(5,
+                new int[] {0, 1, 2, 3, 4}, new int[] {0, 1, 2, 3, 4}, new int[] {0});
+        boolean[] candidate = all(5);
+        candidate[1] = false;
+
+        // WHEN
+        CoEnrollmentSimilarity.Recommendations result = similarity.compute(matrix, candidate, 10, 2);
+
+        // THEN: equal scores go to the lower index, and 1 is never suggested
+        assertArrayEquals(new int[] {2, 3}, row(result, 2));
+        assertEquals(0, row(result, 0).length);
+    }
+
+    @Test
+    @DisplayName("Debería dar el mismo resultado en paralelo que en un solo hilo")
+    void compute_ShouldNotDependOnParallelism() throws InterruptedException {
+        // GIVEN: more students than one block
+        Random random = new Random(7);
+        int[][] rows = new int[2000][];
+        for (int s = 0; s < rows.length; s++) {
+            rows[s] = random.ints(1 + random.nextInt(5), 0, 120).distinct().sorted().toArray();
+        }
+        CoEnrollmentSimilarity.Matrix matrix = matrix(120, rows);
+        ForkJoinPool single = new ForkJoinPool(1);
+
+        // WHEN
+        CoEnrollmentSimilarity.Recommendations parallel = similarity.compute(matrix, all(120), 20, 10);
+        CoEnrollmentSimilarity.Recommendations sequential = new CoEnrollmentSimilarity(single).compute(matrix, all(120), 20, 10);
+        single.shutdownNow();
+
+        // THEN
+        assertArrayEquals(sequential.offsets(), parallel.offsets());
+        assertArrayEquals(sequential.activities(), parallel.activities());
+        assertArrayEquals(sequential.scores(), parallel.scores());
+    }
+}
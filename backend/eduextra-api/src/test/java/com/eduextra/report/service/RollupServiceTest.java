@@ -0,0 +1,152 @@
+package com.eduextra.report.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.eduextra.enrollment.event.EnrollmentCreated;
+import com.eduextra.enrollment.event.EnrollmentWithdrawn;
+import com.eduextra.job.model.Job;
+import com.eduextra.job.repository.JobRepository;
+import com.eduextra.outbox.model.OutboxEvent;
+import com.eduextra.waitlist.event.WaitlistPromoted;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "application.jobs.enabled=false",
+    "application.outbox.poll-interval-ms=3600000",
+    "application.reports.flush-interval-ms=3600000",
+    "application.waitlist.promotion-interval-ms=3600000"
+})
+@DisplayName("RollupService Tests")
+class RollupServiceTest {
+
+    // Ids no other test uses: the H2 database is shared by every test context
+    private static final AtomicLong IDS = new AtomicLong(947_000);
+
+    @Autowired
+    private RollupSubscriber rollupSubscriber;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Test
+    @DisplayName("Debería conservar los días pasados cuando el alumno vuelve a inscribirse")
+    void flush_AfterReenrollment_ShouldKeepEarlierDays() throws Exception {
+        // GIVEN: enrolled three days ago, withdrew two days ago and enrolled again today
+        long activityId = IDS.incrementAndGet();
+        long studentId = IDS.incrementAndGet();
+        LocalDate today = LocalDate.now();
+        handle(today.minusDays(3), new EnrollmentCreated(IDS.incrementAndGet(), activityId, studentId));
+        handle(today.minusDays(2), new EnrollmentWithdrawn(activityId, studentId, false));
+        handle(today, new EnrollmentCreated(IDS.incrementAndGet(), activityId, studentId));
+
+        // WHEN
+        rollupService.flush();
+
+        // THEN
+        assertEquals(List.of(
+                List.of(today.minusDays(3), 1, 0),
+                List.of(today.minusDays(2), 0, 1),
+                List.of(today, 1, 0)), days(activityId));
+    }
+
+    @Test
+    @DisplayName("Debería contar una sola vez un evento entregado dos veces")
+    void flush_WithRedeliveredEvent_ShouldCountItOnce() throws Exception {
+        // GIVEN
+        long activityId = IDS.incrementAndGet();
+        OutboxEvent promoted = event(LocalDate.now(),
+                new WaitlistPromoted(activityId, List.of(IDS.incrementAndGet(), IDS.incrementAndGet())));
+        rollupSubscriber.handle(promoted);
+
+        // WHEN
+        rollupSubscriber.handle(promoted);
+        rollupService.flush();
+
+        // THEN
+        assertEquals(List.of(List.of(LocalDate.now(), 2, 0)), days(activityId));
+    }
+
+    @Test
+    @DisplayName("Debería reconstruir los días desde el historial aunque la inscripción ya no exista")
+    void reconcile_WithoutEnrollmentRows_ShouldRebuildDaysFromHistory() throws Exception {
+        // GIVEN: no enrollments row at all, as after a hard delete
+        long activityId = IDS.incrementAndGet();
+        long studentId = IDS.incrementAndGet();
+        LocalDate today = LocalDate.now();
+        handle(today.minusDays(5), new EnrollmentCreated(IDS.incrementAndGet(), activityId, studentId));
+        handle(today.minusDays(1), new EnrollmentWithdrawn(activityId, studentId, true));
+        rollupService.flush();
+        List<List<Object>> flushed = days(activityId);
+
+        // WHEN
+        rollupService.reconcile();
+
+        // THEN
+        assertEquals(List.of(List.of(today.minusDays(5), 1, 0), List.of(today.minusDays(1), 0, 1)), flushed);
+        assertEquals(flushed, days(activityId));
+    }
+
+    @Test
+    @DisplayName("Debería encolar una sola reconciliación por día aunque se dispare en varios nodos")
+    void scheduleReconcile_OnEveryNode_ShouldEnqueueOneJob() {
+        // WHEN: the schedule fires on two nodes
+        rollupService.scheduleReconcile();
+        rollupService.scheduleReconcile();
+
+        // THEN
+        String dedupeKey = "rollup-reconcile:" + LocalDate.now();
+        List<Job> jobs = jobRepository.findAll().stream().filter(job -> dedupeKey.equals(job.getDedupeKey())).toList();
+        jobRepository.deleteAll(jobs);
+        assertEquals(1, jobs.size());
+        assertEquals("ReconcileRollups", jobs.get(0).getType());
+        assertEquals("maintenance", jobs.get(0).getQueue());
+    }
+
+    private void handle(LocalDate day, Object payload) throws Exception {
+        rollupSubscriber.handle(event(day, payload));
+    }
+
+    private OutboxEvent event(LocalDate day, Object payload) throws Exception {
+        return OutboxEvent.builder()
+                .id(IDS.incrementAndGet())
+                .aggregateType("Activity")
+                .eventType(payload.getClass().getSimpleName())
+                .payload(objectMapper.writeValueAsString(payload))
+                .createdAt(LocalDateTime.of(day, LocalTime.NOON))
+                .build();
+    }
+
+    private List<List<Object>> days(long activityId) {
+        return jdbcTemplate.queryForList("select rollup_date, enrollments, withdrawals from activity_day_rollups "
+                + "where activity_id = ? order by rollup_date", activityId).stream()
+                .map(row -> List.<Object>of(((Date) row.get("ROLLUP_DATE")).toLocalDate(),
+                        row.get("ENROLLMENTS"), row.get("WITHDRAWALS")))
+                .toList();
+    }
+}
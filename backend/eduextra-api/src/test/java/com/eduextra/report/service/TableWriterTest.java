@@ -0,0 +1,79 @@
+package com.eduextra.report.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TableWriter Tests")
+class TableWriterTest {
+
+    @Test
+    @DisplayName("Debería entrecomillar el CSV y neutralizar las fórmulas")
+    void csv_ShouldQuoteAndEscapeFormulas() throws IOException {
+        // GIVEN
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TableWriter writer = new CsvTableWriter(out);
+
+        // WHEN
+        writer.row("Activity", "Enrolled", "Note");
+        writer.row("Teatro, nivel \"2\"", -3, "=SUM(A1:A9)");
+        writer.row("Ajedrez", null, "línea 1\nlínea 2");
+        writer.finish();
+
+        // THEN
+        assertEquals("\uFEFFActivity,Enrolled,Note\r\n"
+                + "\"Teatro, nivel \"\"2\"\"\",-3,'=SUM(A1:A9)\r\n"
+                + "Ajedrez,,\"línea 1\nlínea 2\"\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Debería continuar en otra hoja con la cabecera al llegar al límite de filas")
+    void xlsx_ShouldRollOverToNewSheet() throws IOException {
+        // GIVEN
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TableWriter writer = new XlsxTableWriter(out, 3);
+
+        // WHEN
+        writer.row("Activity", "Enrolled");
+        for (int k = 1; k <= 3; k++) {
+            writer.row("A&B <" + k + ">", k);
+        }
+        writer.finish();
+
+        // THEN
+        Map<String, String> entries = unzip(out.toByteArray());
+        assertTrue(entries.keySet().containsAll(List.of("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+                "xl/_rels/workbook.xml.rels", "xl/worksheets/sheet1.xml", "xl/worksheets/sheet2.xml")));
+        String first = entries.get("xl/worksheets/sheet1.xml");
+        String second = entries.get("xl/worksheets/sheet2.xml");
+        assertTrue(first.contains("<row r=\"3\"><c t=\"inlineStr\"><is><t xml:space=\"preserve\">A&amp;B &lt;2&gt;</t></is></c><c><v>2</v></c></row>"));
+        assertTrue(second.startsWith("<?xml"));
+        assertTrue(second.contains("<row r=\"1\"><c t=\"inlineStr\"><is><t xml:space=\"preserve\">Activity</t>"));
+        assertTrue(second.contains("<row r=\"2\"><c t=\"inlineStr\"><is><t xml:space=\"preserve\">A&amp;B &lt;3&gt;</t>"));
+        assertTrue(entries.get("xl/workbook.xml").contains("sheetId=\"2\""));
+        assertTrue(entries.get("[Content_Types].xml").contains("/xl/worksheets/sheet2.xml"));
+    }
+
+    private static Map<String, String> unzip(byte[] bytes) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
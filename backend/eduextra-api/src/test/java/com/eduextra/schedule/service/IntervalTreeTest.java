@@ -0,0 +1,94 @@
+package com.eduextra.schedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("IntervalTree Tests")
+class IntervalTreeTest {
+
+    @Test
+    @DisplayName("Debería devolver los mismos solapes que una búsqueda lineal")
+    void forEachOverlap_ShouldMatchBruteForce() {
+        // GIVEN
+        Random random = new Random(42);
+        IntervalTree<Long> tree = new IntervalTree<>();
+        Map<Long, int[]> intervals = new HashMap<>();
+        for (long key = 0; key < 2000; key++) {
+            int start = random.nextInt(10_000);
+            int[] interval = {start, start + 1 + random.nextInt(300)};
+            tree.put(interval[0], interval[1], key, key);
+            intervals.put(key, interval);
+        }
+        for (long key = 0; key < 2000; key += 3) {
+            tree.remove(key);
+            intervals.remove(key);
+        }
+
+        for (int query = 0; query < 500; query++) {
+            int start = random.nextInt(10_000);
+            int end = start + 1 + random.nextInt(200);
+
+            // WHEN
+            TreeSet<Long> found = new TreeSet<>();
+            tree.forEachOverlap(start, end, found::add);
+
+            // THEN
+            TreeSet<Long> expected = new TreeSet<>();
+            intervals.forEach((key, interval) -> {
+                if (interval[0] < end && interval[1] > start) {
+                    expected.add(key);
+                }
+            });
+            assertEquals(expected, found);
+        }
+        assertEquals(intervals.size(), tree.size());
+    }
+
+    @Test
+    @DisplayName("No debería considerar solape dos franjas contiguas")
+    void forEachOverlap_WithAdjacentIntervals_ShouldNotMatch() {
+        // GIVEN
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.put(60, 120, 1L, "17:00-18:00");
+
+        // WHEN
+        List<String> before = new ArrayList<>();
+        List<String> after = new ArrayList<>();
+        tree.forEachOverlap(0, 60, before::add);
+        tree.forEachOverlap(120, 180, after::add);
+
+        // THEN
+        assertTrue(before.isEmpty());
+        assertTrue(after.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debería reemplazar el intervalo al reinsertar la misma clave")
+    void put_WithExistingKey_ShouldMoveInterval() {
+        // GIVEN
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.put(0, 60, 1L, "old");
+
+        // WHEN
+        tree.put(500, 560, 1L, "new");
+
+        // THEN
+        List<String> found = new ArrayList<>();
+        tree.forEachOverlap(0, 1000, found::add);
+        assertEquals(List.of("new"), found);
+        assertTrue(tree.remove(1L));
+        assertFalse(tree.remove(1L));
+        assertTrue(tree.isEmpty());
+    }
+}
@@ -0,0 +1,179 @@
+package com.eduextra.timetable.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.repository.ActivitySlot;
+import com.eduextra.enrollment.repository.ActiveEnrollment;
+import com.eduextra.timetable.dto.RoomDTO;
+import com.eduextra.timetable.dto.TimeSlotDTO;
+import com.eduextra.timetable.model.TimetablePlanningMode;
+
+@DisplayName("TimetableSolver Tests")
+class TimetableSolverTest {
+
+    private static final LocalDate TERM_START = LocalDate.of(2026, 9, 1);
+    private static final LocalDate TERM_END = LocalDate.of(2027, 6, 30);
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    private List<TimeSlotDTO> weekSlots() {
+        List<TimeSlotDTO> slots = new ArrayList<>();
+        for (DayOfWeek day : List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY)) {
+            for (int hour = 16; hour < 19; hour++) {
+                slots.add(new TimeSlotDTO(day, LocalTime.of(hour, 0), LocalTime.of(hour + 1, 0)));
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * 36 one-hour activities on 12 slots, 4 rooms (one too small for the big ones), 5 monitors
+     * and 300 students taking three activities each.
+     */
+    private TimetableProblem problem(boolean incremental, List<ActivitySlot> activities, Set<Long> changed,
+            Map<Long, List<TimeSlotDTO>> availability) {
+        Map<Long, Integer> capacities = new HashMap<>();
+        for (ActivitySlot activity : activities) {
+            capacities.put(activity.id(), activity.id() % 4 == 0 ? 30 : 15);
+        }
+        List<RoomDTO> rooms = List.of(new RoomDTO("Aula 1", 30), new RoomDTO("Aula 2", 30), new RoomDTO("Aula 3", 20),
+                new RoomDTO("Gimnasio", 40));
+        Random random = new Random(5);
+        List<ActiveEnrollment> enrollments = new ArrayList<>();
+        for (long student = 1000; student < 1300; student++) {
+            List<Long> taken = new ArrayList<>();
+            while (taken.size() < 3) {
+                long activity = 1 + random.nextInt(activities.size());
+                if (!taken.contains(activity)) {
+                    taken.add(activity);
+                    enrollments.add(new ActiveEnrollment(activity, student));
+                }
+            }
+        }
+        return TimetableProblem.of(activities, capacities, weekSlots(), rooms, List.of(1L, 2L, 3L, 4L, 5L), availability,
+                List.of(), enrollments, incremental, changed);
+    }
+
+    private List<ActivitySlot> unplannedActivities() {
+        List<ActivitySlot> activities = new ArrayList<>();
+        for (long id = 1; id <= 36; id++) {
+            activities.add(new ActivitySlot(id, DayOfWeek.FRIDAY, LocalTime.of(9, 0), LocalTime.of(10, 0),
+                    TERM_START, TERM_END, null, null, ActivityStatus.DRAFT));
+        }
+        return activities;
+    }
+
+    private TimetableJob solve(TimetableProblem problem, long timeLimitMs) throws InterruptedException {
+        TimetableJob job = new TimetableJob("test", problem.incremental ? TimetablePlanningMode.INCREMENTAL
+                : TimetablePlanningMode.FULL, problem, timeLimitMs);
+        job.started();
+        new TimetableSolver(workers, 4, 1000).solve(job, 42);
+        return job;
+    }
+
+    @Test
+    @DisplayName("El score incremental debería coincidir con el recalculado desde cero")
+    void incrementalScore_ShouldMatchFullRecalculation() {
+        // GIVEN
+        TimetableProblem problem = problem(false, unplannedActivities(), Set.of(), Map.of());
+        TimetableState state = new TimetableState(problem);
+        Random random = new Random(3);
+        for (int a = 0; a < problem.activityCount(); a++) {
+            state.assign(a, random.nextInt(problem.slotCount()), random.nextInt(problem.roomCount()), random.nextInt(problem.monitorCount()));
+        }
+
+        // WHEN
+        for (int i = 0; i < 10_000; i++) {
+            state.assign(random.nextInt(problem.activityCount()), random.nextInt(problem.slotCount()),
+                    random.nextInt(problem.roomCount()), random.nextInt(problem.monitorCount()));
+        }
+
+        // THEN
+        TimetableState fresh = new TimetableState(problem);
+        fresh.load(state.snapshot());
+        assertEquals(fresh.score(), state.score());
+    }
+
+    @Test
+    @DisplayName("Debería encontrar un horario sin conflictos y repartir a los monitores")
+    void solve_ShouldFindFeasibleBalancedTimetable() throws InterruptedException {
+        // GIVEN
+        TimetableProblem problem = problem(false, unplannedActivities(), Set.of(), Map.of());
+
+        // WHEN
+        TimetableJob job = solve(problem, 10_000);
+
+        // THEN
+        TimetableJob.Best best = job.best();
+        assertEquals(0, TimetableState.hardOf(best.score()));
+        int[] load = new int[problem.monitorCount()];
+        for (int m : best.assignment().monitor()) {
+            load[m]++;
+        }
+        for (int m = 0; m < load.length; m++) {
+            assertTrue(load[m] >= 6 && load[m] <= 9, "monitor load " + load[m]);
+        }
+    }
+
+    @Test
+    @DisplayName("Al replanificar tras un cambio debería mover pocas actividades")
+    void solve_Incremental_ShouldMoveFewActivities() throws InterruptedException {
+        // GIVEN a feasible timetable
+        TimetableProblem full = problem(false, unplannedActivities(), Set.of(), Map.of());
+        TimetableJob first = solve(full, 10_000);
+        TimetableState.Assignment plan = first.best().assignment();
+        List<ActivitySlot> current = new ArrayList<>();
+        for (int a = 0; a < full.activityCount(); a++) {
+            int s = plan.slot()[a];
+            current.add(new ActivitySlot(a + 1L, full.slotDay[s], full.slotTime[s], full.slotTime[s].plusHours(1),
+                    TERM_START, TERM_END, full.roomNames[plan.room()[a]], full.monitorIds[plan.monitor()[a]], ActivityStatus.OPEN));
+        }
+        // ... and then monitor 1 can only work on Mondays
+        Map<Long, List<TimeSlotDTO>> availability = Map.of(1L,
+                List.of(new TimeSlotDTO(DayOfWeek.MONDAY, LocalTime.of(8, 0), LocalTime.of(20, 0))));
+
+        // WHEN
+        TimetableProblem replan = problem(true, current, Set.of(), availability);
+        TimetableJob job = solve(replan, 10_000);
+
+        // THEN
+        TimetableJob.Best best = job.best();
+        assertEquals(0, TimetableState.hardOf(best.score()));
+        int moved = 0;
+        int unavailable = 0;
+        for (int a = 0; a < replan.activityCount(); a++) {
+            if (replan.monitorIds[plan.monitor()[a]] == 1L && replan.slotDay[plan.slot()[a]] != DayOfWeek.MONDAY) {
+                unavailable++;
+            }
+            if (best.assignment().slot()[a] != replan.initialSlot[a] || best.assignment().room()[a] != replan.initialRoom[a]
+                    || best.assignment().monitor()[a] != replan.initialMonitor[a]) {
+                moved++;
+            }
+        }
+        assertTrue(unavailable > 0);
+        assertTrue(moved <= unavailable * 3, "moved " + moved + " to fix " + unavailable);
+    }
+}
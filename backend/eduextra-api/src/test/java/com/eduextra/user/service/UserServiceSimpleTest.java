@@ -3,12 +3,17 @@ package com.eduextra.user.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.never;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -18,14 +23,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 
-import com.eduextra.exception.EmailAlreadyExistsException;
+import com.eduextra.exception.PreconditionFailedException;
+import com.eduextra.exception.UserNotFoundException;
+import com.eduextra.exception.ValidationException;
+import com.eduextra.avatar.service.AvatarStorageService;
+import com.eduextra.avatar.service.AvatarThumbnailService;
+import com.eduextra.enrollment.service.EnrollmentService;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.user.dto.BulkUserActionRequestDTO;
+import com.eduextra.user.dto.UserPatchDTO;
 import com.eduextra.user.dto.UserRequestDTO;
 import com.eduextra.user.dto.UserResponseDTO;
+import com.eduextra.user.event.UserCreated;
 import com.eduextra.user.model.Role;
 import com.eduextra.user.model.User;
+import com.eduextra.user.model.UserArchive;
+import com.eduextra.user.repository.UserArchiveRepository;
 import com.eduextra.user.repository.UserRepository;
 
 
@@ -40,6 +58,21 @@ public class UserServiceSimpleTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserArchiveRepository userArchiveRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private AvatarStorageService avatarStorageService;
+
+    @Mock
+    private AvatarThumbnailService avatarThumbnailService;
+
+    @Mock
+    private EnrollmentService enrollmentService;
+
     @InjectMocks
     private UserService userService;
 
@@ -69,9 +102,8 @@ public class UserServiceSimpleTest {
     @DisplayName("Debería crear un usuario exitosamente")
     void createUser_WithValidData_ShouldReturnUserResponse() {
         // GIVEN
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
         
         // WHEN
         UserResponseDTO result = userService.createUser(testRequest);
@@ -82,9 +114,10 @@ public class UserServiceSimpleTest {
         assertEquals("juan@example.com", result.getEmail());
         assertEquals(Role.STUDENT, result.getRole());
         
-        verify(userRepository).existsByEmail("juan@example.com");
+        verify(userRepository, never()).existsByEmail(anyString());
         verify(passwordEncoder).encode("password123");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(outboxService).append(eq(UserService.AGGREGATE_TYPE), any(), any(UserCreated.class));
     }
     
     @Test
@@ -104,43 +137,224 @@ public class UserServiceSimpleTest {
         verify(userRepository).findById(1L);
     }
 
+    @Test
+    @DisplayName("Debería obtener un usuario archivado cuando no está en la tabla principal")
+    void getUserById_WithArchivedUser_ShouldFallBackToArchive() {
+        // GIVEN
+        UserArchive archived = UserArchive.builder()
+                .id(7L)
+                .fullName("Ana López")
+                .email("ana@example.com")
+                .password("encoded_password")
+                .role(Role.STUDENT)
+                .isActive(false)
+                .build();
+        when(userRepository.findById(7L)).thenReturn(Optional.empty());
+        when(userArchiveRepository.findById(7L)).thenReturn(Optional.of(archived));
+
+        // WHEN
+        UserResponseDTO result = userService.getUserById(7L);
+
+        // THEN
+        assertEquals("ana@example.com", result.getEmail());
+        assertTrue(result.getArchived());
+    }
+
     @Test
     @DisplayName("Debería lanzar excepción cuando el usuario no existe")
     void getUserById_WithInvalidId_ShouldThrowException() {
         // GIVEN
         when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userArchiveRepository.findById(999L)).thenReturn(Optional.empty());
         
         // WHEN & THEN
-        assertThrows(Exception.class, () -> {
+        assertThrows(UserNotFoundException.class, () -> {
             userService.getUserById(999L);
         });
         
         verify(userRepository).findById(999L);
+        verify(userArchiveRepository).findById(999L);
     }
 
     @Test
-    @DisplayName("Debería lanzar excepción si el email ya existe al crear un usuario")
-    void createUser_WithDuplicateEmail_ShouldThrowEmailAlreadyExistsException() {
+    @DisplayName("Debería propagar la violación de unicidad si el email ya existe al crear un usuario")
+    void createUser_WithDuplicateEmail_ShouldPropagateConstraintViolation() {
         // GIVEN
-        when(userRepository.existsByEmail("juan@example.com")).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
+        when(userRepository.saveAndFlush(any(User.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"uk_users_email\""));
         
         // WHEN & THEN
-        EmailAlreadyExistsException exception = assertThrows(
-            EmailAlreadyExistsException.class,
+        // GlobalExceptionHandler traduce esta excepción a un 409 "Email already exists"
+        assertThrows(
+            DataIntegrityViolationException.class,
             () -> userService.createUser(testRequest)
         );
         
-        // Verificar el mensaje de la excepción
-        assertEquals("Email already exists", exception.getMessage());
-        
-        // Verificar que SÍ se verificó el email
-        verify(userRepository).existsByEmail("juan@example.com");
-        
-        // Verificar que NO se intentó guardar ni hashear
+        // Verificar que NO se consultó el email antes de insertar
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    @DisplayName("Debería desactivar un usuario con una sola sentencia UPDATE")
+    void enableUser_WithValidId_ShouldUpdateWithoutLoading() {
+        // GIVEN
+        when(userRepository.updateActiveById(eq(1L), eq(false), any(LocalDateTime.class))).thenReturn(1);
+
+        // WHEN
+        userService.enableUser(1L, false);
+
+        // THEN
+        verify(userRepository, never()).findById(any());
         verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Debería lanzar excepción al borrar un usuario inexistente")
+    void permanentlyDeleteUser_WithInvalidId_ShouldThrowException() {
+        // GIVEN
+        when(userRepository.deleteByIdReturningCount(999L)).thenReturn(0);
+
+        // WHEN & THEN
+        assertThrows(UserNotFoundException.class, () -> userService.permanentlyDeleteUser(999L));
+    }
+
+    @Test
+    @DisplayName("Debería desactivar usuarios en bloque por rol y devolver el total afectado")
+    void setUsersActive_WithRoleFilter_ShouldReturnAffectedCount() {
+        // GIVEN
+        BulkUserActionRequestDTO request = BulkUserActionRequestDTO.builder().role(Role.STUDENT).build();
+        when(userRepository.updateActiveByFilter(isNull(), eq(Role.STUDENT), eq(false), any(LocalDateTime.class)))
+                .thenReturn(25);
+
+        // WHEN
+        int affected = userService.setUsersActive(request, false).getAffected();
+
+        // THEN
+        assertEquals(25, affected);
+    }
+
+    @Test
+    @DisplayName("Debería borrar usuarios en bloque por ids")
+    void permanentlyDeleteUsers_WithIds_ShouldDeleteInOneStatement() {
+        // GIVEN
+        BulkUserActionRequestDTO request = BulkUserActionRequestDTO.builder().ids(List.of(1L, 2L, 3L)).build();
+        when(userRepository.deleteByIds(List.of(1L, 2L, 3L))).thenReturn(3);
+
+        // WHEN & THEN
+        assertEquals(3, userService.permanentlyDeleteUsers(request).getAffected());
+        verify(enrollmentService).withdrawStudents(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    @DisplayName("Debería retirar las inscripciones de los usuarios borrados por filtro")
+    void permanentlyDeleteUsers_WithFilter_ShouldWithdrawEnrollmentsOfMatchedUsers() {
+        // GIVEN
+        BulkUserActionRequestDTO request = BulkUserActionRequestDTO.builder().search("100%_a").build();
+        when(userRepository.findIdsByFilter("%100\\%\\_a%", null)).thenReturn(List.of(4L, 5L));
+        when(userRepository.deleteByIds(List.of(4L, 5L))).thenReturn(2);
+
+        // WHEN
+        int affected = userService.permanentlyDeleteUsers(request).getAffected();
+
+        // THEN
+        assertEquals(2, affected);
+        verify(enrollmentService).withdrawStudents(List.of(4L, 5L));
+    }
+
+    @Test
+    @DisplayName("Debería retirar las inscripciones antes de borrar un usuario")
+    void permanentlyDeleteUser_ShouldWithdrawEnrollments() {
+        // GIVEN
+        when(userRepository.deleteByIdReturningCount(1L)).thenReturn(1);
+
+        // WHEN
+        userService.permanentlyDeleteUser(1L);
+
+        // THEN
+        verify(enrollmentService).withdrawStudents(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Debería rechazar una acción en bloque sin ids ni filtro")
+    void setUsersActive_WithoutCriteria_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class,
+                () -> userService.setUsersActive(new BulkUserActionRequestDTO(), true));
+    }
+
+    @Test
+    @DisplayName("Debería aplicar un patch parcial sin recalcular el hash de la contraseña")
+    void patchUser_WithoutPassword_ShouldNotHashPassword() {
+        // GIVEN
+        testUser.setVersion(2L);
+        UserPatchDTO patch = new UserPatchDTO();
+        patch.setAvatarUrl("https://unavatar.io/juan");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // WHEN
+        UserResponseDTO result = userService.patchUser(1L, patch, 2L, testUser);
+
+        // THEN
+        assertEquals("https://unavatar.io/juan", result.getAvatarUrl());
+        assertEquals("Juan Pérez", result.getFullName());
         verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository).saveAndFlush(testUser);
     }
 
-    
+    @Test
+    @DisplayName("Debería rechazar un patch con una versión obsoleta")
+    void patchUser_WithStaleVersion_ShouldThrowPreconditionFailed() {
+        // GIVEN
+        testUser.setVersion(3L);
+        UserPatchDTO patch = new UserPatchDTO();
+        patch.setFullName("Juan Pérez García");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // WHEN & THEN
+        assertThrows(PreconditionFailedException.class, () -> userService.patchUser(1L, patch, 2L, testUser));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Debería impedir que un usuario que no es admin cambie su propio rol")
+    void patchUser_RoleFromNonAdmin_ShouldThrowAccessDenied() {
+        // GIVEN
+        UserPatchDTO patch = new UserPatchDTO();
+        patch.setRole(Role.ADMIN);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 
+        // WHEN & THEN
+        assertThrows(AccessDeniedException.class, () -> userService.patchUser(1L, patch, null, testUser));
+        assertEquals(Role.STUDENT, testUser.getRole());
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Debería impedir que un usuario que no es admin modifique a otro")
+    void patchUser_OtherUserFromNonAdmin_ShouldThrowAccessDenied() {
+        // GIVEN
+        UserPatchDTO patch = new UserPatchDTO();
+        patch.setFullName("Otro Nombre");
+
+        // WHEN & THEN
+        assertThrows(AccessDeniedException.class, () -> userService.patchUser(2L, patch, null, testUser));
+        verify(userRepository, never()).findById(2L);
+    }
+
+    @Test
+    @DisplayName("Debería permitir a un admin cambiar el rol de otro usuario")
+    void patchUser_RoleFromAdmin_ShouldUpdateRole() {
+        // GIVEN
+        User admin = User.builder().id(9L).role(Role.ADMIN).build();
+        UserPatchDTO patch = new UserPatchDTO();
+        patch.setRole(Role.MONITOR);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // WHEN
+        UserResponseDTO result = userService.patchUser(1L, patch, null, admin);
+
+        // THEN
+        assertEquals(Role.MONITOR, result.getRole());
+        verify(userRepository).saveAndFlush(testUser);
+    }
 }
@@ -0,0 +1,97 @@
+package com.eduextra.waitingroom.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("AdmissionQueue Tests")
+class AdmissionQueueTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final long MILLI = 1_000_000L;
+
+    private AdmissionQueue newQueue() {
+        // 10 per second, between 2 and 40, 250 ms target, adjusted every second
+        return new AdmissionQueue(10, 2, 40, 5, 250 * MILLI, SECOND, 0);
+    }
+
+    @Test
+    @DisplayName("Debería admitir en orden al ritmo configurado y cerrar el paso directo mientras haya cola")
+    void enqueue_ShouldAdmitInOrderAtTheRate() {
+        // GIVEN
+        AdmissionQueue queue = newQueue();
+        long first = 0;
+        long last = 0;
+        for (int k = 0; k < 30; k++) {
+            last = queue.enqueue(0);
+            if (k == 0) {
+                first = last;
+            }
+        }
+
+        // THEN: the first second of tokens goes at once, the rest waits
+        assertEquals(0, queue.position(first, 0));
+        assertEquals(20, queue.position(last, 0));
+        assertFalse(queue.tryEnterDirectly(0));
+
+        // WHEN: half a second later
+        assertEquals(15, queue.position(last, SECOND / 2));
+
+        // WHEN: the queue has drained and the bucket refilled
+        assertEquals(0, queue.waiting(3 * SECOND));
+        assertTrue(queue.tryEnterDirectly(3 * SECOND));
+    }
+
+    @Test
+    @DisplayName("Debería bajar el ritmo con latencia alta y subirlo con latencia baja y demanda")
+    void recordLatency_ShouldAdaptTheRate() {
+        // GIVEN
+        AdmissionQueue queue = newQueue();
+        for (int k = 0; k < 100; k++) {
+            queue.enqueue(0);
+        }
+
+        // WHEN: slow requests
+        queue.recordLatency(400 * MILLI);
+        queue.recordLatency(600 * MILLI);
+        queue.waiting(SECOND);
+
+        // THEN
+        assertEquals(7, queue.rate(), 1e-9);
+
+        // WHEN: fast requests while students are still waiting
+        queue.recordLatency(50 * MILLI);
+        queue.waiting(2 * SECOND);
+
+        // THEN
+        assertEquals(12, queue.rate(), 1e-9);
+
+        // WHEN: no demand left
+        queue.waiting(60 * SECOND);
+        queue.waiting(61 * SECOND);
+        queue.recordLatency(50 * MILLI);
+        queue.waiting(62 * SECOND);
+
+        // THEN
+        assertEquals(12, queue.rate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Debería mantener el ritmo dentro de los límites")
+    void recordLatency_ShouldStayWithinBounds() {
+        // GIVEN
+        AdmissionQueue queue = newQueue();
+
+        // WHEN
+        for (int s = 1; s <= 20; s++) {
+            queue.recordLatency(5 * SECOND);
+            queue.waiting(s * SECOND);
+        }
+
+        // THEN
+        assertEquals(2, queue.rate(), 1e-9);
+    }
+}
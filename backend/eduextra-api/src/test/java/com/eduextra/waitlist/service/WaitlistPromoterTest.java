@@ -0,0 +1,197 @@
+package com.eduextra.waitlist.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.activity.model.ActivityStatus;
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.activity.repository.ActivitySeats;
+import com.eduextra.enrollment.service.EnrollmentService;
+import com.eduextra.exception.ActivityFullException;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.user.repository.UserRepository;
+import com.eduextra.waitlist.event.WaitlistPromoted;
+import com.eduextra.waitlist.model.WaitlistEntry;
+import com.eduextra.waitlist.repository.WaitlistEntryRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WaitlistPromoter Tests")
+class WaitlistPromoterTest {
+
+    private static final Long ACTIVITY_ID = 1L;
+
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Mock
+    private ActivityRepository activityRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EnrollmentService enrollmentService;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private WaitlistPromoter waitlistPromoter;
+
+    @BeforeEach
+    void setUp() {
+        waitlistPromoter = new WaitlistPromoter(waitlistEntryRepository, activityRepository, userRepository,
+                enrollmentService, waitlistService, outboxService, transactionTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(waitlistPromoter, "batchSize", 100);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private void givenActivity(ActivityStatus status, int capacity, int seatsTaken) {
+        when(activityRepository.findSeatsById(ACTIVITY_ID))
+                .thenReturn(Optional.of(new ActivitySeats(ACTIVITY_ID, capacity, seatsTaken, status)));
+    }
+
+    private void givenWaiting(Long... studentIds) {
+        List<WaitlistEntry> entries = Arrays.stream(studentIds)
+                .map(studentId -> WaitlistEntry.builder()
+                        .id(studentId)
+                        .activityId(ACTIVITY_ID)
+                        .studentId(studentId)
+                        .joinedAt(LocalDateTime.now())
+                        .build())
+                .toList();
+        when(waitlistEntryRepository.findNext(eq(ACTIVITY_ID), any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(1);
+            return entries.subList(0, Math.min(entries.size(), pageable.getPageSize()));
+        });
+    }
+
+    @Test
+    @DisplayName("Debería promocionar tantos estudiantes como plazas libres")
+    void promote_ShouldFillFreeSeatsFromTheHeadOfTheWaitlist() {
+        // GIVEN
+        givenActivity(ActivityStatus.OPEN, 10, 8);
+        givenWaiting(21L, 22L, 23L);
+        when(userRepository.findActiveIdsByIdIn(List.of(21L, 22L))).thenReturn(List.of(21L, 22L));
+        when(enrollmentService.enrollFromWaitlist(ACTIVITY_ID, List.of(21L, 22L))).thenReturn(List.of(21L, 22L));
+
+        // WHEN
+        boolean again = waitlistPromoter.promote(ACTIVITY_ID);
+
+        // THEN
+        assertFalse(again);
+        verify(waitlistEntryRepository).deleteByActivityIdAndStudentIds(ACTIVITY_ID, List.of(21L, 22L));
+        verify(waitlistService).publishChanged(ACTIVITY_ID, List.of(21L, 22L));
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(outboxService).append(any(), eq(ACTIVITY_ID), payload.capture());
+        assertEquals(new WaitlistPromoted(ACTIVITY_ID, List.of(21L, 22L)), payload.getValue());
+    }
+
+    @Test
+    @DisplayName("Debería sacar de la lista a los estudiantes desactivados sin inscribirlos")
+    void promote_WithDisabledStudent_ShouldDropItAndLookAgain() {
+        // GIVEN
+        givenActivity(ActivityStatus.OPEN, 10, 8);
+        givenWaiting(21L, 22L);
+        when(userRepository.findActiveIdsByIdIn(List.of(21L, 22L))).thenReturn(List.of(22L));
+        when(enrollmentService.enrollFromWaitlist(ACTIVITY_ID, List.of(22L))).thenReturn(List.of(22L));
+
+        // WHEN
+        boolean again = waitlistPromoter.promote(ACTIVITY_ID);
+
+        // THEN
+        assertTrue(again);
+        verify(waitlistEntryRepository).deleteByActivityIdAndStudentIds(ACTIVITY_ID, List.of(21L, 22L));
+    }
+
+    @Test
+    @DisplayName("No debería promocionar en actividades cerradas o sin plazas")
+    void promote_WithClosedOrFullActivity_ShouldDoNothing() {
+        // GIVEN
+        givenActivity(ActivityStatus.CLOSED, 10, 2);
+
+        // WHEN
+        boolean again = waitlistPromoter.promote(ACTIVITY_ID);
+
+        // THEN
+        assertFalse(again);
+        verify(waitlistEntryRepository, never()).findNext(any(), any());
+        verify(enrollmentService, never()).enrollFromWaitlist(any(), anyList());
+    }
+
+    @Test
+    @DisplayName("Debería quitar de la cola en memoria a los candidatos solo tras el commit")
+    void promote_ShouldUpdateQueueAfterCommit() {
+        // GIVEN
+        givenActivity(ActivityStatus.OPEN, 10, 9);
+        givenWaiting(21L);
+        when(userRepository.findActiveIdsByIdIn(List.of(21L))).thenReturn(List.of(21L));
+        when(enrollmentService.enrollFromWaitlist(ACTIVITY_ID, List.of(21L))).thenReturn(List.of(21L));
+
+        // WHEN
+        waitlistPromoter.promote(ACTIVITY_ID);
+
+        // THEN
+        verify(waitlistService, never()).removeFromQueue(any(), any());
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCommit());
+        verify(waitlistService).removeFromQueue(ACTIVITY_ID, List.of(21L));
+    }
+
+    @Test
+    @DisplayName("Debería reintentar la actividad en la siguiente pasada si otro nodo ocupó las plazas")
+    @SuppressWarnings("unchecked")
+    void promotePending_WhenSeatsTakenMeanwhile_ShouldRetryNextPass() {
+        // GIVEN
+        when(transactionTemplate.execute(any(TransactionCallback.class)))
+                .thenThrow(new ActivityFullException("Activity is full"))
+                .thenReturn(false);
+        waitlistPromoter.markDirty(ACTIVITY_ID);
+
+        // WHEN
+        waitlistPromoter.promotePending();
+        waitlistPromoter.promotePending();
+        waitlistPromoter.promotePending();
+
+        // THEN
+        verify(transactionTemplate, times(2)).execute(any(TransactionCallback.class));
+    }
+}
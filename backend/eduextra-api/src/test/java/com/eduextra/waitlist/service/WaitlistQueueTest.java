@@ -0,0 +1,107 @@
+package com.eduextra.waitlist.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("WaitlistQueue Tests")
+class WaitlistQueueTest {
+
+    @Test
+    @DisplayName("Debería ordenar por prioridad y después por orden de llegada")
+    void position_ShouldFollowPriorityThenJoinOrder() {
+        // GIVEN
+        WaitlistQueue queue = new WaitlistQueue();
+        queue.add(10, 0, 1);
+        queue.add(11, 0, 2);
+        queue.add(12, 5, 3);
+        queue.add(13, 0, 4);
+
+        // WHEN & THEN
+        assertEquals(List.of(12L, 10L, 11L, 13L), queue.peek(10));
+        assertEquals(1, queue.position(12));
+        assertEquals(2, queue.position(10));
+        assertEquals(4, queue.position(13));
+        assertEquals(0, queue.position(99));
+    }
+
+    @Test
+    @DisplayName("Debería mover a un estudiante al volver a añadirlo con otra prioridad")
+    void add_WithExistingStudent_ShouldMoveInsteadOfDuplicating() {
+        // GIVEN
+        WaitlistQueue queue = new WaitlistQueue();
+        queue.add(10, 0, 1);
+        queue.add(11, 0, 2);
+        queue.add(12, 0, 3);
+
+        // WHEN
+        queue.add(12, 10, 3);
+
+        // THEN
+        assertEquals(3, queue.size());
+        assertEquals(1, queue.position(12));
+        assertEquals(2, queue.position(10));
+    }
+
+    @Test
+    @DisplayName("Debería quitar estudiantes y recalcular las posiciones de los demás")
+    void remove_ShouldShiftLaterPositions() {
+        // GIVEN
+        WaitlistQueue queue = new WaitlistQueue();
+        queue.add(10, 0, 1);
+        queue.add(11, 0, 2);
+        queue.add(12, 0, 3);
+
+        // WHEN
+        boolean removed = queue.remove(10);
+
+        // THEN
+        assertTrue(removed);
+        assertFalse(queue.remove(10));
+        assertEquals(0, queue.position(10));
+        assertEquals(1, queue.position(11));
+        assertEquals(2, queue.position(12));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    @DisplayName("Debería coincidir con una lista ordenada tras muchas operaciones al azar")
+    void randomOperations_ShouldMatchSortedList() {
+        // GIVEN
+        WaitlistQueue queue = new WaitlistQueue();
+        Map<Long, long[]> expected = new HashMap<>(); // studentId -> {priority, seq}
+        Random random = new Random(42);
+        long seq = 0;
+
+        // WHEN
+        for (int i = 0; i < 5_000; i++) {
+            long studentId = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(studentId) != null, queue.remove(studentId));
+            } else {
+                int priority = random.nextInt(4);
+                queue.add(studentId, priority, ++seq);
+                expected.put(studentId, new long[] {priority, seq});
+            }
+        }
+
+        // THEN
+        List<Long> order = new ArrayList<>(expected.keySet());
+        order.sort(Comparator.<Long>comparingLong(id -> -expected.get(id)[0]).thenComparingLong(id -> expected.get(id)[1]));
+        assertEquals(order.size(), queue.size());
+        assertEquals(order, queue.peek(order.size()));
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i + 1, queue.position(order.get(i)));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.eduextra.waitlist.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eduextra.activity.repository.ActivityRepository;
+import com.eduextra.enrollment.dto.EnrollmentResponseDTO;
+import com.eduextra.enrollment.repository.EnrollmentRepository;
+import com.eduextra.enrollment.service.EnrollmentService;
+import com.eduextra.outbox.service.OutboxService;
+import com.eduextra.schedule.service.ScheduleIndex;
+import com.eduextra.user.model.Role;
+import com.eduextra.waitlist.event.WaitlistChanged;
+import com.eduextra.waitlist.model.WaitlistEntry;
+import com.eduextra.waitlist.repository.WaitlistEntryRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WaitlistService Tests")
+class WaitlistServiceTest {
+
+    private static final Long ACTIVITY_ID = 1L;
+
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private ActivityRepository activityRepository;
+
+    @Mock
+    private EnrollmentService enrollmentService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ScheduleIndex scheduleIndex;
+
+    @Mock
+    private OutboxService outboxService;
+
+    private WaitlistService waitlistService;
+
+    @BeforeEach
+    void setUp() {
+        waitlistService = new WaitlistService(waitlistEntryRepository, enrollmentRepository, activityRepository,
+                enrollmentService, transactionTemplate, scheduleIndex, outboxService, new SimpleMeterRegistry());
+    }
+
+    private WaitlistEntry entry(Long id, Long studentId) {
+        return WaitlistEntry.builder()
+                .id(id)
+                .activityId(ACTIVITY_ID)
+                .studentId(studentId)
+                .joinedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("No debería saltarse una lista de espera creada en otro nodo")
+    @SuppressWarnings("unchecked")
+    void enrollOrJoin_WithWaitlistOnlyInDatabase_ShouldJoinInsteadOfEnrolling() {
+        // GIVEN: this node's queue is empty, but another node has students waiting
+        when(waitlistEntryRepository.existsByActivityId(ACTIVITY_ID)).thenReturn(true);
+        when(activityRepository.existsById(ACTIVITY_ID)).thenReturn(true);
+        when(waitlistEntryRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            WaitlistEntry saved = invocation.getArgument(0);
+            saved.setId(7L);
+            return saved;
+        });
+        when(transactionTemplate.execute(any(TransactionCallback.class))).thenAnswer(invocation -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                Object result = invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null);
+                TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCommit());
+                return result;
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+
+        // WHEN
+        EnrollmentResponseDTO response = waitlistService.enrollOrJoin(ACTIVITY_ID, 42L, Role.STUDENT);
+
+        // THEN
+        assertTrue(response.getWaitlisted());
+        assertEquals(1, response.getWaitlistPosition());
+        verify(enrollmentService, never()).enroll(anyLong(), anyLong(), any());
+        verify(outboxService).append(any(), any(), any(WaitlistChanged.class));
+    }
+
+    @Test
+    @DisplayName("Debería encontrar en la base de datos a un estudiante que se apuntó en otro nodo")
+    void getPosition_WithEntryMissingFromQueue_ShouldLoadItFromDatabase() {
+        // GIVEN
+        when(waitlistEntryRepository.findByActivityIdAndStudentIdIn(ACTIVITY_ID, List.of(42L)))
+                .thenReturn(List.of(entry(7L, 42L)));
+
+        // WHEN & THEN
+        assertEquals(1, waitlistService.getPosition(ACTIVITY_ID, 42L).getPosition());
+    }
+
+    @Test
+    @DisplayName("Debería aplicar en la cola los cambios hechos en otros nodos")
+    void refreshQueue_ShouldAddPresentAndRemoveMissingEntries() {
+        // GIVEN
+        when(waitlistEntryRepository.findByActivityIdAndStudentIdIn(ACTIVITY_ID, List.of(41L, 42L)))
+                .thenReturn(List.of(entry(5L, 41L), entry(7L, 42L)));
+        waitlistService.refreshQueue(ACTIVITY_ID, List.of(41L, 42L));
+        when(waitlistEntryRepository.findByActivityIdAndStudentIdIn(ACTIVITY_ID, List.of(41L)))
+                .thenReturn(List.of());
+
+        // WHEN
+        waitlistService.refreshQueue(ACTIVITY_ID, List.of(41L));
+
+        // THEN
+        assertEquals(1, waitlistService.waiting(ACTIVITY_ID));
+        assertEquals(1, waitlistService.getPosition(ACTIVITY_ID, 42L).getPosition());
+    }
+}
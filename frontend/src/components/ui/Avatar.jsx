@@ -31,6 +31,21 @@ const Avatar = forwardRef(({
         xl: 'w-16 h-16 text-xl'      // 64px - extra large
     };
     
+    // Rendered size in px, used to request a matching server-side thumbnail
+    const pixelSizes = {
+        xs: 24,
+        sm: 32,
+        md: 40,
+        lg: 48,
+        xl: 64
+    };
+
+    // Locally stored avatars (/avatars/...) accept a size parameter; request 2x for high-DPI screens
+    const getSizedSrc = (url) => {
+        if (!url || !url.includes('/avatars/') || url.includes('?')) return url;
+        return `${url}?size=${pixelSizes[size] * 2}`;
+    };
+    
     // Shape variant styles
     const shapeVariants = {
         rounded: 'rounded-full',
@@ -95,7 +110,7 @@ const Avatar = forwardRef(({
             >
                 {src ? (
                     <img
-                        src={src}
+                        src={getSizedSrc(src)}
                         alt={alt || 'Avatar'}
                         className={clsx(
                             'w-full h-full object-cover',